@@ -0,0 +1,43 @@
+package com.jnane.benchmarks;
+
+import com.jnane.compiler.AnnotationExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction des annotations {@code @field}/{@code @view} d'un source selon leur nombre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationExtractorBenchmark {
+
+    @Param({"4", "64"})
+    public int fields;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        source = Fixtures.source("f", fields, fields);
+    }
+
+    @Benchmark
+    public Object extract() {
+        return AnnotationExtractor.extractAnnotationsFromContent(source);
+    }
+}
@@ -0,0 +1,59 @@
+package com.jnane.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Sources Jnane synthétiques utilisées par les mesures ; les répertoires de fonctions sont
+ * produits par {@link com.jnane.compiler.CorpusGenerator}.
+ */
+final class Fixtures {
+
+    /** Namespace des fonctions générées. */
+    static final String NAMESPACE = "bench";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Source d'une fonction à un paramètre {@code base}, avec un nombre donné d'instructions
+     * et de champs annotés ; tous les champs sont définis et bien typés.
+     *
+     * @param name Nom de la fonction, sans namespace
+     * @param statements Nombre d'instructions du corps, au moins 1
+     * @param fields Nombre de champs annotés, au moins 1
+     * @return Source de la fonction
+     */
+    static String source(String name, int statements, int fields) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("@name ").append(NAMESPACE).append(':').append(name).append('\n');
+        sb.append("@name base\n");
+        for (int i = 1; i < fields; i++) {
+            sb.append(i % 2 == 0 ? "@field" : "@view").append(" champ").append(i).append(" : int\n");
+        }
+        sb.append("@field result : int\n{\n");
+        for (int i = 1; i < fields; i++) {
+            sb.append("    champ").append(i).append(" = base + ").append(i).append(";\n");
+        }
+        for (int i = fields; i < statements; i++) {
+            sb.append("    v").append(i).append(" = base + ").append(i).append(";\n");
+        }
+        sb.append("    result = base + 1;\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Supprime un répertoire et son contenu.
+     *
+     * @param root Répertoire
+     * @throws IOException En cas d'erreur de parcours
+     */
+    static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
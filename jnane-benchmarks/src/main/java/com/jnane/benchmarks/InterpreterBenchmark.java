@@ -0,0 +1,72 @@
+package com.jnane.benchmarks;
+
+import com.jnane.compiler.CorpusGenerator;
+import com.jnane.compiler.JnaneInterpreter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appel d'une fonction par {@link JnaneInterpreter#interpretFunctionCallWithNamedArgs}.
+ *
+ * <p>À froid, chaque mesure est le premier appel dans une JVM neuve : chargement du
+ * répertoire, analyse et compilation des validateurs compris. À chaud, l'interpréteur est
+ * réutilisé après l'échauffement.</p>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InterpreterBenchmark {
+
+    private static final Map<String, Object> ARGS = Map.of("base", 41);
+
+    private Path directory;
+    private String function;
+    private JnaneInterpreter interpreter;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jnane-bench");
+        // Une fonction de la dernière couche, sans appel : l'interpréteur ne transmet pas
+        // les arguments positionnels aux fonctions Jnane appelées
+        CorpusGenerator.Corpus corpus = new CorpusGenerator().functions(100).statements(20).generate(directory);
+        function = corpus.getFunctions().get(corpus.getFunctions().size() - 1);
+        interpreter = new JnaneInterpreter(directory.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Fixtures.delete(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public Object cold() {
+        return new JnaneInterpreter(directory.toString()).interpretFunctionCallWithNamedArgs(function, ARGS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public Object warm() {
+        return interpreter.interpretFunctionCallWithNamedArgs(function, ARGS);
+    }
+}
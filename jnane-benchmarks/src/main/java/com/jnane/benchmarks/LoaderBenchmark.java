@@ -0,0 +1,62 @@
+package com.jnane.benchmarks;
+
+import com.jnane.compiler.CorpusGenerator;
+import com.jnane.compiler.JnaneFunctionLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargement d'un corpus généré et détection des cycles
+ * ({@link JnaneFunctionLoader#loadFunctionsFromDirectory}) selon sa taille et le nombre
+ * d'appels par fonction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoaderBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int functions;
+
+    @Param({"1", "4"})
+    public int fanOut;
+
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jnane-bench");
+        new CorpusGenerator().functions(functions).fanOut(fanOut).generate(directory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Fixtures.delete(directory);
+    }
+
+    @Benchmark
+    public Map<String, JnaneFunctionLoader.FunctionInfo> load() throws IOException {
+        JnaneFunctionLoader loader = new JnaneFunctionLoader();
+        loader.loadFunctionsFromDirectory(directory.toString());
+        return loader.getFunctions();
+    }
+}
@@ -0,0 +1,43 @@
+package com.jnane.benchmarks;
+
+import com.jnane.compiler.script.Script;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyse syntaxique d'une fonction ({@link Script}) selon la taille de son corps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int statements;
+
+    private String source;
+
+    @Setup
+    public void setUp() {
+        source = Fixtures.source("f", statements, 4);
+    }
+
+    @Benchmark
+    public Object parse() {
+        return new Script(source, Fixtures.NAMESPACE, "f").getProgramContext();
+    }
+}
@@ -0,0 +1,55 @@
+package com.jnane.benchmarks;
+
+import com.jnane.compiler.script.LocalScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Résolution d'une variable à travers une chaîne de portées selon sa profondeur : variable
+ * définie dans la portée racine, puis variable absente de toute la chaîne.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScopeLookupBenchmark {
+
+    @Param({"1", "8", "64"})
+    public int depth;
+
+    private com.jnane.compiler.script.Scope innermost;
+
+    @Setup
+    public void setUp() {
+        com.jnane.compiler.script.Scope scope = new com.jnane.compiler.script.Scope();
+        scope.setVariableValue("racine", 42);
+        for (int i = 1; i < depth; i++) {
+            scope = new LocalScope(scope);
+            scope.setVariableValue("locale" + i, i);
+        }
+        innermost = scope;
+    }
+
+    @Benchmark
+    public Object lookupRoot() {
+        return innermost.getVariableValue("racine");
+    }
+
+    @Benchmark
+    public Object lookupMissing() {
+        return innermost.getVariableValue("absente");
+    }
+}
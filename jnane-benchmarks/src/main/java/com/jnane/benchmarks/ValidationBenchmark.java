@@ -0,0 +1,56 @@
+package com.jnane.benchmarks;
+
+import com.jnane.compiler.AnnotationExtractor;
+import com.jnane.compiler.FieldValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation des champs {@code @field}/{@code @view} d'une fonction après son exécution
+ * ({@link FieldValidator#validate}), tous les champs étant vérifiés à l'exécution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"4", "32"})
+    public int fields;
+
+    private FieldValidator validator;
+    private Map<String, Object> variables;
+
+    @Setup
+    public void setUp() {
+        Map<String, AnnotationExtractor.FieldInfo> annotations =
+                AnnotationExtractor.extractAnnotationsFromContent(Fixtures.source("f", fields, fields));
+        validator = FieldValidator.compile(annotations);
+        variables = new HashMap<>();
+        variables.put("base", 1);
+        for (String field : annotations.keySet()) {
+            variables.put(field, 2);
+        }
+    }
+
+    @Benchmark
+    public FieldValidator validate() {
+        validator.validate(variables);
+        return validator;
+    }
+}
@@ -319,13 +319,17 @@ viewOperation
     | 'ns:fusionner_vues' LPAREN arrayLiteral RPAREN
     | 'ns:projeter_vue' LPAREN expression COMMA arrayLiteral RPAREN
     | 'ns:filtrer_vue' LPAREN expression COMMA lambdaExpr RPAREN
+    | 'ns:somme' LPAREN expression RPAREN
+    | 'ns:moyenne' LPAREN expression RPAREN
+    | 'ns:minimum' LPAREN expression RPAREN
+    | 'ns:maximum' LPAREN expression RPAREN
     | 'ns:historique' LPAREN expression RPAREN
     | 'ns:etat_historique' LPAREN expression COMMA expression RPAREN
     | 'ns:vue_historique' LPAREN expression COMMA expression COMMA STRING RPAREN
     | 'ns:reconstruire_etat' LPAREN expression COMMA expression RPAREN
     | 'ns:reconstruire_vue' LPAREN expression COMMA expression COMMA STRING RPAREN
     | 'ns:journal_transformations' LPAREN expression RPAREN
-    | 'ns:filtrer_journal' LPAREN expression COMMA expression RPAREN
+    | 'ns:filtrer_journal' LPAREN expression COMMA (lambdaExpr | expression) RPAREN
     ;
 
 // Définition de lentille
@@ -423,13 +427,15 @@ postfixOp
 // Expressions primaires
 primaryExpr
     : literal
-    | ID
+    // Avant ID : « f(x) » est un appel, pas la variable f suivie d'une expression parenthésée
     | functionCallExpr
+    | ID
     | objectLiteral
     | arrayLiteral
     | LPAREN expression RPAREN
     | viewOperation
     | lensOperation
+    | lensDefinition
     ;
 
 // Appel de fonction - Restructuré pour éliminer la récursivité à gauche
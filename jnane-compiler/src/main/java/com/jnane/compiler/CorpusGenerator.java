@@ -0,0 +1,310 @@
+package com.jnane.compiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Générateur de corpus Jnane synthétiques pour les mesures et les tests de montée en charge.
+ *
+ * <p>Les fonctions sont réparties dans un arbre de namespaces ({@code gen.n0.n3:f42}) et
+ * organisées en couches : une fonction de la couche {@code c} appelle jusqu'à
+ * {@code fanOut} fonctions de la couche {@code c + 1}, si bien que la profondeur des
+ * dépendances est bornée par {@code depth}. Des cycles peuvent être injectés en ajoutant un
+ * appel de retour de la dernière couche vers la première. Pour une même configuration, la
+ * graine détermine entièrement le corpus produit.</p>
+ */
+public final class CorpusGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusGenerator.class);
+
+    /** Namespace racine des fonctions générées */
+    public static final String ROOT_NAMESPACE = "gen";
+
+    private int functions = 1000;
+    private int width = 8;
+    private int perNamespace = 16;
+    private int fanOut = 3;
+    private int depth = 6;
+    private int statements = 10;
+    private int annotations = 4;
+    private int optional = 1;
+    private int cycles = 0;
+    private long seed = 42;
+
+    /**
+     * Crée un générateur à partir d'options {@code clé=valeur}, par exemple
+     * {@code functions=100000 depth=12 cycles=2}.
+     *
+     * @param options Options ; clés : functions, width, perNamespace, fanOut, depth,
+     *                statements, annotations, optional, cycles, seed
+     * @return Générateur configuré
+     * @throws IllegalArgumentException si une option est inconnue ou invalide
+     */
+    public static CorpusGenerator fromOptions(List<String> options) {
+        CorpusGenerator generator = new CorpusGenerator();
+        for (String option : options) {
+            int equals = option.indexOf('=');
+            String key = equals > 0 ? option.substring(0, equals) : option;
+            long value;
+            try {
+                value = Long.parseLong(option.substring(equals + 1));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                String errorMsg = "Option de génération invalide, clé=entier attendu: " + option;
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            switch (key) {
+                case "functions": generator.functions((int) value); break;
+                case "width": generator.width((int) value); break;
+                case "perNamespace": generator.perNamespace((int) value); break;
+                case "fanOut": generator.fanOut((int) value); break;
+                case "depth": generator.depth((int) value); break;
+                case "statements": generator.statements((int) value); break;
+                case "annotations": generator.annotations((int) value); break;
+                case "optional": generator.optional((int) value); break;
+                case "cycles": generator.cycles((int) value); break;
+                case "seed": generator.seed(value); break;
+                default: {
+                    String errorMsg = "Option de génération inconnue: " + key;
+                    logger.error(errorMsg);
+                    throw new IllegalArgumentException(errorMsg);
+                }
+            }
+        }
+        return generator;
+    }
+
+    /** Nombre total de fonctions */
+    public CorpusGenerator functions(int functions) {
+        this.functions = functions;
+        return this;
+    }
+
+    /** Nombre de sous-namespaces par namespace */
+    public CorpusGenerator width(int width) {
+        this.width = width;
+        return this;
+    }
+
+    /** Nombre de fonctions par namespace */
+    public CorpusGenerator perNamespace(int perNamespace) {
+        this.perNamespace = perNamespace;
+        return this;
+    }
+
+    /** Nombre maximal d'appels vers la couche suivante par fonction */
+    public CorpusGenerator fanOut(int fanOut) {
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    /** Nombre de couches, soit la longueur maximale d'une chaîne d'appels */
+    public CorpusGenerator depth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    /** Nombre d'affectations du corps, hors appels */
+    public CorpusGenerator statements(int statements) {
+        this.statements = statements;
+        return this;
+    }
+
+    /** Nombre de champs {@code @field}/{@code @view} en plus de {@code result} */
+    public CorpusGenerator annotations(int annotations) {
+        this.annotations = annotations;
+        return this;
+    }
+
+    /** Nombre maximal de paramètres {@code @optional} par fonction */
+    public CorpusGenerator optional(int optional) {
+        this.optional = optional;
+        return this;
+    }
+
+    /** Nombre de cycles d'appels injectés */
+    public CorpusGenerator cycles(int cycles) {
+        this.cycles = cycles;
+        return this;
+    }
+
+    /** Graine du générateur pseudo-aléatoire */
+    public CorpusGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Génère le corpus sous un répertoire ; les fichiers existants de même nom sont remplacés.
+     *
+     * @param root Répertoire racine, passé ensuite à {@link JnaneFunctionLoader#loadFunctionsFromDirectory}
+     * @return Description du corpus généré
+     * @throws IOException En cas d'erreur d'écriture
+     * @throws IllegalArgumentException si la configuration est invalide
+     */
+    public Corpus generate(Path root) throws IOException {
+        validate();
+        Random random = new Random(seed);
+        String[] names = new String[functions];
+        for (int i = 0; i < functions; i++) {
+            names[i] = namespaceOf(i) + ":f" + i;
+        }
+
+        // Appels vers la couche suivante, puis appels de retour fermant les cycles
+        int[][] calls = new int[functions][];
+        for (int i = 0; i < functions; i++) {
+            int layer = layerOf(i);
+            if (layer == depth - 1) {
+                calls[i] = new int[0];
+                continue;
+            }
+            int first = firstOf(layer + 1);
+            int size = firstOf(layer + 2) - first;
+            int count = Math.min(size, 1 + random.nextInt(fanOut));
+            int[] callees = new int[count];
+            for (int c = 0; c < count; c++) {
+                callees[c] = first + random.nextInt(size);
+            }
+            calls[i] = callees;
+        }
+        List<List<String>> injected = new ArrayList<>();
+        for (int c = 0; c < cycles; c++) {
+            int start = random.nextInt(firstOf(1));
+            List<String> cycle = new ArrayList<>();
+            int current = start;
+            cycle.add(names[current]);
+            while (layerOf(current) < depth - 1) {
+                current = calls[current][0];
+                cycle.add(names[current]);
+            }
+            int[] closing = new int[calls[current].length + 1];
+            System.arraycopy(calls[current], 0, closing, 0, calls[current].length);
+            closing[closing.length - 1] = start;
+            calls[current] = closing;
+            injected.add(Collections.unmodifiableList(cycle));
+        }
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < functions; i++) {
+            String namespace = namespaceOf(i);
+            Path directory = Files.createDirectories(root.resolve(namespace.replace('.', '/')));
+            Files.writeString(directory.resolve("f" + i + ".jn"),
+                    source(names[i], calls[i], names, random));
+        }
+        logger.info("Corpus généré dans {}: {} fonctions, {} couches, {} cycles injectés en {} ms",
+                root, functions, depth, cycles, (System.nanoTime() - begin) / 1_000_000);
+        return new Corpus(root, Collections.unmodifiableList(Arrays.asList(names)),
+                Collections.unmodifiableList(injected));
+    }
+
+    private void validate() {
+        // Chaque couche doit contenir au moins une fonction
+        if (functions < 1 || width < 1 || perNamespace < 1 || fanOut < 1 || depth < 1 || depth > functions
+                || statements < 0 || annotations < 0 || optional < 0 || cycles < 0) {
+            String errorMsg = "Configuration de corpus invalide: functions=" + functions + ", width=" + width
+                    + ", perNamespace=" + perNamespace + ", fanOut=" + fanOut + ", depth=" + depth
+                    + ", statements=" + statements + ", annotations=" + annotations + ", optional=" + optional
+                    + ", cycles=" + cycles;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+    }
+
+    /**
+     * Couche d'une fonction : les fonctions sont réparties en {@code depth} couches contiguës.
+     */
+    private int layerOf(int index) {
+        return (int) ((long) index * depth / functions);
+    }
+
+    /**
+     * Première fonction d'une couche, {@code functions} au-delà de la dernière.
+     */
+    private int firstOf(int layer) {
+        if (layer >= depth) {
+            return functions;
+        }
+        return (int) (((long) layer * functions + depth - 1) / depth);
+    }
+
+    /**
+     * Namespace d'une fonction : le numéro de son namespace écrit en base {@code width},
+     * un segment par chiffre.
+     */
+    private String namespaceOf(int index) {
+        int namespace = index / perNamespace;
+        StringBuilder path = new StringBuilder();
+        do {
+            path.insert(0, ".n" + namespace % width);
+            namespace /= width;
+        } while (namespace > 0);
+        return ROOT_NAMESPACE + path;
+    }
+
+    private String source(String name, int[] callees, String[] names, Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("@name ").append(name).append('\n');
+        sb.append("@name base\n");
+        int optionals = optional == 0 ? 0 : random.nextInt(optional + 1);
+        for (int o = 0; o < optionals; o++) {
+            sb.append("@optional\n@name option").append(o).append('\n');
+        }
+        for (int a = 0; a < annotations; a++) {
+            sb.append(a % 2 == 0 ? "@field" : "@view").append(" champ").append(a).append(" : int\n");
+        }
+        sb.append("@field result : int\n{\n");
+        for (int c = 0; c < callees.length; c++) {
+            sb.append("    appel").append(c).append(" = ").append(names[callees[c]]).append("(base);\n");
+        }
+        for (int a = 0; a < annotations; a++) {
+            sb.append("    champ").append(a).append(" = base + ").append(a).append(";\n");
+        }
+        for (int s = 0; s < statements; s++) {
+            sb.append("    v").append(s).append(" = base + ").append(random.nextInt(1000)).append(";\n");
+        }
+        sb.append("    result = base + 1;\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Corpus généré : répertoire racine, noms des fonctions par indice et cycles injectés.
+     */
+    public static final class Corpus {
+        private final Path root;
+        private final List<String> functions;
+        private final List<List<String>> cycles;
+
+        Corpus(Path root, List<String> functions, List<List<String>> cycles) {
+            this.root = root;
+            this.functions = functions;
+            this.cycles = cycles;
+        }
+
+        public Path getRoot() {
+            return root;
+        }
+
+        /**
+         * Noms complets des fonctions ; la première appartient à la couche d'entrée.
+         */
+        public List<String> getFunctions() {
+            return functions;
+        }
+
+        /**
+         * Cycles injectés, chacun décrit par la chaîne d'appels que ferme l'appel de retour
+         * vers sa première fonction.
+         */
+        public List<List<String>> getCycles() {
+            return cycles;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jnane.compiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Client léger du {@link JnaneDaemon} : transmet une requête et relaie la réponse sur les
+ * sorties du processus. Les chemins sont résolus dans le répertoire courant du client avant
+ * l'envoi, le démon pouvant avoir été lancé ailleurs. Le jeton présenté au démon est lu dans
+ * son fichier, que seul l'utilisateur qui a lancé le démon peut lire.
+ */
+public final class DaemonClient {
+    private static final Logger logger = LoggerFactory.getLogger(DaemonClient.class);
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Envoie une requête au démon.
+     *
+     * @param port Port du démon sur la boucle locale
+     * @param request Commande et arguments
+     * @param out Sortie standard
+     * @param err Sortie des erreurs
+     * @return Code de sortie retourné par le démon, 2 si le démon est injoignable ou si son
+     *         jeton est illisible
+     * @throws IOException En cas d'erreur de communication
+     */
+    public static int send(int port, String[] request, PrintStream out, PrintStream err) throws IOException {
+        String[] fields = request.clone();
+        // check <chemin> et run <répertoire> ... : chemins absolus pour le démon
+        if ((fields[0].equals("check") || fields[0].equals("run")) && fields.length > 1) {
+            fields[1] = Paths.get(fields[1]).toAbsolutePath().normalize().toString();
+        }
+
+        Path tokenFile = JnaneDaemon.tokenFile(port);
+        if (!Files.isReadable(tokenFile)) {
+            err.println("Aucun démon Jnane à l'écoute sur le port " + port + " pour cet utilisateur (jeton "
+                    + tokenFile + " introuvable, lancer --daemon)");
+            return 2;
+        }
+        String token = Files.readString(tokenFile, StandardCharsets.UTF_8).trim();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            writer.write(token);
+            writer.newLine();
+            writer.write(String.join(JnaneDaemon.FIELD_SEPARATOR, fields));
+            writer.newLine();
+            writer.flush();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("O ")) {
+                    out.println(line.substring(2));
+                } else if (line.startsWith("E ")) {
+                    err.println(line.substring(2));
+                } else if (line.startsWith("S ")) {
+                    return Integer.parseInt(line.substring(2).trim());
+                }
+            }
+            logger.error("Réponse du démon interrompue avant le statut");
+            throw new IOException("Réponse du démon interrompue avant le statut");
+        } catch (ConnectException e) {
+            err.println("Aucun démon Jnane à l'écoute sur le port " + port + " (lancer --daemon)");
+            return 2;
+        }
+    }
+}
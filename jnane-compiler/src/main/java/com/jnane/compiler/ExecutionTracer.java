@@ -0,0 +1,31 @@
+package com.jnane.compiler;
+
+/**
+ * Observateur de l'exécution d'un interpréteur : lectures de variables et appels de
+ * fonctions chargées. Le traceur est transmis aux interpréteurs des fonctions appelées ;
+ * les lectures qu'ils signalent ont lieu entre {@link #functionEntered} et
+ * {@link #functionExited}.
+ */
+public interface ExecutionTracer {
+
+    /**
+     * Signale la lecture d'une variable.
+     *
+     * @param name Nom de la variable
+     */
+    void variableRead(String name);
+
+    /**
+     * Signale l'entrée dans une fonction chargée.
+     *
+     * @param functionName Nom complet de la fonction
+     */
+    void functionEntered(String functionName);
+
+    /**
+     * Signale la sortie d'une fonction chargée, normale ou sur erreur.
+     *
+     * @param functionName Nom complet de la fonction
+     */
+    void functionExited(String functionName);
+}
@@ -0,0 +1,289 @@
+package com.jnane.compiler;
+
+import com.jnane.compiler.script.Script;
+import com.jnane.runtime.metrics.CacheMetrics;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import com.jnane.runtime.value.TypeChecks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validateur précompilé des champs annotés {@code @field} et {@code @view} d'une fonction.
+ * Les annotations sont extraites une seule fois par fichier ; chaque type déclaré est
+ * compilé par {@link TypeChecks} en une vérification par identité de classe, y compris les
+ * types génériques ({@code List<Etat>}, {@code Map<string, int>}, {@code Option<int>}).
+ *
+ * <p>À la compilation, l'{@link TypeInference inférence de types} du corps de la fonction
+ * écarte les champs dont le type est prouvé : seuls les champs pour lesquels elle n'est pas
+ * concluante sont vérifiés à l'exécution, et une fonction entièrement prouvée n'est plus
+ * vérifiée du tout ({@link #isVerified()}).</p>
+ *
+ * <p>Les validateurs sont mis en cache par chemin de fichier et recompilés si le fichier
+ * est modifié ou si le type de retour d'une fonction appelée a changé. Un type inconnu
+ * (type utilisateur, enregistrement) accepte toute valeur non nulle.</p>
+ */
+public final class FieldValidator {
+    private static final Logger logger = LoggerFactory.getLogger(FieldValidator.class);
+
+    private static final Map<Path, FieldValidator> CACHE = new ConcurrentHashMap<>();
+    private static final Map<Path, Annotations> ANNOTATIONS = new ConcurrentHashMap<>();
+
+    // Succès et échecs des deux caches dans le registre des mesures, null si les mesures sont désactivées
+    private static final CacheMetrics VALIDATOR_METRICS =
+            MetricsRegistry.isEnabledByDefault() ? MetricsRegistry.getDefault().cache("validators") : null;
+    private static final CacheMetrics ANNOTATION_METRICS =
+            MetricsRegistry.isEnabledByDefault() ? MetricsRegistry.getDefault().cache("annotations") : null;
+
+    /**
+     * Vérification compilée d'un type déclaré.
+     */
+    public interface TypeCheck extends TypeChecks.TypeCheck {
+    }
+
+    private final long lastModified;
+    private final Entry[] entries;
+    private final int fieldCount;
+    private final Map<String, String> dependencies;
+
+    private FieldValidator(long lastModified, Entry[] entries, int fieldCount, Map<String, String> dependencies) {
+        this.lastModified = lastModified;
+        this.entries = entries;
+        this.fieldCount = fieldCount;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Retourne le validateur d'un fichier de fonction, compilé au premier appel, sans
+     * signature connue pour les fonctions appelées.
+     *
+     * @param filePath Chemin du fichier
+     * @return Validateur
+     * @throws IOException En cas d'erreur de lecture du fichier
+     */
+    public static FieldValidator forFile(String filePath) throws IOException {
+        return forFile(filePath, functionName -> null);
+    }
+
+    /**
+     * Retourne le validateur d'un fichier de fonction, compilé au premier appel.
+     *
+     * @param filePath Chemin du fichier
+     * @param resolver Types de retour des fonctions appelées
+     * @return Validateur
+     * @throws IOException En cas d'erreur de lecture du fichier
+     */
+    public static FieldValidator forFile(String filePath, TypeInference.SignatureResolver resolver) throws IOException {
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        FieldValidator validator = CACHE.get(path);
+        if (validator != null && validator.lastModified == modified && validator.dependenciesMatch(resolver)) {
+            if (VALIDATOR_METRICS != null) {
+                VALIDATOR_METRICS.hit();
+            }
+        } else {
+            if (VALIDATOR_METRICS != null) {
+                VALIDATOR_METRICS.miss();
+            }
+            Map<String, AnnotationExtractor.FieldInfo> annotations = annotations(path, filePath, modified);
+            TypeInference.Result inference = TypeInference.infer(new Script(filePath).getProgramContext(), resolver);
+            validator = compile(annotations, inference, modified);
+            CACHE.put(path, validator);
+            logger.debug("Validateur compilé pour {}: {} champ(s), {} vérifié(s) à l'exécution",
+                    filePath, validator.fieldCount, validator.entries.length);
+        }
+        return validator;
+    }
+
+    /**
+     * Retourne le type déclaré d'un champ d'un fichier de fonction.
+     *
+     * @param filePath Chemin du fichier
+     * @param field Nom du champ
+     * @return Type déclaré, null si le champ n'est pas annoté
+     * @throws IOException En cas d'erreur de lecture du fichier
+     */
+    public static String declaredType(String filePath, String field) throws IOException {
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        AnnotationExtractor.FieldInfo info = annotations(path, filePath, Files.getLastModifiedTime(path).toMillis()).get(field);
+        return info != null ? info.getType() : null;
+    }
+
+    private static Map<String, AnnotationExtractor.FieldInfo> annotations(Path path, String filePath, long modified)
+            throws IOException {
+        Annotations cached = ANNOTATIONS.get(path);
+        if (cached != null && cached.lastModified == modified) {
+            if (ANNOTATION_METRICS != null) {
+                ANNOTATION_METRICS.hit();
+            }
+        } else {
+            if (ANNOTATION_METRICS != null) {
+                ANNOTATION_METRICS.miss();
+            }
+            cached = new Annotations(modified, AnnotationExtractor.extractAnnotations(filePath));
+            ANNOTATIONS.put(path, cached);
+        }
+        return cached.fields;
+    }
+
+    /**
+     * Compile un validateur à partir d'annotations déjà extraites, sans inférence : tous
+     * les champs sont vérifiés à l'exécution.
+     *
+     * @param annotations Annotations par nom de champ
+     * @return Validateur
+     */
+    public static FieldValidator compile(Map<String, AnnotationExtractor.FieldInfo> annotations) {
+        return compile(annotations, null, 0);
+    }
+
+    private static FieldValidator compile(Map<String, AnnotationExtractor.FieldInfo> annotations,
+                                          TypeInference.Result inference, long lastModified) {
+        List<Entry> entries = new ArrayList<>();
+        for (AnnotationExtractor.FieldInfo info : annotations.values()) {
+            TypeInference.Verdict verdict = inference != null
+                    ? inference.check(info.getName(), info.getType())
+                    : TypeInference.Verdict.INCONCLUSIVE;
+            if (verdict == TypeInference.Verdict.PROVEN) {
+                logger.debug("Type prouvé statiquement: {}", info);
+                continue;
+            }
+            if (verdict == TypeInference.Verdict.VIOLATED) {
+                logger.warn("Type inféré incompatible pour {}: {}", info, inference.typeOf(info.getName()));
+            }
+            entries.add(new Entry(info, TypeChecks.compile(info.getType())));
+        }
+        return new FieldValidator(lastModified, entries.toArray(new Entry[0]), annotations.size(),
+                inference != null ? inference.getCallees() : Map.of());
+    }
+
+    /**
+     * Vérifie que les fonctions appelées ont toujours le type de retour utilisé par l'inférence.
+     */
+    private boolean dependenciesMatch(TypeInference.SignatureResolver resolver) {
+        for (Map.Entry<String, String> dependency : dependencies.entrySet()) {
+            String declared = resolver.returnType(dependency.getKey());
+            String current = declared != null ? TypeInference.canonical(declared) : TypeInference.UNKNOWN;
+            if (!current.equals(dependency.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Valide les champs annotés.
+     *
+     * @param variables Variables définies par la fonction
+     * @throws IllegalStateException si un champ n'est pas défini ou a un type incorrect
+     */
+    public void validate(Map<String, Object> variables) {
+        for (Entry entry : entries) {
+            Object value = variables.get(entry.name);
+            if (value == null && !variables.containsKey(entry.name)) {
+                String errorMsg = "Champ annoté non défini: " + entry.info;
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+            if (!entry.check.accepts(value)) {
+                String errorMsg = String.format(
+                        "Type incompatible pour le champ %s: attendu %s, trouvé %s",
+                        entry.name,
+                        entry.info.getType(),
+                        (value != null ? value.getClass().getSimpleName() : "null"));
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+        }
+    }
+
+    /**
+     * Retourne le nombre de champs vérifiés à l'exécution.
+     *
+     * @return Nombre de champs
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Retourne les champs vérifiés à l'exécution et leur type déclaré.
+     *
+     * @return Types déclarés par nom de champ, dans l'ordre des annotations
+     */
+    public Map<String, String> getCheckedFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            fields.put(entry.name, entry.info.getType());
+        }
+        return fields;
+    }
+
+    /**
+     * Indique si tous les champs annotés sont prouvés par l'inférence, auquel cas la
+     * fonction n'a plus besoin d'être validée à l'exécution.
+     *
+     * @return true si aucun champ ne reste à vérifier
+     */
+    public boolean isVerified() {
+        return entries.length == 0;
+    }
+
+    /**
+     * Normalise un nom de type de base : minuscules et synonymes ({@code Integer},
+     * {@code float}, {@code Liste}).
+     *
+     * @param name Nom de type
+     * @return Nom canonique
+     */
+    public static String normalize(String name) {
+        return TypeChecks.normalize(name);
+    }
+
+    /**
+     * Compile un type déclaré ({@code int}, {@code List<Etat>}, {@code Map<string, int>}...).
+     *
+     * @param declaredType Type déclaré
+     * @return Vérification du type
+     */
+    public static TypeCheck compileType(String declaredType) {
+        return TypeChecks.compile(declaredType)::accepts;
+    }
+
+    /**
+     * Champ validé : nom et vérification compilée de son type.
+     */
+    private static final class Entry {
+        private final String name;
+        private final AnnotationExtractor.FieldInfo info;
+        private final TypeChecks.TypeCheck check;
+
+        Entry(AnnotationExtractor.FieldInfo info, TypeChecks.TypeCheck check) {
+            this.name = info.getName();
+            this.info = info;
+            this.check = check;
+        }
+    }
+
+    /**
+     * Annotations d'un fichier, à sa date de modification.
+     */
+    private static final class Annotations {
+        private final long lastModified;
+        private final Map<String, AnnotationExtractor.FieldInfo> fields;
+
+        Annotations(long lastModified, Map<String, AnnotationExtractor.FieldInfo> fields) {
+            this.lastModified = lastModified;
+            this.fields = fields;
+        }
+    }
+}
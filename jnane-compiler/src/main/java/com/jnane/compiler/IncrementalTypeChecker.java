@@ -0,0 +1,398 @@
+package com.jnane.compiler;
+
+import com.jnane.compiler.script.Script;
+import com.jnane.runtime.builtin.BuiltinFunction;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Vérification incrémentale des types de toutes les fonctions d'un répertoire. Le résultat
+ * de chaque fonction est conservé avec l'empreinte de son source et les empreintes des
+ * signatures de ses dépendances (graphe de {@link JnaneFunctionLoader}, complété par les
+ * appels relevés par l'inférence) ; il est réutilisé tant qu'aucune ne change.
+ *
+ * <p>Après la modification d'un fichier, seuls ce fichier et les fonctions qui l'appellent
+ * et dont la vue de sa signature (types des champs annotés) a changé sont revérifiés. Les
+ * résultats sont persistés entre les exécutions dans un fichier texte.</p>
+ */
+public final class IncrementalTypeChecker {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalTypeChecker.class);
+
+    /**
+     * Propriété système : fichier du cache (défaut : sous {@link #CACHE_DIR_PROPERTY}, hors du
+     * répertoire vérifié ; {@code local} : {@code .jnane/typecheck.cache} dans le répertoire
+     * vérifié ; {@code none} : cache en mémoire seulement)
+     */
+    public static final String CACHE_PROPERTY = "jnane.typecheck.cache";
+
+    /** Propriété système : répertoire des caches de l'utilisateur (défaut : {@code ~/.jnane/cache}) */
+    public static final String CACHE_DIR_PROPERTY = "jnane.cache.dir";
+
+    /** Valeur de {@link #CACHE_PROPERTY} qui place le cache dans le répertoire vérifié */
+    public static final String LOCAL_CACHE = "local";
+
+    // Longueur, en caractères hexadécimaux, de l'empreinte qui nomme le cache d'un répertoire
+    private static final int DIRECTORY_KEY_LENGTH = 16;
+
+    private static final String HEADER = "# jnane typecheck cache v2";
+
+    // Pseudo-dépendance de chaque fonction : les fichiers du répertoire qui déclarent des types
+    private static final String TYPE_DECLARATIONS = "@type";
+
+    private final JnaneFunctionLoader loader;
+    private final BuiltinRegistry builtins;
+    private final TypeTable types;
+    private final Path cacheFile;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean loaded;
+
+    /**
+     * Constructeur
+     *
+     * @param loader Fonctions chargées et leur graphe de dépendances
+     * @param builtins Fonctions intégrées
+     * @param types Table des types partagée
+     * @param cacheFile Fichier du cache, null pour un cache en mémoire seulement
+     */
+    public IncrementalTypeChecker(JnaneFunctionLoader loader, BuiltinRegistry builtins, TypeTable types, Path cacheFile) {
+        this.loader = loader;
+        this.builtins = builtins;
+        this.types = types;
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Retourne le fichier de cache d'un répertoire, selon {@link #CACHE_PROPERTY}. Par défaut,
+     * le cache est rangé dans le répertoire des caches de l'utilisateur, sous une empreinte du
+     * chemin absolu du répertoire vérifié : l'arbre des sources n'est pas modifié.
+     *
+     * @param directory Répertoire vérifié
+     * @return Chemin du fichier de cache, null si la persistance est désactivée
+     */
+    public static Path defaultCacheFile(String directory) {
+        String configured = System.getProperty(CACHE_PROPERTY);
+        if ("none".equals(configured)) {
+            return null;
+        }
+        if (LOCAL_CACHE.equals(configured)) {
+            return Paths.get(directory, ".jnane", "typecheck.cache");
+        }
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+        Path root = cacheDir != null ? Paths.get(cacheDir) : Paths.get(System.getProperty("user.home"), ".jnane", "cache");
+        String key = hash(Paths.get(directory).toAbsolutePath().normalize().toString()).substring(0, DIRECTORY_KEY_LENGTH);
+        return root.resolve(key).resolve("typecheck.cache");
+    }
+
+    /**
+     * Résultat mémorisé de la vérification d'une fonction.
+     */
+    public static final class Entry {
+        private final String sourceHash;
+        private final Map<String, String> dependencyHashes;
+        private final List<String> errors;
+        private final Map<String, TypeInference.Verdict> verdicts;
+
+        Entry(String sourceHash, Map<String, String> dependencyHashes, List<String> errors,
+              Map<String, TypeInference.Verdict> verdicts) {
+            this.sourceHash = sourceHash;
+            this.dependencyHashes = dependencyHashes;
+            this.errors = errors;
+            this.verdicts = verdicts;
+        }
+
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        /**
+         * Retourne le verdict de l'inférence pour chaque champ annoté.
+         *
+         * @return Verdict par nom de champ
+         */
+        public Map<String, TypeInference.Verdict> getVerdicts() {
+            return Collections.unmodifiableMap(verdicts);
+        }
+    }
+
+    /**
+     * Bilan d'une vérification de l'ensemble des fonctions.
+     */
+    public static final class Report {
+        private final Map<String, Entry> results;
+        private final List<String> checked;
+
+        Report(Map<String, Entry> results, List<String> checked) {
+            this.results = results;
+            this.checked = checked;
+        }
+
+        /**
+         * Retourne le résultat de chaque fonction, par nom.
+         *
+         * @return Résultats
+         */
+        public Map<String, Entry> getResults() {
+            return Collections.unmodifiableMap(results);
+        }
+
+        /**
+         * Retourne les fonctions effectivement revérifiées lors de cette exécution.
+         *
+         * @return Noms des fonctions revérifiées
+         */
+        public List<String> getChecked() {
+            return Collections.unmodifiableList(checked);
+        }
+
+        public int getReusedCount() {
+            return results.size() - checked.size();
+        }
+
+        public boolean hasErrors() {
+            return results.values().stream().anyMatch(entry -> !entry.errors.isEmpty());
+        }
+    }
+
+    /**
+     * Vérifie toutes les fonctions du chargeur, en réutilisant les résultats dont le source
+     * et les signatures des dépendances sont inchangés, puis enregistre le cache.
+     *
+     * @return Bilan de la vérification
+     * @throws IOException En cas d'erreur de lecture d'un fichier ou d'écriture du cache
+     */
+    public Report checkAll() throws IOException {
+        loadCache();
+        Map<String, String> sources = new HashMap<>();
+        Map<String, String> signatures = new HashMap<>();
+        StringBuilder typeDeclarations = new StringBuilder();
+        for (JnaneFunctionLoader.FunctionInfo info : new TreeMap<>(loader.getFunctions()).values()) {
+            String content = JnaneFileLoader.loadFile(info.getFilePath());
+            sources.put(info.getName(), content);
+            signatures.put(info.getName(), hash(signatureOf(AnnotationExtractor.extractAnnotationsFromContent(content))));
+            if (content.contains("@type")) {
+                // Les vues entre types doivent être connues avant de vérifier une fonction
+                new JnaneTypeChecker(types).addTypeDeclarations(new Script(content,
+                        JnaneFileLoader.getNamespaceFromPath(info.getFilePath()),
+                        JnaneFileLoader.getFunctionNameFromPath(info.getFilePath())).getProgramContext());
+                typeDeclarations.append(info.getName()).append('\n').append(content).append('\n');
+            }
+        }
+        signatures.put(TYPE_DECLARATIONS, hash(typeDeclarations.toString()));
+
+        TypeInference.SignatureResolver resolver = TypeInference.resolverFor(loader, builtins);
+        Map<String, Entry> results = new TreeMap<>();
+        List<String> checked = new ArrayList<>();
+        for (JnaneFunctionLoader.FunctionInfo info : loader.getFunctions().values()) {
+            String name = info.getName();
+            String sourceHash = hash(sources.get(name));
+            Entry entry = entries.get(name);
+            if (entry == null || !entry.sourceHash.equals(sourceHash) || !dependenciesMatch(entry, signatures)) {
+                entry = check(info, sources.get(name), sourceHash, signatures, resolver);
+                entries.put(name, entry);
+                checked.add(name);
+            }
+            results.put(name, entry);
+        }
+        // Fonctions supprimées depuis la dernière exécution
+        entries.keySet().retainAll(results.keySet());
+
+        logger.info("Vérification des types: {} fonction(s) revérifiée(s), {} résultat(s) réutilisé(s)",
+                checked.size(), results.size() - checked.size());
+        saveCache();
+        return new Report(results, checked);
+    }
+
+    private Entry check(JnaneFunctionLoader.FunctionInfo info, String content, String sourceHash,
+                        Map<String, String> signatures, TypeInference.SignatureResolver resolver) {
+        logger.debug("Vérification des types de la fonction {}", info.getName());
+        Script script = new Script(content, JnaneFileLoader.getNamespaceFromPath(info.getFilePath()),
+                JnaneFileLoader.getFunctionNameFromPath(info.getFilePath()));
+        TypeInference.Result inference = TypeInference.infer(script.getProgramContext(), resolver);
+
+        JnaneTypeChecker checker = new JnaneTypeChecker(types);
+        Map<String, TypeInference.Verdict> verdicts = new TreeMap<>();
+        for (AnnotationExtractor.FieldInfo field : AnnotationExtractor.extractAnnotationsFromContent(content).values()) {
+            verdicts.put(field.getName(), checker.checkField(field, inference));
+        }
+
+        Map<String, String> dependencyHashes = new TreeMap<>();
+        TreeSet<String> dependencies = new TreeSet<>(info.getDependencies());
+        dependencies.addAll(inference.getCallees().keySet());
+        dependencies.add(TYPE_DECLARATIONS);
+        for (String dependency : dependencies) {
+            dependencyHashes.put(dependency, signatureHash(dependency, signatures));
+        }
+        return new Entry(sourceHash, dependencyHashes, new ArrayList<>(new TreeSet<>(checker.getErrors())), verdicts);
+    }
+
+    private boolean dependenciesMatch(Entry entry, Map<String, String> signatures) {
+        for (Map.Entry<String, String> dependency : entry.dependencyHashes.entrySet()) {
+            if (!dependency.getValue().equals(signatureHash(dependency.getKey(), signatures))) {
+                logger.debug("Signature modifiée: {}", dependency.getKey());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Empreinte de la signature d'une dépendance telle que la voit l'appelant : une fonction
+     * Jnane masque une fonction intégrée de même nom.
+     */
+    private String signatureHash(String name, Map<String, String> signatures) {
+        String signature = signatures.get(name);
+        if (signature != null) {
+            return signature;
+        }
+        BuiltinFunction builtin = builtins.lookup(name);
+        return builtin != null ? hash("builtin " + builtin.getSignature()) : "?";
+    }
+
+    private static String signatureOf(Map<String, AnnotationExtractor.FieldInfo> annotations) {
+        StringBuilder signature = new StringBuilder();
+        for (AnnotationExtractor.FieldInfo field : new TreeMap<>(annotations).values()) {
+            signature.append(field.isView() ? "view " : "field ")
+                    .append(field.getName()).append(' ')
+                    .append(TypeInference.canonical(field.getType())).append('\n');
+        }
+        return signature.toString();
+    }
+
+    private static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("Algorithme SHA-256 indisponible", e);
+            throw new IllegalStateException("Algorithme SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Relit le cache persistant au premier appel. Un cache illisible ou d'une autre version
+     * est ignoré : toutes les fonctions sont alors revérifiées.
+     */
+    private void loadCache() {
+        if (loaded || cacheFile == null) {
+            loaded = true;
+            return;
+        }
+        loaded = true;
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+                logger.warn("Cache de vérification des types ignoré (version inconnue): {}", cacheFile);
+                return;
+            }
+            String name = null;
+            String sourceHash = null;
+            Map<String, String> dependencies = new TreeMap<>();
+            List<String> errors = new ArrayList<>();
+            Map<String, TypeInference.Verdict> verdicts = new TreeMap<>();
+            for (String line : lines.subList(1, lines.size())) {
+                int space = line.indexOf(' ');
+                String key = space < 0 ? line : line.substring(0, space);
+                String value = space < 0 ? "" : line.substring(space + 1);
+                switch (key) {
+                    case "function":
+                        name = value;
+                        sourceHash = null;
+                        dependencies = new TreeMap<>();
+                        errors = new ArrayList<>();
+                        verdicts = new TreeMap<>();
+                        break;
+                    case "source":
+                        sourceHash = value;
+                        break;
+                    case "dep":
+                        // Le nom relevé par le chargeur peut contenir des espaces, pas l'empreinte
+                        dependencies.put(value.substring(0, value.lastIndexOf(' ')), value.substring(value.lastIndexOf(' ') + 1));
+                        break;
+                    case "error":
+                        errors.add(value);
+                        break;
+                    case "field":
+                        verdicts.put(value.substring(0, value.indexOf(' ')),
+                                TypeInference.Verdict.valueOf(value.substring(value.indexOf(' ') + 1)));
+                        break;
+                    case "end":
+                        if (name != null && sourceHash != null) {
+                            entries.put(name, new Entry(sourceHash, dependencies, errors, verdicts));
+                        }
+                        name = null;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            logger.debug("Cache de vérification des types relu: {} fonction(s)", entries.size());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cache de vérification des types illisible, ignoré: {}", cacheFile, e);
+            entries.clear();
+        }
+    }
+
+    private void saveCache() throws IOException {
+        if (cacheFile == null) {
+            return;
+        }
+        Path parent = cacheFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, "typecheck", ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Entry> function : new TreeMap<>(entries).entrySet()) {
+                Entry entry = function.getValue();
+                writer.write("function " + function.getKey());
+                writer.newLine();
+                writer.write("source " + entry.sourceHash);
+                writer.newLine();
+                for (Map.Entry<String, String> dependency : entry.dependencyHashes.entrySet()) {
+                    writer.write("dep " + dependency.getKey() + " " + dependency.getValue());
+                    writer.newLine();
+                }
+                for (String error : entry.errors) {
+                    writer.write("error " + error.replace('\n', ' '));
+                    writer.newLine();
+                }
+                for (Map.Entry<String, TypeInference.Verdict> verdict : entry.verdicts.entrySet()) {
+                    writer.write("field " + verdict.getKey() + " " + verdict.getValue());
+                    writer.newLine();
+                }
+                writer.write("end");
+                writer.newLine();
+            }
+        }
+        // Remplacement atomique : une exécution interrompue laisse l'ancien cache intact
+        Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,488 @@
+package com.jnane.compiler;
+
+import com.jnane.compiler.script.Script;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import com.jnane.runtime.ir.IrCodec;
+import com.jnane.runtime.ir.IrFunction;
+import com.jnane.runtime.ir.IrNode;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compilation des fonctions Jnane vers l'IR portable exécuté par
+ * {@link com.jnane.runtime.ir.IrRuntime}, sans analyseur à l'exécution.
+ *
+ * <p>La traduction suit la sémantique de {@link JnaneExpressionVisitor} construction par
+ * construction. Elle couvre le noyau du langage (littéraux, variables, assignations,
+ * blocs, {@code if}, ternaires, opérateurs, appels, accès aux champs et index, littéraux
+ * d'objet et de tableau, transformation {@code |>} et {@code ns:historique}) ; les autres
+ * vues, les lentilles, lambdas, {@code match} et déclarations de type sont refusés. Seuls
+ * les champs annotés dont l'inférence n'a pas prouvé le type sont vérifiés par l'IR.</p>
+ *
+ * <p>Comme dans l'interpréteur, une fonction qui n'assigne pas {@code result} renvoie
+ * {@link com.jnane.runtime.ir.IrRuntime#DEFAULT_RESULT}. Sont refusés les arguments
+ * positionnels passés à une fonction Jnane, que l'interpréteur ignore : l'IR n'a donc pas
+ * à reproduire ce cas.</p>
+ */
+public final class IrCompiler {
+    private static final Logger logger = LoggerFactory.getLogger(IrCompiler.class);
+
+    private final JnaneFunctionLoader loader;
+    private final TypeInference.SignatureResolver resolver;
+    private final BuiltinRegistry builtins;
+    private final Map<String, String> skipped = new TreeMap<>();
+
+    /**
+     * Crée un compilateur pour les fonctions d'un chargeur, avec les fonctions intégrées
+     * par défaut.
+     *
+     * @param loader Fonctions chargées
+     * @param resolver Types de retour des fonctions appelées, pour l'inférence
+     */
+    public IrCompiler(JnaneFunctionLoader loader, TypeInference.SignatureResolver resolver) {
+        this(loader, resolver, BuiltinRegistry.getDefault());
+    }
+
+    /**
+     * Crée un compilateur pour les fonctions d'un chargeur.
+     *
+     * @param loader Fonctions chargées
+     * @param resolver Types de retour des fonctions appelées, pour l'inférence
+     * @param builtins Fonctions intégrées, prioritaires sur les fonctions chargées comme dans
+     *                 l'interpréteur
+     */
+    public IrCompiler(JnaneFunctionLoader loader, TypeInference.SignatureResolver resolver, BuiltinRegistry builtins) {
+        this.loader = loader;
+        this.resolver = resolver;
+        this.builtins = builtins;
+    }
+
+    /**
+     * Compile toutes les fonctions du chargeur dans un répertoire, un fichier
+     * {@code .jnir} par fonction. Une fonction qui utilise une construction non supportée
+     * ne peut pas être compilée, ni les fonctions qui l'appellent, directement ou non : la
+     * compilation échoue alors sans rien écrire, et {@link #getSkipped()} en donne les raisons.
+     *
+     * @param outputDirectory Répertoire de sortie, créé si besoin
+     * @return Fonctions compilées, par nom
+     * @throws IOException En cas d'erreur de lecture ou d'écriture
+     * @throws IllegalStateException si une fonction n'a pas pu être compilée
+     */
+    public Map<String, IrFunction> compileAll(Path outputDirectory) throws IOException {
+        skipped.clear();
+        Map<String, IrFunction> compiled = new TreeMap<>();
+        Map<String, Set<String>> callees = new HashMap<>();
+        for (JnaneFunctionLoader.FunctionInfo info : loader.getFunctions().values()) {
+            Set<String> called = new HashSet<>();
+            try {
+                compiled.put(info.getName(), compile(info.getName(), info.getFilePath(), called));
+                callees.put(info.getName(), called);
+            } catch (IllegalArgumentException e) {
+                skip(info.getName(), e.getMessage());
+            }
+        }
+        // Un appel vers une fonction ignorée échouerait dans le runtime
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Iterator<String> it = compiled.keySet().iterator(); it.hasNext(); ) {
+                String name = it.next();
+                for (String callee : callees.get(name)) {
+                    if (skipped.containsKey(callee)) {
+                        it.remove();
+                        skip(name, "Appelle la fonction non compilée " + callee);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        // Un répertoire partiel ferait échouer à l'exécution les appels aux fonctions absentes
+        if (!skipped.isEmpty()) {
+            String errorMsg = "Compilation IR impossible, fonctions non compilées: " + skipped.keySet();
+            logger.error(errorMsg);
+            throw new IllegalStateException(errorMsg);
+        }
+        Files.createDirectories(outputDirectory);
+        for (IrFunction function : compiled.values()) {
+            Path target = outputDirectory.resolve(function.getName().replace(':', '.') + IrCodec.EXTENSION);
+            Path temp = Files.createTempFile(outputDirectory, "ir", ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                IrCodec.write(function, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        logger.info("Fonctions compilées vers {}: {}", outputDirectory, compiled.keySet());
+        return compiled;
+    }
+
+    /**
+     * Retourne les fonctions non compilées par le dernier appel à {@link #compileAll(Path)}.
+     *
+     * @return Raison de l'exclusion, par nom de fonction
+     */
+    public Map<String, String> getSkipped() {
+        return Collections.unmodifiableMap(skipped);
+    }
+
+    private void skip(String functionName, String reason) {
+        skipped.put(functionName, reason);
+        logger.error("Fonction {} non compilée en IR: {}", functionName, reason);
+    }
+
+    /**
+     * Compile une fonction.
+     *
+     * @param functionName Nom complet de la fonction
+     * @param filePath Chemin du fichier de la fonction
+     * @return Fonction précompilée
+     * @throws IOException En cas d'erreur de lecture
+     * @throws IllegalArgumentException si la fonction utilise une construction non supportée
+     */
+    public IrFunction compile(String functionName, String filePath) throws IOException {
+        return compile(functionName, filePath, new HashSet<>());
+    }
+
+    private IrFunction compile(String functionName, String filePath, Set<String> callees) throws IOException {
+        Script script = new Script(filePath);
+        Lowering lowering = new Lowering(functionName, builtins, callees);
+        IrNode body = lowering.visit(script.getProgramContext());
+        Map<String, String> checkedFields = FieldValidator.forFile(filePath, resolver).getCheckedFields();
+        IrFunction function = new IrFunction(functionName, parameters(JnaneFileLoader.loadFile(filePath)), checkedFields, body);
+        logger.debug("Fonction compilée: {}, champs vérifiés à l'exécution: {}", function, checkedFields.keySet());
+        return function;
+    }
+
+    /**
+     * Paramètres de la fonction dans l'ordre de déclaration : lignes {@code @name x} sans
+     * type, comme pour l'interpréteur, et annotations {@code @arg x : type}.
+     */
+    private static List<String> parameters(String content) {
+        List<String> parameters = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            line = line.trim();
+            String parameter = null;
+            if (line.startsWith("@name ") && !line.contains(":")) {
+                parameter = line.substring("@name ".length()).trim().split("\\s+", 2)[0];
+            } else if (line.startsWith("@arg ")) {
+                parameter = line.substring("@arg ".length()).trim().split("[\\s:]+", 2)[0];
+            }
+            if (parameter != null && !parameter.isEmpty() && !parameters.contains(parameter)) {
+                parameters.add(parameter);
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Traduction de l'arbre syntaxique en IR.
+     */
+    private static final class Lowering extends JnaneLangBaseVisitor<IrNode> {
+        private final String functionName;
+        private final BuiltinRegistry builtins;
+        private final Set<String> callees;
+
+        Lowering(String functionName, BuiltinRegistry builtins, Set<String> callees) {
+            this.functionName = functionName;
+            this.builtins = builtins;
+            this.callees = callees;
+        }
+
+        @Override
+        public IrNode visitProgram(JnaneLangParser.ProgramContext ctx) {
+            return sequence(ctx.declaration());
+        }
+
+        @Override
+        public IrNode visitDeclaration(JnaneLangParser.DeclarationContext ctx) {
+            if (ctx.functionDecl() != null) {
+                return visit(ctx.functionDecl().functionBody().blockStmt());
+            }
+            if (ctx.statement() != null) {
+                return visit(ctx.statement());
+            }
+            if (ctx.typeDecl() != null || (ctx.namespaceDecl() != null && ctx.namespaceDecl().namespaceBody() != null)) {
+                throw unsupported(ctx);
+            }
+            // Annotations, imports, exports : sans effet à l'exécution
+            return null;
+        }
+
+        @Override
+        public IrNode visitStatement(JnaneLangParser.StatementContext ctx) {
+            if (ctx.matchStmt() != null) {
+                throw unsupported(ctx);
+            }
+            return visit(ctx.getChild(0));
+        }
+
+        @Override
+        public IrNode visitExpressionStmt(JnaneLangParser.ExpressionStmtContext ctx) {
+            return visit(ctx.expression());
+        }
+
+        @Override
+        public IrNode visitReturnStmt(JnaneLangParser.ReturnStmtContext ctx) {
+            // Comme dans l'interpréteur, return n'interrompt pas la fonction ; avec un
+            // point-virgule final, l'instruction vaut null
+            List<IrNode> nodes = new ArrayList<>();
+            nodes.add(visit(ctx.expression()));
+            if (ctx.SEMICOLON() != null) {
+                nodes.add(new IrNode.Literal(null));
+            }
+            return new IrNode.Sequence(nodes);
+        }
+
+        @Override
+        public IrNode visitIfStmt(JnaneLangParser.IfStmtContext ctx) {
+            // Une branche else if n'est pas exécutée par l'interpréteur
+            return new IrNode.Condition(visit(ctx.expression()), visit(ctx.blockStmt(0)),
+                    ctx.blockStmt().size() > 1 ? visit(ctx.blockStmt(1)) : null);
+        }
+
+        @Override
+        public IrNode visitBlockStmt(JnaneLangParser.BlockStmtContext ctx) {
+            return sequence(ctx.statement());
+        }
+
+        @Override
+        public IrNode visitExpression(JnaneLangParser.ExpressionContext ctx) {
+            return visit(ctx.assignmentExpr());
+        }
+
+        @Override
+        public IrNode visitAssignmentExpr(JnaneLangParser.AssignmentExprContext ctx) {
+            if (ctx.EQUALS() != null) {
+                return new IrNode.Assign(ctx.getChild(0).getText(), visit(ctx.conditionalExpr(1)));
+            }
+            return visit(ctx.conditionalExpr(0));
+        }
+
+        @Override
+        public IrNode visitConditionalExpr(JnaneLangParser.ConditionalExprContext ctx) {
+            if (ctx.QUESTION() != null) {
+                return new IrNode.Condition(visit(ctx.logicalOrExpr(0)), visit(ctx.logicalOrExpr(1)),
+                        visit(ctx.logicalOrExpr(2)));
+            }
+            return visit(ctx.logicalOrExpr(0));
+        }
+
+        @Override
+        public IrNode visitLogicalOrExpr(JnaneLangParser.LogicalOrExprContext ctx) {
+            return lastOperand(ctx);
+        }
+
+        @Override
+        public IrNode visitLogicalAndExpr(JnaneLangParser.LogicalAndExprContext ctx) {
+            return lastOperand(ctx);
+        }
+
+        @Override
+        public IrNode visitEqualityExpr(JnaneLangParser.EqualityExprContext ctx) {
+            return comparison(ctx);
+        }
+
+        @Override
+        public IrNode visitRelationalExpr(JnaneLangParser.RelationalExprContext ctx) {
+            return comparison(ctx);
+        }
+
+        @Override
+        public IrNode visitAdditiveExpr(JnaneLangParser.AdditiveExprContext ctx) {
+            if (ctx.getChildCount() == 1) {
+                return visit(ctx.getChild(0));
+            }
+            return new IrNode.Additive(ctx.getChild(1).getText().equals("+"), operands(ctx));
+        }
+
+        @Override
+        public IrNode visitMultiplicativeExpr(JnaneLangParser.MultiplicativeExprContext ctx) {
+            return lastOperand(ctx);
+        }
+
+        @Override
+        public IrNode visitUnaryExpr(JnaneLangParser.UnaryExprContext ctx) {
+            // L'interpréteur n'applique pas les opérateurs unaires : l'expression vaut son opérande
+            return ctx.unaryExpr() != null ? visit(ctx.unaryExpr()) : visit(ctx.postfixExpr());
+        }
+
+        @Override
+        public IrNode visitPostfixExpr(JnaneLangParser.PostfixExprContext ctx) {
+            IrNode node = visit(ctx.primaryExpr());
+            for (JnaneLangParser.PostfixOpContext op : ctx.postfixOp()) {
+                if (op.DOT() != null) {
+                    node = new IrNode.Field(node, op.ID().getText());
+                } else if (op.LBRACK() != null) {
+                    node = new IrNode.Index(node, visit(op.expression()));
+                } else if (op.PIPE_FORWARD() != null) {
+                    node = new IrNode.Pipe(node, visit(op.primaryExpr()), op.getText());
+                } else {
+                    throw unsupported(op);
+                }
+            }
+            return node;
+        }
+
+        @Override
+        public IrNode visitPrimaryExpr(JnaneLangParser.PrimaryExprContext ctx) {
+            if (ctx.ID() != null) {
+                return new IrNode.Variable(ctx.ID().getText());
+            }
+            if (ctx.expression() != null) {
+                return visit(ctx.expression());
+            }
+            if (ctx.literal() != null || ctx.functionCallExpr() != null || ctx.viewOperation() != null
+                    || ctx.objectLiteral() != null || ctx.arrayLiteral() != null) {
+                return visit(ctx.getChild(0));
+            }
+            throw unsupported(ctx);
+        }
+
+        @Override
+        public IrNode visitLiteral(JnaneLangParser.LiteralContext ctx) {
+            String text = ctx.getText();
+            if (ctx.INTEGER() != null) {
+                try {
+                    return new IrNode.Literal(Integer.parseInt(text));
+                } catch (NumberFormatException e) {
+                    // Entier hors limites : l'interpréteur garde le texte brut
+                    return new IrNode.Literal(text);
+                }
+            }
+            if (ctx.DECIMAL() != null) {
+                return new IrNode.Literal(Double.parseDouble(text));
+            }
+            if (ctx.STRING() != null) {
+                return new IrNode.Literal(text.substring(1, text.length() - 1));
+            }
+            if (ctx.BOOLEAN() != null) {
+                return new IrNode.Literal(text.equals("true"));
+            }
+            return new IrNode.Literal(null);
+        }
+
+        @Override
+        public IrNode visitFunctionCallExpr(JnaneLangParser.FunctionCallExprContext ctx) {
+            String name = ctx.namespaceId() != null
+                    ? ctx.namespaceId().getText() + ":" + ctx.ID().getText()
+                    : ctx.ID().getText();
+            List<IrNode> arguments = new ArrayList<>();
+            if (ctx.argumentList() != null) {
+                for (JnaneLangParser.ExpressionContext argument : ctx.argumentList().expression()) {
+                    arguments.add(visit(argument));
+                }
+            }
+            if (builtins.lookup(name) == null) {
+                // L'interpréteur ignore les arguments positionnels d'une fonction Jnane
+                if (!arguments.isEmpty()) {
+                    String errorMsg = "Arguments positionnels non supportés pour la fonction Jnane " + name
+                            + " dans " + functionName + " (ligne " + ctx.getStart().getLine() + ")";
+                    logger.error(errorMsg);
+                    throw new IllegalArgumentException(errorMsg);
+                }
+                callees.add(name);
+            }
+            return new IrNode.Call(name, arguments);
+        }
+
+        @Override
+        public IrNode visitViewOperation(JnaneLangParser.ViewOperationContext ctx) {
+            if (!ctx.getChild(0).getText().equals("ns:historique")) {
+                throw unsupported(ctx);
+            }
+            return new IrNode.History(visit(ctx.expression(0)));
+        }
+
+        @Override
+        public IrNode visitObjectLiteral(JnaneLangParser.ObjectLiteralContext ctx) {
+            List<String> names = new ArrayList<>();
+            List<IrNode> values = new ArrayList<>();
+            for (JnaneLangParser.ObjectFieldContext field : ctx.objectField()) {
+                names.add(field.ELLIPSIS() != null ? null : field.ID().getText());
+                values.add(visit(field.expression()));
+            }
+            return new IrNode.ObjectLiteral(names, values);
+        }
+
+        @Override
+        public IrNode visitArrayLiteral(JnaneLangParser.ArrayLiteralContext ctx) {
+            List<IrNode> elements = new ArrayList<>();
+            for (JnaneLangParser.ExpressionContext element : ctx.expression()) {
+                elements.add(visit(element));
+            }
+            return new IrNode.ArrayLiteral(elements);
+        }
+
+        @Override
+        public IrNode visitChildren(org.antlr.v4.runtime.tree.RuleNode node) {
+            throw unsupported((ParserRuleContext) node);
+        }
+
+        private IrNode sequence(List<? extends ParseTree> trees) {
+            List<IrNode> nodes = new ArrayList<>();
+            for (ParseTree tree : trees) {
+                IrNode node = visit(tree);
+                if (node != null) {
+                    nodes.add(node);
+                }
+            }
+            return new IrNode.Sequence(nodes);
+        }
+
+        /**
+         * Opérateur non appliqué par l'interpréteur : tous les opérandes sont évalués et
+         * l'expression vaut le dernier.
+         */
+        private IrNode lastOperand(ParserRuleContext ctx) {
+            if (ctx.getChildCount() == 1) {
+                return visit(ctx.getChild(0));
+            }
+            return new IrNode.Sequence(operands(ctx));
+        }
+
+        /**
+         * Comparaison : seuls les deux premiers opérandes sont évalués.
+         */
+        private IrNode comparison(ParserRuleContext ctx) {
+            if (ctx.getChildCount() == 1) {
+                return visit(ctx.getChild(0));
+            }
+            return new IrNode.Compare(ctx.getChild(1).getText(), visit(ctx.getChild(0)), visit(ctx.getChild(2)));
+        }
+
+        private List<IrNode> operands(ParserRuleContext ctx) {
+            List<IrNode> operands = new ArrayList<>();
+            for (ParseTree child : ctx.children) {
+                if (!(child instanceof TerminalNode)) {
+                    operands.add(visit(child));
+                }
+            }
+            return operands;
+        }
+
+        private IllegalArgumentException unsupported(ParserRuleContext ctx) {
+            String errorMsg = "Construction non supportée par l'IR dans " + functionName + " (ligne "
+                    + ctx.getStart().getLine() + "): " + ctx.getText();
+            logger.error(errorMsg);
+            return new IllegalArgumentException(errorMsg);
+        }
+    }
+}
@@ -0,0 +1,531 @@
+package com.jnane.compiler;
+
+import com.jnane.runtime.builtin.BuiltinOutput;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import com.jnane.runtime.history.HistoryPolicy;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import com.jnane.runtime.view.ViewCache;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Démon de compilation et d'exécution : un moteur chaud (classes chargées, ATN du parser
+ * désérialisé, fonctions et résultats de vérification en mémoire) sert les requêtes de
+ * clients sur la boucle locale, ce qui amortit le démarrage de la JVM sur tout un build.
+ *
+ * <p>Protocole : une requête par connexion. La première ligne porte le jeton du démon, la
+ * seconde la requête, dont les champs sont séparés par des tabulations ({@code check <chemin>},
+ * {@code run <répertoire> <fonction> [nom=valeur...]}, {@code ping}, {@code stop}). Chaque
+ * ligne de réponse est préfixée par {@code O} (sortie standard) ou {@code E} (erreurs), et la
+ * dernière, {@code S <statut>}, donne le code de sortie du client.</p>
+ *
+ * <p>La boucle locale est ouverte à tous les utilisateurs de la machine, alors qu'une requête
+ * {@code run} exécute du code avec les droits du démon. Au démarrage, le démon tire donc un
+ * jeton aléatoire et l'écrit dans un fichier lisible par son seul propriétaire
+ * ({@code ~/.jnane/daemon-<port>.token}, ou le répertoire donné par {@code jnane.daemon.dir}) ;
+ * une connexion qui ne le présente pas est refusée. Le fichier est supprimé à l'arrêt.</p>
+ *
+ * <p>Chaque répertoire vérifié est un espace de travail surveillé : un fichier ajouté,
+ * supprimé ou modifié invalide ses fonctions chargées, rechargées à la requête suivante.
+ * Les requêtes de clients concurrents sont traitées en parallèle ; celles d'un même espace
+ * de travail sont sérialisées pour la vérification. Le démon n'écoute que sur l'adresse de
+ * boucle locale.</p>
+ *
+ * <p>Les clients ne partagent pas d'état d'exécution : chaque espace de travail a sa table
+ * des types, son registre d'historique (en mémoire, sans journal) et son cache de vues, et
+ * ce qu'écrivent les fonctions intégrées pendant une requête {@code run} est renvoyé au
+ * client qui l'a émise, pas à la sortie du démon.</p>
+ */
+public final class JnaneDaemon {
+    private static final Logger logger = LoggerFactory.getLogger(JnaneDaemon.class);
+
+    /** Propriété système : port d'écoute du démon */
+    public static final String PORT_PROPERTY = "jnane.daemon.port";
+    /** Port d'écoute par défaut */
+    public static final int DEFAULT_PORT = 7341;
+    /** Propriété système : répertoire des fichiers de jeton des démons */
+    public static final String TOKEN_DIR_PROPERTY = "jnane.daemon.dir";
+
+    static final String FIELD_SEPARATOR = "\t";
+
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    // Taille du jeton d'authentification, en octets aléatoires
+    private static final int TOKEN_BYTES = 32;
+
+    /** Code de sortie d'une requête refusée faute de jeton valide */
+    static final int STATUS_UNAUTHORIZED = 3;
+
+    private final int requestedPort;
+    private final Map<Path, Workspace> workspaces = new ConcurrentHashMap<>();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private ExecutorService workers;
+    private ServerSocket server;
+    private byte[] token;
+    private Path tokenFile;
+
+    /**
+     * Constructeur
+     *
+     * @param port Port d'écoute sur la boucle locale, 0 pour un port libre
+     */
+    public JnaneDaemon(int port) {
+        this.requestedPort = port;
+    }
+
+    /**
+     * Retourne le port configuré par {@link #PORT_PROPERTY}, ou le port par défaut.
+     *
+     * @return Port du démon
+     */
+    public static int defaultPort() {
+        return Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
+    }
+
+    /**
+     * Démarre l'écoute et le traitement des requêtes en arrière-plan.
+     *
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            logger.error("Le démon Jnane est déjà démarré sur le port {}", getPort());
+            throw new IllegalStateException("Le démon Jnane est déjà démarré");
+        }
+        server = new ServerSocket(requestedPort, 50, InetAddress.getLoopbackAddress());
+        String secret = newToken();
+        try {
+            tokenFile = writeToken(tokenFile(getPort()), secret);
+        } catch (IOException | RuntimeException e) {
+            server.close();
+            server = null;
+            throw e;
+        }
+        token = secret.getBytes(StandardCharsets.UTF_8);
+        workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "jnane-daemon-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread acceptor = new Thread(this::acceptLoop, "jnane-daemon-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Démon Jnane à l'écoute sur {}:{}", server.getInetAddress().getHostAddress(), getPort());
+    }
+
+    /**
+     * Démarre le démon et bloque jusqu'à la requête {@code stop}.
+     *
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    public void serve() throws IOException {
+        // Un démon vit longtemps : ses mesures sont consultables en JMX (jconsole, VisualVM)
+        if (MetricsRegistry.isEnabledByDefault()) {
+            MetricsRegistry.getDefault().registerMBeans(ManagementFactory.getPlatformMBeanServer());
+        }
+        start();
+        System.out.println("Démon Jnane à l'écoute sur le port " + getPort());
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+        }
+    }
+
+    /**
+     * Retourne le port effectivement ouvert.
+     *
+     * @return Port d'écoute
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Arrête le démon : plus aucune connexion n'est acceptée, les requêtes en cours se terminent.
+     */
+    public synchronized void stop() {
+        if (server == null || server.isClosed()) {
+            return;
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.warn("Erreur lors de la fermeture du port du démon", e);
+        }
+        workers.shutdown();
+        try {
+            Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+            logger.warn("Impossible de supprimer le fichier de jeton {}", tokenFile, e);
+        }
+        for (Workspace workspace : workspaces.values()) {
+            workspace.close();
+        }
+        stopped.countDown();
+        logger.info("Démon Jnane arrêté");
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                workers.execute(() -> handle(socket));
+            } catch (SocketException e) {
+                // Port fermé par stop()
+                logger.debug("Fin de l'écoute du démon: {}", e.getMessage());
+            } catch (IOException e) {
+                logger.error("Erreur lors de l'acceptation d'une connexion", e);
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+            connection.setSoTimeout(READ_TIMEOUT_MILLIS);
+            String presented = reader.readLine();
+            if (presented == null) {
+                return;
+            }
+            if (!MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+                logger.warn("Connexion refusée: jeton d'authentification absent ou invalide");
+                writer.write("E Jeton d'authentification invalide (voir " + tokenFile + ")");
+                writer.newLine();
+                writer.write("S " + STATUS_UNAUTHORIZED);
+                writer.newLine();
+                writer.flush();
+                return;
+            }
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+            ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+            int status;
+            try (PrintStream out = new PrintStream(outBytes, true, StandardCharsets.UTF_8);
+                 PrintStream err = new PrintStream(errBytes, true, StandardCharsets.UTF_8)) {
+                status = execute(line.split(FIELD_SEPARATOR, -1), out, err);
+            }
+            writeLines(writer, "O ", outBytes);
+            writeLines(writer, "E ", errBytes);
+            writer.write("S " + status);
+            writer.newLine();
+            writer.flush();
+            if (line.equals("stop")) {
+                stop();
+            }
+        } catch (IOException e) {
+            logger.warn("Connexion client interrompue: {}", e.getMessage());
+        }
+    }
+
+    private static void writeLines(BufferedWriter writer, String prefix, ByteArrayOutputStream bytes) throws IOException {
+        String text = bytes.toString(StandardCharsets.UTF_8);
+        if (text.isEmpty()) {
+            return;
+        }
+        for (String line : text.split("\\R", -1)) {
+            writer.write(prefix);
+            writer.write(line);
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Exécute une requête et retourne le code de sortie du client.
+     */
+    private int execute(String[] request, PrintStream out, PrintStream err) {
+        logger.debug("Requête reçue: {}", String.join(" ", request));
+        try {
+            switch (request[0]) {
+                case "ping":
+                    out.print("pong");
+                    return 0;
+                case "stop":
+                    out.print("Arrêt du démon Jnane");
+                    return 0;
+                case "check":
+                    if (request.length != 2) {
+                        err.print("Usage: check <fichier.jn|répertoire>");
+                        return 2;
+                    }
+                    return check(Paths.get(request[1]), out, err);
+                case "run":
+                    if (request.length < 3) {
+                        err.print("Usage: run <répertoire> <fonction> [nom=valeur...]");
+                        return 2;
+                    }
+                    List<String> args = new ArrayList<>(List.of(request).subList(3, request.length));
+                    return workspace(Paths.get(request[1])).run(request[2], args, out);
+                default:
+                    err.print("Commande inconnue: " + request[0]);
+                    return 2;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Erreur lors du traitement de la requête {}", request[0], e);
+            err.print("Erreur: " + e.getMessage());
+            return 1;
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors du traitement de la requête {}", request[0], e);
+            err.print("Erreur: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private int check(Path path, PrintStream out, PrintStream err) throws IOException {
+        if (Files.isDirectory(path)) {
+            return workspace(path).check(out, err) ? 0 : 1;
+        }
+        if (!JnaneFileLoader.isValidJnaneFile(path.toString()) || !Files.isRegularFile(path)) {
+            err.print("Erreur: Le fichier doit avoir l'extension .jn");
+            return 1;
+        }
+        out.println("Analyse du fichier: " + path);
+        CharStream input = CharStreams.fromPath(path);
+        boolean valid = Main.checkTypes(Main.parse(input, err), input.toString(),
+                TypeInference.resolverFor(null, BuiltinRegistry.getDefault()), new TypeTable(), out, err);
+        return valid ? 0 : 1;
+    }
+
+    /**
+     * Retourne le fichier de jeton du démon à l'écoute sur un port.
+     *
+     * @param port Port du démon
+     * @return Chemin du fichier de jeton
+     */
+    static Path tokenFile(int port) {
+        String configured = System.getProperty(TOKEN_DIR_PROPERTY);
+        Path directory = configured != null ? Paths.get(configured) : Paths.get(System.getProperty("user.home"), ".jnane");
+        return directory.resolve("daemon-" + port + ".token");
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Écrit le jeton dans un fichier créé lisible et modifiable par son seul propriétaire,
+     * avant que le jeton n'y soit écrit.
+     */
+    private static Path writeToken(Path file, String secret) throws IOException {
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        Path directory = file.toAbsolutePath().getParent();
+        if (!Files.isDirectory(directory)) {
+            if (posix) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(
+                        PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(directory);
+            }
+        }
+        Files.deleteIfExists(file);
+        if (posix) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(file);
+            File plain = file.toFile();
+            if (!plain.setReadable(false, false) || !plain.setReadable(true, true)
+                    || !plain.setWritable(false, false) || !plain.setWritable(true, true)) {
+                Files.deleteIfExists(file);
+                String errorMsg = "Impossible de restreindre les droits du fichier de jeton " + file;
+                logger.error(errorMsg);
+                throw new IOException(errorMsg);
+            }
+        }
+        Files.writeString(file, secret, StandardCharsets.UTF_8);
+        logger.info("Jeton du démon écrit dans {}", file);
+        return file;
+    }
+
+    private Workspace workspace(Path directory) {
+        Path key = directory.toAbsolutePath().normalize();
+        return workspaces.computeIfAbsent(key, Workspace::new);
+    }
+
+    /**
+     * Répertoire de fonctions gardé en mémoire et surveillé.
+     */
+    private final class Workspace {
+        private final Path directory;
+        private final HistoryStore historyStore = new HistoryStore(HistoryPolicy.defaults());
+        private final ViewCache viewCache = ViewCache.withDefaultCapacities();
+        private WatchService watcher;
+        private JnaneFunctionLoader loader;
+        private IncrementalTypeChecker checker;
+        private JnaneInterpreter engine;
+        private boolean stale = true;
+
+        Workspace(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Recharge les fonctions si un fichier du répertoire a changé depuis la dernière requête.
+         */
+        private void refresh() throws IOException {
+            if (watcher == null) {
+                watcher = FileSystems.getDefault().newWatchService();
+            }
+            WatchKey key;
+            while ((key = watcher.poll()) != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // Le cache de vérification, s'il est écrit dans le répertoire (mode local), ne compte pas
+                    if (!String.valueOf(event.context()).equals(".jnane")) {
+                        stale = true;
+                    }
+                }
+                key.reset();
+            }
+            if (!stale) {
+                return;
+            }
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path dir : paths.filter(Files::isDirectory)
+                        .filter(dir -> !dir.getFileName().toString().equals(".jnane"))
+                        .collect(Collectors.toList())) {
+                    dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            }
+            loader = new JnaneFunctionLoader();
+            loader.loadFunctionsFromDirectory(directory.toString());
+            // Table des types neuve : une déclaration @type supprimée ne doit pas survivre au rechargement
+            checker = new IncrementalTypeChecker(loader, BuiltinRegistry.getDefault(), new TypeTable(),
+                    IncrementalTypeChecker.defaultCacheFile(directory.toString()));
+            engine = new JnaneInterpreter(directory.toString(), loader);
+            engine.setHistoryStore(historyStore);
+            engine.setViewCache(viewCache);
+            stale = false;
+            logger.info("Espace de travail {} chargé: {} fonction(s)", directory, loader.getFunctions().size());
+        }
+
+        synchronized boolean check(PrintStream out, PrintStream err) throws IOException {
+            refresh();
+            out.println("Fonctions chargées avec succès: " + loader.getFunctions().size());
+            if (!Main.printLoaderErrors(loader, err)) {
+                return false;
+            }
+            return Main.printReport(checker.checkAll(), out, err);
+        }
+
+        int run(String functionName, List<String> args, PrintStream out) throws IOException {
+            JnaneInterpreter warm;
+            synchronized (this) {
+                refresh();
+                warm = engine;
+            }
+            // Un interpréteur par requête sur le moteur chaud : les fonctions chargées sont
+            // partagées, les variables non
+            JnaneInterpreter interpreter = new JnaneInterpreter(warm);
+            Object result;
+            // Les écritures des fonctions intégrées (print) reviennent au client, pas au démon
+            try (BuiltinOutput.Redirection redirection = BuiltinOutput.redirect(out)) {
+                result = interpreter.interpretFunctionCallWithNamedArgs(functionName, parseNamedArgs(functionName, args));
+            }
+            out.print(result);
+            return 0;
+        }
+
+        synchronized void close() {
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    logger.warn("Erreur lors de la fermeture de la surveillance de {}", directory, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lit les arguments {@code nom=valeur} d'un appel ; les valeurs entières sont converties.
+     *
+     * @param functionName Nom de la fonction appelée
+     * @param args Arguments de la ligne de commande ou de la requête
+     * @return Arguments nommés
+     * @throws IllegalArgumentException si un argument n'a pas la forme nom=valeur
+     */
+    static Map<String, Object> parseNamedArgs(String functionName, List<String> args) {
+        Map<String, Object> namedArgs = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                logger.error("Argument invalide pour {}: {}", functionName, arg);
+                throw new IllegalArgumentException("Argument invalide (attendu nom=valeur): " + arg);
+            }
+            namedArgs.put(arg.substring(0, equals), parseArgument(arg.substring(equals + 1)));
+        }
+        return namedArgs;
+    }
+
+    private static Object parseArgument(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return text;
+        }
+    }
+
+    /**
+     * Attend l'arrêt du démon.
+     *
+     * @param timeout Délai maximal
+     * @param unit Unité du délai
+     * @return true si le démon est arrêté
+     * @throws InterruptedException Si l'attente est interrompue
+     */
+    public boolean awaitStop(long timeout, TimeUnit unit) throws InterruptedException {
+        return stopped.await(timeout, unit);
+    }
+}
@@ -0,0 +1,1123 @@
+package com.jnane.compiler;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import com.jnane.compiler.script.Script;
+import com.jnane.runtime.builtin.BuiltinFunction;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import com.jnane.runtime.history.HistoryEntry;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.history.StateDelta;
+import com.jnane.runtime.history.TemporalIndex;
+import com.jnane.runtime.lens.Lens;
+import com.jnane.runtime.lens.Lenses;
+import com.jnane.runtime.lens.ParallelLens;
+import com.jnane.runtime.lens.PathLens;
+import com.jnane.runtime.value.InlineCache;
+import com.jnane.runtime.value.Interner;
+import com.jnane.runtime.value.JnaneFunction;
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.value.PrimitiveVector;
+import com.jnane.runtime.value.ShapedRecord;
+import com.jnane.runtime.view.Aggregates;
+import com.jnane.runtime.view.KWayMerge;
+import com.jnane.runtime.view.LazyView;
+import com.jnane.runtime.view.View;
+import com.jnane.runtime.view.Views;
+
+/**
+ * Visiteur spécialisé pour interpréter les expressions Jnane
+ * et collecter les résultats d'exécution
+ */
+public class JnaneExpressionVisitor extends JnaneLangBaseVisitor<Object> {
+    private static final Logger logger = LoggerFactory.getLogger(JnaneExpressionVisitor.class);
+    private final JnaneInterpreter interpreter;
+    private Script currentScript;
+
+    // Sites d'appel liés à une fonction intégrée, résolus à leur première exécution, et
+    // caches en ligne des accès aux champs (valeur.champ)
+    private final Sites sites;
+
+    public JnaneExpressionVisitor(JnaneInterpreter interpreter) {
+        this(interpreter, new Sites());
+    }
+
+    /**
+     * Crée un visiteur qui reprend les sites déjà liés d'un arbre : les appels successifs
+     * d'une même fonction ne refont pas la liaison et gardent leurs caches en ligne chauds.
+     *
+     * @param interpreter Interpréteur
+     * @param sites Sites de l'arbre visité, partagés entre les visiteurs de cet arbre
+     */
+    JnaneExpressionVisitor(JnaneInterpreter interpreter, Sites sites) {
+        this.interpreter = interpreter;
+        this.sites = sites;
+        logger.debug("JnaneExpressionVisitor initialisé avec l'interpréteur");
+    }
+    
+    /**
+     * Définit le script en cours d'exécution.
+     * 
+     * @param script Script en cours d'exécution
+     */
+    public void setCurrentScript(Script script) {
+        this.currentScript = script;
+        logger.debug("Script courant défini: {}", script.getFullFunctionName());
+    }
+    
+    /**
+     * Retourne le script en cours d'exécution.
+     * 
+     * @return Script en cours d'exécution ou null si aucun script n'est défini
+     */
+    public Script getCurrentScript() {
+        return currentScript;
+    }
+
+    @Override
+    public Object visitProgram(JnaneLangParser.ProgramContext ctx) {
+        logger.debug("Visite du programme Jnane: {}", ctx.getText());
+
+        // Traiter les annotations (comme @field, @arg)
+        String currentFunction = null;
+        Set<String> functionArgs = new HashSet<>();
+        
+        for (int i = 0; i < ctx.getChildCount(); i++) {
+            if (ctx.getChild(i) instanceof JnaneLangParser.AnnotationDeclContext) {
+                JnaneLangParser.AnnotationDeclContext annotCtx = (JnaneLangParser.AnnotationDeclContext) ctx.getChild(i);
+                String annotationName = annotCtx.annotationName().getText();
+                
+                if (annotationName.equals("field")) {
+                    String fieldName = annotCtx.annotationParams().getText();
+                    logger.debug("Déclaration de champ trouvée: {}", fieldName);
+                } else if (annotationName.equals("name")) {
+                    // Récupérer le nom de la fonction avec son namespace
+                    if (annotCtx.annotationValue() != null) {
+                        currentFunction = annotCtx.annotationValue().getText();
+                        logger.debug("Déclaration de fonction trouvée: {}", currentFunction);
+                    }
+                } else if (annotationName.equals("arg")) {
+                    // Récupérer le nom de l'argument
+                    if (annotCtx.annotationValue() != null) {
+                        String argName = annotCtx.annotationValue().getText().split(" ")[0];
+                        functionArgs.add(argName);
+                        logger.debug("Déclaration d'argument trouvée: {}", argName);
+                    }
+                }
+            }
+        }
+        
+        // Si on a trouvé une fonction et ses arguments, les enregistrer dans l'interpréteur
+        if (currentFunction != null && !functionArgs.isEmpty()) {
+            interpreter.registerFunctionParameters(currentFunction, functionArgs);
+            logger.info("Enregistrement des paramètres pour la fonction {}: {}", currentFunction, functionArgs);
+        }
+
+        // Visiter tous les enfants (y compris le bloc principal)
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Object visitStatement(JnaneLangParser.StatementContext ctx) {
+        logger.debug("Visite d'une instruction: {}", ctx.getText());
+        // Un bloc n'a pas de coût propre : ses instructions signalent leur ligne
+        JnaneProfiler profiler = interpreter.getProfiler();
+        if (profiler != null && ctx.blockStmt() == null) {
+            profiler.statement(ctx.getStart().getLine());
+        }
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Object visitAssignmentExpr(JnaneLangParser.AssignmentExprContext ctx) {
+        logger.debug("Visite d'une expression d'assignation: {}", ctx.getText());
+
+        // Récupérer le nom de la variable (côté gauche de l'assignation)
+        String variableName = ctx.getChild(0).getText();
+        logger.debug("Nom de la variable: {}", variableName);
+
+        // Si c'est une assignation (avec le signe =)
+        if (ctx.getChildCount() > 1 && ctx.getChild(1).getText().equals("=")) {
+            // Évaluer l'expression à droite de l'assignation
+            Object value = visit(ctx.getChild(2));
+            logger.debug("Valeur calculée pour l'assignation: {}", value);
+
+            // Stocker la valeur dans l'interpréteur
+            interpreter.setVariableValue(variableName, value);
+            
+            // Vérification supplémentaire pour s'assurer que la valeur est bien stockée
+            Object storedValue = interpreter.getVariableValue(variableName);
+            logger.debug("Valeur stockée vérifiée pour {}: {}", variableName, storedValue);
+
+            return value;
+        }
+
+        // Si ce n'est pas une assignation, simplement visiter l'enfant
+        return visit(ctx.getChild(0));
+    }
+
+    @Override
+    public Object visitFunctionCallExpr(JnaneLangParser.FunctionCallExprContext ctx) {
+        CallSite site = sites.callSites.computeIfAbsent(ctx, this::link);
+        if (site != CallSite.UNLINKED) {
+            return site.invoke(this);
+        }
+        logger.debug("Visite d'un appel de fonction: {}", ctx.getText());
+
+        String functionName = "";
+        Map<String, Object> namedArgs = new HashMap<>();
+
+        // Déterminer le nom de la fonction
+        if (ctx.namespaceId() != null && ctx.ID() != null) {
+            // Format namespace:fonction(args)
+            String namespace = ctx.namespaceId().getText();
+            String function = ctx.ID().getText();
+            functionName = namespace + ":" + function;
+            logger.debug("Appel de fonction avec namespace: {}", functionName);
+        } else if (ctx.ID() != null) {
+            // Format fonction(args) - cas non traité dans la grammaire actuelle
+            functionName = ctx.ID().getText();
+            logger.debug("Appel de fonction simple: {}", functionName);
+        }
+
+        // Collecter les arguments
+        if (ctx.argumentList() != null) {
+            // Analyser le texte des arguments pour extraire les arguments nommés
+            // Format attendu: "argName: argValue"
+            for (int i = 0; i < ctx.argumentList().expression().size(); i++) {
+                JnaneLangParser.ExpressionContext exprCtx = ctx.argumentList().expression(i);
+                String argText = exprCtx.getText();
+
+                // Vérifier si c'est un argument nommé (contient ":")
+                int colonPos = argText.indexOf(':');
+                if (colonPos > 0) {
+                    // Extraire le nom de l'argument (avant le ":")
+                    String argName = argText.substring(0, colonPos).trim();
+
+                    // Extraire et évaluer la valeur de l'argument (après le ":")
+                    // Correction: utiliser directement l'expression littérale
+                    String valueText = argText.substring(colonPos + 1).trim();
+                    
+                    // Pour les arguments numériques, les traiter directement
+                    Object argValue = null;
+                    try {
+                        int numericValue = Integer.parseInt(valueText);
+                        argValue = numericValue;
+                        logger.debug("Valeur numérique extraite pour l'argument {}: {}", argName, argValue);
+                    } catch (NumberFormatException e) {
+                        // Si ce n'est pas un nombre, essayer de visiter l'expression
+                        for (int j = 0; j < exprCtx.getChildCount(); j++) {
+                            if (exprCtx.getChild(j) instanceof JnaneLangParser.ExpressionContext) {
+                                argValue = visit(exprCtx.getChild(j));
+                                break;
+                            }
+                        }
+                        logger.debug("Valeur non-numérique extraite pour l'argument {}: {}", argName, argValue);
+                    }
+
+                    logger.debug("Argument nommé extrait: {} = {}", argName, argValue);
+                    namedArgs.put(argName, argValue);
+                } else {
+                    // Argument positionnel (ancien format)
+                    Object argValue = visit(exprCtx);
+                    logger.debug("Argument positionnel évalué à: {}", argValue);
+                    // Nous ne traitons plus les arguments positionnels
+                    logger.warn("Argument positionnel détecté, mais non supporté dans le nouveau format");
+                }
+            }
+        }
+
+        // Appeler la fonction via l'interpréteur avec les arguments nommés
+        logger.debug("Appel de la fonction {} avec {} arguments nommés", functionName, namedArgs.size());
+        try {
+            Object result = interpreter.interpretFunctionCallWithNamedArgs(functionName, namedArgs);
+            logger.debug("Résultat de l'appel de fonction {}: {}", functionName, result);
+            return result;
+        } catch (IllegalArgumentException e) {
+            logger.error("Erreur lors de l'appel de fonction {}: {}", functionName, e.getMessage());
+            throw e; // Propager l'erreur pour qu'elle soit gérée par le test
+        }
+    }
+
+    /**
+     * Lie un site d'appel : un nom désignant une fonction intégrée est résolu une fois pour
+     * toutes, et les arguments sont ensuite passés dans l'ordre de sa signature.
+     */
+    private CallSite link(JnaneLangParser.FunctionCallExprContext ctx) {
+        String functionName = ctx.namespaceId() != null
+                ? ctx.namespaceId().getText() + ":" + ctx.ID().getText()
+                : ctx.ID().getText();
+        sites.links.increment();
+        BuiltinFunction builtin = interpreter.linkBuiltin(functionName);
+        if (builtin == null) {
+            return CallSite.UNLINKED;
+        }
+        List<JnaneLangParser.ExpressionContext> arguments = ctx.argumentList() != null
+                ? ctx.argumentList().expression()
+                : List.of();
+        BuiltinRegistry.checkArity(builtin, arguments.size());
+        CallSite site = new CallSite(builtin, arguments);
+        if (builtin.isPure() && arguments.stream().allMatch(JnaneExpressionVisitor::isLiteral)) {
+            // Fonction pure sur des littéraux : évaluée une seule fois
+            site.fold(site.invoke(this));
+        }
+        logger.debug("Site d'appel lié à la fonction intégrée {}{}", functionName, builtin.getSignature());
+        return site;
+    }
+
+    private static boolean isLiteral(ParseTree tree) {
+        while (!(tree instanceof JnaneLangParser.LiteralContext)) {
+            if (tree.getChildCount() != 1) {
+                return false;
+            }
+            tree = tree.getChild(0);
+        }
+        return true;
+    }
+
+    /**
+     * État des sites d'un arbre syntaxique, indexé par nœud. Il est conservé avec l'arbre
+     * analysé d'un fichier de fonction et partagé par les visiteurs de ses appels, y compris
+     * depuis plusieurs fils : les tables sont concurrentes et un site lié n'est plus modifié.
+     */
+    static final class Sites {
+        private final Map<JnaneLangParser.FunctionCallExprContext, CallSite> callSites = new ConcurrentHashMap<>();
+        private final Map<JnaneLangParser.PostfixOpContext, InlineCache> fieldCaches = new ConcurrentHashMap<>();
+        private final LongAdder links = new LongAdder();
+
+        /**
+         * Retourne le nombre de liaisons de sites d'appel faites sur cet arbre.
+         *
+         * @return Nombre de liaisons
+         */
+        long linkCount() {
+            return links.sum();
+        }
+
+        /**
+         * Retourne les caches en ligne des accès aux champs de cet arbre.
+         *
+         * @return Caches, un par site d'accès déjà exécuté
+         */
+        Collection<InlineCache> fieldCaches() {
+            return fieldCaches.values();
+        }
+    }
+
+    /**
+     * Site d'appel lié à une fonction intégrée.
+     */
+    private static final class CallSite {
+        static final CallSite UNLINKED = new CallSite(null, List.of());
+
+        private final BuiltinFunction builtin;
+        private final BuiltinFunction.IntBinary intBinary;
+        private final JnaneLangParser.ExpressionContext[] arguments;
+        private final int arity;
+        private boolean folded;
+        private Object constant;
+
+        CallSite(BuiltinFunction builtin, List<JnaneLangParser.ExpressionContext> arguments) {
+            this.builtin = builtin;
+            this.arguments = arguments.toArray(new JnaneLangParser.ExpressionContext[0]);
+            this.arity = builtin != null ? builtin.getSignature().getArity() : 0;
+            this.intBinary = builtin instanceof BuiltinFunction.IntBinary && this.arguments.length == 2
+                    ? (BuiltinFunction.IntBinary) builtin
+                    : null;
+        }
+
+        void fold(Object value) {
+            constant = value;
+            folded = true;
+        }
+
+        Object invoke(JnaneExpressionVisitor visitor) {
+            if (folded) {
+                return constant;
+            }
+            if (intBinary != null) {
+                Object first = visitor.visit(arguments[0]);
+                Object second = visitor.visit(arguments[1]);
+                if (first instanceof Integer && second instanceof Integer) {
+                    return intBinary.applyAsInt((Integer) first, (Integer) second);
+                }
+                return builtin.invoke(new Object[]{first, second});
+            }
+            Object[] values = new Object[arity];
+            for (int i = 0; i < arguments.length; i++) {
+                values[i] = visitor.visit(arguments[i]);
+            }
+            return builtin.invoke(values);
+        }
+    }
+
+    @Override
+    public Object visitLiteral(JnaneLangParser.LiteralContext ctx) {
+        String text = ctx.getText();
+        logger.debug("Traitement du littéral: {}", text);
+
+        // Interpréter les littéraux selon leur type
+        if (ctx.INTEGER() != null) {
+            try {
+                int value = Integer.parseInt(text);
+                logger.debug("Littéral entier interprété: {}", value);
+                return value;
+            } catch (NumberFormatException e) {
+                logger.error("Erreur lors de l'interprétation du littéral entier: {}", text, e);
+            }
+        } else if (ctx.DECIMAL() != null) {
+            try {
+                double value = Double.parseDouble(text);
+                logger.debug("Littéral décimal interprété: {}", value);
+                return value;
+            } catch (NumberFormatException e) {
+                logger.error("Erreur lors de l'interprétation du littéral décimal: {}", text, e);
+            }
+        } else if (ctx.STRING() != null) {
+            // Enlever les guillemets
+            String value = text.substring(1, text.length() - 1);
+            logger.debug("Littéral chaîne interprété: {}", value);
+            return value;
+        } else if (ctx.BOOLEAN() != null) {
+            boolean value = text.equals("true");
+            logger.debug("Littéral booléen interprété: {}", value);
+            return value;
+        } else if (ctx.NULL() != null) {
+            logger.debug("Littéral null interprété");
+            return null;
+        }
+
+        // Par défaut, retourner le texte brut
+        return text;
+    }
+
+    @Override
+    public Object visitExpressionStmt(JnaneLangParser.ExpressionStmtContext ctx) {
+        logger.debug("Traitement d'une instruction d'expression: {}", ctx.getText());
+
+        // Vérifier si c'est un appel à print
+        String expr = ctx.getText();
+        if (expr.startsWith("print(")) {
+            Object result = visit(ctx.expression());
+            logger.info("Print: {}", result);
+            return result;
+        }
+
+        return visit(ctx.expression());
+    }
+
+    @Override
+    public Object visitIfStmt(JnaneLangParser.IfStmtContext ctx) {
+        logger.debug("Traitement d'une instruction if");
+
+        // Évaluer la condition
+        Object condition = visit(ctx.expression());
+        logger.debug("Condition évaluée à: {}", condition);
+
+        // Si la condition est vraie (non-null et non-false)
+        if (condition != null && (!(condition instanceof Boolean) || (Boolean) condition)) {
+            // Exécuter le bloc then
+            logger.debug("Exécution du bloc then");
+            return visit(ctx.blockStmt(0));
+        } else if (ctx.blockStmt().size() > 1) {
+            // Exécuter le bloc else s'il existe
+            logger.debug("Exécution du bloc else");
+            return visit(ctx.blockStmt(1));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object visitBlockStmt(JnaneLangParser.BlockStmtContext ctx) {
+        logger.debug("Traitement d'un bloc d'instructions");
+
+        Object lastResult = null;
+
+        // Exécuter chaque instruction du bloc
+        for (int i = 1; i < ctx.getChildCount() - 1; i++) { // Ignorer les accolades
+            lastResult = visit(ctx.getChild(i));
+        }
+
+        return lastResult;
+    }
+
+    @Override
+    public Object visitPrimaryExpr(JnaneLangParser.PrimaryExprContext ctx) {
+        logger.debug("Traitement d'une expression primaire: {}", ctx.getText());
+
+        // Si c'est un identifiant, récupérer sa valeur
+        if (ctx.ID() != null) {
+            String variableName = ctx.ID().getText();
+            Object value = interpreter.getVariableValue(variableName);
+            logger.debug("Valeur de la variable {}: {}", variableName, value);
+            return value;
+        }
+
+        // Expression parenthésée: la valeur est celle de l'expression interne
+        if (ctx.expression() != null) {
+            return visit(ctx.expression());
+        }
+
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Object visitConditionalExpr(JnaneLangParser.ConditionalExprContext ctx) {
+        logger.debug("Traitement d'une expression conditionnelle");
+
+        // Si c'est une expression ternaire
+        if (ctx.getChildCount() > 1 && ctx.getChild(1).getText().equals("?")) {
+            // Évaluer la condition
+            Object condition = visit(ctx.getChild(0));
+            logger.debug("Condition évaluée à: {}", condition);
+
+            // Si la condition est vraie (non-null et non-false)
+            if (condition != null && (!(condition instanceof Boolean) || (Boolean) condition)) {
+                // Évaluer l'expression then
+                logger.debug("Évaluation de l'expression then");
+                return visit(ctx.getChild(2));
+            } else {
+                // Évaluer l'expression else
+                logger.debug("Évaluation de l'expression else");
+                return visit(ctx.getChild(4));
+            }
+        }
+
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Object visitAdditiveExpr(JnaneLangParser.AdditiveExprContext ctx) {
+        logger.debug("Traitement d'une expression additive");
+
+        // Si c'est une addition ou soustraction
+        if (ctx.getChildCount() > 1) {
+            Object left = visit(ctx.getChild(0));
+            String operator = ctx.getChild(1).getText();
+            Object right = visit(ctx.getChild(2));
+
+            logger.debug("Expression additive: {} {} {}", left, operator, right);
+
+            // Addition
+            if (operator.equals("+")) {
+                if (left instanceof Integer && right instanceof Integer) {
+                    return interpreter.interpretAddition((Integer) left, (Integer) right);
+                } else if (left instanceof String || right instanceof String) {
+                    // Concaténation de chaînes
+                    return String.valueOf(left) + String.valueOf(right);
+                }
+            }
+            // Soustraction
+            else if (operator.equals("-")) {
+                if (left instanceof Integer && right instanceof Integer) {
+                    return (Integer) left - (Integer) right;
+                }
+            }
+        }
+
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Object visitRelationalExpr(JnaneLangParser.RelationalExprContext ctx) {
+        // Si c'est une comparaison d'ordre
+        if (ctx.getChildCount() > 1) {
+            Object left = visit(ctx.getChild(0));
+            String operator = ctx.getChild(1).getText();
+            Object right = visit(ctx.getChild(2));
+
+            logger.debug("Expression relationnelle: {} {} {}", left, operator, right);
+
+            int comparison = Views.compareOperands(left, right);
+            switch (operator) {
+                case "<":
+                    return comparison < 0;
+                case ">":
+                    return comparison > 0;
+                case "<=":
+                    return comparison <= 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Object visitEqualityExpr(JnaneLangParser.EqualityExprContext ctx) {
+        logger.debug("Traitement d'une expression d'égalité");
+
+        // Si c'est une comparaison d'égalité
+        if (ctx.getChildCount() > 1) {
+            Object left = visit(ctx.getChild(0));
+            String operator = ctx.getChild(1).getText();
+            Object right = visit(ctx.getChild(2));
+
+            logger.debug("Expression d'égalité: {} {} {}", left, operator, right);
+
+            // Égalité
+            if (operator.equals("==")) {
+                if (left == null && right == null) {
+                    return true;
+                } else if (left == null || right == null) {
+                    return false;
+                } else {
+                    return left.equals(right);
+                }
+            }
+            // Inégalité
+            else if (operator.equals("!=")) {
+                if (left == null && right == null) {
+                    return false;
+                } else if (left == null || right == null) {
+                    return true;
+                } else {
+                    return !left.equals(right);
+                }
+            }
+        }
+
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Object visitObjectLiteral(JnaneLangParser.ObjectLiteralContext ctx) {
+        logger.debug("Traitement d'un littéral d'objet: {}", ctx.getText());
+
+        // Enregistrement à forme partagée ; au-delà de ShapedRecord.MAX_FIELDS champs,
+        // construction en masse via une table transitoire, figée à la fin
+        ShapedRecord.Builder record = ShapedRecord.builder();
+        PersistentMap.Transient<String, Object> large = null;
+        for (JnaneLangParser.ObjectFieldContext fieldCtx : ctx.objectField()) {
+            Object value = visit(fieldCtx.expression());
+            if (fieldCtx.ELLIPSIS() != null) {
+                // Décomposition: ...autreObjet recopie les champs de l'objet
+                if (!(value instanceof Map)) {
+                    String errorMsg = "Décomposition impossible, objet attendu: " + fieldCtx.expression().getText();
+                    logger.error(errorMsg);
+                    throw new IllegalArgumentException(errorMsg);
+                }
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    large = putField(record, large, String.valueOf(entry.getKey()), entry.getValue());
+                }
+            } else {
+                large = putField(record, large, fieldCtx.ID().getText(), value);
+            }
+        }
+        return intern(large != null ? large.persistent() : record.build());
+    }
+
+    /**
+     * Ajoute un champ à un littéral d'objet, en basculant vers une table persistante
+     * quand l'enregistrement atteint sa taille maximale.
+     *
+     * @return Table transitoire en cours, null tant que l'enregistrement suffit
+     */
+    private static PersistentMap.Transient<String, Object> putField(ShapedRecord.Builder record,
+                                                                    PersistentMap.Transient<String, Object> large,
+                                                                    String key, Object value) {
+        if (large == null && record.size() >= ShapedRecord.MAX_FIELDS) {
+            large = PersistentMap.<String, Object>from(record.build()).asTransient();
+        }
+        if (large != null) {
+            large.put(key, value);
+        } else {
+            record.put(key, value);
+        }
+        return large;
+    }
+
+    @Override
+    public Object visitArrayLiteral(JnaneLangParser.ArrayLiteralContext ctx) {
+        logger.debug("Traitement d'un littéral de tableau: {}", ctx.getText());
+
+        // Stockage primitif tant que les éléments sont des nombres ou booléens homogènes
+        PrimitiveVector.Builder builder = PrimitiveVector.builder();
+        for (JnaneLangParser.ExpressionContext exprCtx : ctx.expression()) {
+            builder.add(visit(exprCtx));
+        }
+        return intern(builder.build());
+    }
+
+    /**
+     * Partage l'instance d'un littéral avec les valeurs égales, si l'internement est activé.
+     * Les littéraux imbriqués étant internés d'abord, les sous-valeurs sont déjà canoniques.
+     */
+    private Object intern(Object value) {
+        Interner interner = interpreter.getInterner();
+        return interner != null ? interner.intern(value) : value;
+    }
+
+    @Override
+    public Object visitLambdaExpr(JnaneLangParser.LambdaExprContext ctx) {
+        logger.debug("Création d'une lambda: {}", ctx.getText());
+        return new JnaneLambda(ctx, this, interpreter);
+    }
+
+    @Override
+    public Object visitPostfixExpr(JnaneLangParser.PostfixExprContext ctx) {
+        Object value = visit(ctx.primaryExpr());
+        for (JnaneLangParser.PostfixOpContext opCtx : ctx.postfixOp()) {
+            value = applyPostfixOp(value, opCtx);
+        }
+        return value;
+    }
+
+    /**
+     * Applique un opérateur postfixé (accès à un champ, index, |> ou lentille @>)
+     *
+     * @param value Valeur courante
+     * @param opCtx Opérateur postfixé
+     * @return Nouvelle valeur
+     */
+    private Object applyPostfixOp(Object value, JnaneLangParser.PostfixOpContext opCtx) {
+        if (opCtx.DOT() != null) {
+            String fieldName = opCtx.ID().getText();
+            if (!(value instanceof Map)) {
+                String errorMsg = "Accès au champ '" + fieldName + "' impossible sur: " + value;
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            return sites.fieldCaches.computeIfAbsent(opCtx, op -> new InlineCache(fieldName)).get(value);
+        }
+        if (opCtx.LBRACK() != null) {
+            Object key = visit(opCtx.expression());
+            if (value instanceof List && key instanceof Integer) {
+                return ((List<?>) value).get((Integer) key);
+            }
+            if (value instanceof Map) {
+                return ((Map<?, ?>) value).get(key);
+            }
+            String errorMsg = "Accès indexé [" + key + "] impossible sur: " + value;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        if (opCtx.PIPE_FORWARD() != null) {
+            Object result = toFunction(visit(opCtx.primaryExpr()), opCtx.getText()).apply(value);
+            if (value instanceof Map && result instanceof Map) {
+                recordTransition(value, result, null, opCtx.getText());
+            }
+            return result;
+        }
+
+        // Opérateurs de lentille: @> lentille, @> lentille := valeur, @> lentille :~ fonction
+        Lens lens = evaluateLens(opCtx.lensExpr());
+        if (opCtx.COLON_EQUALS() != null) {
+            return recordLensUpdate(lens, value, lens.set(value, visit(opCtx.expression())), opCtx.getText());
+        }
+        if (opCtx.COLON_TILDE() != null) {
+            JnaneFunction transformation = toFunction(visit(opCtx.expression()), opCtx.getText());
+            return recordLensUpdate(lens, value, lens.modify(value, transformation::apply), opCtx.getText());
+        }
+        return lens.view(value);
+    }
+
+    @Override
+    public Object visitLensExpr(JnaneLangParser.LensExprContext ctx) {
+        if (ctx.ID() != null) {
+            return interpreter.getVariableValue(ctx.ID().getText());
+        }
+        return visitChildren(ctx);
+    }
+
+    /**
+     * Évalue une expression de lentille et vérifie qu'elle produit bien une lentille
+     *
+     * @param ctx Expression de lentille
+     * @return Lentille
+     */
+    private Lens evaluateLens(JnaneLangParser.LensExprContext ctx) {
+        return toLens(visit(ctx), ctx.getText());
+    }
+
+    private Lens toLens(Object value, String source) {
+        if (value instanceof Lens) {
+            return (Lens) value;
+        }
+        if (value instanceof String) {
+            // Un chemin pointé est accepté comme lentille de chemin anonyme
+            return PathLens.path(null, (String) value);
+        }
+        String errorMsg = "Lentille attendue: " + source + " (valeur: " + value + ")";
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
+    private JnaneFunction toFunction(Object value, String source) {
+        if (value instanceof JnaneFunction) {
+            return (JnaneFunction) value;
+        }
+        String errorMsg = "Fonction attendue: " + source + " (valeur: " + value + ")";
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
+    /**
+     * Enregistre dans l'historique la mise à jour d'un état par une lentille.
+     * Le delta d'une lentille de chemin est connu sans comparer les deux versions.
+     *
+     * @return L'état produit
+     */
+    private Object recordLensUpdate(Lens lens, Object source, Object result, String description) {
+        if (source instanceof Map && result != source) {
+            StateDelta delta = lens instanceof PathLens
+                    ? StateDelta.ofPath(((PathLens) lens).getPath(), lens.view(result))
+                    : null;
+            recordTransition(source, result, delta, description);
+        }
+        return result;
+    }
+
+    private void recordTransition(Object source, Object result, StateDelta delta, String description) {
+        if (result != source) {
+            interpreter.getHistoryStore().recordTransition(source, result, delta, description);
+        }
+    }
+
+    private static String unquote(TerminalNode stringNode) {
+        String text = stringNode.getText();
+        return text.substring(1, text.length() - 1);
+    }
+
+    private static boolean isTruthy(Object value) {
+        return value != null && (!(value instanceof Boolean) || (Boolean) value);
+    }
+
+    @Override
+    public Object visitLensDefinition(JnaneLangParser.LensDefinitionContext ctx) {
+        String operation = ctx.getChild(0).getText();
+        logger.debug("Définition de lentille: {}", ctx.getText());
+        String sourceType = ctx.ID() != null ? ctx.ID().getText() : null;
+
+        switch (operation) {
+            case "ns:lentille_champ":
+                return PathLens.field(sourceType, unquote(ctx.STRING()));
+            case "ns:lentille_chemin":
+                return PathLens.path(sourceType, unquote(ctx.STRING()));
+            case "ns:lentille_optionnelle":
+                return PathLens.optionalField(sourceType, unquote(ctx.STRING()));
+            case "ns:lentille_collection": {
+                Object key = visit(ctx.expression());
+                if (key instanceof Integer) {
+                    return PathLens.index(sourceType, (Integer) key);
+                }
+                return PathLens.field(sourceType, String.valueOf(key));
+            }
+            case "ns:creer_lentille": {
+                JnaneFunction getter = toFunction(visit(ctx.lambdaExpr(0)), ctx.lambdaExpr(0).getText());
+                JnaneFunction setter = toFunction(visit(ctx.lambdaExpr(1)), ctx.lambdaExpr(1).getText());
+                return Lenses.of(getter::apply, setter::apply);
+            }
+            case "ns:lentille_predicat": {
+                JnaneFunction predicate = toFunction(visit(ctx.lambdaExpr(0)), ctx.lambdaExpr(0).getText());
+                return Lenses.predicate(element -> isTruthy(predicate.apply(element)));
+            }
+            default:
+                String errorMsg = "Définition de lentille non supportée: " + operation;
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+        }
+    }
+
+    @Override
+    public Object visitLensOperation(JnaneLangParser.LensOperationContext ctx) {
+        String operation = ctx.getChild(0).getText();
+        logger.debug("Opération de lentille: {}", ctx.getText());
+
+        switch (operation) {
+            case "ns:voir":
+                return evaluateLens(ctx.lensExpr(0)).view(visit(ctx.expression(0)));
+            case "ns:modifier":
+            case "ns:modifier_via_lentille": {
+                Lens lens = evaluateLens(ctx.lensExpr(0));
+                Object target = visit(ctx.expression(0));
+                return recordLensUpdate(lens, target, lens.set(target, visit(ctx.expression(1))), ctx.getText());
+            }
+            case "ns:transformer":
+            case "ns:transformer_etat": {
+                Lens lens = evaluateLens(ctx.lensExpr(0));
+                Object target = visit(ctx.expression(0));
+                JnaneFunction transformation = toFunction(visit(ctx.expression(1)), ctx.expression(1).getText());
+                return recordLensUpdate(lens, target, lens.modify(target, transformation::apply), ctx.getText());
+            }
+            case "ns:annuler_modification": {
+                Object target = visit(ctx.expression(0));
+                HistoryStore.VersionRef ref = interpreter.getHistoryStore().track(target);
+                if (ref.getVersion() <= ref.getLineage().getFirstVersion()) {
+                    String errorMsg = "Aucune modification à annuler pour: " + ctx.expression(0).getText();
+                    logger.error(errorMsg);
+                    throw new IllegalStateException(errorMsg);
+                }
+                Object previous = ref.getLineage().stateAt(ref.getVersion() - 1);
+                interpreter.getHistoryStore().recordTransition(target, previous, null, "Annulation");
+                return previous;
+            }
+            case "ns:composer_lentilles": {
+                List<Lens> lenses = new ArrayList<>();
+                for (Object element : (List<?>) visit(ctx.arrayLiteral())) {
+                    lenses.add(toLens(element, ctx.arrayLiteral().getText()));
+                }
+                return Lenses.compose(lenses);
+            }
+            case "ns:composer_lentilles_paralleles": {
+                Map<String, PathLens> lenses = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) visit(ctx.objectLiteral())).entrySet()) {
+                    Lens lens = toLens(entry.getValue(), ctx.objectLiteral().getText());
+                    if (!(lens instanceof PathLens)) {
+                        String errorMsg = "Composition parallèle: lentille de chemin attendue pour '" + entry.getKey() + "'";
+                        logger.error(errorMsg);
+                        throw new IllegalArgumentException(errorMsg);
+                    }
+                    lenses.put(String.valueOf(entry.getKey()), (PathLens) lens);
+                }
+                return new ParallelLens(lenses);
+            }
+            case "ns:lentille_conditionnelle": {
+                JnaneFunction condition = toFunction(visit(ctx.lambdaExpr()), ctx.lambdaExpr().getText());
+                return Lenses.conditional(target -> isTruthy(condition.apply(target)),
+                        evaluateLens(ctx.lensExpr(0)), evaluateLens(ctx.lensExpr(1)));
+            }
+            case "ns:valider_si": {
+                Object target = visit(ctx.expression(0));
+                JnaneFunction predicate = toFunction(visit(ctx.lambdaExpr()), ctx.lambdaExpr().getText());
+                if (!isTruthy(predicate.apply(target))) {
+                    String errorMsg = "Validation échouée: " + ctx.lambdaExpr().getText();
+                    logger.error(errorMsg);
+                    throw new IllegalStateException(errorMsg);
+                }
+                return target;
+            }
+            default:
+                String errorMsg = "Opération de lentille non supportée: " + operation;
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+        }
+    }
+
+    @Override
+    public Object visitViewOperation(JnaneLangParser.ViewOperationContext ctx) {
+        String operation = ctx.getChild(0).getText();
+        logger.debug("Opération de vue: {}", ctx.getText());
+
+        switch (operation) {
+            case "ns:vue":
+                return cachedView(visit(ctx.expression(0)), Views.field(unquote(ctx.STRING())));
+            case "ns:vue_transformee":
+                return cachedView(visit(ctx.expression(0)),
+                        Views.transformed(unquote(ctx.STRING()), (Map<?, ?>) visit(ctx.objectLiteral())));
+            case "ns:projeter_vue": {
+                Object source = visit(ctx.expression(0));
+                List<String> fields = new ArrayList<>();
+                for (Object field : (List<?>) visit(ctx.arrayLiteral())) {
+                    fields.add(String.valueOf(field));
+                }
+                View projection = Views.projection(fields);
+                if (source instanceof Collection) {
+                    // Projection de chaque élément, fusionnée avec les étapes précédentes
+                    return LazyView.of((Collection<?>) source).map(projection::compute, true);
+                }
+                return cachedView(source, projection);
+            }
+            case "ns:filtrer_vue": {
+                Object source = visit(ctx.expression(0));
+                if (!(source instanceof Collection)) {
+                    String errorMsg = "Collection attendue pour ns:filtrer_vue: " + source;
+                    logger.error(errorMsg);
+                    throw new IllegalArgumentException(errorMsg);
+                }
+                JnaneFunction predicate = toFunction(visit(ctx.lambdaExpr()), ctx.lambdaExpr().getText());
+                return LazyView.of((Collection<?>) source).filter(element -> isTruthy(predicate.apply(element)), false);
+            }
+            case "ns:somme":
+                return Aggregates.sum(toCollection(visit(ctx.expression(0)), operation));
+            case "ns:moyenne":
+                return Aggregates.average(toCollection(visit(ctx.expression(0)), operation));
+            case "ns:minimum":
+                return Aggregates.min(toCollection(visit(ctx.expression(0)), operation));
+            case "ns:maximum":
+                return Aggregates.max(toCollection(visit(ctx.expression(0)), operation));
+            case "ns:convertir_vue":
+                return cachedView(visit(ctx.expression(0)), Views.conversion(unquote(ctx.STRING())));
+            case "ns:fusionner_vues":
+                return KWayMerge.merge(toCollections((List<?>) visit(ctx.arrayLiteral()), operation),
+                        KWayMerge.DEFAULT_KEY_FIELD, false);
+            case "ns:composer_vues": {
+                List<Object> inputs = new ArrayList<>();
+                for (JnaneLangParser.ExpressionContext expression : ctx.expression()) {
+                    inputs.add(visit(expression));
+                }
+                // Un dernier argument chaîne désigne le champ de clé
+                String keyField = KWayMerge.DEFAULT_KEY_FIELD;
+                if (inputs.get(inputs.size() - 1) instanceof String) {
+                    keyField = (String) inputs.remove(inputs.size() - 1);
+                }
+                return KWayMerge.merge(toCollections(inputs, operation), keyField, true);
+            }
+            case "ns:historique": {
+                HistoryStore.VersionRef ref = interpreter.getHistoryStore().track(visit(ctx.expression(0)));
+                return PersistentVector.from(ref.getLineage().statesUpTo(ref.getVersion()));
+            }
+            case "ns:etat_historique": {
+                HistoryStore.VersionRef ref = interpreter.getHistoryStore().track(visit(ctx.expression(0)));
+                return ref.getLineage().stateAt(toLong(visit(ctx.expression(1)), ctx.expression(1).getText()));
+            }
+            case "ns:reconstruire_etat": {
+                HistoryStore.VersionRef ref = interpreter.getHistoryStore().track(visit(ctx.expression(0)));
+                return ref.getLineage().stateAtTime(toLong(visit(ctx.expression(1)), ctx.expression(1).getText()));
+            }
+            case "ns:reconstruire_vue": {
+                HistoryStore.VersionRef ref = interpreter.getHistoryStore().track(visit(ctx.expression(0)));
+                Object state = ref.getLineage().stateAtTime(toLong(visit(ctx.expression(1)), ctx.expression(1).getText()));
+                return Views.field(unquote(ctx.STRING())).compute(state);
+            }
+            case "ns:vue_temporelle":
+                return temporalView(ctx, null);
+            case "ns:vue_historique":
+                return temporalView(ctx, Views.field(unquote(ctx.STRING())));
+            case "ns:journal_transformations":
+                return journal(visit(ctx.expression(0)), null);
+            case "ns:filtrer_journal": {
+                JnaneLangParser.ExpressionContext state = ctx.expression(0);
+                Object filter = ctx.lambdaExpr() != null ? visit(ctx.lambdaExpr()) : visit(ctx.expression(1));
+                if (filter instanceof Map) {
+                    // Un enregistrement de critères filtre les entrées dont les champs sont égaux
+                    Map<?, ?> criteria = (Map<?, ?>) filter;
+                    return journal(visit(state), entry -> matchesCriteria((Map<?, ?>) entry[0], criteria));
+                }
+                return journal(visit(state), toFunction(filter, ctx.getChild(4).getText()));
+            }
+            default:
+                String errorMsg = "Opération de vue non supportée: " + operation;
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+        }
+    }
+
+    /**
+     * Retourne une vue d'un état depuis le cache des vues de l'interpréteur
+     *
+     * @param state État source
+     * @param view Vue demandée
+     * @return Valeur de la vue
+     */
+    private Object cachedView(Object state, View view) {
+        return interpreter.getViewCache().get(interpreter.getHistoryStore(), state, view);
+    }
+
+    /**
+     * Interroge l'index temporel d'un état : un instant donne l'état (ou la vue) valide à
+     * cet instant ; une période {debut, fin} ou [debut, fin] donne les versions valides sur
+     * la période, sous forme d'enregistrements {revision, debut, fin, etat|valeur}
+     * (fin nulle pour la version courante).
+     *
+     * @param ctx Opération de vue
+     * @param view Vue projetée sur chaque version, ou null pour l'état entier
+     * @return État, vue ou liste de versions
+     */
+    private Object temporalView(JnaneLangParser.ViewOperationContext ctx, View view) {
+        HistoryStore.VersionRef ref = interpreter.getHistoryStore().track(visit(ctx.expression(0)));
+        Object period = visit(ctx.expression(1));
+        String source = ctx.expression(1).getText();
+        Object from;
+        Object to;
+        if (period instanceof Map) {
+            from = ((Map<?, ?>) period).get("debut");
+            to = ((Map<?, ?>) period).get("fin");
+        } else if (period instanceof List && ((List<?>) period).size() == 2) {
+            from = ((List<?>) period).get(0);
+            to = ((List<?>) period).get(1);
+        } else {
+            Object state = ref.getLineage().stateAtTime(toLong(period, source));
+            return view != null ? view.compute(state) : state;
+        }
+
+        PersistentVector.Transient<Object> versions = PersistentVector.empty().asTransient();
+        for (TemporalIndex.Interval interval : ref.getLineage().validBetween(toLong(from, source), toLong(to, source))) {
+            versions.conj(PersistentMap.<String, Object>empty()
+                    .assoc("revision", interval.getVersion() <= Integer.MAX_VALUE
+                            ? (Object) (int) interval.getVersion() : (Object) interval.getVersion())
+                    .assoc("debut", interval.getStart())
+                    .assoc("fin", interval.isCurrent() ? null : interval.getEnd())
+                    .assoc(view != null ? "valeur" : "etat",
+                            view != null ? view.compute(interval.getState()) : interval.getState()));
+        }
+        return versions.persistent();
+    }
+
+    private List<Collection<?>> toCollections(List<?> values, String operation) {
+        List<Collection<?>> collections = new ArrayList<>(values.size());
+        for (Object value : values) {
+            collections.add(toCollection(value, operation));
+        }
+        return collections;
+    }
+
+    private Collection<?> toCollection(Object value, String operation) {
+        if (!(value instanceof Collection)) {
+            String errorMsg = "Collection attendue pour " + operation + ": " + value;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        return (Collection<?>) value;
+    }
+
+    private long toLong(Object value, String source) {
+        if (value instanceof Integer || value instanceof Long) {
+            return ((Number) value).longValue();
+        }
+        String errorMsg = "Entier attendu: " + source + " (valeur: " + value + ")";
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
+    private static boolean matchesCriteria(Map<?, ?> record, Map<?, ?> criteria) {
+        for (Map.Entry<?, ?> criterion : criteria.entrySet()) {
+            if (!Objects.equals(record.get(criterion.getKey()), criterion.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Construit le journal des transformations d'un état, éventuellement filtré
+     *
+     * @param state État dont on veut le journal
+     * @param predicate Filtre sur les entrées, ou null
+     * @return Entrées du journal sous forme d'enregistrements
+     */
+    private PersistentVector<Object> journal(Object state, JnaneFunction predicate) {
+        HistoryStore.VersionRef ref = interpreter.getHistoryStore().track(state);
+        PersistentVector.Transient<Object> entries = PersistentVector.empty().asTransient();
+        for (HistoryEntry entry : ref.getLineage().entriesUpTo(ref.getVersion())) {
+            Object record = entry.toRecord();
+            if (predicate == null || isTruthy(predicate.apply(record))) {
+                entries.conj(record);
+            }
+        }
+        return entries.persistent();
+    }
+
+    @Override
+    public Object visitExpression(JnaneLangParser.ExpressionContext ctx) {
+        logger.debug("Visite d'une expression: {}", ctx.getText());
+        return visitChildren(ctx);
+    }
+}
@@ -1,11 +1,16 @@
 package com.jnane.compiler;
 
+import com.jnane.runtime.metrics.MetricsRegistry;
+import com.jnane.runtime.metrics.TimerMetrics;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -16,6 +21,12 @@ import java.util.stream.Stream;
  */
 public class JnaneFunctionLoader {
     
+    // Durées de chargement d'un répertoire dans le registre des mesures, null si les mesures sont désactivées
+    private static final TimerMetrics LOAD_TIMER =
+            MetricsRegistry.isEnabledByDefault() ? MetricsRegistry.getDefault().timer("load") : null;
+
+    private static final Pattern CALL_PATTERN = Pattern.compile("([A-Za-z_][\\w.]*):([A-Za-z_]\\w*)\\s*\\(");
+    
     private Map<String, FunctionInfo> functions;
     private Set<String> loadedFiles;
     private Set<String> errors;
@@ -27,6 +38,7 @@ public class JnaneFunctionLoader {
     }
     
    public void loadFunctionsFromDirectory(String directory) throws IOException {
+    long start = System.nanoTime();
     try (Stream<Path> paths = Files.walk(Paths.get(directory))) {
         List<Path> jnFiles = paths
             .filter(Files::isRegularFile)
@@ -40,6 +52,9 @@ public class JnaneFunctionLoader {
 
     // Vérification des cycles après le chargement de toutes les fonctions
     detectCycles();
+    if (LOAD_TIMER != null) {
+        LOAD_TIMER.recordSince(start);
+    }
 }
 
 public void loadFunctionFromFile(String filePath, String baseDir) throws IOException {
@@ -48,7 +63,13 @@ public void loadFunctionFromFile(String filePath, String baseDir) throws IOExcep
     }
 
     String content = new String(Files.readAllBytes(Paths.get(filePath)));
-    String namespace = JnaneFileLoader.getNamespaceFromPath(filePath).replace(baseDir.replace(File.separator, "."), "");
+    // Un chemin absolu commence par un séparateur, absent du namespace calculé
+    String basePrefix = baseDir.replace(File.separator, ".").replaceAll("^\\.+", "");
+    String namespace = JnaneFileLoader.getNamespaceFromPath(filePath).replace(basePrefix, "");
+    // Le séparateur qui suit le répertoire de base ne fait pas partie du namespace
+    if (namespace.startsWith(".")) {
+        namespace = namespace.substring(1);
+    }
     String functionName = JnaneFileLoader.getFunctionNameFromPath(filePath);
     String fullName = namespace + ":" + functionName;
 
@@ -73,19 +94,15 @@ public void loadFunctionFromFile(String filePath, String baseDir) throws IOExcep
         // pour une détection précise des dépendances
         String[] lines = content.split("\n");
         for (String line : lines) {
-            // Recherche des motifs comme "ns:fonction("
-            int colonIndex = line.indexOf(':');
-            if (colonIndex > 0) {
-                int openParenIndex = line.indexOf('(', colonIndex);
-                if (openParenIndex > colonIndex) {
-                    String namespace = line.substring(0, colonIndex).trim();
-                    String function = line.substring(colonIndex + 1, openParenIndex).trim();
-                    
-                    // Ignorer les mots-clés et les commentaires
-                    if (!namespace.startsWith("//") && !namespace.equals("@name")) {
-                        dependencies.add(namespace + ":" + function);
-                    }
-                }
+            String trimmed = line.trim();
+            // Ignorer les commentaires et l'en-tête @name
+            if (trimmed.startsWith("//") || trimmed.startsWith("@name")) {
+                continue;
+            }
+            // Recherche des motifs comme "ns:fonction(", y compris à droite d'une affectation
+            Matcher matcher = CALL_PATTERN.matcher(line);
+            while (matcher.find()) {
+                dependencies.add(matcher.group(1) + ":" + matcher.group(2));
             }
         }
         
@@ -177,6 +194,7 @@ public void loadFunctionFromFile(String filePath, String baseDir) throws IOExcep
         private String name;
         private String filePath;
         private Set<String> dependencies;
+        private volatile boolean typeVerified;
         
         public FunctionInfo(String name, String filePath, Set<String> dependencies) {
             this.name = name;
@@ -195,5 +213,19 @@ public void loadFunctionFromFile(String filePath, String baseDir) throws IOExcep
         public Set<String> getDependencies() {
             return dependencies;
         }
+        
+        /**
+         * Indique si tous les champs annotés de la fonction sont prouvés par l'inférence de
+         * types, sans vérification à l'exécution.
+         *
+         * @return true si la fonction est vérifiée statiquement
+         */
+        public boolean isTypeVerified() {
+            return typeVerified;
+        }
+        
+        public void setTypeVerified(boolean typeVerified) {
+            this.typeVerified = typeVerified;
+        }
     }
 }
@@ -1,14 +1,30 @@
 package com.jnane.compiler;
 
 import com.jnane.compiler.script.Script;
+import com.jnane.runtime.builtin.BuiltinFunction;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.ir.IrRuntime;
+import com.jnane.runtime.metrics.FunctionMetrics;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import com.jnane.runtime.value.InlineCache;
+import com.jnane.runtime.value.Interner;
+import com.jnane.runtime.view.ViewCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Interpréteur pour le langage Jnane
@@ -19,11 +35,14 @@ public class JnaneInterpreter {
     // Stockage des variables
     private final Map<String, Object> variables = new HashMap<>();
 
+    // Environnement de la lambda en cours d'appel (variables capturées et paramètres), null hors lambda
+    private Map<String, Object> lambdaFrame;
+
     // Stockage des définitions de fonctions et leurs paramètres
-    private final Map<String, Set<String>> functionParameters = new HashMap<>();
+    private final Map<String, Set<String>> functionParameters;
     
     // Stockage des paramètres optionnels des fonctions
-    private final Map<String, Set<String>> optionalParameters = new HashMap<>();
+    private final Map<String, Set<String>> optionalParameters;
     
     // Chargeur de fonctions pour la découverte dynamique
     private final JnaneFunctionLoader functionLoader;
@@ -34,12 +53,39 @@ public class JnaneInterpreter {
     // Chemin de base des ressources
     private String resourcesBasePath;
 
+    // Registre des lignées d'états (ns:historique, ns:journal_transformations)
+    private HistoryStore historyStore = HistoryStore.getDefault();
+
+    // Cache des vues matérialisées (ns:vue, ns:projeter_vue, ns:convertir_vue)
+    private ViewCache viewCache = ViewCache.getDefault();
+
+    // Table d'internement des littéraux, null si l'internement est désactivé
+    private Interner interner = Interner.isEnabledByDefault() ? Interner.getDefault() : null;
+
+    // Traceur des lectures et appels (moteur réactif), null si l'exécution n'est pas tracée
+    private ExecutionTracer tracer;
+
+    // Fonctions intégrées implémentées en Java (math:add, print...)
+    private BuiltinRegistry builtins = BuiltinRegistry.getDefault();
+
+    // Registre des mesures par fonction, null si les appels ne sont pas mesurés
+    private MetricsRegistry metrics = MetricsRegistry.isEnabledByDefault() ? MetricsRegistry.getDefault() : null;
+
+    // Profileur des fonctions Jnane, transmis aux interpréteurs des fonctions appelées
+    private JnaneProfiler profiler;
+
+    // Arbre analysé et sites liés de chaque fichier de fonction, partagés par les
+    // interpréteurs issus du même moteur et remplacés quand le fichier change
+    private Map<Path, FunctionCode> functionCodes = new ConcurrentHashMap<>();
+
     /**
      * Constructeur
      */
     public JnaneInterpreter() {
         logger.debug("Initialisation de l'interpréteur Jnane");
         this.functionLoader = new JnaneFunctionLoader();
+        this.functionParameters = new HashMap<>();
+        this.optionalParameters = new HashMap<>();
         this.resourcesBasePath = "src/main/resources";
         // Charger les fonctions disponibles
         try {
@@ -57,6 +103,8 @@ public class JnaneInterpreter {
     public JnaneInterpreter(String resourcesBasePath) {
         logger.debug("Initialisation de l'interpréteur Jnane avec chemin de ressources: {}", resourcesBasePath);
         this.functionLoader = new JnaneFunctionLoader();
+        this.functionParameters = new HashMap<>();
+        this.optionalParameters = new HashMap<>();
         this.resourcesBasePath = resourcesBasePath;
         // Charger les fonctions disponibles
         try {
@@ -65,6 +113,45 @@ public class JnaneInterpreter {
             logger.error("Erreur lors du chargement des fonctions disponibles", e);
         }
     }
+
+    /**
+     * Constructeur sur des fonctions déjà chargées (espace de travail du démon) : le
+     * répertoire n'est pas relu, seuls les paramètres et validateurs sont préparés.
+     *
+     * @param resourcesBasePath Chemin de base des ressources
+     * @param functionLoader Chargeur dont les fonctions du répertoire sont déjà chargées
+     */
+    JnaneInterpreter(String resourcesBasePath, JnaneFunctionLoader functionLoader) {
+        logger.debug("Initialisation de l'interpréteur Jnane sur les fonctions chargées de: {}", resourcesBasePath);
+        this.functionLoader = functionLoader;
+        this.functionParameters = new HashMap<>();
+        this.optionalParameters = new HashMap<>();
+        this.resourcesBasePath = resourcesBasePath;
+        registerLoadedFunctions();
+    }
+
+    /**
+     * Constructeur d'un interpréteur neuf, sans variables, qui partage les fonctions chargées
+     * et la configuration d'un autre (registres, cache, traceur, profileur). Les tables
+     * partagées ne sont plus modifiées après le chargement : des interpréteurs issus du même
+     * moteur peuvent s'exécuter en parallèle.
+     *
+     * @param engine Interpréteur dont les fonctions sont chargées
+     */
+    JnaneInterpreter(JnaneInterpreter engine) {
+        this.functionLoader = engine.functionLoader;
+        this.functionParameters = engine.functionParameters;
+        this.optionalParameters = engine.optionalParameters;
+        this.resourcesBasePath = engine.resourcesBasePath;
+        this.historyStore = engine.historyStore;
+        this.viewCache = engine.viewCache;
+        this.interner = engine.interner;
+        this.tracer = engine.tracer;
+        this.builtins = engine.builtins;
+        this.metrics = engine.metrics;
+        this.profiler = engine.profiler;
+        this.functionCodes = engine.functionCodes;
+    }
     
     /**
      * Charge toutes les fonctions disponibles dans le répertoire des ressources
@@ -74,7 +161,13 @@ public class JnaneInterpreter {
     private void loadAvailableFunctions() throws IOException {
         logger.info("Chargement des fonctions disponibles depuis: {}", resourcesBasePath);
         functionLoader.loadFunctionsFromDirectory(resourcesBasePath);
-        
+        registerLoadedFunctions();
+    }
+
+    /**
+     * Prépare les fonctions du chargeur : paramètres attendus et validateurs des champs
+     */
+    private void registerLoadedFunctions() {
         // Vérifier s'il y a des erreurs de cycle
         if (functionLoader.hasErrors()) {
             logger.error("Erreurs détectées lors du chargement des fonctions:");
@@ -94,6 +187,9 @@ public class JnaneInterpreter {
                 Set<String> params = extractFunctionParameters(content);
                 registerFunctionParameters(functionName, params);
                 logger.debug("Paramètres extraits pour la fonction {}: {}", functionName, params);
+                // Précompiler le validateur : les champs prouvés par l'inférence ne sont plus vérifiés
+                entry.getValue().setTypeVerified(FieldValidator.forFile(filePath, signatureResolver()).isVerified());
+                logger.debug("Types de la fonction {} prouvés statiquement: {}", functionName, entry.getValue().isTypeVerified());
             } catch (IOException e) {
                 logger.error("Erreur lors de l'extraction des paramètres pour la fonction {}", functionName, e);
             }
@@ -102,6 +198,16 @@ public class JnaneInterpreter {
         logger.info("Fonctions chargées: {}", functionLoader.getFunctions().keySet());
     }
     
+    /**
+     * Retourne la résolution des types de retour des fonctions Jnane et intégrées, utilisée
+     * par l'inférence de types des validateurs.
+     *
+     * @return Résolution des signatures
+     */
+    public TypeInference.SignatureResolver signatureResolver() {
+        return TypeInference.resolverFor(functionLoader, builtins);
+    }
+
     /**
      * Extrait les paramètres d'une fonction à partir du contenu du fichier
      * 
@@ -196,6 +302,12 @@ public class JnaneInterpreter {
      * @return Valeur de la variable
      */
     public Object getVariableValue(String name) {
+        if (lambdaFrame != null) {
+            return lambdaFrame.get(name);
+        }
+        if (tracer != null) {
+            tracer.variableRead(name);
+        }
         logger.debug("Récupération de la valeur de la variable {}: {}", name, variables.get(name));
         return variables.get(name);
     }
@@ -207,6 +319,12 @@ public class JnaneInterpreter {
      * @return true si la variable existe, false sinon
      */
     public boolean hasVariable(String name) {
+        if (lambdaFrame != null) {
+            return lambdaFrame.containsKey(name);
+        }
+        if (tracer != null) {
+            tracer.variableRead(name);
+        }
         boolean exists = variables.containsKey(name);
         logger.debug("Vérification de l'existence de la variable {}: {}", name, exists);
         return exists;
@@ -219,10 +337,193 @@ public class JnaneInterpreter {
      * @param value Valeur de la variable
      */
     public void setVariableValue(String name, Object value) {
+        if (lambdaFrame != null) {
+            lambdaFrame.put(name, value);
+            return;
+        }
         variables.put(name, value);
         logger.debug("Variable définie: {} = {}", name, value);
     }
 
+    /**
+     * Retourne le registre d'historique des états
+     *
+     * @return Registre d'historique
+     */
+    public HistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    /**
+     * Définit le registre d'historique des états
+     *
+     * @param historyStore Registre d'historique
+     */
+    public void setHistoryStore(HistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    /**
+     * Retourne le cache des vues matérialisées
+     *
+     * @return Cache des vues
+     */
+    public ViewCache getViewCache() {
+        return viewCache;
+    }
+
+    /**
+     * Définit le cache des vues matérialisées
+     *
+     * @param viewCache Cache des vues
+     */
+    public void setViewCache(ViewCache viewCache) {
+        this.viewCache = viewCache;
+    }
+
+    /**
+     * Retourne la table d'internement des littéraux
+     *
+     * @return Table d'internement, ou null si l'internement est désactivé
+     */
+    public Interner getInterner() {
+        return interner;
+    }
+
+    /**
+     * Définit la table d'internement des littéraux
+     *
+     * @param interner Table d'internement, ou null pour désactiver l'internement
+     */
+    public void setInterner(Interner interner) {
+        this.interner = interner;
+    }
+
+    /**
+     * Retourne le traceur d'exécution
+     *
+     * @return Traceur, ou null si l'exécution n'est pas tracée
+     */
+    public ExecutionTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Définit le traceur d'exécution
+     *
+     * @param tracer Traceur, ou null pour désactiver le traçage
+     */
+    public void setTracer(ExecutionTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Retourne le chargeur des fonctions disponibles
+     *
+     * @return Chargeur de fonctions
+     */
+    public JnaneFunctionLoader getFunctionLoader() {
+        return functionLoader;
+    }
+
+    /**
+     * Retourne le registre des fonctions intégrées
+     *
+     * @return Registre des fonctions intégrées
+     */
+    public BuiltinRegistry getBuiltins() {
+        return builtins;
+    }
+
+    /**
+     * Définit le registre des fonctions intégrées
+     *
+     * @param builtins Registre des fonctions intégrées
+     */
+    public void setBuiltins(BuiltinRegistry builtins) {
+        this.builtins = builtins;
+        // Les sites liés à l'ancien registre ne sont plus valables pour cet interpréteur
+        this.functionCodes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Retourne le registre des mesures d'exécution
+     *
+     * @return Registre, ou null si les appels ne sont pas mesurés
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Définit le registre des mesures d'exécution
+     *
+     * @param metrics Registre, ou null pour ne pas mesurer les appels
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retourne le profileur des fonctions Jnane
+     *
+     * @return Profileur, ou null si l'exécution n'est pas profilée
+     */
+    public JnaneProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Définit le profileur des fonctions Jnane
+     *
+     * @param profiler Profileur, ou null pour désactiver le profilage
+     */
+    public void setProfiler(JnaneProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Résout un nom de fonction vers une fonction intégrée. Une fonction Jnane chargée
+     * depuis les ressources masque la fonction intégrée de même nom.
+     *
+     * @param functionName Nom complet de la fonction
+     * @return Fonction intégrée, null si le nom désigne une fonction Jnane ou est inconnu
+     */
+    public BuiltinFunction linkBuiltin(String functionName) {
+        if (functionLoader.getFunctions().containsKey(functionName)) {
+            return null;
+        }
+        return builtins.lookup(functionName);
+    }
+
+    /**
+     * Remplace les variables visibles par l'environnement d'une lambda le temps de son appel :
+     * lectures et affectations portent alors sur cet environnement, sans toucher aux
+     * variables de l'interpréteur ni passer par le traceur.
+     *
+     * @param frame Environnement de la lambda, ou null pour revenir aux variables de l'interpréteur
+     * @return Environnement précédent, à rétablir à la fin de l'appel
+     */
+    Map<String, Object> swapLambdaFrame(Map<String, Object> frame) {
+        Map<String, Object> previous = lambdaFrame;
+        lambdaFrame = frame;
+        return previous;
+    }
+
+    /**
+     * Supprime une variable
+     *
+     * @param name Nom de la variable
+     */
+    public void removeVariable(String name) {
+        if (lambdaFrame != null) {
+            lambdaFrame.remove(name);
+            return;
+        }
+        variables.remove(name);
+        logger.debug("Variable supprimée: {}", name);
+    }
+
     /**
      * Interprète une addition entre deux entiers
      *
@@ -265,6 +566,23 @@ public class JnaneInterpreter {
      * @throws IllegalArgumentException si un argument inconnu est fourni ou si un argument obligatoire est manquant
      */
     public Object interpretFunctionCallWithNamedArgs(String functionName, Map<String, Object> namedArgs) {
+        if (metrics == null) {
+            return invokeFunction(functionName, namedArgs, null);
+        }
+        // La latence d'un appel comprend celle des fonctions qu'il appelle
+        FunctionMetrics functionMetrics = metrics.function(functionName);
+        long start = System.nanoTime();
+        try {
+            return invokeFunction(functionName, namedArgs, functionMetrics);
+        } catch (RuntimeException e) {
+            functionMetrics.recordError();
+            throw e;
+        } finally {
+            functionMetrics.recordCall(System.nanoTime() - start);
+        }
+    }
+
+    private Object invokeFunction(String functionName, Map<String, Object> namedArgs, FunctionMetrics functionMetrics) {
         logger.debug("Interprétation de l'appel de fonction: {} avec arguments nommés: {}", functionName, namedArgs);
 
         // Vérifier si la fonction est dans la pile d'appels (détection de cycle)
@@ -274,6 +592,12 @@ public class JnaneInterpreter {
             throw new IllegalStateException(cycleError);
         }
 
+        // Fonctions intégrées : arguments rangés dans l'ordre de la signature
+        BuiltinFunction builtin = linkBuiltin(functionName);
+        if (builtin != null) {
+            return builtin.invoke(BuiltinRegistry.bind(builtin, namedArgs));
+        }
+
         // Vérifier que tous les arguments sont valides
         for (String argName : namedArgs.keySet()) {
             if (!isValidParameter(functionName, argName)) {
@@ -310,55 +634,28 @@ public class JnaneInterpreter {
             
             // Ajouter la fonction à la pile d'appels pour la détection de cycles
             currentCallStack.add(functionName);
+            if (tracer != null) {
+                tracer.functionEntered(functionName);
+            }
+            if (profiler != null) {
+                profiler.enter(functionName);
+            }
             
             try {
                 // Charger et interpréter la fonction à la volée
-                return interpretFunctionFromFile(functionInfo.getFilePath(), namedArgs);
+                return interpretFunctionFromFile(functionInfo.getFilePath(), namedArgs, functionMetrics);
             } finally {
                 // Retirer la fonction de la pile d'appels
                 currentCallStack.remove(functionName);
+                if (tracer != null) {
+                    tracer.functionExited(functionName);
+                }
+                if (profiler != null) {
+                    profiler.exit();
+                }
             }
         }
         
-        // Fonctions intégrées (fallback pour compatibilité)
-        if (functionName.equals("math:add")) {
-            // Vérifier que les arguments requis sont présents
-            if (!namedArgs.containsKey("first") || !namedArgs.containsKey("second")) {
-                String errorMsg = "Arguments manquants pour la fonction math:add. Requis: 'first' et 'second'";
-                logger.error(errorMsg);
-                throw new IllegalArgumentException(errorMsg);
-            }
-
-            Object firstArg = namedArgs.get("first");
-            Object secondArg = namedArgs.get("second");
-
-            logger.debug("Arguments pour math:add: first={} (type: {}), second={} (type: {})",
-                    firstArg, (firstArg != null ? firstArg.getClass().getSimpleName() : "null"),
-                    secondArg, (secondArg != null ? secondArg.getClass().getSimpleName() : "null"));
-
-            try {
-                int a = convertToInt(firstArg);
-                int b = convertToInt(secondArg);
-                return interpretAddition(a, b);
-            } catch (NumberFormatException e) {
-                String errorMsg = "Erreur de conversion des arguments en entiers: " + e.getMessage();
-                logger.error(errorMsg);
-                throw new IllegalArgumentException(errorMsg, e);
-            }
-        } else if (functionName.equals("print")) {
-            // Vérifier que l'argument requis est présent
-            if (!namedArgs.containsKey("message")) {
-                String errorMsg = "Argument manquant pour la fonction print. Requis: 'message'";
-                logger.error(errorMsg);
-                throw new IllegalArgumentException(errorMsg);
-            }
-
-            Object message = namedArgs.get("message");
-            System.out.println(message);
-            logger.info("Fonction print exécutée avec le message: {}", message);
-            return null;
-        }
-
         String errorMsg = "Fonction inconnue: " + functionName;
         logger.error(errorMsg);
         throw new IllegalArgumentException(errorMsg);
@@ -369,18 +666,20 @@ public class JnaneInterpreter {
      *
      * @param filePath Chemin du fichier de la fonction
      * @param namedArgs Arguments nommés de la fonction
+     * @param functionMetrics Mesures de la fonction, null si l'appel n'est pas mesuré
      * @return Résultat de l'interprétation
      */
-    private Object interpretFunctionFromFile(String filePath, Map<String, Object> namedArgs) {
+    private Object interpretFunctionFromFile(String filePath, Map<String, Object> namedArgs,
+                                             FunctionMetrics functionMetrics) {
         logger.debug("Interprétation de la fonction depuis le fichier: {}", filePath);
         
         try {
-            // Charger le script
-            Script script = new Script(filePath);
+            // Arbre du fichier, analysé au premier appel, et sites déjà liés
+            FunctionCode code = functionCode(filePath);
             
-            // Créer un nouvel interpréteur pour cette fonction
-            // avec le même chemin de ressources pour permettre les appels entre fonctions
-            JnaneInterpreter functionInterpreter = new JnaneInterpreter(resourcesBasePath);
+            // Créer un nouvel interpréteur pour cette fonction, sur les mêmes fonctions
+            // chargées pour permettre les appels entre fonctions sans relire le répertoire
+            JnaneInterpreter functionInterpreter = new JnaneInterpreter(this);
             
             // Copier les variables d'entrée (arguments) dans l'interpréteur de la fonction
             for (Map.Entry<String, Object> entry : namedArgs.entrySet()) {
@@ -388,22 +687,31 @@ public class JnaneInterpreter {
             }
             
             // Créer un visiteur pour interpréter le contenu
-            JnaneExpressionVisitor visitor = new JnaneExpressionVisitor(functionInterpreter);
+            JnaneExpressionVisitor visitor = new JnaneExpressionVisitor(functionInterpreter, code.sites);
             
             // Exécuter le script
-            Object result = functionInterpreter.executeScript(visitor, script.getProgramContext());
+            Object result = functionInterpreter.executeScript(visitor, code.script.getProgramContext());
+            if (profiler != null) {
+                profiler.bodyExited();
+            }
             
             // Récupérer la variable "result" si elle existe
             if (functionInterpreter.variables.containsKey("result")) {
                 result = functionInterpreter.variables.get("result");
             }
             
-            // Extraire les annotations @field et @view pour validation
-            Map<String, AnnotationExtractor.FieldInfo> fieldAnnotations = 
-                AnnotationExtractor.extractAnnotations(filePath);
-            
-            // Valider que tous les champs annotés sont définis et ont le bon type
-            validateFieldsAndViews(functionInterpreter.variables, fieldAnnotations);
+            // Valider les champs annotés @field et @view dont le type n'est pas prouvé statiquement
+            FieldValidator validator = FieldValidator.forFile(filePath, signatureResolver());
+            if (!validator.isVerified()) {
+                try {
+                    validator.validate(functionInterpreter.variables);
+                } catch (IllegalStateException e) {
+                    if (functionMetrics != null) {
+                        functionMetrics.recordValidationFailure();
+                    }
+                    throw e;
+                }
+            }
             
             logger.debug("Résultat de l'interprétation de la fonction: {}", result);
             return result;
@@ -415,80 +723,46 @@ public class JnaneInterpreter {
     }
 
     /**
-     * Valide que tous les champs annotés avec @field ou @view sont définis et ont le bon type
-     *
-     * @param variables Map des variables définies
-     * @param fieldAnnotations Map des annotations de champs
-     * @throws IllegalStateException si un champ n'est pas défini ou a un type incorrect
+     * Retourne l'arbre analysé d'un fichier de fonction et ses sites, analysé de nouveau
+     * seulement si le fichier a changé depuis.
      */
-    private void validateFieldsAndViews(Map<String, Object> variables, 
-                                       Map<String, AnnotationExtractor.FieldInfo> fieldAnnotations) {
-        logger.debug("Validation des champs annotés @field et @view");
-        
-        for (Map.Entry<String, AnnotationExtractor.FieldInfo> entry : fieldAnnotations.entrySet()) {
-            String fieldName = entry.getKey();
-            AnnotationExtractor.FieldInfo fieldInfo = entry.getValue();
-            
-            // Vérifier que le champ est défini
-            if (!variables.containsKey(fieldName)) {
-                String errorMsg = "Champ annoté non défini: " + fieldInfo;
-                logger.error(errorMsg);
-                throw new IllegalStateException(errorMsg);
-            }
-            
-            // Récupérer la valeur et vérifier le type
-            Object value = variables.get(fieldName);
-            if (!isTypeCompatible(value, fieldInfo.getType())) {
-                String errorMsg = String.format(
-                    "Type incompatible pour le champ %s: attendu %s, trouvé %s", 
-                    fieldName, 
-                    fieldInfo.getType(), 
-                    (value != null ? value.getClass().getSimpleName() : "null")
-                );
-                logger.error(errorMsg);
-                throw new IllegalStateException(errorMsg);
-            }
-            
-            logger.debug("Champ validé: {} = {} (type: {})", 
-                fieldName, value, (value != null ? value.getClass().getSimpleName() : "null"));
+    private FunctionCode functionCode(String filePath) throws IOException {
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        FunctionCode code = functionCodes.get(path);
+        if (code == null || code.lastModified != modified) {
+            code = new FunctionCode(new Script(filePath), modified);
+            functionCodes.put(path, code);
         }
+        return code;
     }
-    
+
     /**
-     * Vérifie si une valeur est compatible avec un type déclaré
+     * Retourne le nombre de liaisons de sites d'appel faites par ce moteur, toutes fonctions
+     * confondues. Un site n'est lié qu'une fois tant que son fichier ne change pas.
      *
-     * @param value Valeur à vérifier
-     * @param declaredType Type déclaré
-     * @return true si la valeur est compatible avec le type, false sinon
+     * @return Nombre de liaisons
      */
-    private boolean isTypeCompatible(Object value, String declaredType) {
-        if (value == null) {
-            return declaredType.equals("null");
+    public long getCallSiteLinks() {
+        long links = 0;
+        for (FunctionCode code : functionCodes.values()) {
+            links += code.sites.linkCount();
         }
-        
-        String actualType = value.getClass().getSimpleName().toLowerCase();
-        declaredType = declaredType.toLowerCase();
-        
-        // Correspondances directes
-        if (actualType.equals(declaredType)) {
-            return true;
-        }
-        
-        // Correspondances spéciales
-        switch (declaredType) {
-            case "int":
-                return value instanceof Integer;
-            case "double":
-                return value instanceof Double || value instanceof Float;
-            case "string":
-                return value instanceof String;
-            case "boolean":
-                return value instanceof Boolean;
-            default:
-                // Pour les types complexes, on accepte pour l'instant
-                // Une vérification plus stricte pourrait être ajoutée ultérieurement
-                return true;
+        return links;
+    }
+
+    /**
+     * Retourne les caches en ligne des accès aux champs des fonctions appelées par ce moteur.
+     * Ils sont conservés d'un appel à l'autre tant que le fichier de la fonction ne change pas.
+     *
+     * @return Caches, un par site d'accès déjà exécuté
+     */
+    public List<InlineCache> getInlineCaches() {
+        List<InlineCache> caches = new ArrayList<>();
+        for (FunctionCode code : functionCodes.values()) {
+            caches.addAll(code.sites.fieldCaches());
         }
+        return caches;
     }
 
     /**
@@ -501,15 +775,19 @@ public class JnaneInterpreter {
     public Object interpretFunctionCall(String functionName, Object... args) {
         logger.debug("Interprétation de l'appel de fonction (méthode legacy): {} avec {} arguments", functionName, args.length);
 
-        // Convertir les arguments positionnels en arguments nommés
-        Map<String, Object> namedArgs = new HashMap<>();
+        BuiltinFunction builtin = linkBuiltin(functionName);
+        if (builtin != null) {
+            BuiltinRegistry.checkArity(builtin, args.length);
+            return builtin.invoke(Arrays.copyOf(args, builtin.getSignature().getArity()));
+        }
 
-        if (functionName.equals("math:add") && args.length == 2) {
-            namedArgs.put("first", args[0]);
-            namedArgs.put("second", args[1]);
-            return interpretFunctionCallWithNamedArgs(functionName, namedArgs);
-        } else if (functionName.equals("print") && args.length > 0) {
-            namedArgs.put("message", args[0]);
+        // Fonction Jnane masquant une fonction intégrée : arguments nommés d'après sa signature
+        BuiltinFunction shadowed = builtins.lookup(functionName);
+        if (shadowed != null && args.length <= shadowed.getSignature().getArity()) {
+            Map<String, Object> namedArgs = new HashMap<>();
+            for (int i = 0; i < args.length; i++) {
+                namedArgs.put(shadowed.getSignature().getParameterNames().get(i), args[i]);
+            }
             return interpretFunctionCallWithNamedArgs(functionName, namedArgs);
         }
 
@@ -517,29 +795,6 @@ public class JnaneInterpreter {
         return null;
     }
 
-    /**
-     * Convertit un objet en entier
-     *
-     * @param obj Objet à convertir
-     * @return Valeur entière
-     * @throws NumberFormatException si la conversion échoue
-     */
-    private int convertToInt(Object obj) throws NumberFormatException {
-        if (obj instanceof Integer) {
-            return (Integer) obj;
-        } else if (obj instanceof String) {
-            return Integer.parseInt((String) obj);
-        } else if (obj instanceof Double) {
-            return ((Double) obj).intValue();
-        } else if (obj instanceof Float) {
-            return ((Float) obj).intValue();
-        } else if (obj instanceof Long) {
-            return ((Long) obj).intValue();
-        } else {
-            throw new NumberFormatException("Impossible de convertir l'objet en entier: " + obj);
-        }
-    }
-
     /**
      * Réinitialise l'état de l'interpréteur
      */
@@ -592,12 +847,27 @@ public class JnaneInterpreter {
             logger.info("Variable 'result' trouvée avec la valeur: {}", variables.get("result"));
         } else {
             logger.warn("Variable 'result' non trouvée dans les variables!");
-            // Définir une valeur par défaut pour le test
-            setVariableValue("result", 8);
-            scope.setVariableValue("result", 8);
-            logger.info("Valeur par défaut définie pour 'result': 8");
+            // Définir une valeur par défaut, la même que celle du runtime IR
+            setVariableValue("result", IrRuntime.DEFAULT_RESULT);
+            scope.setVariableValue("result", IrRuntime.DEFAULT_RESULT);
+            logger.info("Valeur par défaut définie pour 'result': {}", IrRuntime.DEFAULT_RESULT);
         }
         
         return scope;
     }
+
+    /**
+     * Fichier de fonction analysé : arbre syntaxique, date de modification lue avant
+     * l'analyse et sites de l'arbre.
+     */
+    private static final class FunctionCode {
+        private final Script script;
+        private final long lastModified;
+        private final JnaneExpressionVisitor.Sites sites = new JnaneExpressionVisitor.Sites();
+
+        FunctionCode(Script script, long lastModified) {
+            this.script = script;
+            this.lastModified = lastModified;
+        }
+    }
 }
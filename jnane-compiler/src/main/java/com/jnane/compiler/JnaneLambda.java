@@ -0,0 +1,130 @@
+package com.jnane.compiler;
+
+import com.jnane.runtime.value.JnaneFunction;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fonction anonyme Jnane (lambdaExpr) évaluée par le visiteur d'expressions.
+ *
+ * <p>Les variables libres du corps sont capturées à la création de la lambda : une
+ * lambda passée à une vue paresseuse voit les valeurs du moment où la vue est construite,
+ * même si la vue n'est lue qu'après leur réaffectation. Une variable non définie à la
+ * création le reste dans la lambda.</p>
+ *
+ * <p>À l'appel, le corps est évalué dans un environnement propre (variables capturées et
+ * paramètres) : les variables de l'interpréteur ne sont ni lues ni modifiées.</p>
+ */
+public class JnaneLambda implements JnaneFunction {
+    private static final Logger logger = LoggerFactory.getLogger(JnaneLambda.class);
+
+    private final JnaneExpressionVisitor visitor;
+    private final JnaneInterpreter interpreter;
+    private final List<String> parameters;
+    private final ParserRuleContext body;
+    private final String text;
+    private final Map<String, Object> captured;
+
+    /**
+     * Construit une lambda à partir de son contexte syntaxique.
+     *
+     * @param ctx Contexte de l'expression lambda
+     * @param visitor Visiteur utilisé pour évaluer le corps
+     * @param interpreter Interpréteur qui porte les variables
+     */
+    public JnaneLambda(JnaneLangParser.LambdaExprContext ctx, JnaneExpressionVisitor visitor,
+                       JnaneInterpreter interpreter) {
+        this.visitor = visitor;
+        this.interpreter = interpreter;
+        this.text = ctx.getText();
+
+        List<String> params = new ArrayList<>();
+        if (ctx.paramList() != null) {
+            for (TerminalNode id : ctx.paramList().ID()) {
+                params.add(id.getText());
+            }
+        } else if (ctx.ID() != null) {
+            params.add(ctx.ID().getText());
+        }
+        this.parameters = Collections.unmodifiableList(params);
+        this.body = ctx.expression() != null ? ctx.expression() : ctx.blockStmt();
+        this.captured = capture(interpreter);
+    }
+
+    /**
+     * Relève la valeur courante des variables libres du corps, lues comme le ferait le corps
+     * lui-même (et donc tracées au moment de la création).
+     */
+    private Map<String, Object> capture(JnaneInterpreter interpreter) {
+        Set<String> names = new LinkedHashSet<>();
+        collectVariables(body, names);
+        names.removeAll(parameters);
+        Map<String, Object> values = new HashMap<>();
+        for (String name : names) {
+            if (interpreter.hasVariable(name)) {
+                values.put(name, interpreter.getVariableValue(name));
+            }
+        }
+        logger.debug("Lambda {}: variables capturées {}", text, values.keySet());
+        return values;
+    }
+
+    private static void collectVariables(ParseTree node, Set<String> names) {
+        if (node instanceof JnaneLangParser.PrimaryExprContext
+                && ((JnaneLangParser.PrimaryExprContext) node).ID() != null) {
+            names.add(((JnaneLangParser.PrimaryExprContext) node).ID().getText());
+        } else if (node instanceof JnaneLangParser.LensExprContext
+                && ((JnaneLangParser.LensExprContext) node).ID() != null) {
+            names.add(((JnaneLangParser.LensExprContext) node).ID().getText());
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            collectVariables(node.getChild(i), names);
+        }
+    }
+
+    /**
+     * Retourne les noms des paramètres.
+     *
+     * @return Paramètres de la lambda
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public Object apply(Object... arguments) {
+        if (arguments.length != parameters.size()) {
+            String errorMsg = "Lambda " + text + ": " + parameters.size() + " argument(s) attendu(s), "
+                    + arguments.length + " fourni(s)";
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        Map<String, Object> frame = new HashMap<>(captured);
+        for (int i = 0; i < parameters.size(); i++) {
+            frame.put(parameters.get(i), arguments[i]);
+        }
+        Map<String, Object> previous = interpreter.swapLambdaFrame(frame);
+        try {
+            return visitor.visit(body);
+        } finally {
+            interpreter.swapLambdaFrame(previous);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,265 @@
+package com.jnane.compiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Profileur au niveau des fonctions Jnane.
+ *
+ * <p>Chaque thread exécutant du code Jnane tient une pile fantôme de ses appels de
+ * fonctions chargées ; le sommet porte la ligne de l'instruction en cours, les autres
+ * cadres la ligne de leur appel. En mode {@link Mode#SAMPLING}, un thread démon relève les
+ * piles à intervalle régulier ; en mode {@link Mode#EXACT}, chaque instruction exécutée est
+ * comptée. Les piles sont restituées au format replié des flame graphs
+ * ({@code app:f:12;app:g:3 42}), lisible par {@code flamegraph.pl} ou speedscope. Un cadre
+ * sans ligne couvre le temps passé hors des instructions de la fonction : chargement et
+ * analyse de son fichier, puis validation de ses champs.</p>
+ *
+ * <p>Le profileur est transmis aux interpréteurs des fonctions appelées, comme le traceur.
+ * Les fonctions intégrées et l'IR de jnane-runtime, sans numéros de ligne, n'ont pas de
+ * cadre propre : leur temps est attribué à la ligne de la fonction qui les appelle.</p>
+ */
+public final class JnaneProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(JnaneProfiler.class);
+
+    /** Intervalle d'échantillonnage par défaut, en millisecondes */
+    public static final long DEFAULT_INTERVAL_MILLIS = 1;
+
+    /**
+     * Mode de comptage des piles.
+     */
+    public enum Mode {
+        /** Relevé périodique des piles par un thread démon */
+        SAMPLING,
+        /** Comptage de chaque instruction exécutée, déterministe mais plus coûteux */
+        EXACT
+    }
+
+    private final Mode mode;
+    private final long intervalMillis;
+    private final ConcurrentMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final List<ShadowStack> stacks = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ShadowStack> currentStack = ThreadLocal.withInitial(this::register);
+    private volatile Thread sampler;
+
+    /**
+     * Crée un profileur.
+     *
+     * @param mode Mode de comptage
+     * @param intervalMillis Intervalle d'échantillonnage, ignoré en mode exact
+     * @throws IllegalArgumentException si l'intervalle n'est pas strictement positif
+     */
+    public JnaneProfiler(Mode mode, long intervalMillis) {
+        if (intervalMillis <= 0) {
+            String errorMsg = "Intervalle d'échantillonnage invalide: " + intervalMillis;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        this.mode = mode;
+        this.intervalMillis = intervalMillis;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Démarre le relevé des piles en mode échantillonné ; sans effet en mode exact.
+     *
+     * @throws IllegalStateException si le profileur est déjà démarré
+     */
+    public synchronized void start() {
+        if (mode != Mode.SAMPLING) {
+            return;
+        }
+        if (sampler != null) {
+            String errorMsg = "Profileur déjà démarré";
+            logger.error(errorMsg);
+            throw new IllegalStateException(errorMsg);
+        }
+        Thread thread = new Thread(this::sampleLoop, "jnane-profiler");
+        thread.setDaemon(true);
+        sampler = thread;
+        thread.start();
+        logger.info("Profileur démarré, un échantillon toutes les {} ms", intervalMillis);
+    }
+
+    /**
+     * Arrête le relevé des piles et attend la fin du thread d'échantillonnage.
+     */
+    public synchronized void stop() {
+        Thread thread = sampler;
+        if (thread == null) {
+            return;
+        }
+        sampler = null;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Profileur arrêté, {} piles distinctes relevées", counts.size());
+    }
+
+    /**
+     * Empile le cadre d'une fonction appelée par le thread courant.
+     *
+     * @param functionName Nom complet de la fonction
+     */
+    void enter(String functionName) {
+        ShadowStack stack = currentStack.get();
+        stack.top = new Frame(functionName, stack.top);
+    }
+
+    /**
+     * Dépile le cadre de la fonction en cours du thread courant, normalement ou sur erreur.
+     */
+    void exit() {
+        ShadowStack stack = currentStack.get();
+        if (stack.top != null) {
+            stack.top = stack.top.parent;
+        }
+    }
+
+    /**
+     * Signale l'exécution d'une instruction par la fonction en cours du thread courant.
+     *
+     * @param line Ligne de l'instruction dans le fichier de la fonction
+     */
+    void statement(int line) {
+        Frame top = currentStack.get().top;
+        if (top == null) {
+            return;
+        }
+        top.line = line;
+        if (mode == Mode.EXACT) {
+            counts.computeIfAbsent(collapse(top), key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Signale la fin du corps de la fonction en cours du thread courant : le temps passé
+     * ensuite, à valider ses champs, n'est plus attribué à sa dernière instruction.
+     */
+    void bodyExited() {
+        Frame top = currentStack.get().top;
+        if (top != null) {
+            top.line = 0;
+        }
+    }
+
+    /**
+     * Retourne les piles repliées relevées jusqu'ici et leur nombre d'occurrences, triées.
+     *
+     * @return Nombre d'échantillons, ou d'instructions en mode exact, par pile
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    /**
+     * Écrit les piles au format replié, une par ligne : cadres de la racine au sommet
+     * séparés par {@code ;}, puis le nombre d'occurrences.
+     *
+     * @param writer Destination
+     */
+    public void writeCollapsed(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        for (Map.Entry<String, Long> entry : getCounts().entrySet()) {
+            out.print(entry.getKey());
+            out.print(' ');
+            out.println(entry.getValue());
+        }
+        out.flush();
+    }
+
+    private ShadowStack register() {
+        ShadowStack stack = new ShadowStack(Thread.currentThread());
+        stacks.add(stack);
+        return stack;
+    }
+
+    private void sampleLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (ShadowStack stack : stacks) {
+                Frame top = stack.top;
+                if (top != null) {
+                    counts.computeIfAbsent(collapse(top), key -> new LongAdder()).increment();
+                } else if (!stack.thread.isAlive()) {
+                    stacks.remove(stack);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replie une pile en partant de son sommet : les cadres sont immuables hormis leur ligne,
+     * si bien qu'une pile lue par le thread d'échantillonnage reste cohérente.
+     */
+    private static String collapse(Frame top) {
+        List<Frame> frames = new ArrayList<>();
+        for (Frame frame = top; frame != null; frame = frame.parent) {
+            frames.add(frame);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            Frame frame = frames.get(i);
+            sb.append(frame.functionName);
+            if (frame.line > 0) {
+                sb.append(':').append(frame.line);
+            }
+            if (i > 0) {
+                sb.append(';');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Cadre de la pile fantôme : une fonction et la ligne de son instruction en cours, 0 hors
+     * des instructions.
+     */
+    private static final class Frame {
+        private final String functionName;
+        private final Frame parent;
+        private volatile int line;
+
+        Frame(String functionName, Frame parent) {
+            this.functionName = functionName;
+            this.parent = parent;
+        }
+    }
+
+    /**
+     * Pile fantôme d'un thread, écrite par ce seul thread et lue par l'échantillonneur.
+     */
+    private static final class ShadowStack {
+        private final Thread thread;
+        private volatile Frame top;
+
+        ShadowStack(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.jnane.compiler;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classe pour la vérification des types et des variables évaluables dans le langage Jnane.
+ * Cette classe implémente les vérifications nécessaires pour s'assurer que toutes les variables
+ * sont évaluables (soit du type spécifié, soit ayant une vue de ce type).
+ *
+ * <p>Les types sont internés dans une {@link TypeTable}, éventuellement partagée entre
+ * plusieurs vérificateurs : un test d'évaluabilité est un accès à la fermeture des vues
+ * précalculée. Les vues entre types viennent des déclarations {@code @type} (héritage et
+ * {@code @view}). Le vérificateur peut être utilisé depuis plusieurs threads.</p>
+ */
+public class JnaneTypeChecker {
+    
+    private final TypeTable types;
+    private final Map<String, TypeInfo> typeEnvironment;
+    private final Set<String> viewTypes;
+    private final Set<String> errors;
+    
+    public JnaneTypeChecker() {
+        this(new TypeTable());
+    }
+    
+    /**
+     * Constructeur avec une table de types partagée
+     * 
+     * @param types Table des types
+     */
+    public JnaneTypeChecker(TypeTable types) {
+        this.types = types;
+        this.typeEnvironment = new ConcurrentHashMap<>();
+        this.viewTypes = ConcurrentHashMap.newKeySet();
+        this.errors = ConcurrentHashMap.newKeySet();
+    }
+    
+    /**
+     * Vérifie qu'une variable est évaluable (du type spécifié ou ayant une vue de ce type).
+     * 
+     * @param variableName Nom de la variable
+     * @param expectedType Type attendu
+     * @return true si la variable est évaluable, false sinon
+     */
+    public boolean isVariableEvaluable(String variableName, String expectedType) {
+        TypeInfo typeInfo = typeEnvironment.get(variableName);
+        if (typeInfo == null) {
+            errors.add("Erreur: Variable '" + variableName + "' non définie.");
+            return false;
+        }
+        
+        // Type lui-même ou vue atteignable par transitivité
+        if (types.isEvaluable(typeInfo.getType(), types.intern(expectedType))) {
+            return true;
+        }
+        
+        errors.add("Erreur: Variable '" + variableName + "' de type '" + types.name(typeInfo.getType()) + 
+                   "' n'est pas évaluable comme '" + expectedType + "'.");
+        return false;
+    }
+    
+    /**
+     * Ajoute une variable à l'environnement de type.
+     * 
+     * @param variableName Nom de la variable
+     * @param type Type de la variable
+     * @param views Vues disponibles pour ce type
+     */
+    public void addVariable(String variableName, String type, Set<String> views) {
+        int typeId = types.intern(type);
+        for (String view : views) {
+            types.addView(type, view);
+        }
+        typeEnvironment.put(variableName, new TypeInfo(typeId));
+    }
+    
+    /**
+     * Enregistre les types déclarés par {@code @type} dans un arbre syntaxique : un type est
+     * évaluable comme les types dont il hérite et comme le type de chacune de ses vues.
+     * 
+     * @param tree Arbre syntaxique d'un fichier
+     */
+    public void addTypeDeclarations(ParseTree tree) {
+        if (tree instanceof JnaneLangParser.TypeDeclContext) {
+            JnaneLangParser.TypeDeclContext typeDecl = (JnaneLangParser.TypeDeclContext) tree;
+            String type = typeDecl.ID().getText();
+            types.declare(type);
+            if (typeDecl.typeInheritance() != null) {
+                for (TerminalNode parent : typeDecl.typeInheritance().ID()) {
+                    types.addView(type, parent.getText());
+                }
+            }
+            for (JnaneLangParser.TypeElementContext element : typeDecl.typeBody().typeElement()) {
+                if (element.typeView() != null) {
+                    types.addView(type, element.typeView().typeExpr().getText());
+                } else if (element.typeField() != null) {
+                    addFieldViews(type, element.typeField());
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            addTypeDeclarations(tree.getChild(i));
+        }
+    }
+    
+    /**
+     * Les vues "@view nom Type" successives d'un corps de type sont analysées comme un seul
+     * champ : chaque annotation @view porte le nom et le type d'une vue, sauf la dernière
+     * dont le nom et le type sont ceux du champ.
+     */
+    private void addFieldViews(String type, JnaneLangParser.TypeFieldContext field) {
+        List<JnaneLangParser.AnnotationDeclContext> annotations = field.fieldAnnotations().annotationDecl();
+        for (int i = 0; i < annotations.size(); i++) {
+            JnaneLangParser.AnnotationDeclContext annotation = annotations.get(i);
+            if (annotation.annotationName() == null || !annotation.annotationName().getText().equals("view")) {
+                continue;
+            }
+            JnaneLangParser.AnnotationValueContext value = annotation.annotationValue();
+            if (value != null && value.typeExpr() != null) {
+                types.addView(type, value.typeExpr().getText());
+            } else if (value == null && i == annotations.size() - 1) {
+                types.addView(type, field.typeExpr().getText());
+            }
+        }
+    }
+    
+    /**
+     * Vérifie un champ annoté {@code @field} ou {@code @view} à partir des types inférés
+     * du corps de la fonction : le champ est ajouté à l'environnement avec son type inféré,
+     * et une erreur est signalée si ce type est incompatible avec le type déclaré. Quand les
+     * deux types sont déclarés par {@code @type}, le champ doit être évaluable comme le type
+     * déclaré, directement ou par une vue.
+     * 
+     * @param field Champ annoté
+     * @param inference Types inférés de la fonction
+     * @return Verdict de l'inférence pour ce champ
+     */
+    public TypeInference.Verdict checkField(AnnotationExtractor.FieldInfo field, TypeInference.Result inference) {
+        String inferredType = inference.typeOf(field.getName());
+        TypeInference.Verdict verdict = inference.check(field.getName(), field.getType());
+        // Un type prouvé est évaluable comme le type déclaré ; sinon seul le type inféré est connu
+        addVariable(field.getName(), verdict == TypeInference.Verdict.PROVEN ? field.getType() : inferredType, Set.of());
+        if (field.isView()) {
+            addViewType(field.getType());
+        }
+        
+        if (verdict == TypeInference.Verdict.INCONCLUSIVE
+                && types.isDeclared(inferredType) && types.isDeclared(field.getType())) {
+            // Les vues des deux types sont connues : la fermeture tranche
+            return isVariableEvaluable(field.getName(), field.getType())
+                    ? TypeInference.Verdict.PROVEN : TypeInference.Verdict.VIOLATED;
+        }
+        if (verdict == TypeInference.Verdict.VIOLATED) {
+            errors.add("Erreur: Champ '" + field.getName() + "' de type inféré '" + inferredType +
+                       "' incompatible avec le type déclaré '" + field.getType() + "'.");
+        }
+        return verdict;
+    }
+    
+    /**
+     * Ajoute un type de vue à l'ensemble des types de vue connus.
+     * 
+     * @param viewType Type de vue
+     */
+    public void addViewType(String viewType) {
+        types.intern(viewType);
+        viewTypes.add(TypeInference.canonical(viewType));
+    }
+    
+    /**
+     * Vérifie si un type est un type de vue connu.
+     * 
+     * @param type Type à vérifier
+     * @return true si le type est un type de vue, false sinon
+     */
+    public boolean isViewType(String type) {
+        return viewTypes.contains(TypeInference.canonical(type));
+    }
+    
+    /**
+     * Récupère les erreurs de vérification de type.
+     * 
+     * @return Ensemble des erreurs
+     */
+    public Set<String> getErrors() {
+        return errors;
+    }
+    
+    /**
+     * Vérifie si des erreurs ont été détectées.
+     * 
+     * @return true si des erreurs ont été détectées, false sinon
+     */
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+    
+    /**
+     * Retourne la table des types du vérificateur.
+     * 
+     * @return Table des types
+     */
+    public TypeTable getTypes() {
+        return types;
+    }
+    
+    /**
+     * Classe interne pour stocker les informations de type d'une variable.
+     */
+    private static class TypeInfo {
+        private final int type;
+        
+        public TypeInfo(int type) {
+            this.type = type;
+        }
+        
+        public int getType() {
+            return type;
+        }
+    }
+}
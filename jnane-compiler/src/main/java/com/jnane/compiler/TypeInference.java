@@ -0,0 +1,540 @@
+package com.jnane.compiler;
+
+import com.jnane.runtime.builtin.BuiltinFunction;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inférence de types sensible au flot sur le corps d'une fonction Jnane. Les instructions
+ * sont parcourues dans l'ordre d'exécution de l'interpréteur ; chaque affectation fixe le
+ * type de sa variable, et les branches d'un {@code if} sont jointes : une variable n'est
+ * définitivement affectée que si elle l'est dans les deux branches, avec le même type.
+ *
+ * <p>Le type d'un appel est le type de retour déclaré de la fonction appelée, fourni par
+ * un {@link SignatureResolver} (signature d'une fonction intégrée, ou type déclaré du
+ * champ {@code result} d'une fonction Jnane, lui-même validé à l'exécution). Une variable
+ * affectée dans le corps d'une lambda peut l'être à tout moment : son type reste
+ * inconnu.</p>
+ *
+ * <p>Les règles suivent la sémantique de {@link JnaneExpressionVisitor} : un opérateur
+ * qu'il n'évalue pas a le type de son dernier opérande, comme sa valeur.</p>
+ */
+public final class TypeInference {
+    private static final Logger logger = LoggerFactory.getLogger(TypeInference.class);
+
+    /** Type inconnu : l'inférence n'est pas concluante. */
+    public static final String UNKNOWN = "?";
+
+    public static final String INT = "int";
+    public static final String DOUBLE = "double";
+    public static final String STRING = "string";
+    public static final String BOOLEAN = "boolean";
+    public static final String NULL = "null";
+    public static final String RECORD = "record";
+
+    /**
+     * Résultat de la comparaison d'un type inféré à un type déclaré.
+     */
+    public enum Verdict {
+        /** Le type déclaré est garanti : la vérification à l'exécution est inutile. */
+        PROVEN,
+        /** L'inférence ne permet pas de conclure : la vérification reste à l'exécution. */
+        INCONCLUSIVE,
+        /** La valeur ne peut pas avoir le type déclaré. */
+        VIOLATED
+    }
+
+    /**
+     * Résolution du type de retour des fonctions appelées.
+     */
+    public interface SignatureResolver {
+        /**
+         * Retourne le type de retour déclaré d'une fonction.
+         *
+         * @param functionName Nom complet de la fonction
+         * @return Type déclaré, null si la fonction est inconnue ou son retour non déclaré
+         */
+        String returnType(String functionName);
+    }
+
+    private TypeInference() {
+    }
+
+    /**
+     * Infère les types des variables d'une fonction.
+     *
+     * @param tree Arbre syntaxique du fichier de la fonction
+     * @param resolver Résolution des signatures des fonctions appelées
+     * @return Types des variables en fin d'exécution
+     */
+    public static Result infer(ParseTree tree, SignatureResolver resolver) {
+        Inferrer inferrer = new Inferrer(resolver);
+        inferrer.visit(tree);
+        Result result = new Result(inferrer.env, inferrer.clobbered, inferrer.callees);
+        logger.debug("Types inférés: {} (inconnus: {})", result.types, result.clobbered);
+        return result;
+    }
+
+    /**
+     * Construit la résolution des signatures d'un ensemble de fonctions : une fonction Jnane
+     * chargée a pour type de retour celui de son champ {@code result}, qui masque une
+     * fonction intégrée de même nom.
+     *
+     * @param loader Fonctions Jnane disponibles, null si aucune
+     * @param builtins Fonctions intégrées
+     * @return Résolution des signatures
+     */
+    public static SignatureResolver resolverFor(JnaneFunctionLoader loader, BuiltinRegistry builtins) {
+        return functionName -> {
+            JnaneFunctionLoader.FunctionInfo info = loader != null ? loader.getFunctions().get(functionName) : null;
+            if (info != null) {
+                try {
+                    return FieldValidator.declaredType(info.getFilePath(), "result");
+                } catch (IOException e) {
+                    logger.warn("Type de retour illisible pour {}: {}", functionName, e.getMessage());
+                    return null;
+                }
+            }
+            BuiltinFunction builtin = builtins.lookup(functionName);
+            return builtin != null ? builtin.getSignature().getReturnType() : null;
+        };
+    }
+
+    /**
+     * Met un type déclaré sous forme canonique : noms de base en minuscules, synonymes
+     * résolus ({@code Integer} : {@code int}, {@code Liste} : {@code list}), sans espaces.
+     *
+     * @param type Type déclaré
+     * @return Forme canonique
+     */
+    public static String canonical(String type) {
+        if (type == null) {
+            return UNKNOWN;
+        }
+        List<String> parts = split(type);
+        if (parts == null) {
+            return type.replaceAll("\\s", "");
+        }
+        StringBuilder sb = new StringBuilder(FieldValidator.normalize(parts.get(0)));
+        if (parts.size() > 1) {
+            sb.append('<');
+            for (int i = 1; i < parts.size(); i++) {
+                sb.append(i > 1 ? "," : "").append(canonical(parts.get(i)));
+            }
+            sb.append('>');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compare un type inféré à un type déclaré, selon les vérifications qu'effectuerait
+     * {@link FieldValidator} à l'exécution.
+     *
+     * @param inferred Type inféré (forme canonique)
+     * @param declared Type déclaré
+     * @return Verdict
+     */
+    public static Verdict check(String inferred, String declared) {
+        if (UNKNOWN.equals(inferred)) {
+            return Verdict.INCONCLUSIVE;
+        }
+        String canonicalDeclared = canonical(declared);
+        if (canonicalDeclared.equals(inferred) && !canonicalDeclared.contains(UNKNOWN)) {
+            return Verdict.PROVEN;
+        }
+        List<String> parts = split(declared);
+        String name = parts != null ? FieldValidator.normalize(parts.get(0)) : "";
+        List<String> args = parts != null ? parts.subList(1, parts.size()) : List.of();
+        boolean scalar = isScalar(inferred);
+        boolean list = inferred.startsWith("list<");
+        boolean record = RECORD.equals(inferred);
+        boolean known = scalar || list || record || NULL.equals(inferred);
+        switch (name) {
+            case "any":
+                return Verdict.PROVEN;
+            case "null":
+                return NULL.equals(inferred) ? Verdict.PROVEN : known ? Verdict.VIOLATED : Verdict.INCONCLUSIVE;
+            case "option":
+                if (NULL.equals(inferred)) {
+                    return Verdict.PROVEN;
+                }
+                return args.size() == 1 ? check(inferred, args.get(0)) : known ? Verdict.PROVEN : Verdict.INCONCLUSIVE;
+            case "int":
+            case "long":
+            case "double":
+            case "string":
+            case "boolean":
+                if (!known) {
+                    return Verdict.INCONCLUSIVE;
+                }
+                return name.equals(inferred) || ("long".equals(name) && INT.equals(inferred))
+                        ? Verdict.PROVEN : Verdict.VIOLATED;
+            case "list":
+                if (!known) {
+                    return Verdict.INCONCLUSIVE;
+                }
+                if (!list) {
+                    return Verdict.VIOLATED;
+                }
+                return args.size() == 1
+                        ? check(inferred.substring("list<".length(), inferred.length() - 1), args.get(0))
+                        : Verdict.PROVEN;
+            case "map":
+                if (!known) {
+                    return Verdict.INCONCLUSIVE;
+                }
+                if (!record) {
+                    return Verdict.VIOLATED;
+                }
+                return args.isEmpty() ? Verdict.PROVEN : Verdict.INCONCLUSIVE;
+            default:
+                // Type utilisateur ou mal formé : toute valeur non nulle est acceptée
+                if (NULL.equals(inferred)) {
+                    return Verdict.VIOLATED;
+                }
+                return known ? Verdict.PROVEN : Verdict.INCONCLUSIVE;
+        }
+    }
+
+    private static boolean isScalar(String type) {
+        return INT.equals(type) || "long".equals(type) || DOUBLE.equals(type)
+                || STRING.equals(type) || BOOLEAN.equals(type);
+    }
+
+    /**
+     * Découpe un type en nom et arguments de premier niveau.
+     *
+     * @return [nom, argument...], null si le type est mal formé
+     */
+    private static List<String> split(String type) {
+        String text = type.trim();
+        int open = text.indexOf('<');
+        if (open < 0) {
+            return text.isEmpty() || text.contains(">") || text.contains(",") ? null : List.of(text);
+        }
+        if (!text.endsWith(">")) {
+            return null;
+        }
+        List<String> parts = new ArrayList<>();
+        parts.add(text.substring(0, open).trim());
+        int depth = 0;
+        int start = open + 1;
+        for (int i = open + 1; i < text.length() - 1; i++) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                if (--depth < 0) {
+                    return null;
+                }
+            } else if (c == ',' && depth == 0) {
+                parts.add(text.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        if (depth != 0) {
+            return null;
+        }
+        parts.add(text.substring(start, text.length() - 1).trim());
+        for (String part : parts) {
+            if (part.isEmpty()) {
+                return null;
+            }
+        }
+        return parts;
+    }
+
+    private static String join(String a, String b) {
+        return a.equals(b) ? a : UNKNOWN;
+    }
+
+    /**
+     * Types des variables d'une fonction en fin d'exécution.
+     */
+    public static final class Result {
+        private final Map<String, String> types;
+        private final Set<String> clobbered;
+        private final Map<String, String> callees;
+
+        Result(Map<String, String> types, Set<String> clobbered, Map<String, String> callees) {
+            this.types = Collections.unmodifiableMap(new LinkedHashMap<>(types));
+            this.clobbered = Collections.unmodifiableSet(new HashSet<>(clobbered));
+            this.callees = Collections.unmodifiableMap(new LinkedHashMap<>(callees));
+        }
+
+        /**
+         * Retourne le type d'une variable en fin d'exécution.
+         *
+         * @param variable Nom de la variable
+         * @return Type canonique, {@link #UNKNOWN} si la variable n'est pas sûrement affectée
+         */
+        public String typeOf(String variable) {
+            if (clobbered.contains(variable)) {
+                return UNKNOWN;
+            }
+            return types.getOrDefault(variable, UNKNOWN);
+        }
+
+        /**
+         * Indique si une variable est affectée sur tous les chemins d'exécution.
+         *
+         * @param variable Nom de la variable
+         * @return true si la variable est sûrement affectée
+         */
+        public boolean isDefinitelyAssigned(String variable) {
+            return types.containsKey(variable);
+        }
+
+        /**
+         * Compare le type inféré d'une variable à son type déclaré.
+         *
+         * @param variable Nom de la variable
+         * @param declaredType Type déclaré
+         * @return Verdict
+         */
+        public Verdict check(String variable, String declaredType) {
+            return TypeInference.check(typeOf(variable), declaredType);
+        }
+
+        /**
+         * Retourne les fonctions appelées et le type de retour utilisé pour chacune.
+         *
+         * @return Type de retour par fonction ({@link #UNKNOWN} si non déclaré)
+         */
+        public Map<String, String> getCallees() {
+            return callees;
+        }
+    }
+
+    /**
+     * Parcours de l'arbre : chaque visite d'expression retourne son type canonique.
+     */
+    private static final class Inferrer extends JnaneLangBaseVisitor<String> {
+        private final SignatureResolver resolver;
+        private Map<String, String> env = new HashMap<>();
+        private final Set<String> clobbered = new HashSet<>();
+        private final Map<String, String> callees = new LinkedHashMap<>();
+
+        Inferrer(SignatureResolver resolver) {
+            this.resolver = resolver;
+        }
+
+        @Override
+        protected String defaultResult() {
+            return UNKNOWN;
+        }
+
+        @Override
+        public String visitAnnotationDecl(JnaneLangParser.AnnotationDeclContext ctx) {
+            // Les annotations ne sont pas exécutées
+            return UNKNOWN;
+        }
+
+        @Override
+        public String visitIfStmt(JnaneLangParser.IfStmtContext ctx) {
+            visit(ctx.expression());
+            Map<String, String> before = env;
+            env = new HashMap<>(before);
+            visit(ctx.blockStmt(0));
+            Map<String, String> thenEnv = env;
+            env = new HashMap<>(before);
+            // L'interpréteur n'exécute une alternative que si c'est un bloc (pas un else if)
+            if (ctx.blockStmt().size() > 1) {
+                visit(ctx.blockStmt(1));
+            }
+            env = joinEnv(thenEnv, env);
+            return UNKNOWN;
+        }
+
+        @Override
+        public String visitConditionalExpr(JnaneLangParser.ConditionalExprContext ctx) {
+            if (ctx.getChildCount() > 1) {
+                visit(ctx.getChild(0));
+                Map<String, String> before = env;
+                env = new HashMap<>(before);
+                String thenType = visit(ctx.getChild(2));
+                Map<String, String> thenEnv = env;
+                env = new HashMap<>(before);
+                String elseType = visit(ctx.getChild(4));
+                env = joinEnv(thenEnv, env);
+                return join(thenType, elseType);
+            }
+            return visitChildren(ctx);
+        }
+
+        private static Map<String, String> joinEnv(Map<String, String> a, Map<String, String> b) {
+            Map<String, String> joined = new HashMap<>();
+            for (Map.Entry<String, String> entry : a.entrySet()) {
+                String other = b.get(entry.getKey());
+                if (other != null) {
+                    joined.put(entry.getKey(), join(entry.getValue(), other));
+                }
+            }
+            return joined;
+        }
+
+        @Override
+        public String visitAssignmentExpr(JnaneLangParser.AssignmentExprContext ctx) {
+            if (ctx.getChildCount() > 1) {
+                String type = visit(ctx.getChild(2));
+                env.put(ctx.getChild(0).getText(), type);
+                return type;
+            }
+            return visit(ctx.getChild(0));
+        }
+
+        @Override
+        public String visitLambdaExpr(JnaneLangParser.LambdaExprContext ctx) {
+            // Le corps peut être exécuté à tout moment (vues paresseuses) : ses affectations
+            // rendent les variables concernées inconnues
+            collectAssignments(ctx, clobbered);
+            return UNKNOWN;
+        }
+
+        private static void collectAssignments(ParseTree tree, Set<String> names) {
+            if (tree instanceof JnaneLangParser.AssignmentExprContext && tree.getChildCount() > 1) {
+                names.add(tree.getChild(0).getText());
+            }
+            for (int i = 0; i < tree.getChildCount(); i++) {
+                collectAssignments(tree.getChild(i), names);
+            }
+        }
+
+        @Override
+        public String visitFunctionCallExpr(JnaneLangParser.FunctionCallExprContext ctx) {
+            visitChildren(ctx);
+            String functionName = ctx.namespaceId() != null
+                    ? ctx.namespaceId().getText() + ":" + ctx.ID().getText()
+                    : ctx.ID().getText();
+            String declared = resolver.returnType(functionName);
+            String type = declared != null ? canonical(declared) : UNKNOWN;
+            callees.put(functionName, type);
+            return type;
+        }
+
+        @Override
+        public String visitPrimaryExpr(JnaneLangParser.PrimaryExprContext ctx) {
+            if (ctx.ID() != null) {
+                String name = ctx.ID().getText();
+                return clobbered.contains(name) ? UNKNOWN : env.getOrDefault(name, UNKNOWN);
+            }
+            if (ctx.expression() != null) {
+                return visit(ctx.expression());
+            }
+            return visitChildren(ctx);
+        }
+
+        @Override
+        public String visitPostfixExpr(JnaneLangParser.PostfixExprContext ctx) {
+            String type = visitChildren(ctx);
+            return ctx.postfixOp().isEmpty() ? type : UNKNOWN;
+        }
+
+        @Override
+        public String visitLiteral(JnaneLangParser.LiteralContext ctx) {
+            String text = ctx.getText();
+            if (ctx.INTEGER() != null) {
+                try {
+                    Integer.parseInt(text);
+                    return INT;
+                } catch (NumberFormatException e) {
+                    // L'interpréteur retourne alors le texte du littéral
+                    return STRING;
+                }
+            }
+            if (ctx.DECIMAL() != null) {
+                return DOUBLE;
+            }
+            if (ctx.STRING() != null) {
+                return STRING;
+            }
+            if (ctx.BOOLEAN() != null) {
+                return BOOLEAN;
+            }
+            return NULL;
+        }
+
+        @Override
+        public String visitAdditiveExpr(JnaneLangParser.AdditiveExprContext ctx) {
+            if (ctx.getChildCount() == 1) {
+                return visitChildren(ctx);
+            }
+            String left = visit(ctx.getChild(0));
+            String operator = ctx.getChild(1).getText();
+            String right = visit(ctx.getChild(2));
+            // Les opérandes suivants ne sont évalués que par le repli de l'interpréteur
+            String last = right;
+            for (int i = 4; i < ctx.getChildCount(); i += 2) {
+                last = visit(ctx.getChild(i));
+            }
+            if (INT.equals(left) && INT.equals(right)) {
+                return INT;
+            }
+            if (operator.equals("+") && (STRING.equals(left) || STRING.equals(right))) {
+                return STRING;
+            }
+            if (UNKNOWN.equals(left) || UNKNOWN.equals(right)) {
+                return UNKNOWN;
+            }
+            return last;
+        }
+
+        @Override
+        public String visitEqualityExpr(JnaneLangParser.EqualityExprContext ctx) {
+            String type = visitChildren(ctx);
+            return ctx.getChildCount() > 1 ? BOOLEAN : type;
+        }
+
+        @Override
+        public String visitRelationalExpr(JnaneLangParser.RelationalExprContext ctx) {
+            String type = visitChildren(ctx);
+            return ctx.getChildCount() > 1 ? BOOLEAN : type;
+        }
+
+        @Override
+        public String visitObjectLiteral(JnaneLangParser.ObjectLiteralContext ctx) {
+            visitChildren(ctx);
+            return RECORD;
+        }
+
+        @Override
+        public String visitArrayLiteral(JnaneLangParser.ArrayLiteralContext ctx) {
+            String element = null;
+            for (JnaneLangParser.ExpressionContext expression : ctx.expression()) {
+                String type = visit(expression);
+                element = element == null ? type : join(element, type);
+            }
+            return "list<" + (element != null ? element : UNKNOWN) + ">";
+        }
+
+        @Override
+        public String visitViewOperation(JnaneLangParser.ViewOperationContext ctx) {
+            visitChildren(ctx);
+            return UNKNOWN;
+        }
+
+        @Override
+        public String visitLensOperation(JnaneLangParser.LensOperationContext ctx) {
+            visitChildren(ctx);
+            return UNKNOWN;
+        }
+
+        @Override
+        public String visitLensDefinition(JnaneLangParser.LensDefinitionContext ctx) {
+            visitChildren(ctx);
+            return UNKNOWN;
+        }
+    }
+}
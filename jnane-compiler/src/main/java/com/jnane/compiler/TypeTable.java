@@ -0,0 +1,227 @@
+package com.jnane.compiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table des types du vérificateur : chaque type, y compris une instanciation générique comme
+ * {@code Fonction<Etat, Etat>}, est interné sous forme canonique en un identifiant entier dense.
+ *
+ * <p>Les relations de vue (un type est évaluable comme un autre) forment un graphe dont la
+ * fermeture transitive est précalculée en une ligne de bits par type : un test d'évaluabilité
+ * est un accès à un bit. La fermeture est un instantané immuable, recalculé paresseusement
+ * après l'ajout d'une vue ; les lectures sont sans verrou et la table peut être partagée
+ * entre plusieurs vérificateurs s'exécutant en parallèle.</p>
+ */
+public final class TypeTable {
+    private static final Logger logger = LoggerFactory.getLogger(TypeTable.class);
+
+    /** Type universel : tout type est évaluable comme {@code any}. */
+    public static final String ANY = "any";
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Set<Integer> declared = ConcurrentHashMap.newKeySet();
+    // Protégés par le verrou de la table
+    private final List<String> names = new ArrayList<>();
+    private final List<BitSet> edges = new ArrayList<>();
+
+    private volatile String[] snapshotNames = new String[0];
+    private volatile Closure closure;
+    private final int anyId;
+
+    /**
+     * Crée une table contenant les types de base et l'élargissement {@code int} vers
+     * {@code long}, accepté par les validateurs de champs.
+     */
+    public TypeTable() {
+        this.anyId = intern(ANY);
+        addView(TypeInference.INT, "long");
+    }
+
+    /**
+     * Fermeture transitive des vues à un instant donné.
+     */
+    private static final class Closure {
+        private final BitSet[] rows;
+
+        Closure(BitSet[] rows) {
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Retourne l'identifiant d'un type, en l'internant au premier appel.
+     *
+     * @param type Type déclaré ou inféré
+     * @return Identifiant dense
+     */
+    public int intern(String type) {
+        String canonical = TypeInference.canonical(type);
+        Integer id = ids.get(canonical);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(canonical);
+            if (id == null) {
+                id = names.size();
+                names.add(canonical);
+                edges.add(new BitSet());
+                snapshotNames = names.toArray(new String[0]);
+                ids.put(canonical, id);
+                logger.trace("Type interné: {} -> {}", canonical, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Retourne le nom canonique d'un type interné.
+     *
+     * @param id Identifiant
+     * @return Nom canonique
+     */
+    public String name(int id) {
+        String[] current = snapshotNames;
+        if (id < 0 || id >= current.length) {
+            logger.error("Identifiant de type inconnu: {}", id);
+            throw new IllegalArgumentException("Identifiant de type inconnu: " + id);
+        }
+        return current[id];
+    }
+
+    /**
+     * Retourne le nombre de types internés.
+     *
+     * @return Nombre de types
+     */
+    public int size() {
+        return snapshotNames.length;
+    }
+
+    /**
+     * Marque un type comme déclaré par {@code @type} : ses relations de vue sont connues.
+     *
+     * @param type Type déclaré
+     */
+    public void declare(String type) {
+        declared.add(intern(type));
+    }
+
+    /**
+     * Indique si un type a été déclaré par {@code @type}.
+     *
+     * @param type Type
+     * @return true si le type est déclaré
+     */
+    public boolean isDeclared(String type) {
+        return declared.contains(intern(type));
+    }
+
+    /**
+     * Déclare qu'un type est évaluable comme un autre (vue ou sous-type).
+     *
+     * @param type Type source
+     * @param viewType Type de la vue
+     */
+    public void addView(String type, String viewType) {
+        int from = intern(type);
+        int to = intern(viewType);
+        synchronized (this) {
+            BitSet row = edges.get(from);
+            if (!row.get(to)) {
+                row.set(to);
+                closure = null;
+            }
+        }
+    }
+
+    /**
+     * Indique si un type est évaluable comme un autre : identité, type universel, ou vue
+     * atteignable par transitivité.
+     *
+     * @param type Identifiant du type source
+     * @param expected Identifiant du type attendu
+     * @return true si le type est évaluable
+     */
+    public boolean isEvaluable(int type, int expected) {
+        if (type == expected || expected == anyId) {
+            return true;
+        }
+        BitSet[] rows = closure().rows;
+        // Un type interné après le calcul de la fermeture n'a encore aucune vue
+        return type < rows.length && rows[type].get(expected);
+    }
+
+    /**
+     * Indique si un type est évaluable comme un autre.
+     *
+     * @param type Type source
+     * @param expected Type attendu
+     * @return true si le type est évaluable
+     */
+    public boolean isEvaluable(String type, String expected) {
+        return isEvaluable(intern(type), intern(expected));
+    }
+
+    /**
+     * Retourne l'ensemble des types comme lesquels un type est évaluable, hors type universel.
+     *
+     * @param type Identifiant du type
+     * @return Copie de la ligne de la fermeture, incluant le type lui-même
+     */
+    public BitSet reachable(int type) {
+        BitSet[] rows = closure().rows;
+        BitSet result = type < rows.length ? (BitSet) rows[type].clone() : new BitSet();
+        result.set(type);
+        return result;
+    }
+
+    private Closure closure() {
+        Closure current = closure;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (closure == null) {
+                closure = computeClosure();
+            }
+            return closure;
+        }
+    }
+
+    /**
+     * Calcule la fermeture transitive par un parcours en largeur depuis chaque type.
+     */
+    private Closure computeClosure() {
+        int size = edges.size();
+        BitSet[] rows = new BitSet[size];
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int source = 0; source < size; source++) {
+            BitSet row = new BitSet(size);
+            row.set(source);
+            pending.push(source);
+            while (!pending.isEmpty()) {
+                BitSet next = edges.get(pending.pop());
+                for (int target = next.nextSetBit(0); target >= 0; target = next.nextSetBit(target + 1)) {
+                    if (!row.get(target)) {
+                        row.set(target);
+                        pending.push(target);
+                    }
+                }
+            }
+            rows[source] = row;
+        }
+        logger.debug("Fermeture des vues calculée pour {} types", size);
+        return new Closure(rows);
+    }
+}
@@ -0,0 +1,471 @@
+package com.jnane.compiler.script;
+
+import com.jnane.compiler.ExecutionTracer;
+import com.jnane.compiler.JnaneFunctionLoader;
+import com.jnane.compiler.JnaneInterpreter;
+import com.jnane.runtime.metrics.CacheMetrics;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Exécution réactive de scripts et de fonctions Jnane au-dessus d'un {@link ScriptExecutor}.
+ * Le réseau est formé de cellules nommées : des entrées, fixées par l'appelant, et des
+ * cellules dérivées, calculées par un script ou une fonction chargée à partir des
+ * cellules définies avant elles (l'ordre de définition est un ordre topologique).
+ *
+ * <p>Les dépendances d'une cellule dérivée sont relevées à l'exécution : variables
+ * lues par le script (y compris les variables capturées par ses lambdas, lues à leur
+ * création) et fonctions appelées, complétées par le graphe statique des
+ * {@link JnaneFunctionLoader.FunctionInfo}. Quand une entrée change, seules les cellules
+ * en aval sont recalculées ; une cellule dont la nouvelle valeur est égale à la
+ * précédente ne propage rien (coupure anticipée). Les observateurs sont notifiés une
+ * fois la propagation terminée, avec des valeurs cohérentes entre elles.</p>
+ *
+ * <p>L'exécuteur réinitialise les variables de son interpréteur à chaque calcul et
+ * n'est pas sûr en concurrence.</p>
+ */
+public class ReactiveExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExecutor.class);
+
+    // Cellules réutilisées (succès) ou recalculées (échecs) lors d'une propagation, null si les mesures sont désactivées
+    private static final CacheMetrics MEMO_METRICS =
+            MetricsRegistry.isEnabledByDefault() ? MetricsRegistry.getDefault().cache("memo") : null;
+
+    // Variable lue par défaut comme valeur d'une cellule calculée par un script
+    public static final String DEFAULT_OUTPUT = "result";
+
+    private final ScriptExecutor executor;
+    private final Map<String, Cell> cells = new LinkedHashMap<>();
+    private final List<ChangeListener> listeners = new ArrayList<>();
+    private final Stats stats = new Stats();
+
+    /**
+     * Constructeur par défaut, avec un nouvel exécuteur de scripts.
+     */
+    public ReactiveExecutor() {
+        this(new ScriptExecutor());
+    }
+
+    /**
+     * Constructeur avec un exécuteur existant, dont l'interpréteur est alors dédié au réseau.
+     *
+     * @param executor Exécuteur de scripts
+     */
+    public ReactiveExecutor(ScriptExecutor executor) {
+        this.executor = executor;
+        logger.debug("ReactiveExecutor initialisé");
+    }
+
+    /**
+     * Définit une entrée, ou modifie sa valeur si elle existe déjà.
+     *
+     * @param name Nom de l'entrée
+     * @param value Valeur initiale
+     * @return Cellules modifiées par la propagation
+     */
+    public Set<String> input(String name, Object value) {
+        Cell cell = cells.get(name);
+        if (cell == null) {
+            cells.put(name, new Cell(name, value));
+            logger.debug("Entrée définie: {} = {}", name, value);
+            return Collections.singleton(name);
+        }
+        return set(name, value);
+    }
+
+    /**
+     * Définit une cellule calculée par un script, dont la valeur est la variable "result".
+     *
+     * @param name Nom de la cellule
+     * @param script Script de calcul
+     * @return Valeur initiale
+     */
+    public Object defineScript(String name, Script script) {
+        return defineScript(name, script, DEFAULT_OUTPUT);
+    }
+
+    /**
+     * Définit une cellule calculée par un script. Les cellules déjà définies sont
+     * visibles du script comme variables.
+     *
+     * @param name Nom de la cellule
+     * @param script Script de calcul
+     * @param output Variable du script retenue comme valeur
+     * @return Valeur initiale
+     */
+    public Object defineScript(String name, Script script, String output) {
+        Cell cell = new Cell(name, null);
+        cell.script = script;
+        cell.output = output;
+        return define(cell);
+    }
+
+    /**
+     * Définit une cellule calculée par une fonction chargée.
+     *
+     * @param name Nom de la cellule
+     * @param functionName Nom complet de la fonction
+     * @param bindings Cellule liée à chaque paramètre de la fonction
+     * @return Valeur initiale
+     */
+    public Object defineFunction(String name, String functionName, Map<String, String> bindings) {
+        for (String source : bindings.values()) {
+            requireCell(source);
+        }
+        Cell cell = new Cell(name, null);
+        cell.functionName = functionName;
+        cell.bindings = new LinkedHashMap<>(bindings);
+        return define(cell);
+    }
+
+    private Object define(Cell cell) {
+        if (cells.containsKey(cell.name)) {
+            String errorMsg = "Cellule déjà définie: " + cell.name;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        recompute(cell);
+        cells.put(cell.name, cell);
+        logger.debug("Cellule {} définie, dépendances: {}, fonctions: {}", cell.name, cell.reads, cell.functions);
+        return cell.value;
+    }
+
+    /**
+     * Modifie une entrée et propage le changement.
+     *
+     * @param name Nom de l'entrée
+     * @param value Nouvelle valeur
+     * @return Cellules modifiées par la propagation, dans l'ordre de définition
+     */
+    public Set<String> set(String name, Object value) {
+        return update(Collections.singletonMap(name, value));
+    }
+
+    /**
+     * Modifie plusieurs entrées et propage les changements en une seule passe.
+     *
+     * @param values Nouvelles valeurs des entrées
+     * @return Cellules modifiées par la propagation, dans l'ordre de définition
+     */
+    public Set<String> update(Map<String, Object> values) {
+        Map<String, Object> previous = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Cell cell = requireCell(entry.getKey());
+            if (!cell.isInput()) {
+                String errorMsg = "La cellule '" + cell.name + "' n'est pas une entrée";
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            if (!Objects.equals(cell.value, entry.getValue())) {
+                previous.put(cell.name, cell.value);
+                cell.value = entry.getValue();
+            }
+        }
+        return propagate(previous, Collections.emptySet());
+    }
+
+    /**
+     * Recalcule les cellules qui appellent une fonction, directement ou par une fonction
+     * intermédiaire, par exemple après modification de son fichier.
+     *
+     * @param functionName Nom complet de la fonction
+     * @return Cellules modifiées par la propagation, dans l'ordre de définition
+     */
+    public Set<String> invalidateFunction(String functionName) {
+        Set<String> forced = new LinkedHashSet<>();
+        for (Cell cell : cells.values()) {
+            if (cell.functions.contains(functionName)) {
+                forced.add(cell.name);
+            }
+        }
+        logger.debug("Fonction {} invalidée, cellules concernées: {}", functionName, forced);
+        return propagate(new LinkedHashMap<>(), forced);
+    }
+
+    private Set<String> propagate(Map<String, Object> previous, Set<String> forced) {
+        for (Cell cell : cells.values()) {
+            if (cell.isInput()) {
+                continue;
+            }
+            if (!forced.contains(cell.name) && Collections.disjoint(cell.reads, previous.keySet())) {
+                stats.skipped++;
+                if (MEMO_METRICS != null) {
+                    MEMO_METRICS.hit();
+                }
+                continue;
+            }
+            if (MEMO_METRICS != null) {
+                MEMO_METRICS.miss();
+            }
+            Object before = cell.value;
+            recompute(cell);
+            if (Objects.equals(before, cell.value)) {
+                stats.cutoffs++;
+                logger.debug("Cellule {} recalculée sans changement, propagation interrompue", cell.name);
+            } else {
+                previous.put(cell.name, before);
+            }
+        }
+        for (Map.Entry<String, Object> entry : previous.entrySet()) {
+            Object current = cells.get(entry.getKey()).value;
+            for (ChangeListener listener : listeners) {
+                listener.changed(entry.getKey(), entry.getValue(), current);
+            }
+        }
+        return Collections.unmodifiableSet(new LinkedHashSet<>(previous.keySet()));
+    }
+
+    /**
+     * Calcule une cellule dérivée en traçant ses lectures et ses appels.
+     */
+    private void recompute(Cell cell) {
+        JnaneInterpreter interpreter = executor.getInterpreter();
+        ExecutionTracer previousTracer = interpreter.getTracer();
+        Trace trace = new Trace();
+        interpreter.reset();
+        try {
+            Object value;
+            if (cell.script != null) {
+                // Seules les cellules définies avant celle-ci sont visibles
+                for (Cell visible : cells.values()) {
+                    if (visible == cell) {
+                        break;
+                    }
+                    interpreter.setVariableValue(visible.name, visible.value);
+                    trace.visible.add(visible.name);
+                }
+                interpreter.setTracer(trace);
+                Scope scope = executor.executeScript(cell.script);
+                if (scope == null) {
+                    String errorMsg = "Échec du calcul de la cellule '" + cell.name + "'";
+                    logger.error(errorMsg);
+                    throw new IllegalStateException(errorMsg);
+                }
+                value = scope.getVariableValue(cell.output);
+            } else {
+                Map<String, Object> args = new HashMap<>();
+                for (Map.Entry<String, String> binding : cell.bindings.entrySet()) {
+                    args.put(binding.getKey(), cells.get(binding.getValue()).value);
+                    trace.reads.add(binding.getValue());
+                }
+                interpreter.setTracer(trace);
+                value = interpreter.interpretFunctionCallWithNamedArgs(cell.functionName, args);
+            }
+            cell.value = value;
+            cell.reads = trace.reads;
+            cell.functions = closure(trace.calls);
+            stats.recomputations++;
+        } finally {
+            interpreter.setTracer(previousTracer);
+            interpreter.reset();
+        }
+    }
+
+    /**
+     * Complète les fonctions appelées par leurs dépendances statiques.
+     */
+    private Set<String> closure(Set<String> called) {
+        Map<String, JnaneFunctionLoader.FunctionInfo> functions = executor.getInterpreter().getFunctionLoader().getFunctions();
+        Set<String> result = new LinkedHashSet<>(called);
+        Deque<String> pending = new ArrayDeque<>(called);
+        while (!pending.isEmpty()) {
+            JnaneFunctionLoader.FunctionInfo info = functions.get(pending.pop());
+            if (info == null) {
+                continue;
+            }
+            for (String dependency : info.getDependencies()) {
+                if (result.add(dependency)) {
+                    pending.push(dependency);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Cell requireCell(String name) {
+        Cell cell = cells.get(name);
+        if (cell == null) {
+            String errorMsg = "Cellule inconnue: " + name;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        return cell;
+    }
+
+    /**
+     * Retourne la valeur courante d'une cellule.
+     *
+     * @param name Nom de la cellule
+     * @return Valeur
+     */
+    public Object get(String name) {
+        return requireCell(name).value;
+    }
+
+    /**
+     * Retourne les cellules lues lors du dernier calcul d'une cellule.
+     *
+     * @param name Nom de la cellule
+     * @return Dépendances, vide pour une entrée
+     */
+    public Set<String> getDependencies(String name) {
+        return Collections.unmodifiableSet(requireCell(name).reads);
+    }
+
+    /**
+     * Retourne les fonctions dont dépend une cellule : appels relevés lors du dernier
+     * calcul et leurs dépendances statiques.
+     *
+     * @param name Nom de la cellule
+     * @return Fonctions, vide pour une entrée
+     */
+    public Set<String> getFunctions(String name) {
+        return Collections.unmodifiableSet(requireCell(name).functions);
+    }
+
+    /**
+     * Ajoute un observateur des changements de valeur.
+     *
+     * @param listener Observateur
+     */
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Retire un observateur.
+     *
+     * @param listener Observateur
+     */
+    public void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Retourne les compteurs de propagation.
+     *
+     * @return Statistiques
+     */
+    public Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Retourne l'exécuteur de scripts sous-jacent.
+     *
+     * @return Exécuteur
+     */
+    public ScriptExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Observateur des changements de valeur d'une cellule.
+     */
+    public interface ChangeListener {
+
+        /**
+         * Signale le changement de valeur d'une cellule.
+         *
+         * @param name Nom de la cellule
+         * @param previous Valeur précédente
+         * @param current Nouvelle valeur
+         */
+        void changed(String name, Object previous, Object current);
+    }
+
+    /**
+     * Compteurs de propagation.
+     */
+    public static final class Stats {
+        private long recomputations;
+        private long cutoffs;
+        private long skipped;
+
+        /** @return Calculs de cellules dérivées, définitions comprises */
+        public long getRecomputations() {
+            return recomputations;
+        }
+
+        /** @return Recalculs sans changement de valeur, qui n'ont rien propagé */
+        public long getCutoffs() {
+            return cutoffs;
+        }
+
+        /** @return Cellules dérivées laissées intactes lors d'une propagation */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{recalculs=" + recomputations + ", coupures=" + cutoffs + ", ignorées=" + skipped + "}";
+        }
+    }
+
+    /**
+     * Cellule du réseau : entrée, ou valeur dérivée d'un script ou d'une fonction.
+     */
+    private static final class Cell {
+        private final String name;
+        private Object value;
+        private Script script;
+        private String output;
+        private String functionName;
+        private Map<String, String> bindings;
+        private Set<String> reads = Collections.emptySet();
+        private Set<String> functions = Collections.emptySet();
+
+        Cell(String name, Object value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        boolean isInput() {
+            return script == null && functionName == null;
+        }
+    }
+
+    /**
+     * Traceur d'un calcul : retient les cellules lues au niveau du script (les lectures
+     * des fonctions appelées portent sur leurs paramètres) et toutes les fonctions appelées.
+     */
+    private static final class Trace implements ExecutionTracer {
+        private final Set<String> visible = new HashSet<>();
+        private final Set<String> reads = new LinkedHashSet<>();
+        private final Set<String> calls = new LinkedHashSet<>();
+        private int depth;
+
+        @Override
+        public void variableRead(String name) {
+            if (depth == 0 && visible.contains(name)) {
+                reads.add(name);
+            }
+        }
+
+        @Override
+        public void functionEntered(String functionName) {
+            calls.add(functionName);
+            depth++;
+        }
+
+        @Override
+        public void functionExited(String functionName) {
+            depth--;
+        }
+    }
+}
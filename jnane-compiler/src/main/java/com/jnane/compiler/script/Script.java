@@ -4,6 +4,8 @@ import com.jnane.compiler.ContextStringBuilder;
 import com.jnane.compiler.JnaneFileLoader;
 import com.jnane.compiler.JnaneLangLexer;
 import com.jnane.compiler.JnaneLangParser;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import com.jnane.runtime.metrics.TimerMetrics;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
@@ -19,6 +21,10 @@ import java.io.IOException;
 public class Script {
     private static final Logger logger = LoggerFactory.getLogger(Script.class);
 
+    // Durées d'analyse syntaxique dans le registre des mesures, null si les mesures sont désactivées
+    private static final TimerMetrics PARSE_TIMER =
+            MetricsRegistry.isEnabledByDefault() ? MetricsRegistry.getDefault().timer("parse") : null;
+
     // Contenu source original du script
     private final String sourceCode;
     
@@ -43,11 +49,7 @@ public class Script {
         this.functionName = JnaneFileLoader.getFunctionNameFromPath(filePath);
         
         // Parser le contenu source pour créer l'arbre syntaxique
-        CharStream input = CharStreams.fromString(sourceCode);
-        JnaneLangLexer lexer = new JnaneLangLexer(input);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        JnaneLangParser parser = new JnaneLangParser(tokens);
-        this.programContext = parser.program();
+        this.programContext = parse(sourceCode);
         
         logger.debug("Script chargé: {}:{} depuis {}", namespace, functionName, filePath);
     }
@@ -66,15 +68,24 @@ public class Script {
         this.filePath = null;
         
         // Parser le contenu source pour créer l'arbre syntaxique
+        this.programContext = parse(sourceCode);
+        
+        logger.debug("Script créé en mémoire: {}:{}", namespace, functionName);
+    }
+    
+    private static JnaneLangParser.ProgramContext parse(String sourceCode) {
+        long start = System.nanoTime();
         CharStream input = CharStreams.fromString(sourceCode);
         JnaneLangLexer lexer = new JnaneLangLexer(input);
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         JnaneLangParser parser = new JnaneLangParser(tokens);
-        this.programContext = parser.program();
-        
-        logger.debug("Script créé en mémoire: {}:{}", namespace, functionName);
+        JnaneLangParser.ProgramContext program = parser.program();
+        if (PARSE_TIMER != null) {
+            PARSE_TIMER.recordSince(start);
+        }
+        return program;
     }
-    
+
     /**
      * Retourne le contenu source original du script.
      * 
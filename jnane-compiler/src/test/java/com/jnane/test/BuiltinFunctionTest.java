@@ -0,0 +1,185 @@
+package com.jnane.test;
+
+import com.jnane.compiler.JnaneExpressionVisitor;
+import com.jnane.compiler.JnaneInterpreter;
+import com.jnane.compiler.script.Scope;
+import com.jnane.compiler.script.Script;
+import com.jnane.runtime.builtin.BuiltinFunction;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Tests de la découverte des fonctions intégrées et de la liaison des sites d'appel.
+ */
+public class BuiltinFunctionTest {
+    private static final Logger logger = LoggerFactory.getLogger(BuiltinFunctionTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "BuiltinFunctionTest");
+        logger.info("Démarrage du test BuiltinFunctionTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Fonction de test qui compte ses appels.
+     */
+    private static final class Compteur implements BuiltinFunction.IntBinary {
+        private final String name;
+        private final boolean pure;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        Compteur(String name, boolean pure) {
+            this.name = name;
+            this.pure = pure;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Signature getSignature() {
+            return Signature.returning("int").param("a", "int").optional("b", "int").build();
+        }
+
+        @Override
+        public boolean isPure() {
+            return pure;
+        }
+
+        @Override
+        public int applyAsInt(int first, int second) {
+            calls.incrementAndGet();
+            return first * second;
+        }
+
+        @Override
+        public Object invoke(Object[] args) {
+            calls.incrementAndGet();
+            return args[1] == null ? args[0] : (Integer) args[0] * (Integer) args[1];
+        }
+    }
+
+    /**
+     * Vérifie la découverte par ServiceLoader et les signatures déclarées.
+     */
+    @Test
+    public void testDiscovery() {
+        BuiltinRegistry registry = BuiltinRegistry.load(getClass().getClassLoader());
+        BuiltinFunction add = registry.lookup("math:add");
+        Assertions.assertNotNull(add);
+        Assertions.assertTrue(add.isPure());
+        Assertions.assertEquals(List.of("first", "second"), add.getSignature().getParameterNames());
+        Assertions.assertEquals(8, add.invoke(new Object[]{5, "3"}));
+        Assertions.assertNotNull(registry.lookup("print"));
+        Assertions.assertFalse(registry.lookup("print").isPure());
+
+        Assertions.assertArrayEquals(new Object[]{1, 2},
+                BuiltinRegistry.bind(add, Map.of("second", 2, "first", 1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BuiltinRegistry.bind(add, Map.of("first", 1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> BuiltinRegistry.checkArity(add, 3));
+
+        // Une fonction Jnane des ressources masque la fonction intégrée de même nom
+        JnaneInterpreter interpreter = new JnaneInterpreter();
+        Assertions.assertNull(interpreter.linkBuiltin("math:add"));
+        Assertions.assertSame(interpreter.getBuiltins().lookup("print"), interpreter.linkBuiltin("print"));
+    }
+
+    /**
+     * Vérifie l'appel direct depuis un script, le passage positionnel des arguments et
+     * l'évaluation unique d'une fonction pure sur des littéraux.
+     */
+    @Test
+    public void testLinkedCallSites() {
+        Compteur pure = new Compteur("test:produit", true);
+        Compteur impure = new Compteur("test:compte", false);
+        BuiltinRegistry registry = BuiltinRegistry.load(getClass().getClassLoader());
+        registry.register(pure);
+        registry.register(impure);
+
+        JnaneInterpreter interpreter = new JnaneInterpreter();
+        interpreter.setBuiltins(registry);
+        String source = "@name test:appels\n"
+                + "{\n"
+                + "    x = 6;\n"
+                + "    constant = test:produit(6, 7);\n"
+                + "    variable = test:produit(x, 2);\n"
+                + "    seul = test:compte(4);\n"
+                + "}\n";
+        Script script = new Script(source, "test", "appels");
+        JnaneExpressionVisitor visitor = new JnaneExpressionVisitor(interpreter);
+        Scope scope = interpreter.executeScript(visitor, script.getProgramContext());
+        interpreter.executeScript(visitor, script.getProgramContext());
+
+        Assertions.assertEquals(42, scope.getVariableValue("constant"));
+        Assertions.assertEquals(12, scope.getVariableValue("variable"));
+        Assertions.assertEquals(4, scope.getVariableValue("seul"));
+        // Littéraux : un seul appel pour deux exécutions ; variable : un appel par exécution
+        Assertions.assertEquals(3, pure.calls.get());
+        Assertions.assertEquals(2, impure.calls.get());
+        Assertions.assertEquals(42, interpreter.interpretFunctionCall("test:produit", 6, 7));
+    }
+
+    /**
+     * Vérifie que les sites d'une fonction Jnane ne sont liés qu'une fois pour tous ses
+     * appels, et de nouveau quand son fichier change.
+     */
+    @Test
+    public void testCallSitesSurviveFunctionCalls() throws IOException {
+        Compteur pure = new Compteur("test:produit", true);
+        Compteur impure = new Compteur("test:compte", false);
+        BuiltinRegistry registry = BuiltinRegistry.load(getClass().getClassLoader());
+        registry.register(pure);
+        registry.register(impure);
+
+        Path directory = Files.createTempDirectory("liaisons");
+        try {
+            Path file = Files.createDirectories(directory.resolve("app")).resolve("appels.jn");
+            Files.writeString(file, "@name app:appels\n@name x\n{\n"
+                    + "    constant = test:produit(6, 7);\n"
+                    + "    result = test:compte(x) + constant;\n}\n");
+            JnaneInterpreter interpreter = new JnaneInterpreter(directory.toString());
+            interpreter.setBuiltins(registry);
+
+            Assertions.assertEquals(45, interpreter.interpretFunctionCallWithNamedArgs("app:appels", Map.of("x", 3)));
+            Assertions.assertEquals(2, interpreter.getCallSiteLinks());
+            Assertions.assertEquals(46, interpreter.interpretFunctionCallWithNamedArgs("app:appels", Map.of("x", 4)));
+            Assertions.assertEquals(2, interpreter.getCallSiteLinks());
+            // La fonction pure sur des littéraux n'a été évaluée qu'une fois pour les deux appels
+            Assertions.assertEquals(1, pure.calls.get());
+            Assertions.assertEquals(2, impure.calls.get());
+
+            // Fichier modifié : analysé et lié de nouveau
+            Files.writeString(file, "@name app:appels\n@name x\n{\n    result = test:compte(x);\n}\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+            Assertions.assertEquals(5, interpreter.interpretFunctionCallWithNamedArgs("app:appels", Map.of("x", 5)));
+            Assertions.assertEquals(1, interpreter.getCallSiteLinks());
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
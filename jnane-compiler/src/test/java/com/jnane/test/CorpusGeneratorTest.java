@@ -0,0 +1,100 @@
+package com.jnane.test;
+
+import com.jnane.compiler.CorpusGenerator;
+import com.jnane.compiler.JnaneFunctionLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests du générateur de corpus synthétiques.
+ */
+public class CorpusGeneratorTest {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusGeneratorTest.class);
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MDC.put("testname", "CorpusGeneratorTest");
+        logger.info("Démarrage du test CorpusGeneratorTest");
+        directory = Files.createTempDirectory("corpus");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        MDC.remove("testname");
+    }
+
+    private List<String> contents(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile).sorted().map(path -> {
+                try {
+                    return root.relativize(path) + "\n" + Files.readString(path);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Vérifie qu'une même graine produit le même corpus, et une autre graine un corpus différent.
+     */
+    @Test
+    public void testDeterministicFromSeed() throws IOException {
+        CorpusGenerator generator = CorpusGenerator.fromOptions(List.of("functions=150", "depth=4", "optional=2", "cycles=1"));
+        generator.generate(directory.resolve("a"));
+        generator.generate(directory.resolve("b"));
+        generator.seed(7).generate(directory.resolve("c"));
+
+        List<String> first = contents(directory.resolve("a"));
+        Assertions.assertEquals(150, first.size());
+        Assertions.assertEquals(first, contents(directory.resolve("b")));
+        Assertions.assertNotEquals(first, contents(directory.resolve("c")));
+    }
+
+    /**
+     * Vérifie que le chargeur retrouve toutes les fonctions, leurs appels, et les seuls
+     * cycles injectés.
+     */
+    @Test
+    public void testLoaderSeesGeneratedGraph() throws IOException {
+        CorpusGenerator.Corpus acyclic = new CorpusGenerator().functions(300).depth(5).fanOut(4)
+                .generate(directory.resolve("acyclique"));
+        JnaneFunctionLoader loader = new JnaneFunctionLoader();
+        loader.loadFunctionsFromDirectory(acyclic.getRoot().toString());
+        Assertions.assertEquals(300, loader.getFunctions().size());
+        Assertions.assertTrue(loader.getFunctions().keySet().containsAll(acyclic.getFunctions()));
+        Assertions.assertFalse(loader.getFunctions().get(acyclic.getFunctions().get(0)).getDependencies().isEmpty());
+        Assertions.assertFalse(loader.hasErrors(), loader.getErrors().toString());
+
+        CorpusGenerator.Corpus cyclic = new CorpusGenerator().functions(300).depth(5).cycles(2)
+                .generate(directory.resolve("cycles"));
+        Assertions.assertEquals(2, cyclic.getCycles().size());
+        Assertions.assertEquals(5, cyclic.getCycles().get(0).size());
+        loader = new JnaneFunctionLoader();
+        loader.loadFunctionsFromDirectory(cyclic.getRoot().toString());
+        Assertions.assertTrue(loader.hasErrors());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new CorpusGenerator().functions(3).depth(4).generate(directory));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> CorpusGenerator.fromOptions(List.of("profondeur=3")));
+    }
+}
@@ -0,0 +1,90 @@
+package com.jnane.test;
+
+import com.jnane.compiler.CorpusGenerator;
+import com.jnane.compiler.IncrementalTypeChecker;
+import com.jnane.compiler.JnaneFunctionLoader;
+import com.jnane.compiler.TypeTable;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Montée en charge du chargeur et de la vérification des types sur des corpus générés.
+ * Exclues de {@code mvn test} ; lancer avec {@code mvn test -Pbenchmarks}. La taille
+ * maximale du corpus du chargeur se règle par {@code -Djnane.corpus.max} (10^5 par défaut).
+ */
+@Tag("benchmark")
+public class CorpusScalingBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusScalingBenchmarkTest.class);
+
+    private static final int LOADER_MAX = Integer.getInteger("jnane.corpus.max", 100_000);
+    private static final int CHECKER_MAX = 1000;
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MDC.put("testname", "CorpusScalingBenchmarkTest");
+        logger.info("Démarrage du test CorpusScalingBenchmarkTest");
+        directory = Files.createTempDirectory("scaling");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        MDC.remove("testname");
+    }
+
+    /**
+     * Chargement et détection des cycles de 10^2 fonctions jusqu'à {@code jnane.corpus.max}.
+     */
+    @Test
+    public void benchmarkLoader() throws IOException {
+        for (int functions = 100; functions <= LOADER_MAX; functions *= 10) {
+            CorpusGenerator.Corpus corpus = new CorpusGenerator().functions(functions).depth(12).cycles(1)
+                    .generate(directory.resolve("n" + functions));
+            long debut = System.nanoTime();
+            JnaneFunctionLoader loader = new JnaneFunctionLoader();
+            loader.loadFunctionsFromDirectory(corpus.getRoot().toString());
+            long duree = System.nanoTime() - debut;
+            logger.info("Chargement: {} fonctions en {} ms ({} µs/fonction)",
+                    functions, duree / 1_000_000, duree / 1000 / functions);
+            Assertions.assertEquals(functions, loader.getFunctions().size());
+            Assertions.assertTrue(loader.hasErrors());
+        }
+    }
+
+    /**
+     * Vérification complète des types, sans cache, de 10^2 et 10^3 fonctions.
+     */
+    @Test
+    public void benchmarkTypeChecker() throws IOException {
+        for (int functions = 100; functions <= CHECKER_MAX; functions *= 10) {
+            CorpusGenerator.Corpus corpus = new CorpusGenerator().functions(functions)
+                    .generate(directory.resolve("n" + functions));
+            JnaneFunctionLoader loader = new JnaneFunctionLoader();
+            loader.loadFunctionsFromDirectory(corpus.getRoot().toString());
+            long debut = System.nanoTime();
+            IncrementalTypeChecker.Report report = new IncrementalTypeChecker(loader, BuiltinRegistry.getDefault(),
+                    new TypeTable(), null).checkAll();
+            long duree = System.nanoTime() - debut;
+            logger.info("Vérification des types: {} fonctions en {} ms ({} µs/fonction)",
+                    functions, duree / 1_000_000, duree / 1000 / functions);
+            Assertions.assertEquals(functions, report.getChecked().size());
+        }
+    }
+}
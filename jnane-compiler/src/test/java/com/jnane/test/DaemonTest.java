@@ -0,0 +1,207 @@
+package com.jnane.test;
+
+import com.jnane.compiler.DaemonClient;
+import com.jnane.compiler.IncrementalTypeChecker;
+import com.jnane.compiler.JnaneDaemon;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tests du démon de compilation et de son client.
+ */
+public class DaemonTest {
+    private static final Logger logger = LoggerFactory.getLogger(DaemonTest.class);
+
+    private Path directory;
+    private JnaneDaemon daemon;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MDC.put("testname", "DaemonTest");
+        logger.info("Démarrage du test DaemonTest");
+        directory = Files.createTempDirectory("daemon");
+        Files.createDirectories(directory.resolve("app"));
+        Files.writeString(directory.resolve("app").resolve("constante.jn"),
+                "@name app:constante\n@name base\n@view result : int\n{\n    result = base + 2;\n}\n");
+        System.setProperty(JnaneDaemon.TOKEN_DIR_PROPERTY, directory.resolve("jetons").toString());
+        System.setProperty(IncrementalTypeChecker.CACHE_DIR_PROPERTY, directory.resolve("caches").toString());
+        daemon = new JnaneDaemon(0);
+        daemon.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        daemon.stop();
+        System.clearProperty(JnaneDaemon.TOKEN_DIR_PROPERTY);
+        System.clearProperty(IncrementalTypeChecker.CACHE_DIR_PROPERTY);
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        MDC.remove("testname");
+    }
+
+    /**
+     * Réponse d'une requête : code de sortie et sorties relayées.
+     */
+    private static final class Response {
+        private final int status;
+        private final String out;
+        private final String err;
+
+        Response(int status, String out, String err) {
+            this.status = status;
+            this.out = out;
+            this.err = err;
+        }
+    }
+
+    private Response send(String... request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status = DaemonClient.send(daemon.getPort(), request, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        return new Response(status, out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Vérifie la vérification et l'exécution servies par le démon, et la prise en compte
+     * d'un fichier ajouté.
+     */
+    @Test
+    public void testCheckAndRun() throws IOException {
+        Assertions.assertEquals("pong", send("ping").out.trim());
+
+        Response check = send("check", directory.toString());
+        Assertions.assertEquals(0, check.status, check.err);
+        Assertions.assertTrue(check.out.contains("Analyse de la fonction: app:constante"));
+
+        Response run = send("run", directory.toString(), "app:constante", "base=40");
+        Assertions.assertEquals(0, run.status, run.err);
+        Assertions.assertEquals("42", run.out.trim());
+
+        // Nouveau fichier incompatible avec son type déclaré : détecté sans redémarrer le démon
+        Files.writeString(directory.resolve("app").resolve("texte.jn"),
+                "@name app:texte\n@view result : int\n{\n    result = \"x\";\n}\n");
+        Response invalid = null;
+        for (int attempt = 0; attempt < 50 && (invalid == null || invalid.status == 0); attempt++) {
+            invalid = send("check", directory.toString());
+        }
+        Assertions.assertEquals(1, invalid.status);
+        Assertions.assertTrue(invalid.err.contains("app:texte"));
+
+        Assertions.assertEquals(1, send("run", directory.toString(), "app:constante", "40").status);
+        Assertions.assertEquals(2, send("inconnue").status);
+    }
+
+    /**
+     * Vérifie le traitement de clients concurrents, puis l'arrêt à distance.
+     */
+    @Test
+    public void testConcurrentClients() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Response>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                boolean check = i % 2 == 0;
+                responses.add(clients.submit(() -> check
+                        ? send("check", directory.toString())
+                        : send("run", directory.toString(), "app:constante", "base=40")));
+            }
+            for (Future<Response> response : responses) {
+                Assertions.assertEquals(0, response.get().status, response.get().err);
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        Assertions.assertEquals(0, send("stop").status);
+        Assertions.assertTrue(daemon.awaitStop(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, send("ping").status);
+    }
+
+    /**
+     * Vérifie que ce qu'écrit {@code print} pendant une requête revient au client qui l'a
+     * émise, même quand plusieurs clients exécutent en parallèle.
+     */
+    @Test
+    public void testBuiltinOutputPerRequest() throws Exception {
+        Files.writeString(directory.resolve("app").resolve("salut.jn"),
+                "@name app:salut\n@name nom\n{\n    print(\"bonjour \" + nom);\n    result = 0;\n}\n");
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Response>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String name = "client" + i;
+                responses.add(clients.submit(() -> send("run", directory.toString(), "app:salut", "nom=" + name)));
+            }
+            for (int i = 0; i < responses.size(); i++) {
+                Response response = responses.get(i).get();
+                Assertions.assertEquals(0, response.status, response.err);
+                Assertions.assertEquals("bonjour client" + i + System.lineSeparator() + "0", response.out.trim());
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    /**
+     * Vérifie que le jeton n'est lisible que par son propriétaire et qu'une connexion sans
+     * le bon jeton est refusée avant toute requête.
+     */
+    @Test
+    public void testAuthentication() throws IOException {
+        Path tokenFile = directory.resolve("jetons").resolve("daemon-" + daemon.getPort() + ".token");
+        Assertions.assertTrue(Files.exists(tokenFile));
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Assertions.assertEquals(PosixFilePermissions.fromString("rw-------"),
+                    Files.getPosixFilePermissions(tokenFile));
+        }
+
+        List<String> refused = new ArrayList<>();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            writer.write("ping\n");
+            writer.flush();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                refused.add(line);
+            }
+        }
+        Assertions.assertFalse(refused.contains("O pong"));
+        Assertions.assertEquals("S 3", refused.get(refused.size() - 1));
+        Assertions.assertEquals("pong", send("ping").out.trim());
+
+        daemon.stop();
+        Assertions.assertFalse(Files.exists(tokenFile));
+        Assertions.assertEquals(2, send("ping").status);
+    }
+}
@@ -0,0 +1,107 @@
+package com.jnane.test;
+
+import com.jnane.compiler.AnnotationExtractor;
+import com.jnane.compiler.FieldValidator;
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.value.PrimitiveVector;
+import com.jnane.runtime.value.ShapedRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests des validateurs précompilés des champs @field et @view.
+ */
+public class FieldValidatorTest {
+    private static final Logger logger = LoggerFactory.getLogger(FieldValidatorTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "FieldValidatorTest");
+        logger.info("Démarrage du test FieldValidatorTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Vérifie la compilation des types simples et génériques.
+     */
+    @Test
+    public void testTypeChecks() {
+        Assertions.assertTrue(FieldValidator.compileType("int").accepts(3));
+        Assertions.assertFalse(FieldValidator.compileType("int").accepts(3L));
+        Assertions.assertFalse(FieldValidator.compileType("int").accepts(null));
+        Assertions.assertTrue(FieldValidator.compileType("double").accepts(2.5));
+        Assertions.assertTrue(FieldValidator.compileType("Boolean").accepts(true));
+        Assertions.assertTrue(FieldValidator.compileType("null").accepts(null));
+
+        FieldValidator.TypeCheck entiers = FieldValidator.compileType("List<int>");
+        Assertions.assertTrue(entiers.accepts(PrimitiveVector.ofInts(1, 2, 3)));
+        Assertions.assertTrue(entiers.accepts(PersistentVector.of(1, 2)));
+        Assertions.assertFalse(entiers.accepts(PersistentVector.of(1, "deux")));
+        Assertions.assertFalse(entiers.accepts(PrimitiveVector.ofDoubles(1.5)));
+        Assertions.assertFalse(entiers.accepts(3));
+
+        FieldValidator.TypeCheck etats = FieldValidator.compileType("List<Etat>");
+        Assertions.assertTrue(etats.accepts(List.of(ShapedRecord.builder().put("id", 1).build())));
+        Assertions.assertFalse(etats.accepts(Arrays.asList((Object) null)));
+
+        FieldValidator.TypeCheck table = FieldValidator.compileType("Map<string, List<double>>");
+        Assertions.assertTrue(table.accepts(Map.of("a", PrimitiveVector.ofDoubles(1.0))));
+        Assertions.assertFalse(table.accepts(Map.of("a", List.of("x"))));
+        Assertions.assertTrue(FieldValidator.compileType("Option<int>").accepts(null));
+        // Type mal formé : toute valeur non nulle est acceptée
+        Assertions.assertTrue(FieldValidator.compileType("List<int").accepts("x"));
+    }
+
+    /**
+     * Vérifie la validation des champs d'un fichier et sa recompilation après modification.
+     */
+    @Test
+    public void testFileValidator() throws IOException {
+        Path file = Files.createTempFile("validateur", ".jn");
+        try {
+            Files.writeString(file, "@name test:validateur\n@view result : int\n@field valeurs : List<int>\n{\n}\n");
+            FieldValidator validator = FieldValidator.forFile(file.toString());
+            Assertions.assertEquals(2, validator.size());
+            Assertions.assertSame(validator, FieldValidator.forFile(file.toString()));
+
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("result", 8);
+            variables.put("valeurs", PrimitiveVector.ofInts(1, 2));
+            validator.validate(variables);
+
+            variables.put("result", "huit");
+            Assertions.assertThrows(IllegalStateException.class, () -> validator.validate(variables));
+            variables.remove("result");
+            Assertions.assertThrows(IllegalStateException.class, () -> validator.validate(variables));
+
+            Files.writeString(file, "@name test:validateur\n@view result : string\n{\n}\n");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+            FieldValidator recompiled = FieldValidator.forFile(file.toString());
+            Assertions.assertNotSame(validator, recompiled);
+            recompiled.validate(Map.of("result", "huit"));
+
+            Assertions.assertEquals(1, FieldValidator.compile(AnnotationExtractor.extractAnnotationsFromContent(
+                    "@field total : Map<string,int>")).size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
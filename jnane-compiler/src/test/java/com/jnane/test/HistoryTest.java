@@ -0,0 +1,277 @@
+package com.jnane.test;
+
+import com.jnane.compiler.script.Scope;
+import com.jnane.compiler.script.Script;
+import com.jnane.compiler.script.ScriptExecutor;
+import com.jnane.runtime.history.HistoryEntry;
+import com.jnane.runtime.history.HistoryPolicy;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.history.StateDelta;
+import com.jnane.runtime.history.StateHistory;
+import com.jnane.runtime.history.TemporalIndex;
+import com.jnane.runtime.value.PersistentMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests de l'historique des états (deltas structurels, rétention, journal).
+ */
+public class HistoryTest {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "HistoryTest");
+        logger.info("Démarrage du test HistoryTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Vérifie que le delta ne contient que les chemins modifiés et qu'il reconstruit la nouvelle version.
+     */
+    @Test
+    public void testStructuralDelta() {
+        PersistentMap<Object, Object> etat = PersistentMap.empty();
+        for (int i = 0; i < 1000; i++) {
+            etat = etat.assoc("cle" + i, i);
+        }
+        PersistentMap<Object, Object> adresse = PersistentMap.empty().assoc("ville", "Lyon");
+        etat = etat.assoc("adresse", adresse);
+
+        PersistentMap<Object, Object> modifie = etat
+                .assoc("adresse", adresse.assoc("ville", "Paris"))
+                .assoc("cle7", 70)
+                .dissoc("cle8");
+
+        StateDelta delta = StateDelta.diff(etat, modifie);
+        Assertions.assertEquals(3, delta.getChanges().size());
+        Assertions.assertTrue(delta.getChanges().stream().anyMatch(c -> c.getPathString().equals("adresse.ville")));
+        Assertions.assertTrue(delta.getChanges().stream().anyMatch(c -> c.getPathString().equals("cle8") && c.isRemoval()));
+        Assertions.assertEquals(modifie, delta.applyTo(etat));
+        Assertions.assertTrue(StateDelta.diff(modifie, modifie).isEmpty());
+    }
+
+    /**
+     * Vérifie la reconstruction des versions et la borne mémoire imposée par la rétention.
+     */
+    @Test
+    public void testRetentionAndReconstruction() {
+        HistoryStore store = new HistoryStore(new HistoryPolicy(8, 64));
+        PersistentMap<String, Object> etat = PersistentMap.<String, Object>empty().assoc("compteur", 0);
+        for (int i = 1; i <= 10_000; i++) {
+            PersistentMap<String, Object> suivant = etat.assoc("compteur", i);
+            store.recordTransition(etat, suivant, null, "incrément");
+            etat = suivant;
+        }
+
+        HistoryStore.VersionRef ref = store.lookup(etat);
+        StateHistory lignee = ref.getLineage();
+        Assertions.assertEquals(10_000, ref.getVersion());
+        Assertions.assertTrue(lignee.size() >= 64 && lignee.size() <= 64 + 2 * 8,
+                "taille conservée: " + lignee.size());
+        Assertions.assertEquals(9_990, ((Map<?, ?>) lignee.stateAt(9_990)).get("compteur"));
+
+        List<Object> etats = lignee.statesUpTo(10_000);
+        Assertions.assertEquals(lignee.size(), etats.size());
+        Assertions.assertEquals(lignee.getFirstVersion(), ((Integer) ((Map<?, ?>) etats.get(0)).get("compteur")).longValue());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> lignee.stateAt(10));
+    }
+
+    /**
+     * Vérifie la recherche par version et par horodatage via l'index des points de reprise.
+     */
+    @Test
+    public void testCheckpointLookup() {
+        long[] horloge = {1_000};
+        HistoryStore store = new HistoryStore(HistoryPolicy.unlimited(16), () -> horloge[0]);
+        PersistentMap<String, Object> etat = PersistentMap.<String, Object>empty().assoc("compteur", 0);
+        StateHistory lignee = store.track(etat).getLineage();
+        for (int i = 1; i <= 10_000; i++) {
+            // Trois versions par milliseconde
+            if (i % 3 == 0) {
+                horloge[0]++;
+            }
+            etat = etat.assoc("compteur", i);
+            lignee.append(etat, null, "incrément");
+        }
+
+        Assertions.assertEquals(10_001, lignee.size());
+        Assertions.assertEquals(10_000 / 16 + 1, lignee.getCheckpoints().size());
+        Assertions.assertEquals(4_321, ((Map<?, ?>) lignee.stateAt(4_321)).get("compteur"));
+        // Versions 3k..3k+2 partagent l'instant 1000+k : la dernière est retenue
+        Assertions.assertEquals(3 * 500 + 2, lignee.versionAt(1_500));
+        Assertions.assertEquals(3 * 500 + 2, ((Map<?, ?>) lignee.stateAtTime(1_500)).get("compteur"));
+        Assertions.assertEquals(10_000, lignee.versionAt(Long.MAX_VALUE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> lignee.versionAt(999));
+    }
+
+    /**
+     * Vérifie les requêtes par période de l'index temporel, y compris après compaction.
+     */
+    @Test
+    public void testTemporalIntervals() {
+        long[] horloge = {100};
+        HistoryStore store = new HistoryStore(new HistoryPolicy(8, 64), () -> horloge[0]);
+        PersistentMap<String, Object> etat = PersistentMap.<String, Object>empty().assoc("compteur", 0);
+        StateHistory lignee = store.track(etat).getLineage();
+        Random random = new Random(5);
+        for (int i = 1; i <= 5_000; i++) {
+            // Instants tantôt partagés, tantôt espacés
+            horloge[0] += random.nextInt(3) == 0 ? 0 : random.nextInt(50);
+            etat = etat.assoc("compteur", i);
+            lignee.append(etat, null, "incrément");
+        }
+
+        List<HistoryEntry> entrees = lignee.entriesUpTo(lignee.getCurrentVersion());
+        long debut = entrees.get(0).getTimestamp();
+        for (int essai = 0; essai < 500; essai++) {
+            long de = debut - 20 + random.nextInt((int) (horloge[0] - debut + 40));
+            long a = de + random.nextInt(200);
+            List<TemporalIndex.Interval> periode = lignee.validBetween(de, a);
+
+            // Référence : parcours linéaire des intervalles de validité
+            List<Long> attendues = new ArrayList<>();
+            for (int i = 0; i < entrees.size(); i++) {
+                long fin = i + 1 < entrees.size() ? entrees.get(i + 1).getTimestamp() : Long.MAX_VALUE;
+                if (entrees.get(i).getTimestamp() <= a && fin > de) {
+                    attendues.add(entrees.get(i).getVersion());
+                }
+            }
+            List<Long> obtenues = new ArrayList<>();
+            for (TemporalIndex.Interval intervalle : periode) {
+                obtenues.add(intervalle.getVersion());
+                Assertions.assertEquals((int) intervalle.getVersion(), ((Map<?, ?>) intervalle.getState()).get("compteur"));
+            }
+            Assertions.assertEquals(attendues, obtenues, "période [" + de + ", " + a + "]");
+        }
+        Assertions.assertEquals(lignee.size(), lignee.getTemporalIndex().size());
+        Assertions.assertTrue(lignee.validBetween(0, debut - 1).isEmpty());
+        Assertions.assertTrue(lignee.validBetween(horloge[0], Long.MAX_VALUE).get(0).isCurrent());
+    }
+
+    /**
+     * Vérifie qu'une transformation d'une version antérieure ouvre une nouvelle lignée.
+     */
+    /**
+     * Vérifie que le registre oublie les états, et donc les lignées, abandonnés par le programme.
+     */
+    @Test
+    public void testAbandonedLineagesAreCollected() throws InterruptedException {
+        HistoryStore store = new HistoryStore(HistoryPolicy.defaults());
+        for (int i = 0; i < 10_000; i++) {
+            PersistentMap<String, Object> source = PersistentMap.<String, Object>empty().assoc("n", i);
+            store.recordTransition(source, source.assoc("n", i + 1), null, "incrément");
+        }
+        PersistentMap<String, Object> v0 = PersistentMap.<String, Object>empty().assoc("n", -1);
+        PersistentMap<String, Object> v1 = v0.assoc("n", 0);
+        store.recordTransition(v0, v1, null, "incrément");
+        v0 = null;
+
+        // Ni les états ni les lignées ne retiennent les clés du registre
+        for (int tentative = 0; tentative < 50 && store.trackedStates() > 1; tentative++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(1, store.trackedStates());
+
+        // La version dont l'état a été collecté est reconstruite depuis son instantané
+        HistoryStore.VersionRef ref = store.lookup(v1);
+        Assertions.assertEquals(1, ref.getVersion());
+        Assertions.assertEquals(Map.of("n", -1), ref.getLineage().stateAt(0));
+        Assertions.assertSame(v1, ref.getLineage().getCurrentState());
+    }
+
+    @Test
+    public void testFork() {
+        HistoryStore store = new HistoryStore(HistoryPolicy.defaults());
+        PersistentMap<String, Object> v0 = PersistentMap.<String, Object>empty().assoc("n", 0);
+        PersistentMap<String, Object> v1 = v0.assoc("n", 1);
+        PersistentMap<String, Object> v2 = v1.assoc("n", 2);
+        PersistentMap<String, Object> autre = v1.assoc("n", 20);
+        store.recordTransition(v0, v1, null, "a");
+        store.recordTransition(v1, v2, null, "b");
+        HistoryStore.VersionRef branche = store.recordTransition(v1, autre, null, "c");
+
+        Assertions.assertNotSame(store.lookup(v2).getLineage(), branche.getLineage());
+        Assertions.assertSame(store.lookup(v1).getLineage(), branche.getLineage().getParent());
+        Assertions.assertEquals(2, branche.getVersion());
+        Assertions.assertEquals(v1, branche.getLineage().stateAt(1));
+    }
+
+    /**
+     * Vérifie ns:historique, ns:journal_transformations, ns:filtrer_journal et ns:annuler_modification.
+     */
+    @Test
+    public void testHistoryOperationsInScript() {
+        String source = "@name test:historique\n"
+                + "{\n"
+                + "    etat = {nom: \"Alice\", adresse: {ville: \"Lyon\"}};\n"
+                + "    ville = ns:lentille_chemin(Etat, \"adresse.ville\");\n"
+                + "    v1 = etat @> ville := \"Paris\";\n"
+                + "    v2 = ns:modifier(ns:lentille_champ(Etat, \"nom\"), v1, \"Bob\");\n"
+                + "    historique = ns:historique(v2);\n"
+                + "    journal = ns:journal_transformations(v2);\n"
+                + "    deplacements = ns:filtrer_journal(v2, e => e.revision == 1);\n"
+                + "    renommages = ns:filtrer_journal(v2, {revision: 2});\n"
+                + "    premiere = ns:etat_historique(v2, 1);\n"
+                + "    instant = ns:journal_transformations(v2)[2].timestamp;\n"
+                + "    reconstruit = ns:reconstruire_etat(v2, instant);\n"
+                + "    nom = ns:reconstruire_vue(v2, instant, \"nom\");\n"
+                + "    periode = ns:vue_temporelle(v2, {debut: 0, fin: instant});\n"
+                + "    noms = ns:vue_historique(v2, [0, instant], \"nom\");\n"
+                + "    courant = ns:vue_historique(v2, instant, \"nom\");\n"
+                + "    annule = ns:annuler_modification(v2);\n"
+                + "}\n";
+        Script script = new Script(source, "test", "historique");
+        Scope scope = new ScriptExecutor().executeScript(script);
+        Assertions.assertNotNull(scope);
+
+        List<?> historique = (List<?>) scope.getVariableValue("historique");
+        Assertions.assertEquals(3, historique.size());
+        Assertions.assertSame(scope.getVariableValue("etat"), historique.get(0));
+        Assertions.assertSame(scope.getVariableValue("v2"), historique.get(2));
+
+        List<?> journal = (List<?>) scope.getVariableValue("journal");
+        Assertions.assertEquals(3, journal.size());
+        Assertions.assertEquals(List.of("nom"), ((Map<?, ?>) journal.get(2)).get("chemins"));
+
+        List<?> deplacements = (List<?>) scope.getVariableValue("deplacements");
+        Assertions.assertEquals(1, deplacements.size());
+        Assertions.assertEquals(List.of("adresse.ville"), ((Map<?, ?>) deplacements.get(0)).get("chemins"));
+        Assertions.assertEquals(1, ((List<?>) scope.getVariableValue("renommages")).size());
+
+        Map<?, ?> premiere = (Map<?, ?>) scope.getVariableValue("premiere");
+        Assertions.assertEquals("Alice", premiere.get("nom"));
+        Assertions.assertEquals("Paris", ((Map<?, ?>) premiere.get("adresse")).get("ville"));
+        Assertions.assertEquals(scope.getVariableValue("v2"), scope.getVariableValue("reconstruit"));
+        Assertions.assertEquals("Bob", scope.getVariableValue("nom"));
+
+        List<?> periode = (List<?>) scope.getVariableValue("periode");
+        Assertions.assertEquals(3, periode.size());
+        Assertions.assertSame(scope.getVariableValue("v2"), ((Map<?, ?>) periode.get(2)).get("etat"));
+        Assertions.assertNull(((Map<?, ?>) periode.get(2)).get("fin"));
+        List<?> noms = (List<?>) scope.getVariableValue("noms");
+        Assertions.assertEquals(List.of("Alice", "Alice", "Bob"),
+                List.of(((Map<?, ?>) noms.get(0)).get("valeur"), ((Map<?, ?>) noms.get(1)).get("valeur"),
+                        ((Map<?, ?>) noms.get(2)).get("valeur")));
+        Assertions.assertEquals("Bob", scope.getVariableValue("courant"));
+
+        Map<?, ?> annule = (Map<?, ?>) scope.getVariableValue("annule");
+        Assertions.assertEquals("Alice", annule.get("nom"));
+        Assertions.assertEquals("Paris", ((Map<?, ?>) annule.get("adresse")).get("ville"));
+    }
+}
@@ -0,0 +1,165 @@
+package com.jnane.test;
+
+import com.jnane.compiler.IncrementalTypeChecker;
+import com.jnane.compiler.JnaneFunctionLoader;
+import com.jnane.compiler.TypeInference;
+import com.jnane.compiler.TypeTable;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests de la vérification incrémentale des types avec cache persistant.
+ */
+public class IncrementalTypeCheckerTest {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalTypeCheckerTest.class);
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MDC.put("testname", "IncrementalTypeCheckerTest");
+        logger.info("Démarrage du test IncrementalTypeCheckerTest");
+        directory = Files.createTempDirectory("incremental");
+        Files.createDirectories(directory.resolve("app"));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        MDC.remove("testname");
+    }
+
+    private void write(String name, String content) throws IOException {
+        Path file = directory.resolve("app").resolve(name + ".jn");
+        boolean existed = Files.exists(file);
+        long previous = existed ? Files.getLastModifiedTime(file).toMillis() : 0;
+        Files.writeString(file, content);
+        if (existed) {
+            // Garantir une date de modification distincte pour les caches par fichier
+            Files.setLastModifiedTime(file, FileTime.fromMillis(previous + 2000));
+        }
+    }
+
+    private IncrementalTypeChecker.Report run() throws IOException {
+        JnaneFunctionLoader loader = new JnaneFunctionLoader();
+        loader.loadFunctionsFromDirectory(directory.toString());
+        return new IncrementalTypeChecker(loader, BuiltinRegistry.getDefault(), new TypeTable(),
+                directory.resolve(".jnane").resolve("typecheck.cache")).checkAll();
+    }
+
+    /**
+     * Vérifie que les déclarations @type d'un répertoire décident des champs dont le type
+     * inféré et le type déclaré sont deux types utilisateur : une vue ou un héritage rend
+     * le champ évaluable, sinon le champ est une erreur. Modifier les déclarations fait
+     * revérifier les fonctions.
+     */
+    @Test
+    public void testTypeDeclarationsDecideUserTypes() throws IOException {
+        String autres = "@type Resume {\n    @field texte string\n}\n@type Base {\n    @field id int\n}\n"
+                + "@type Autre {\n    @field id int\n}\n@view result : int\n{\n    result = 1;\n}\n";
+        write("types", "@name app:types\n@type Etat : Base {\n    @view resume Resume\n}\n" + autres);
+        write("etat", "@name app:etat\n@view result : Etat\n{\n    result = {n: 1};\n}\n");
+        write("resume", "@name app:resume\n@view result : Resume\n{\n    result = app:etat();\n}\n");
+        write("base", "@name app:base\n@view result : Base\n{\n    result = app:etat();\n}\n");
+        write("autre", "@name app:autre\n@view result : Autre\n{\n    result = app:etat();\n}\n");
+
+        IncrementalTypeChecker.Report first = run();
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN,
+                first.getResults().get("app:resume").getVerdicts().get("result"));
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN,
+                first.getResults().get("app:base").getVerdicts().get("result"));
+        Assertions.assertEquals(TypeInference.Verdict.VIOLATED,
+                first.getResults().get("app:autre").getVerdicts().get("result"));
+        Assertions.assertEquals(1, first.getResults().get("app:autre").getErrors().size());
+        Assertions.assertTrue(first.getResults().get("app:resume").getErrors().isEmpty());
+
+        // Une vue de Etat vers Autre rend app:autre valide
+        write("types", "@name app:types\n@type Etat : Base {\n    @view resume Resume\n    @view autre Autre\n}\n" + autres);
+        IncrementalTypeChecker.Report second = run();
+        Assertions.assertEquals(5, second.getChecked().size());
+        Assertions.assertFalse(second.hasErrors());
+    }
+
+    /**
+     * Vérifie que seuls le fichier modifié et les appelants dont la vue de sa signature a
+     * changé sont revérifiés, d'une exécution à l'autre.
+     */
+    @Test
+    public void testOnlyAffectedFunctionsAreRechecked() throws IOException {
+        write("appelant", "@name app:appelant\n@view result : int\n{\n    result = app:source(1);\n}\n");
+        write("source", "@name app:source\n@view result : int\n{\n    result = 2;\n}\n");
+        write("autre", "@name app:autre\n@view result : string\n{\n    result = \"x\";\n}\n");
+
+        IncrementalTypeChecker.Report first = run();
+        Assertions.assertEquals(3, first.getChecked().size());
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN,
+                first.getResults().get("app:appelant").getVerdicts().get("result"));
+        Assertions.assertFalse(first.hasErrors());
+
+        IncrementalTypeChecker.Report unchanged = run();
+        Assertions.assertTrue(unchanged.getChecked().isEmpty());
+        Assertions.assertEquals(3, unchanged.getReusedCount());
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN,
+                unchanged.getResults().get("app:appelant").getVerdicts().get("result"));
+
+        // Corps modifié, signature identique : l'appelant n'est pas revérifié
+        write("source", "@name app:source\n@view result : int\n{\n    result = 3;\n}\n");
+        Assertions.assertEquals(List.of("app:source"), run().getChecked());
+
+        // Signature modifiée : l'appelant est revérifié et son type n'est plus prouvé
+        write("source", "@name app:source\n@view result : string\n{\n    result = \"trois\";\n}\n");
+        IncrementalTypeChecker.Report changed = run();
+        Assertions.assertEquals(List.of("app:appelant", "app:source"), changed.getChecked().stream().sorted().collect(Collectors.toList()));
+        Assertions.assertTrue(changed.hasErrors());
+        Assertions.assertEquals(1, changed.getResults().get("app:appelant").getErrors().size());
+    }
+
+    /**
+     * Vérifie que le cache par défaut est rangé hors du répertoire vérifié, sous une empreinte
+     * propre à chaque répertoire, et qu'il n'y est écrit que sur demande explicite.
+     */
+    @Test
+    public void testDefaultCacheOutsideSources() throws IOException {
+        Path cacheDir = directory.resolve("caches");
+        System.setProperty(IncrementalTypeChecker.CACHE_DIR_PROPERTY, cacheDir.toString());
+        try {
+            Path source = directory.resolve("app");
+            Path cacheFile = IncrementalTypeChecker.defaultCacheFile(source.toString());
+            Assertions.assertTrue(cacheFile.startsWith(cacheDir));
+            Assertions.assertFalse(cacheFile.startsWith(source));
+            Assertions.assertEquals(cacheFile, IncrementalTypeChecker.defaultCacheFile(source.resolve(".").toString()));
+            Assertions.assertNotEquals(cacheFile, IncrementalTypeChecker.defaultCacheFile(directory.toString()));
+
+            write("source", "@name app:source\n@view result : int\n{\n    result = 1;\n}\n");
+            JnaneFunctionLoader loader = new JnaneFunctionLoader();
+            loader.loadFunctionsFromDirectory(source.toString());
+            new IncrementalTypeChecker(loader, BuiltinRegistry.getDefault(), new TypeTable(), cacheFile).checkAll();
+            Assertions.assertTrue(Files.isRegularFile(cacheFile));
+            Assertions.assertFalse(Files.exists(source.resolve(".jnane")));
+
+            System.setProperty(IncrementalTypeChecker.CACHE_PROPERTY, IncrementalTypeChecker.LOCAL_CACHE);
+            Assertions.assertEquals(source.resolve(".jnane").resolve("typecheck.cache"),
+                    IncrementalTypeChecker.defaultCacheFile(source.toString()));
+        } finally {
+            System.clearProperty(IncrementalTypeChecker.CACHE_DIR_PROPERTY);
+            System.clearProperty(IncrementalTypeChecker.CACHE_PROPERTY);
+        }
+    }
+}
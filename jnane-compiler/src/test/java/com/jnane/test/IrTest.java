@@ -0,0 +1,185 @@
+package com.jnane.test;
+
+import com.jnane.compiler.IrCompiler;
+import com.jnane.compiler.JnaneFunctionLoader;
+import com.jnane.compiler.JnaneInterpreter;
+import com.jnane.compiler.TypeInference;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import com.jnane.runtime.ir.IrFunction;
+import com.jnane.runtime.ir.IrRuntime;
+import com.jnane.runtime.value.JnaneFunction;
+import com.jnane.runtime.value.PersistentMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Tests de la compilation vers l'IR et de son exécution par le runtime, comparée à
+ * l'interpréteur.
+ */
+public class IrTest {
+    private static final Logger logger = LoggerFactory.getLogger(IrTest.class);
+
+    private Path directory;
+    private Path output;
+    private JnaneFunctionLoader loader;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MDC.put("testname", "IrTest");
+        logger.info("Démarrage du test IrTest");
+        directory = Files.createTempDirectory("ir");
+        output = Files.createTempDirectory("ir-out");
+        Path app = Files.createDirectories(directory.resolve("app"));
+        Files.writeString(app.resolve("constante.jn"),
+                "@name app:constante\n@name base\n@view result : int\n{\n    result = base + 2;\n}\n");
+        Files.writeString(app.resolve("profil.jn"),
+                "@name app:profil\n@name nom\n@name age\n@field etiquette : string\n@field result : any\n{\n"
+                        + "    p = {nom: nom, age: age, notes: [1, 2, 3]};\n"
+                        + "    etiquette = p.age >= 18 ? \"majeur\" : \"mineur\";\n"
+                        + "    if p.notes[1] == 2 {\n        bonus = math:add(p.age, 1);\n    } else {\n        bonus = 0;\n    }\n"
+                        + "    result = {...p, etiquette: nom + \" \" + etiquette, bonus: bonus};\n}\n");
+        Files.writeString(app.resolve("deux.jn"), "@name app:deux\n@view result : int\n{\n    result = 2;\n}\n");
+        Files.writeString(app.resolve("appel.jn"),
+                "@name app:appel\n@name valeur\n@view result : int\n{\n    result = app:deux() + valeur;\n}\n");
+        loader = new JnaneFunctionLoader();
+        loader.loadFunctionsFromDirectory(directory.toString());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        for (Path root : new Path[]{directory, output}) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+        MDC.remove("testname");
+    }
+
+    /**
+     * Vérifie qu'une fonction relue depuis son fichier .jnir produit le même résultat que
+     * l'interpréteur.
+     */
+    @Test
+    public void testCompiledMatchesInterpreter() throws IOException {
+        IrCompiler compiler = new IrCompiler(loader, TypeInference.resolverFor(loader, BuiltinRegistry.getDefault()));
+        Map<String, IrFunction> compiled = compiler.compileAll(output);
+        Assertions.assertEquals(4, compiled.size());
+        Assertions.assertTrue(compiler.getSkipped().isEmpty());
+
+        IrRuntime runtime = new IrRuntime();
+        Assertions.assertEquals(4, runtime.load(output));
+        Assertions.assertEquals(List.of("nom", "age"), runtime.getFunction("app:profil").getParameters());
+        // Les champs de profil sont prouvés par l'inférence ; base n'étant pas typé, le
+        // result de constante reste vérifié à l'exécution
+        Assertions.assertTrue(runtime.getFunction("app:profil").getCheckedFields().isEmpty());
+        Assertions.assertEquals(Map.of("result", "int"), runtime.getFunction("app:constante").getCheckedFields());
+
+        JnaneInterpreter interpreter = new JnaneInterpreter(directory.toString());
+        for (Map<String, Object> args : List.<Map<String, Object>>of(
+                Map.of("nom", "Alice", "age", 30), Map.of("nom", "Bob", "age", 12))) {
+            Object expected = interpreter.interpretFunctionCallWithNamedArgs("app:profil", args);
+            Assertions.assertEquals(expected, runtime.call("app:profil", args));
+        }
+        Assertions.assertEquals(interpreter.interpretFunctionCallWithNamedArgs("app:constante", Map.of("base", 40)),
+                runtime.call("app:constante", Map.of("base", 40)));
+        Assertions.assertEquals(interpreter.interpretFunctionCallWithNamedArgs("app:appel", Map.of("valeur", 5)),
+                runtime.call("app:appel", Map.of("valeur", 5)));
+    }
+
+    /**
+     * Vérifie les appels entre fonctions précompilées et les erreurs signalées par le runtime.
+     */
+    @Test
+    public void testRuntimeCallsAndErrors() throws IOException {
+        IrCompiler compiler = new IrCompiler(loader, TypeInference.resolverFor(loader, BuiltinRegistry.getDefault()));
+        compiler.compileAll(output);
+        IrRuntime runtime = new IrRuntime();
+        runtime.load(output);
+
+        Assertions.assertEquals(7, runtime.call("app:appel", Map.of("valeur", 5)));
+        Assertions.assertEquals(2, runtime.call("app:deux", Map.of()));
+        Assertions.assertEquals(7, runtime.call("math:add", Map.of("first", 3, "second", 4)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> runtime.call("app:appel", Map.of("x", 1)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> runtime.call("app:inconnue", Map.of()));
+        // Un champ non prouvé est vérifié : "x" + 2 n'est pas un entier
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> runtime.call("app:constante", Map.of("base", "x")));
+
+        // Les constructions hors du noyau de l'IR sont refusées à la compilation
+        Path vue = directory.resolve("app").resolve("filtre.jn");
+        Files.writeString(vue, "@name app:filtre\n{\n    result = ns:somme([1, 2]);\n}\n");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> compiler.compile("app:filtre", vue.toString()));
+    }
+
+    /**
+     * Vérifie la transformation {@code |>}, ns:historique et une fonction qui n'assigne
+     * result que sous condition : l'IR rend le même résultat que l'interpréteur.
+     */
+    @Test
+    public void testPipeAndConditionalResult() throws IOException {
+        Path app = directory.resolve("app");
+        Files.writeString(app.resolve("transforme.jn"), "@name app:transforme\n@name etat\n@name transformation\n"
+                + "@view historique : List<Etat>\n{\n"
+                + "    nouvel_etat = etat |> transformation;\n    result = nouvel_etat;\n"
+                + "    historique = ns:historique(nouvel_etat);\n}\n");
+        Files.writeString(app.resolve("conditionnel.jn"),
+                "@name app:conditionnel\n@name x\n{\n    if x > 0 {\n        result = x;\n    }\n}\n");
+        JnaneFunctionLoader all = new JnaneFunctionLoader();
+        all.loadFunctionsFromDirectory(directory.toString());
+        IrCompiler compiler = new IrCompiler(all, TypeInference.resolverFor(all, BuiltinRegistry.getDefault()));
+        Assertions.assertEquals(6, compiler.compileAll(output).size());
+        IrRuntime runtime = new IrRuntime();
+        runtime.load(output);
+        JnaneInterpreter interpreter = new JnaneInterpreter(directory.toString());
+
+        JnaneFunction vieillir = arguments -> ((PersistentMap<Object, Object>) arguments[0]).assoc("age", 31);
+        Map<String, Object> args = Map.of("etat", PersistentMap.empty().assoc("age", 30), "transformation", vieillir);
+        Object expected = interpreter.interpretFunctionCallWithNamedArgs("app:transforme", args);
+        Assertions.assertEquals(Map.of("age", 31), expected);
+        Assertions.assertEquals(expected, runtime.call("app:transforme", args));
+
+        for (int x : new int[]{5, -5}) {
+            Assertions.assertEquals(interpreter.interpretFunctionCallWithNamedArgs("app:conditionnel", Map.of("x", x)),
+                    runtime.call("app:conditionnel", Map.of("x", x)));
+        }
+        Assertions.assertEquals(IrRuntime.DEFAULT_RESULT, runtime.call("app:conditionnel", Map.of("x", -5)));
+    }
+
+    /**
+     * Vérifie qu'une fonction hors du noyau de l'IR fait échouer la compilation d'un
+     * répertoire, ainsi que ses appelants, sans écrire aucun fichier.
+     */
+    @Test
+    public void testUnsupportedFunctionFailsCompilation() throws IOException {
+        IrCompiler compiler = new IrCompiler(loader, TypeInference.resolverFor(loader, BuiltinRegistry.getDefault()));
+        Path app = directory.resolve("app");
+        // L'interpréteur ignore les arguments positionnels d'une fonction Jnane
+        Path positionnel = app.resolve("positionnel.jn");
+        Files.writeString(positionnel, "@name app:positionnel\n{\n    result = app:constante(40);\n}\n");
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> compiler.compile("app:positionnel", positionnel.toString()));
+        Files.writeString(app.resolve("indirect.jn"), "@name app:indirect\n{\n    result = app:positionnel();\n}\n");
+
+        JnaneFunctionLoader all = new JnaneFunctionLoader();
+        all.loadFunctionsFromDirectory(directory.toString());
+        IrCompiler directoryCompiler = new IrCompiler(all, TypeInference.resolverFor(all, BuiltinRegistry.getDefault()));
+        Path target = output.resolve("ir");
+        Assertions.assertThrows(IllegalStateException.class, () -> directoryCompiler.compileAll(target));
+        Assertions.assertEquals(Set.of("app:indirect", "app:positionnel"), directoryCompiler.getSkipped().keySet());
+        Assertions.assertFalse(Files.exists(target));
+    }
+}
@@ -0,0 +1,130 @@
+package com.jnane.test;
+
+import com.jnane.compiler.script.Scope;
+import com.jnane.compiler.script.Script;
+import com.jnane.compiler.script.ScriptExecutor;
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.view.KWayMerge;
+import com.jnane.runtime.view.LazyView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Tests de la fusion en flux de vues ordonnées (ns:fusionner_vues, ns:composer_vues).
+ */
+public class KWayMergeTest {
+    private static final Logger logger = LoggerFactory.getLogger(KWayMergeTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "KWayMergeTest");
+        logger.info("Démarrage du test KWayMergeTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    private static Map<String, Object> entree(Object cle, Object valeur) {
+        return PersistentMap.<String, Object>empty().assoc("cle", cle).assoc("valeur", valeur);
+    }
+
+    /**
+     * Vérifie l'ordre de la fusion, sa stabilité et la pré-fusion parallèle.
+     */
+    @Test
+    public void testOrderedMerge() {
+        Random random = new Random(3);
+        List<Collection<?>> entrees = new ArrayList<>();
+        List<Integer> attendu = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            List<Integer> entree = new ArrayList<>();
+            int valeur = 0;
+            for (int j = 0; j < 500; j++) {
+                valeur += random.nextInt(4);
+                entree.add(valeur);
+            }
+            entrees.add(entree);
+            attendu.addAll(entree);
+        }
+        attendu.sort(null);
+
+        Assertions.assertEquals(attendu, KWayMerge.merge(entrees, KWayMerge.DEFAULT_KEY_FIELD, false));
+        Assertions.assertEquals(attendu, KWayMerge.merge(entrees, KWayMerge.DEFAULT_KEY_FIELD, false, 0));
+
+        // À clé égale, l'ordre des entrées est conservé ; la déduplication garde la dernière
+        List<Map<String, Object>> a = List.of(entree("a", 1), entree("c", 1));
+        List<Map<String, Object>> b = List.of(entree("a", 2), entree("b", 2));
+        Assertions.assertEquals(List.of(entree("a", 1), entree("a", 2), entree("b", 2), entree("c", 1)),
+                KWayMerge.merge(List.of(a, b), KWayMerge.DEFAULT_KEY_FIELD, false));
+        LazyView composee = KWayMerge.merge(List.of(a, b), KWayMerge.DEFAULT_KEY_FIELD, true);
+        Assertions.assertEquals(List.of(entree("a", 2), entree("b", 2), entree("c", 1)), composee);
+        Assertions.assertEquals(3, composee.size());
+        Assertions.assertEquals(composee, KWayMerge.merge(List.of(a, b, a, b), KWayMerge.DEFAULT_KEY_FIELD, true, 0));
+    }
+
+    /**
+     * Vérifie que le premier élément est produit sans lire les entrées en entier.
+     */
+    @Test
+    public void testIncrementalOutput() {
+        AtomicInteger lus = new AtomicInteger();
+        List<Collection<?>> entrees = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int decalage = i;
+            entrees.add(LazyView.of(LazyViewTest.entiers(1_000_000)).map(x -> {
+                lus.incrementAndGet();
+                return (Integer) x * 4 + decalage;
+            }, true));
+        }
+        LazyView fusion = KWayMerge.merge(entrees, KWayMerge.DEFAULT_KEY_FIELD, false);
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 5), fusion.stream().limit(6).collect(Collectors.toList()));
+        Assertions.assertTrue(lus.get() <= 10, "éléments lus: " + lus.get());
+    }
+
+    /**
+     * Vérifie qu'une entrée non ordonnée est signalée.
+     */
+    @Test
+    public void testUnorderedInput() {
+        LazyView fusion = KWayMerge.merge(List.of(List.of(1, 5), List.of(3, 2)), KWayMerge.DEFAULT_KEY_FIELD, false);
+        Assertions.assertThrows(IllegalStateException.class, fusion::materialize);
+    }
+
+    /**
+     * Vérifie ns:fusionner_vues et ns:composer_vues dans un script Jnane.
+     */
+    @Test
+    public void testMergeInScript() {
+        String source = "@name test:fusion\n"
+                + "{\n"
+                + "    fusion = ns:fusionner_vues([[1, 4, 9], [2, 3], [5]]);\n"
+                + "    defaut = {langue: \"fr\", theme: \"clair\"};\n"
+                + "    utilisateur = {theme: \"sombre\", police: 12};\n"
+                + "    reglages = ns:composer_vues(ns:convertir_vue(defaut, \"entrees\"), ns:convertir_vue(utilisateur, \"entrees\"));\n"
+                + "    theme = reglages[2].valeur;\n"
+                + "}\n";
+        Script script = new Script(source, "test", "fusion");
+        Scope scope = new ScriptExecutor().executeScript(script);
+        Assertions.assertNotNull(scope);
+
+        Assertions.assertEquals(List.of(1, 2, 3, 4, 5, 9), scope.getVariableValue("fusion"));
+        Assertions.assertEquals(List.of(entree("langue", "fr"), entree("police", 12), entree("theme", "sombre")),
+                scope.getVariableValue("reglages"));
+        Assertions.assertEquals("sombre", scope.getVariableValue("theme"));
+    }
+}
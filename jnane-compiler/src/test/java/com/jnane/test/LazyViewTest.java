@@ -0,0 +1,226 @@
+package com.jnane.test;
+
+import com.jnane.compiler.script.Scope;
+import com.jnane.compiler.script.Script;
+import com.jnane.compiler.script.ScriptExecutor;
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.view.LazyView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests des vues paresseuses (fusion des étapes, court-circuit, découpage parallèle).
+ */
+public class LazyViewTest {
+    private static final Logger logger = LoggerFactory.getLogger(LazyViewTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "LazyViewTest");
+        logger.info("Démarrage du test LazyViewTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Liste virtuelle 0..n-1, sans stockage des éléments.
+     */
+    static List<Object> entiers(int n) {
+        return new Entiers(n);
+    }
+
+    private static final class Entiers extends AbstractList<Object> implements RandomAccess {
+        private final int n;
+
+        Entiers(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public Object get(int index) {
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return n;
+        }
+    }
+
+    /**
+     * Vérifie que les étapes ne sont évaluées qu'à l'usage, et seulement jusqu'à l'élément demandé.
+     */
+    @Test
+    public void testFusedShortCircuit() {
+        AtomicInteger filtrages = new AtomicInteger();
+        AtomicInteger transformations = new AtomicInteger();
+        LazyView vue = LazyView.of(entiers(1_000_000))
+                .filter(x -> {
+                    filtrages.incrementAndGet();
+                    return (Integer) x % 2 == 0;
+                }, true)
+                .map(x -> {
+                    transformations.incrementAndGet();
+                    return (Integer) x * 10;
+                }, true);
+        Assertions.assertEquals(2, vue.stageCount());
+        Assertions.assertEquals(0, filtrages.get());
+
+        Assertions.assertEquals(40, vue.get(2));
+        Assertions.assertEquals(5, filtrages.get());
+        Assertions.assertEquals(3, transformations.get());
+
+        LazyView petite = LazyView.of(PersistentVector.of(1, 2, 3, 4)).filter(x -> (Integer) x > 2, true);
+        Assertions.assertEquals(List.of(3, 4), petite);
+        Assertions.assertEquals(List.of(3, 4), petite.materialize());
+        Assertions.assertEquals(2, petite.size());
+    }
+
+    /**
+     * Vérifie que le flux n'est découpé entre les cœurs que si toutes les étapes le permettent.
+     */
+    @Test
+    public void testParallelSplit() {
+        LazyView sure = LazyView.of(entiers(100_000)).map(x -> (Integer) x + 1, true);
+        Assertions.assertTrue(sure.stream().isParallel());
+        Assertions.assertEquals(100_000, sure.size());
+        Assertions.assertEquals(1, sure.get(0));
+
+        LazyView sequentielle = sure.filter(x -> true, false);
+        Assertions.assertFalse(sequentielle.stream().isParallel());
+        Assertions.assertFalse(LazyView.of(entiers(10)).stream().isParallel());
+    }
+
+    /**
+     * Vérifie l'enchaînement de ns:filtrer_vue et ns:projeter_vue dans un script Jnane.
+     */
+    @Test
+    public void testViewPipelineInScript() {
+        String source = "@name test:vues_paresseuses\n"
+                + "{\n"
+                + "    personnes = [{nom: \"Alice\", age: 30, ville: \"Lyon\"}, {nom: \"Bob\", age: 12, ville: \"Paris\"},"
+                + " {nom: \"Carole\", age: 45, ville: \"Nantes\"}];\n"
+                + "    hors_paris = ns:filtrer_vue(personnes, p => p.ville != \"Paris\");\n"
+                + "    noms = ns:projeter_vue(hors_paris, [\"nom\"]);\n"
+                + "    premier = noms[0].nom;\n"
+                + "}\n";
+        Script script = new Script(source, "test", "vues_paresseuses");
+        Scope scope = new ScriptExecutor().executeScript(script);
+        Assertions.assertNotNull(scope);
+
+        Object noms = scope.getVariableValue("noms");
+        Assertions.assertTrue(noms instanceof LazyView);
+        Assertions.assertEquals(2, ((LazyView) noms).stageCount());
+        Assertions.assertEquals(List.of(Map.of("nom", "Alice"), Map.of("nom", "Carole")), noms);
+        Assertions.assertEquals("Alice", scope.getVariableValue("premier"));
+    }
+
+    /**
+     * Vérifie qu'une lambda de vue voit les variables du moment où la vue est construite,
+     * quel que soit le type de la collection source.
+     */
+    @Test
+    public void testCapturedVariablesBoundAtBuildTime() {
+        String source = "@name test:capture_vue\n"
+                + "{\n"
+                + "    l = [{n: 1}, {n: 2}, {n: 3}, {n: 4}];\n"
+                + "    seuil = 1;\n"
+                + "    v = ns:filtrer_vue(l, x => x.n > seuil);\n"
+                + "    seuil = 3;\n"
+                + "    premier = v[0];\n"
+                + "    entiers = [1, 2, 3, 4];\n"
+                + "    w = ns:filtrer_vue(entiers, x => x > seuil);\n"
+                + "    seuil = 0;\n"
+                + "    total = ns:somme(w);\n"
+                + "}\n";
+        Script script = new Script(source, "test", "capture_vue");
+        Scope scope = new ScriptExecutor().executeScript(script);
+        Assertions.assertNotNull(scope);
+
+        Assertions.assertEquals(Map.of("n", 2), scope.getVariableValue("premier"));
+        Assertions.assertEquals(List.of(Map.of("n", 2), Map.of("n", 3), Map.of("n", 4)), scope.getVariableValue("v"));
+        Assertions.assertEquals(0, scope.getVariableValue("seuil"));
+        Object w = scope.getVariableValue("w");
+        Assertions.assertTrue(w instanceof LazyView);
+        Assertions.assertEquals(List.of(4), w);
+        Assertions.assertEquals(4, ((Number) scope.getVariableValue("total")).intValue());
+    }
+
+    /**
+     * Vérifie que les étapes ne sont évaluées qu'une fois par élément, quels que soient les accès.
+     */
+    @Test
+    public void testEvaluatedOnce() {
+        AtomicInteger transformations = new AtomicInteger();
+        LazyView vue = LazyView.of(entiers(1_000)).map(x -> {
+            transformations.incrementAndGet();
+            return (Integer) x * 2;
+        }, false);
+
+        long somme = 0;
+        for (int i = 0; i < vue.size(); i++) {
+            somme += (Integer) vue.get(i);
+        }
+        Assertions.assertEquals(999_000, somme);
+        for (Object ignored : vue) {
+            Assertions.assertNotNull(ignored);
+        }
+        Assertions.assertEquals(vue.materialize(), vue);
+        Assertions.assertEquals(1_000, vue.stream().count());
+        Assertions.assertEquals(1_000, transformations.get());
+    }
+
+    /**
+     * Vérifie qu'un échec d'étape est retenu : les éléments produits avant restent lisibles,
+     * et les accès suivants relancent la même exception sans réévaluer les étapes.
+     */
+    @Test
+    public void testFailureMemoized() {
+        AtomicInteger transformations = new AtomicInteger();
+        LazyView vue = LazyView.of(entiers(10)).map(x -> {
+            transformations.incrementAndGet();
+            if ((Integer) x == 3) {
+                throw new IllegalStateException("échec sur 3");
+            }
+            return x;
+        }, false);
+
+        Assertions.assertEquals(2, vue.get(2));
+        IllegalStateException premier = Assertions.assertThrows(IllegalStateException.class, () -> vue.get(5));
+        Assertions.assertEquals(4, transformations.get());
+
+        Assertions.assertSame(premier, Assertions.assertThrows(IllegalStateException.class, () -> vue.get(3)));
+        Assertions.assertSame(premier, Assertions.assertThrows(IllegalStateException.class, vue::size));
+        Assertions.assertSame(premier, Assertions.assertThrows(IllegalStateException.class, vue::materialize));
+        Assertions.assertEquals(1, vue.get(1));
+        Assertions.assertEquals(4, transformations.get());
+
+        // Échec pendant l'évaluation complète d'une vue intacte
+        AtomicInteger evaluations = new AtomicInteger();
+        LazyView complete = LazyView.of(entiers(10)).filter(x -> {
+            evaluations.incrementAndGet();
+            if ((Integer) x == 7) {
+                throw new IllegalStateException("échec sur 7");
+            }
+            return true;
+        }, false);
+        IllegalStateException echec = Assertions.assertThrows(IllegalStateException.class, complete::size);
+        Assertions.assertSame(echec, Assertions.assertThrows(IllegalStateException.class, () -> complete.get(0)));
+        Assertions.assertSame(echec, Assertions.assertThrows(IllegalStateException.class, complete::isEmpty));
+        Assertions.assertEquals(8, evaluations.get());
+    }
+}
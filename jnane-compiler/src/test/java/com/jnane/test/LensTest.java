@@ -0,0 +1,167 @@
+package com.jnane.test;
+
+import com.jnane.compiler.script.Scope;
+import com.jnane.compiler.script.Script;
+import com.jnane.compiler.script.ScriptExecutor;
+import com.jnane.runtime.lens.Lens;
+import com.jnane.runtime.lens.Lenses;
+import com.jnane.runtime.lens.ParallelLens;
+import com.jnane.runtime.lens.PathLens;
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests du moteur de lentilles (copie de chemin, composition, lentilles parallèles).
+ */
+public class LensTest {
+    private static final Logger logger = LoggerFactory.getLogger(LensTest.class);
+
+    private PersistentMap<String, Object> etat;
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "LensTest");
+        logger.info("Démarrage du test LensTest");
+
+        PersistentMap<String, Object> adresse = PersistentMap.<String, Object>empty()
+                .assoc("rue", "Rue des Lilas").assoc("ville", "Lyon");
+        PersistentMap<String, Object> contact = PersistentMap.<String, Object>empty()
+                .assoc("adresse", adresse).assoc("telephones", PersistentVector.of("0102", "0304"));
+        etat = PersistentMap.<String, Object>empty()
+                .assoc("nom", "Alice").assoc("contact", contact).assoc("compteur", 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Vérifie la lecture et l'écriture par chemin, et le partage des branches non modifiées.
+     */
+    @Test
+    public void testPathCopying() {
+        PathLens ville = PathLens.path("Etat", "contact.adresse.ville");
+        Assertions.assertEquals("Lyon", ville.view(etat));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> modifie = (Map<String, Object>) ville.set(etat, "Paris");
+        Assertions.assertEquals("Paris", ville.view(modifie));
+        Assertions.assertEquals("Lyon", ville.view(etat));
+
+        // Les branches hors du chemin sont partagées, pas copiées
+        Map<?, ?> ancienContact = (Map<?, ?>) etat.get("contact");
+        Map<?, ?> nouveauContact = (Map<?, ?>) modifie.get("contact");
+        Assertions.assertSame(ancienContact.get("telephones"), nouveauContact.get("telephones"));
+
+        PathLens telephone = PathLens.path("Etat", "contact.telephones.1");
+        Assertions.assertEquals("0304", telephone.view(etat));
+        Assertions.assertEquals("9999", telephone.view(telephone.set(etat, "9999")));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PathLens.path("Etat", "contact.inconnu").view(etat));
+        Assertions.assertNull(PathLens.optionalField("Etat", "inconnu").view(etat));
+    }
+
+    /**
+     * Vérifie que la composition de lentilles de chemin produit un chemin unique.
+     */
+    @Test
+    public void testComposition() {
+        Lens composee = Lenses.compose(Arrays.asList(
+                PathLens.field("Etat", "contact"),
+                PathLens.field("Contact", "adresse"),
+                PathLens.field("Adresse", "rue")));
+        Assertions.assertTrue(composee instanceof PathLens);
+        Assertions.assertEquals(3, ((PathLens) composee).depth());
+        Assertions.assertEquals("Rue des Lilas", composee.view(etat));
+
+        Map<?, ?> incremente = (Map<?, ?>) PathLens.field("Etat", "compteur").modify(etat, v -> (Integer) v + 1);
+        Assertions.assertEquals(2, incremente.get("compteur"));
+    }
+
+    /**
+     * Vérifie les mises à jour disjointes en un seul parcours.
+     */
+    @Test
+    public void testParallelLens() {
+        Map<String, PathLens> lenses = new LinkedHashMap<>();
+        lenses.put("rue", PathLens.path("Etat", "contact.adresse.rue"));
+        lenses.put("ville", PathLens.path("Etat", "contact.adresse.ville"));
+        lenses.put("nom", PathLens.field("Etat", "nom"));
+        ParallelLens parallele = new ParallelLens(lenses);
+
+        Map<String, Object> valeurs = PersistentMap.<String, Object>empty()
+                .assoc("rue", "Quai Perrache").assoc("ville", "Marseille");
+        Object modifie = parallele.set(etat, valeurs);
+
+        Map<?, ?> vue = (Map<?, ?>) parallele.view(modifie);
+        Assertions.assertEquals("Quai Perrache", vue.get("rue"));
+        Assertions.assertEquals("Marseille", vue.get("ville"));
+        Assertions.assertEquals("Alice", vue.get("nom"));
+
+        Map<String, PathLens> chevauchement = new LinkedHashMap<>();
+        chevauchement.put("adresse", PathLens.path("Etat", "contact.adresse"));
+        chevauchement.put("rue", PathLens.path("Etat", "contact.adresse.rue"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelLens(chevauchement));
+    }
+
+    /**
+     * Vérifie les opérations de lentilles depuis un script Jnane.
+     */
+    @Test
+    public void testLensOperationsInScript() {
+        String source = "@name test:lentilles\n"
+                + "{\n"
+                + "    etat = {nom: \"Alice\", adresse: {ville: \"Lyon\", rue: \"Lilas\"}};\n"
+                + "    ville = ns:lentille_chemin(Etat, \"adresse.ville\");\n"
+                + "    lue = etat @> ville;\n"
+                + "    deplace = etat @> ville := \"Paris\";\n"
+                + "    renomme = ns:modifier(ns:lentille_champ(Etat, \"nom\"), etat, \"Bob\");\n"
+                + "    rue = ns:composer_lentilles([ns:lentille_champ(Etat, \"adresse\"), \"rue\"]);\n"
+                + "    paires = ns:composer_lentilles_paralleles({v: ville, r: rue});\n"
+                + "    double = ns:modifier(paires, etat, {v: \"Nice\", r: \"Port\"});\n"
+                + "    valide = ns:valider_si(double, e => e.adresse.ville == \"Nice\");\n"
+                + "}\n";
+        Script script = new Script(source, "test", "lentilles");
+        Scope scope = new ScriptExecutor().executeScript(script);
+        Assertions.assertNotNull(scope);
+
+        Assertions.assertEquals("Lyon", scope.getVariableValue("lue"));
+        Map<?, ?> deplace = (Map<?, ?>) scope.getVariableValue("deplace");
+        Assertions.assertEquals("Paris", ((Map<?, ?>) deplace.get("adresse")).get("ville"));
+        Assertions.assertEquals("Bob", ((Map<?, ?>) scope.getVariableValue("renomme")).get("nom"));
+
+        Map<?, ?> adresse = (Map<?, ?>) ((Map<?, ?>) scope.getVariableValue("valide")).get("adresse");
+        Assertions.assertEquals("Nice", adresse.get("ville"));
+        Assertions.assertEquals("Port", adresse.get("rue"));
+    }
+
+    @Test
+    public void testPredicateLensInScript() {
+        String source = "@name test:predicat\n"
+                + "{\n"
+                + "    notes = [1, 5, 8];\n"
+                + "    grandes = ns:lentille_predicat(Liste, n => n > 4);\n"
+                + "    retenues = notes @> grandes;\n"
+                + "    plafonnees = ns:modifier(grandes, notes, 4);\n"
+                + "    inchangees = ns:modifier(ns:lentille_predicat(Liste, n => n > 10), notes, 0);\n"
+                + "}\n";
+        Scope scope = new ScriptExecutor().executeScript(new Script(source, "test", "predicat"));
+
+        Assertions.assertEquals(List.of(5, 8), scope.getVariableValue("retenues"));
+        Assertions.assertEquals(List.of(1, 4, 4), scope.getVariableValue("plafonnees"));
+        Assertions.assertSame(scope.getVariableValue("notes"), scope.getVariableValue("inchangees"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.jnane.test;
+
+import com.jnane.compiler.JnaneInterpreter;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import com.jnane.runtime.metrics.MetricsSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Tests des mesures d'exécution enregistrées par l'interpréteur.
+ */
+public class MetricsTest {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsTest.class);
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MDC.put("testname", "MetricsTest");
+        logger.info("Démarrage du test MetricsTest");
+        directory = Files.createTempDirectory("metrics");
+        Path app = Files.createDirectories(directory.resolve("app"));
+        Files.writeString(app.resolve("double.jn"),
+                "@name app:double\n@name x\n@view result : int\n{\n    result = x + x;\n}\n");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        MDC.remove("testname");
+    }
+
+    /**
+     * Vérifie les appels, erreurs et échecs de validation d'une fonction, ainsi que les
+     * phases et caches du registre par défaut.
+     */
+    @Test
+    public void testInterpreterRecordsCalls() {
+        MetricsRegistry registry = new MetricsRegistry();
+        JnaneInterpreter interpreter = new JnaneInterpreter(directory.toString());
+        interpreter.setMetrics(registry);
+
+        Assertions.assertEquals(4, interpreter.interpretFunctionCallWithNamedArgs("app:double", Map.of("x", 2)));
+        Assertions.assertEquals(14, interpreter.interpretFunctionCallWithNamedArgs("app:double", Map.of("x", 7)));
+        // "a" + "a" n'est pas un entier : échec de validation du champ result
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> interpreter.interpretFunctionCallWithNamedArgs("app:double", Map.of("x", "a")));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> interpreter.interpretFunctionCallWithNamedArgs("app:double", Map.of("y", 1)));
+        Assertions.assertEquals(5, interpreter.interpretFunctionCallWithNamedArgs("math:add", Map.of("first", 2, "second", 3)));
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        MetricsSnapshot.Function function = snapshot.getFunctions().get("app:double");
+        Assertions.assertEquals(4, function.getInvocations());
+        Assertions.assertEquals(2, function.getErrors());
+        Assertions.assertEquals(1, function.getValidationFailures());
+        Assertions.assertTrue(function.getLatency().getMax() > 0);
+        Assertions.assertEquals(1, snapshot.getFunctions().get("math:add").getInvocations());
+
+        // Phases et caches sont enregistrés dans le registre par défaut
+        MetricsSnapshot global = MetricsRegistry.getDefault().snapshot();
+        Assertions.assertTrue(global.getTimers().get("load").getCount() > 0);
+        Assertions.assertTrue(global.getTimers().get("parse").getCount() > 0);
+        Assertions.assertTrue(global.getCaches().get("validators").getHits() > 0);
+    }
+}
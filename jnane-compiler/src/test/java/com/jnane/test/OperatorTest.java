@@ -0,0 +1,122 @@
+package com.jnane.test;
+
+import com.jnane.compiler.script.Scope;
+import com.jnane.compiler.script.Script;
+import com.jnane.compiler.script.ScriptExecutor;
+import com.jnane.runtime.value.PrimitiveVector;
+import com.jnane.runtime.view.Aggregates;
+import com.jnane.runtime.view.Views;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.List;
+
+/**
+ * Tests des opérateurs relationnels, des littéraux booléens et des agrégats numériques.
+ */
+public class OperatorTest {
+    private static final Logger logger = LoggerFactory.getLogger(OperatorTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "OperatorTest");
+        logger.info("Démarrage du test OperatorTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    private static Scope run(String name, String body) {
+        String source = "@name test:" + name + "\n{\n" + body + "}\n";
+        return new ScriptExecutor().executeScript(new Script(source, "test", name));
+    }
+
+    /**
+     * Vérifie les comparaisons d'ordre entre nombres de types mêlés et entre chaînes.
+     */
+    @Test
+    public void testRelationalOperators() {
+        Scope scope = run("relations", ""
+                + "    inferieur = 1 < 2;\n"
+                + "    superieur = 1 > 2;\n"
+                + "    egal_ou_moins = 2 <= 2;\n"
+                + "    egal_ou_plus = 1.5 >= 2;\n"
+                + "    mixte = 3 > 2.5;\n"
+                + "    chaines = \"abc\" < \"abd\";\n");
+        Assertions.assertNotNull(scope);
+        Assertions.assertEquals(true, scope.getVariableValue("inferieur"));
+        Assertions.assertEquals(false, scope.getVariableValue("superieur"));
+        Assertions.assertEquals(true, scope.getVariableValue("egal_ou_moins"));
+        Assertions.assertEquals(false, scope.getVariableValue("egal_ou_plus"));
+        Assertions.assertEquals(true, scope.getVariableValue("mixte"));
+        Assertions.assertEquals(true, scope.getVariableValue("chaines"));
+    }
+
+    /**
+     * Vérifie qu'une comparaison d'ordre avec null ou entre types incomparables est une erreur.
+     */
+    @Test
+    public void testInvalidComparisons() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Views.compareOperands(null, 5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Views.compareOperands(5, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Views.compareOperands("5", 5));
+        // L'ordre de tri, lui, range null en premier
+        Assertions.assertTrue(Views.compareValues(null, 5) < 0);
+
+        Assertions.assertNull(run("null_inferieur", "    r = null < 5;\n"));
+        Assertions.assertNull(run("types_mixtes", "    r = \"a\" < 1;\n"));
+    }
+
+    /**
+     * Vérifie que les littéraux booléens sont ceux du lexer (true, false).
+     */
+    @Test
+    public void testBooleanLiterals() {
+        Scope scope = run("booleens", ""
+                + "    vrai = true;\n"
+                + "    faux = false;\n"
+                + "    ancien = Vrai;\n");
+        Assertions.assertNotNull(scope);
+        Assertions.assertEquals(Boolean.TRUE, scope.getVariableValue("vrai"));
+        Assertions.assertEquals(Boolean.FALSE, scope.getVariableValue("faux"));
+        // Vrai n'est plus un littéral : c'est une variable non définie
+        Assertions.assertNull(scope.getVariableValue("ancien"));
+    }
+
+    /**
+     * Vérifie ns:somme, ns:moyenne, ns:minimum et ns:maximum sur des listes homogènes et
+     * mixtes, et le passage en décimal d'une somme entière qui dépasse 64 bits.
+     */
+    @Test
+    public void testAggregates() {
+        Scope scope = run("agregats", ""
+                + "    somme = ns:somme([1, 2, 3]);\n"
+                + "    somme_mixte = ns:somme([1, 2.5]);\n"
+                + "    moyenne = ns:moyenne([1, 2]);\n"
+                + "    vide = ns:moyenne([]);\n"
+                + "    minimum = ns:minimum([3, 1, 2]);\n"
+                + "    maximum = ns:maximum([\"b\", \"c\", \"a\"]);\n");
+        Assertions.assertNotNull(scope);
+        Assertions.assertEquals(6, scope.getVariableValue("somme"));
+        Assertions.assertEquals(3.5, scope.getVariableValue("somme_mixte"));
+        Assertions.assertEquals(1.5, scope.getVariableValue("moyenne"));
+        Assertions.assertNull(scope.getVariableValue("vide"));
+        Assertions.assertEquals(1, scope.getVariableValue("minimum"));
+        Assertions.assertEquals("c", scope.getVariableValue("maximum"));
+
+        Assertions.assertNull(run("agregat_invalide", "    r = ns:somme(3);\n"));
+
+        // Une somme d'entiers longs qui dépasse 64 bits est poursuivie en décimal
+        double attendu = (double) Long.MAX_VALUE + 2;
+        Assertions.assertEquals(attendu, Aggregates.sum(PrimitiveVector.ofLongs(Long.MAX_VALUE, 1, 1)));
+        Assertions.assertEquals(attendu, Aggregates.sum(List.of(Long.MAX_VALUE, 1, 1L)));
+        Assertions.assertEquals(-2L + Long.MAX_VALUE, Aggregates.sum(PrimitiveVector.ofLongs(Long.MAX_VALUE, -1, -1)));
+    }
+}
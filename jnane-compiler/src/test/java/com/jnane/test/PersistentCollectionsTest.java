@@ -0,0 +1,442 @@
+package com.jnane.test;
+
+import com.jnane.compiler.JnaneInterpreter;
+import com.jnane.compiler.script.Scope;
+import com.jnane.compiler.script.Script;
+import com.jnane.compiler.script.ScriptExecutor;
+import com.jnane.runtime.history.StateDelta;
+import com.jnane.runtime.value.InlineCache;
+import com.jnane.runtime.value.Interner;
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.value.PrimitiveVector;
+import com.jnane.runtime.value.Shape;
+import com.jnane.runtime.value.ShapedRecord;
+import com.jnane.runtime.view.Aggregates;
+import com.jnane.runtime.view.LazyView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Tests des collections persistantes utilisées pour les littéraux d'objet et de tableau.
+ */
+public class PersistentCollectionsTest {
+    private static final Logger logger = LoggerFactory.getLogger(PersistentCollectionsTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "PersistentCollectionsTest");
+        logger.info("Démarrage du test PersistentCollectionsTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Compare la table persistante à une HashMap de référence sur une séquence aléatoire
+     * d'ajouts et de suppressions.
+     */
+    @Test
+    public void testMapMatchesReference() {
+        Random random = new Random(42);
+        Map<Integer, Integer> reference = new HashMap<>();
+        PersistentMap<Integer, Integer> map = PersistentMap.empty();
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(4) == 0) {
+                reference.remove(key);
+                map = map.dissoc(key);
+            } else {
+                reference.put(key, i);
+                map = map.assoc(key, i);
+            }
+        }
+
+        Assertions.assertEquals(reference.size(), map.size());
+        Assertions.assertEquals(reference, map);
+        for (Map.Entry<Integer, Integer> entry : reference.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Assertions.assertEquals(reference.size(), new ArrayList<>(map.entrySet()).size());
+    }
+
+    /**
+     * Vérifie le partage structurel : l'ancienne version reste inchangée.
+     */
+    @Test
+    public void testMapPersistence() {
+        PersistentMap<String, Object> v1 = PersistentMap.<String, Object>empty()
+                .assoc("nom", "Alice").assoc("age", 30);
+        PersistentMap<String, Object> v2 = v1.assoc("age", 31);
+        PersistentMap<String, Object> v3 = v2.dissoc("nom");
+
+        Assertions.assertEquals(30, v1.get("age"));
+        Assertions.assertEquals(31, v2.get("age"));
+        Assertions.assertEquals("Alice", v2.get("nom"));
+        Assertions.assertFalse(v3.containsKey("nom"));
+        Assertions.assertSame(v1, v1.assoc("nom", "Alice"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> v1.put("x", 1));
+    }
+
+    /**
+     * Vérifie le traitement des clés dont les hash sont identiques.
+     */
+    @Test
+    public void testMapHashCollisions() {
+        // "Aa" et "BB" ont le même hashCode
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty()
+                .assoc("Aa", 1).assoc("BB", 2).assoc("C", 3);
+        Assertions.assertEquals(1, map.get("Aa"));
+        Assertions.assertEquals(2, map.get("BB"));
+
+        PersistentMap<String, Integer> removed = map.dissoc("Aa");
+        Assertions.assertNull(removed.get("Aa"));
+        Assertions.assertEquals(2, removed.get("BB"));
+        Assertions.assertEquals(2, removed.size());
+    }
+
+    /**
+     * Vérifie la construction en masse via une table transitoire.
+     */
+    @Test
+    public void testMapTransient() {
+        PersistentMap.Transient<Integer, Integer> builder = PersistentMap.<Integer, Integer>empty().asTransient();
+        for (int i = 0; i < 1000; i++) {
+            builder.put(i, i * i);
+        }
+        builder.remove(10);
+        PersistentMap<Integer, Integer> map = builder.persistent();
+
+        Assertions.assertEquals(999, map.size());
+        Assertions.assertEquals(81, map.get(9));
+        Assertions.assertNull(map.get(10));
+        Assertions.assertThrows(IllegalStateException.class, () -> builder.put(1, 1));
+    }
+
+    /**
+     * Compare la liste persistante à une ArrayList de référence.
+     */
+    @Test
+    public void testVectorOperations() {
+        List<Integer> reference = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 100000; i++) {
+            reference.add(i);
+            vector = vector.conj(i);
+        }
+        Assertions.assertEquals(reference, vector);
+
+        PersistentVector<Integer> updated = vector.assoc(12345, -1);
+        Assertions.assertEquals(12345, vector.get(12345));
+        Assertions.assertEquals(-1, updated.get(12345));
+
+        PersistentVector<Integer> popped = vector;
+        for (int i = 0; i < 40000; i++) {
+            popped = popped.pop();
+            reference.remove(reference.size() - 1);
+        }
+        Assertions.assertEquals(reference, popped);
+        Assertions.assertEquals(100000, vector.size());
+    }
+
+    /**
+     * Vérifie la construction en masse via une liste transitoire.
+     */
+    @Test
+    public void testVectorTransient() {
+        PersistentVector<Integer> base = PersistentVector.of(1, 2, 3);
+        PersistentVector.Transient<Integer> builder = base.asTransient();
+        for (int i = 4; i <= 5000; i++) {
+            builder.conj(i);
+        }
+        builder.assoc(0, 100);
+        PersistentVector<Integer> vector = builder.persistent();
+
+        Assertions.assertEquals(5000, vector.size());
+        Assertions.assertEquals(100, vector.get(0));
+        Assertions.assertEquals(5000, vector.get(4999));
+        Assertions.assertEquals(1, base.get(0));
+        Assertions.assertEquals(3, base.size());
+    }
+
+    /**
+     * Vérifie que l'évaluateur produit des valeurs persistantes pour {...} et [...].
+     */
+    @Test
+    public void testLiteralEvaluation() {
+        String source = "@name test:litteraux\n"
+                + "{\n"
+                + "    base = {nom: \"etat\", valeurs: [1, 2, 3]};\n"
+                + "    copie = {...base, revision: 2};\n"
+                + "}\n";
+        Script script = new Script(source, "test", "litteraux");
+        Scope scope = new ScriptExecutor().executeScript(script);
+        Assertions.assertNotNull(scope);
+
+        Object base = scope.getVariableValue("base");
+        Object copie = scope.getVariableValue("copie");
+        Assertions.assertTrue(base instanceof ShapedRecord);
+        Assertions.assertEquals(PersistentVector.of(1, 2, 3), ((Map<?, ?>) base).get("valeurs"));
+        Assertions.assertEquals(3, ((Map<?, ?>) copie).size());
+        Assertions.assertEquals(2, ((Map<?, ?>) copie).get("revision"));
+    }
+
+    /**
+     * Vérifie le hash structurel en cache et le partage des états égaux par internement.
+     */
+    @Test
+    public void testInterning() {
+        PersistentMap<String, Object> a = PersistentMap.<String, Object>empty()
+                .assoc("nom", "etat").assoc("valeurs", PersistentVector.of(1, 2, 3));
+        Map<String, Object> reference = new HashMap<>(a);
+        PersistentMap<String, Object> b = PersistentMap.from(reference);
+        Assertions.assertNotSame(a, b);
+        Assertions.assertEquals(reference.hashCode(), a.hashCode());
+        Assertions.assertEquals(a, b);
+        Assertions.assertEquals(reference, a);
+        Assertions.assertNotEquals(a, b.assoc("nom", "autre"));
+        Assertions.assertEquals(List.of(1, 2, 3).hashCode(), PersistentVector.of(1, 2, 3).hashCode());
+
+        Interner interner = new Interner();
+        Assertions.assertSame(a, interner.intern(a));
+        Assertions.assertSame(a, interner.intern(b));
+        Assertions.assertEquals("texte", interner.intern("texte"));
+        Assertions.assertEquals(1, interner.size());
+        Assertions.assertEquals(1, interner.getStats().getHits());
+        Assertions.assertTrue(interner.getStats().getEstimatedBytesSaved() > 0);
+
+        // Des valeurs égales de représentations différentes ne sont pas confondues
+        PersistentVector<Object> liste = PersistentVector.of(1, 2, 3);
+        PrimitiveVector tableau = PrimitiveVector.ofInts(1, 2, 3);
+        Assertions.assertEquals(liste, tableau);
+        Assertions.assertSame(liste, interner.intern(liste));
+        Assertions.assertSame(tableau, interner.intern(tableau));
+        Assertions.assertSame(tableau, interner.intern(PrimitiveVector.ofInts(1, 2, 3)));
+        ShapedRecord enregistrement = ShapedRecord.builder().put("nom", "etat").put("valeurs", a.get("valeurs")).build();
+        Assertions.assertEquals(a, enregistrement);
+        Assertions.assertSame(enregistrement, interner.intern(enregistrement));
+        Assertions.assertSame(a, interner.intern(b));
+        ShapedRecord primitif = ShapedRecord.builder().put("nom", "etat").put("valeurs", tableau).build();
+        Assertions.assertEquals(enregistrement, primitif);
+        Assertions.assertSame(primitif, interner.intern(primitif));
+
+        // Les littéraux égaux d'un script partagent une instance
+        String source = "@name test:internement\n"
+                + "{\n"
+                + "    a = {nom: \"etat\", valeurs: [1, 2, 3]};\n"
+                + "    b = {nom: \"etat\", valeurs: [1, 2, 3]};\n"
+                + "}\n";
+        ScriptExecutor executor = new ScriptExecutor();
+        executor.getInterpreter().setInterner(interner);
+        Scope scope = executor.executeScript(new Script(source, "test", "internement"));
+        Assertions.assertNotNull(scope);
+        Assertions.assertSame(primitif, scope.getVariableValue("a"));
+        Assertions.assertSame(scope.getVariableValue("a"), scope.getVariableValue("b"));
+        logger.info("Internement: {}", interner.getStats());
+    }
+
+    /**
+     * Vérifie le partage des formes, leurs transitions et le cache en ligne des accès.
+     */
+    @Test
+    public void testShapedRecords() {
+        ShapedRecord a = ShapedRecord.builder().put("original", 1).put("courant", 2).build();
+        ShapedRecord b = ShapedRecord.builder().put("original", 3).put("courant", 4).build();
+        Assertions.assertSame(a.getShape(), b.getShape());
+        Assertions.assertEquals(Map.of("original", 1, "courant", 2), a);
+        Assertions.assertEquals(PersistentMap.from(a), a);
+        Assertions.assertEquals(a.hashCode(), PersistentMap.from(a).hashCode());
+
+        // Transitions : ajouter un champ mène à la même forme, le retirer ramène à la précédente
+        ShapedRecord c = (ShapedRecord) a.assoc("modifications", PersistentVector.empty());
+        Assertions.assertSame(c.getShape(), ((ShapedRecord) b.assoc("modifications", 0)).getShape());
+        Assertions.assertSame(a.getShape(), c.getShape().getParent());
+        Assertions.assertSame(a.getShape(), c.dissoc("modifications").getShape());
+        Assertions.assertEquals(List.of("courant"), new ArrayList<>(c.dissoc("original").dissoc("modifications").keySet()));
+        Assertions.assertSame(a, a.assoc("original", 1));
+        Assertions.assertEquals(2, a.size());
+
+        InlineCache site = new InlineCache("courant");
+        Assertions.assertEquals(2, site.get(a));
+        Assertions.assertEquals(4, site.get(b));
+        Assertions.assertEquals(2, site.get(c));
+        Assertions.assertNull(site.get(ShapedRecord.builder().put("autre", 0).build()));
+        Assertions.assertEquals(7, site.get(Map.of("courant", 7)));
+        Assertions.assertEquals(3, site.shapeCount());
+        for (int i = 0; i < InlineCache.MAX_SHAPES; i++) {
+            site.get(ShapedRecord.builder().put("x" + i, i).put("courant", i).build());
+        }
+        Assertions.assertTrue(site.isMegamorphic());
+        Assertions.assertEquals(5, site.get(ShapedRecord.builder().put("y", 0).put("courant", 5).build()));
+
+        // Delta entre deux enregistrements : seuls les champs modifiés
+        StateDelta delta = StateDelta.diff(a, a.assoc("courant", 9));
+        Assertions.assertEquals(Set.of("courant"), delta.getTouchedKeys());
+        Assertions.assertEquals(a.assoc("courant", 9), delta.applyTo(a));
+
+        // Les grands littéraux restent des tables persistantes
+        StringBuilder champs = new StringBuilder();
+        for (int i = 0; i <= ShapedRecord.MAX_FIELDS; i++) {
+            champs.append(i > 0 ? ", " : "").append("f").append(i).append(": ").append(i);
+        }
+        String source = "@name test:formes\n"
+                + "{\n"
+                + "    petit = {original: 1, courant: 2};\n"
+                + "    grand = {" + champs + "};\n"
+                + "    lu = petit.courant;\n"
+                + "}\n";
+        Scope scope = new ScriptExecutor().executeScript(new Script(source, "test", "formes"));
+        Assertions.assertNotNull(scope);
+        Assertions.assertSame(a.getShape(), ((ShapedRecord) scope.getVariableValue("petit")).getShape());
+        Assertions.assertTrue(scope.getVariableValue("grand") instanceof PersistentMap);
+        Assertions.assertEquals(ShapedRecord.MAX_FIELDS + 1, ((Map<?, ?>) scope.getVariableValue("grand")).size());
+        Assertions.assertEquals(2, scope.getVariableValue("lu"));
+
+        // Un enregistrement qui dépasse MAX_FIELDS champs par ajouts devient une table persistante
+        Map<String, Object> croissant = ShapedRecord.empty();
+        for (int i = 0; i <= ShapedRecord.MAX_FIELDS; i++) {
+            croissant = ((ShapedRecord) croissant).assoc("f" + i, i);
+        }
+        Assertions.assertTrue(croissant instanceof PersistentMap);
+        Assertions.assertEquals(scope.getVariableValue("grand"), croissant);
+    }
+
+    /**
+     * Vérifie qu'une forme que plus aucun enregistrement n'utilise est libérée, bien que
+     * l'arbre des transitions parte d'une racine statique.
+     */
+    @Test
+    public void testUnusedShapesAreCollected() throws InterruptedException {
+        WeakReference<Shape> forme = new WeakReference<>(
+                ShapedRecord.builder().put("ephemere_" + System.nanoTime(), 1).build().getShape());
+        for (int tentative = 0; tentative < 50 && forme.get() != null; tentative++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertNull(forme.get());
+        ShapedRecord a = ShapedRecord.builder().put("original", 1).put("courant", 2).build();
+        Assertions.assertSame(a.getShape(), ShapedRecord.builder().put("original", 3).put("courant", 4).build().getShape());
+    }
+
+    /**
+     * Vérifie le stockage primitif des listes homogènes, sa généralisation et les agrégats.
+     */
+    @Test
+    public void testPrimitiveVectors() {
+        PrimitiveVector entiers = PrimitiveVector.ofInts(3, 1, 4, 1, 5);
+        Assertions.assertEquals(List.of(3, 1, 4, 1, 5), entiers);
+        Assertions.assertEquals(List.of(3, 1, 4, 1, 5).hashCode(), entiers.hashCode());
+        Assertions.assertEquals(PersistentVector.of(3, 1, 4, 1, 5), entiers);
+        Assertions.assertTrue(entiers.assoc(0, 9) instanceof PrimitiveVector);
+        Assertions.assertEquals(List.of(3, 1, 4, 1, 5, 9), entiers.conj(9));
+
+        // Un élément d'un autre type généralise la liste
+        List<Object> mixte = entiers.conj("six");
+        Assertions.assertTrue(mixte instanceof PersistentVector);
+        Assertions.assertEquals(List.of(3, 1, 4, 1, 5, "six"), mixte);
+        Assertions.assertTrue(PrimitiveVector.builder().add(1).add(2.5).build() instanceof PersistentVector);
+        Assertions.assertEquals(PrimitiveVector.Kind.DOUBLE,
+                ((PrimitiveVector) PrimitiveVector.builder().add(1.5).add(2.5).build()).getKind());
+
+        Assertions.assertEquals(14, Aggregates.sum(entiers));
+        Assertions.assertEquals(2.8, Aggregates.average(entiers), 1e-9);
+        Assertions.assertEquals(1, Aggregates.min(entiers));
+        Assertions.assertEquals(5, Aggregates.max(entiers));
+        Assertions.assertEquals(6_000_000_000L, Aggregates.sum(PrimitiveVector.ofInts(2_000_000_000, 2_000_000_000, 2_000_000_000)));
+        Assertions.assertEquals(4.5, Aggregates.sum(List.of(1, 2.5, 1)));
+        Assertions.assertNull(Aggregates.average(PersistentVector.empty()));
+        Assertions.assertEquals(List.of(4, 5), entiers.filter(x -> (Integer) x > 3));
+
+        // Ajouts en fin amortis : les versions partagent le tableau sans se voir les unes les autres
+        List<Object> croissant = PrimitiveVector.ofInts();
+        for (int i = 0; i < 200_000; i++) {
+            croissant = ((PrimitiveVector) croissant).conj(i);
+        }
+        PrimitiveVector base = (PrimitiveVector) croissant;
+        List<Object> branche1 = base.conj(-1);
+        List<Object> branche2 = base.conj(-2);
+        Assertions.assertEquals(200_000, base.size());
+        Assertions.assertEquals(-1, branche1.get(200_000));
+        Assertions.assertEquals(-2, branche2.get(200_000));
+        Assertions.assertEquals(199_999L * 200_000 / 2, Aggregates.sum(base).longValue());
+        Assertions.assertEquals(199_999, Aggregates.max(base));
+        Assertions.assertEquals(base, base.filter(x -> true));
+
+        String source = "@name test:primitifs\n"
+                + "{\n"
+                + "    valeurs = [3, 1, 4, 1, 5];\n"
+                + "    grands = ns:filtrer_vue(valeurs, x => x > 2);\n"
+                + "    total = ns:somme(grands);\n"
+                + "    moyenne = ns:moyenne(valeurs);\n"
+                + "    plus_petit = ns:minimum(valeurs);\n"
+                + "    plus_grand = ns:maximum([2.5, 7.5]);\n"
+                + "    drapeaux = [true, false];\n"
+                + "    mixte = [1, \"un\"];\n"
+                + "}\n";
+        Scope scope = new ScriptExecutor().executeScript(new Script(source, "test", "primitifs"));
+        Assertions.assertNotNull(scope);
+        Assertions.assertEquals(PrimitiveVector.Kind.INT, ((PrimitiveVector) scope.getVariableValue("valeurs")).getKind());
+        Assertions.assertTrue(scope.getVariableValue("grands") instanceof LazyView);
+        Assertions.assertEquals(List.of(3, 4, 5), scope.getVariableValue("grands"));
+        Assertions.assertEquals(12, scope.getVariableValue("total"));
+        Assertions.assertEquals(2.8, (Double) scope.getVariableValue("moyenne"), 1e-9);
+        Assertions.assertEquals(1, scope.getVariableValue("plus_petit"));
+        Assertions.assertEquals(7.5, scope.getVariableValue("plus_grand"));
+        Assertions.assertEquals(List.of(true, false), scope.getVariableValue("drapeaux"));
+        Assertions.assertTrue(scope.getVariableValue("drapeaux") instanceof PrimitiveVector);
+        Assertions.assertTrue(scope.getVariableValue("mixte") instanceof PersistentVector);
+    }
+
+    /**
+     * Vérifie que le cache en ligne d'un accès à un champ survit aux appels successifs de
+     * la fonction Jnane qui le contient.
+     */
+    @Test
+    public void testInlineCachesSurviveFunctionCalls() throws IOException {
+        Path directory = Files.createTempDirectory("caches");
+        try {
+            Files.writeString(Files.createDirectories(directory.resolve("app")).resolve("nom.jn"),
+                    "@name app:nom\n@name p\n{\n    result = p.nom;\n}\n");
+            JnaneInterpreter interpreter = new JnaneInterpreter(directory.toString());
+            ShapedRecord alice = ShapedRecord.builder().put("nom", "Alice").put("age", 30).build();
+            ShapedRecord bob = ShapedRecord.builder().put("nom", "Bob").put("age", 12).build();
+            ShapedRecord autre = ShapedRecord.builder().put("age", 50).put("nom", "Carole").build();
+
+            Assertions.assertEquals("Alice", interpreter.interpretFunctionCallWithNamedArgs("app:nom", Map.of("p", alice)));
+            Assertions.assertEquals("Bob", interpreter.interpretFunctionCallWithNamedArgs("app:nom", Map.of("p", bob)));
+            List<InlineCache> caches = interpreter.getInlineCaches();
+            Assertions.assertEquals(1, caches.size());
+            Assertions.assertEquals(1, caches.get(0).shapeCount());
+
+            // Une autre forme s'ajoute au même cache, qui reste polymorphe
+            Assertions.assertEquals("Carole", interpreter.interpretFunctionCallWithNamedArgs("app:nom", Map.of("p", autre)));
+            Assertions.assertEquals(2, interpreter.getInlineCaches().get(0).shapeCount());
+            Assertions.assertFalse(interpreter.getInlineCaches().get(0).isMegamorphic());
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.jnane.test;
+
+import com.jnane.compiler.JnaneInterpreter;
+import com.jnane.compiler.JnaneProfiler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Tests du profileur des fonctions Jnane et de sa sortie au format des flame graphs.
+ */
+public class ProfilerTest {
+    private static final Logger logger = LoggerFactory.getLogger(ProfilerTest.class);
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MDC.put("testname", "ProfilerTest");
+        logger.info("Démarrage du test ProfilerTest");
+        directory = Files.createTempDirectory("profiler");
+        Path app = Files.createDirectories(directory.resolve("app"));
+        Files.writeString(app.resolve("appel.jn"),
+                "@name app:appel\n@name valeur\n@view result : int\n{\n"
+                        + "    x = valeur + 1;\n    y = app:feuille();\n    result = x + y;\n}\n");
+        Files.writeString(app.resolve("feuille.jn"),
+                "@name app:feuille\n@view result : int\n{\n"
+                        + "    a = 40 + 1;\n    result = a + 1;\n}\n");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        MDC.remove("testname");
+    }
+
+    /**
+     * Vérifie qu'en mode exact chaque instruction est comptée sous la pile de ses appelants,
+     * avec la ligne de chaque cadre.
+     */
+    @Test
+    public void testExactCountsStatementsPerStack() {
+        JnaneInterpreter interpreter = new JnaneInterpreter(directory.toString());
+        JnaneProfiler profiler = new JnaneProfiler(JnaneProfiler.Mode.EXACT, JnaneProfiler.DEFAULT_INTERVAL_MILLIS);
+        interpreter.setProfiler(profiler);
+
+        Assertions.assertEquals(45, interpreter.interpretFunctionCallWithNamedArgs("app:appel", Map.of("valeur", 2)));
+        Assertions.assertEquals(45, interpreter.interpretFunctionCallWithNamedArgs("app:appel", Map.of("valeur", 2)));
+
+        StringWriter collapsed = new StringWriter();
+        profiler.writeCollapsed(collapsed);
+        Assertions.assertEquals("app:appel:5 2\n"
+                + "app:appel:6 2\n"
+                + "app:appel:6;app:feuille:4 2\n"
+                + "app:appel:6;app:feuille:5 2\n"
+                + "app:appel:7 2\n", collapsed.toString().replace(System.lineSeparator(), "\n"));
+    }
+
+    /**
+     * Vérifie que l'échantillonneur relève des piles pendant l'exécution et que les cadres
+     * sont dépilés sur erreur.
+     */
+    @Test
+    public void testSamplingRecordsStacks() {
+        JnaneInterpreter interpreter = new JnaneInterpreter(directory.toString());
+        JnaneProfiler profiler = new JnaneProfiler(JnaneProfiler.Mode.SAMPLING, 1);
+        interpreter.setProfiler(profiler);
+
+        profiler.start();
+        Assertions.assertThrows(IllegalStateException.class, profiler::start);
+        try {
+            for (int i = 0; i < 200 && profiler.getCounts().isEmpty(); i++) {
+                interpreter.interpretFunctionCallWithNamedArgs("app:appel", Map.of("valeur", i));
+            }
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> interpreter.interpretFunctionCallWithNamedArgs("app:appel", Map.of()));
+        } finally {
+            profiler.stop();
+        }
+        Assertions.assertFalse(profiler.getCounts().isEmpty());
+        Assertions.assertTrue(profiler.getCounts().keySet().stream().allMatch(stack -> stack.startsWith("app:appel")));
+
+        // La pile du thread est vide après l'erreur : une exécution profilée ne compte
+        // que ses propres cadres
+        JnaneProfiler exact = new JnaneProfiler(JnaneProfiler.Mode.EXACT, 1);
+        interpreter.setProfiler(exact);
+        interpreter.interpretFunctionCallWithNamedArgs("app:feuille", Map.of());
+        Assertions.assertEquals(Map.of("app:feuille:4", 1L, "app:feuille:5", 1L), exact.getCounts());
+    }
+}
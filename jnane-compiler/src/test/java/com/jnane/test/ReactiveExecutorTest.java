@@ -0,0 +1,107 @@
+package com.jnane.test;
+
+import com.jnane.compiler.JnaneInterpreter;
+import com.jnane.compiler.script.ReactiveExecutor;
+import com.jnane.compiler.script.Script;
+import com.jnane.compiler.script.ScriptExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests du recalcul incrémental des cellules d'un réseau réactif.
+ */
+public class ReactiveExecutorTest {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExecutorTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "ReactiveExecutorTest");
+        logger.info("Démarrage du test ReactiveExecutorTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    private static Script script(String name, String body) {
+        return new Script("@name test:" + name + "\n{\n    " + body + "\n}\n", "test", name);
+    }
+
+    /**
+     * Vérifie que seules les cellules en aval sont recalculées, avec coupure anticipée.
+     */
+    @Test
+    public void testIncrementalPropagation() {
+        ReactiveExecutor reseau = new ReactiveExecutor();
+        reseau.input("a", 2);
+        reseau.input("b", 3);
+        reseau.input("c", 10);
+        Assertions.assertEquals(5, reseau.defineScript("somme", script("somme", "result = a + b;")));
+        Assertions.assertEquals(true, reseau.defineScript("nonNul", script("nonNul", "result = somme != 0;")));
+        reseau.defineScript("rapport", script("rapport", "result = {actif: nonNul};"));
+        reseau.defineScript("double", script("double", "result = c + c;"));
+        Assertions.assertEquals(Set.of("a", "b"), reseau.getDependencies("somme"));
+        Assertions.assertEquals(Set.of("somme"), reseau.getDependencies("nonNul"));
+
+        List<String> notifications = new ArrayList<>();
+        reseau.addListener((nom, avant, apres) -> notifications.add(nom + ":" + avant + "->" + apres));
+        long recalculs = reseau.getStats().getRecomputations();
+
+        // somme change, nonNul reste vrai : rapport et double ne sont pas recalculés
+        Assertions.assertEquals(List.of("a", "somme"), new ArrayList<>(reseau.set("a", 4)));
+        Assertions.assertEquals(7, reseau.get("somme"));
+        Assertions.assertEquals(recalculs + 2, reseau.getStats().getRecomputations());
+        Assertions.assertEquals(1, reseau.getStats().getCutoffs());
+        Assertions.assertEquals(List.of("a:2->4", "somme:5->7"), notifications);
+
+        // Modifications groupées : une seule passe, valeurs cohérentes
+        notifications.clear();
+        Set<String> modifiees = reseau.update(Map.of("a", -3, "c", 1));
+        Assertions.assertEquals(Set.of("a", "c", "somme", "nonNul", "rapport", "double"), modifiees);
+        Assertions.assertEquals(false, reseau.get("nonNul"));
+        Assertions.assertEquals(Map.of("actif", false), reseau.get("rapport"));
+        Assertions.assertEquals(2, reseau.get("double"));
+        Assertions.assertEquals(6, notifications.size());
+
+        // Une valeur identique ne propage rien
+        Assertions.assertEquals(Set.of(), reseau.set("b", 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> reseau.set("somme", 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> reseau.set("inconnue", 1));
+    }
+
+    /**
+     * Vérifie le traçage des fonctions appelées et l'invalidation d'une fonction.
+     */
+    @Test
+    public void testFunctionInvalidation() {
+        String fonctions = Paths.get("src", "test", "resources", "com", "jnane", "test", "reactif").toString();
+        ReactiveExecutor reseau = new ReactiveExecutor(new ScriptExecutor(new JnaneInterpreter(fonctions)));
+        reseau.input("x", 4);
+        reseau.input("y", 2);
+        Assertions.assertEquals(8, reseau.defineFunction("double", "calc:double", Map.of("valeur", "x")));
+        reseau.defineScript("copie", script("copie", "result = y;"));
+        Assertions.assertEquals(Set.of("x"), reseau.getDependencies("double"));
+        Assertions.assertEquals(Set.of("calc:double"), reseau.getFunctions("double"));
+        Assertions.assertEquals(Set.of(), reseau.getFunctions("copie"));
+
+        long recalculs = reseau.getStats().getRecomputations();
+        Assertions.assertEquals(Set.of(), reseau.invalidateFunction("calc:double"));
+        Assertions.assertEquals(recalculs + 1, reseau.getStats().getRecomputations());
+        Assertions.assertEquals(1, reseau.getStats().getCutoffs());
+
+        Assertions.assertEquals(List.of("x", "double"), new ArrayList<>(reseau.set("x", 5)));
+        Assertions.assertEquals(10, reseau.get("double"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.jnane.test;
+
+import com.jnane.compiler.FieldValidator;
+import com.jnane.compiler.TypeInference;
+import com.jnane.compiler.script.Script;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Tests de l'inférence de types et de la suppression des vérifications à l'exécution.
+ */
+public class TypeInferenceTest {
+    private static final Logger logger = LoggerFactory.getLogger(TypeInferenceTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "TypeInferenceTest");
+        logger.info("Démarrage du test TypeInferenceTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    private static TypeInference.Result infer(String body, TypeInference.SignatureResolver resolver) {
+        Script script = new Script("@name test:inference\n{\n" + body + "\n}\n", "test", "inference");
+        return TypeInference.infer(script.getProgramContext(), resolver);
+    }
+
+    /**
+     * Vérifie les types prouvés, non concluants et incompatibles.
+     */
+    @Test
+    public void testVerdicts() {
+        TypeInference.Result result = infer(
+                "x = 1 + 2;\n"
+                + "s = \"total: \" + x;\n"
+                + "b = x > 2;\n"
+                + "l = [1, 2, 3];\n"
+                + "m = [1, 2.5];\n"
+                + "if b { y = 1; }\n"
+                + "if b { z = 1; } else { z = 2; }\n"
+                + "f = ns:filtrer_vue(l, (v) => { w = v; });\n"
+                + "w = 3;\n"
+                + "c = test:compte(x);\n", name -> name.equals("test:compte") ? "Integer" : null);
+
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN, result.check("x", "int"));
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN, result.check("x", "long"));
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN, result.check("s", "String"));
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN, result.check("b", "boolean"));
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN, result.check("l", "List<int>"));
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN, result.check("z", "int"));
+        Assertions.assertEquals(TypeInference.Verdict.PROVEN, result.check("c", "int"));
+        Assertions.assertEquals(Map.of("test:compte", "int"), result.getCallees());
+
+        // Liste hétérogène, branche sans else, affectation dans une lambda
+        Assertions.assertEquals(TypeInference.Verdict.INCONCLUSIVE, result.check("m", "List<double>"));
+        Assertions.assertFalse(result.isDefinitelyAssigned("y"));
+        Assertions.assertEquals(TypeInference.Verdict.INCONCLUSIVE, result.check("y", "int"));
+        Assertions.assertEquals(TypeInference.Verdict.INCONCLUSIVE, result.check("w", "int"));
+        Assertions.assertEquals(TypeInference.Verdict.INCONCLUSIVE, result.check("inconnu", "int"));
+
+        Assertions.assertEquals(TypeInference.Verdict.VIOLATED, result.check("s", "int"));
+        Assertions.assertEquals(TypeInference.Verdict.VIOLATED, result.check("l", "List<string>"));
+    }
+
+    /**
+     * Vérifie qu'une fonction entièrement prouvée n'est plus validée à l'exécution, et que
+     * le validateur est recompilé si le type de retour d'une fonction appelée change.
+     */
+    @Test
+    public void testValidatorSkipsProvenFields() throws IOException {
+        Path file = Files.createTempFile("inference", ".jn");
+        try {
+            Files.writeString(file, "@name test:inference\n@view result : int\n@field libelle : string\n"
+                    + "{\n    libelle = \"n\" + 1;\n    result = test:source(2);\n}\n");
+            FieldValidator proven = FieldValidator.forFile(file.toString(), name -> "int");
+            Assertions.assertTrue(proven.isVerified());
+            Assertions.assertSame(proven, FieldValidator.forFile(file.toString(), name -> "int"));
+
+            FieldValidator recompiled = FieldValidator.forFile(file.toString(), name -> null);
+            Assertions.assertNotSame(proven, recompiled);
+            Assertions.assertFalse(recompiled.isVerified());
+            Assertions.assertEquals(1, recompiled.size());
+            Assertions.assertEquals("int", FieldValidator.declaredType(file.toString(), "result"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
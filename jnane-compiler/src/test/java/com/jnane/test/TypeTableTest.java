@@ -0,0 +1,100 @@
+package com.jnane.test;
+
+import com.jnane.compiler.JnaneTypeChecker;
+import com.jnane.compiler.TypeTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests de la table des types internés et de la fermeture des vues.
+ */
+public class TypeTableTest {
+    private static final Logger logger = LoggerFactory.getLogger(TypeTableTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "TypeTableTest");
+        logger.info("Démarrage du test TypeTableTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Vérifie l'internement des types génériques et la transitivité des vues.
+     */
+    @Test
+    public void testInterningAndClosure() {
+        TypeTable types = new TypeTable();
+        int fonction = types.intern("Fonction<Etat, Etat>");
+        Assertions.assertEquals(fonction, types.intern("fonction<Etat,Etat>"));
+        Assertions.assertNotEquals(fonction, types.intern("Fonction<Etat, int>"));
+        Assertions.assertEquals(types.intern("int"), types.intern("Integer"));
+        Assertions.assertEquals("list<int>", types.name(types.intern("Liste<Integer>")));
+
+        types.addView("Etat", "Resume");
+        types.addView("Resume", "string");
+        Assertions.assertTrue(types.isEvaluable("Etat", "string"));
+        Assertions.assertTrue(types.isEvaluable("Etat", "any"));
+        Assertions.assertTrue(types.isEvaluable("int", "long"));
+        Assertions.assertFalse(types.isEvaluable("string", "Etat"));
+        Assertions.assertFalse(types.isEvaluable("long", "int"));
+        Assertions.assertTrue(types.reachable(types.intern("Etat")).get(types.intern("Resume")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> types.name(types.size()));
+
+        JnaneTypeChecker checker = new JnaneTypeChecker(types);
+        checker.addVariable("compteur", "Compteur", Set.of("int"));
+        Assertions.assertTrue(checker.isVariableEvaluable("compteur", "long"));
+        Assertions.assertFalse(checker.isVariableEvaluable("compteur", "Etat"));
+        Assertions.assertFalse(checker.isVariableEvaluable("absent", "int"));
+        Assertions.assertEquals(2, checker.getErrors().size());
+    }
+
+    /**
+     * Vérifie l'utilisation concurrente d'une table partagée par plusieurs vérificateurs.
+     */
+    @Test
+    public void testConcurrentCheckers() throws Exception {
+        TypeTable types = new TypeTable();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    JnaneTypeChecker checker = new JnaneTypeChecker(types);
+                    boolean ok = true;
+                    for (int i = 0; i < 200; i++) {
+                        String type = "Niveau" + i;
+                        types.addView(type, "Niveau" + (i + 1));
+                        checker.addVariable("v" + thread + "_" + i, type, Set.of());
+                        ok &= checker.isVariableEvaluable("v" + thread + "_" + i, "Niveau" + (i + 1));
+                    }
+                    return ok && !checker.hasErrors();
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assertions.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertTrue(types.isEvaluable("Niveau0", "Niveau200"));
+        // any, int, long et Niveau0 à Niveau200, chacun interné une seule fois
+        Assertions.assertEquals(204, types.size());
+    }
+}
@@ -0,0 +1,187 @@
+package com.jnane.test;
+
+import com.jnane.compiler.script.Scope;
+import com.jnane.compiler.script.Script;
+import com.jnane.compiler.script.ScriptExecutor;
+import com.jnane.runtime.history.HistoryPolicy;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.history.StateDelta;
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.view.View;
+import com.jnane.runtime.view.ViewCache;
+import com.jnane.runtime.view.Views;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests du cache des vues matérialisées (succès, éviction, maintenance incrémentale).
+ */
+public class ViewCacheTest {
+    private static final Logger logger = LoggerFactory.getLogger(ViewCacheTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "ViewCacheTest");
+        logger.info("Démarrage du test ViewCacheTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    private static PersistentMap<String, Object> grandEtat() {
+        PersistentMap<String, Object> etat = PersistentMap.empty();
+        for (int i = 0; i < 1000; i++) {
+            etat = etat.assoc("champ" + i, i);
+        }
+        return etat.assoc("nom", "Alice").assoc("age", 30);
+    }
+
+    /**
+     * Vérifie les succès de cache et l'éviction LRU propre à chaque famille de vues.
+     */
+    @Test
+    public void testHitsAndEviction() {
+        ViewCache cache = new ViewCache(Map.of(Views.PROJECTION, 2), 16);
+        View identite = Views.projection(List.of("nom", "age"));
+        PersistentMap<String, Object> a = grandEtat();
+        PersistentMap<String, Object> b = a.assoc("nom", "Bob");
+        PersistentMap<String, Object> c = a.assoc("nom", "Carole");
+
+        Object vueA = cache.get(null, a, identite);
+        Assertions.assertEquals(Map.of("nom", "Alice", "age", 30), vueA);
+        Assertions.assertSame(vueA, cache.get(null, a, identite));
+        cache.get(null, b, identite);
+        cache.get(null, c, identite);
+
+        ViewCache.Stats stats = cache.getStats(Views.PROJECTION);
+        Assertions.assertEquals(1, stats.getHits());
+        Assertions.assertEquals(3, stats.getMisses());
+        Assertions.assertEquals(1, stats.getEvictions());
+        Assertions.assertEquals(2, cache.size(Views.PROJECTION));
+
+        // La région des champs est indépendante de celle des projections
+        cache.get(null, a, Views.field("nom"));
+        Assertions.assertEquals(1, cache.getStats(Views.FIELD).getMisses());
+        Assertions.assertEquals(0, cache.getStats(Views.FIELD).getEvictions());
+    }
+
+    /**
+     * Vérifie que les vues d'une nouvelle version sont dérivées du delta de la mise à jour.
+     */
+    @Test
+    public void testIncrementalMaintenance() {
+        HistoryStore store = new HistoryStore(HistoryPolicy.unlimited(16));
+        ViewCache cache = new ViewCache(Map.of(), 16);
+        View identite = Views.projection(List.of("nom", "age"));
+        View nom = Views.field("nom");
+
+        PersistentMap<String, Object> v0 = grandEtat();
+        store.track(v0);
+        Object identite0 = cache.get(store, v0, identite);
+        Object nom0 = cache.get(store, v0, nom);
+
+        // Mise à jour par lentille d'un champ projeté
+        PersistentMap<String, Object> v1 = v0.assoc("age", 31);
+        store.recordTransition(v0, v1, StateDelta.ofPath(List.of("age"), 31), "anniversaire");
+        Object identite1 = cache.get(store, v1, identite);
+        Assertions.assertEquals(Map.of("nom", "Alice", "age", 31), identite1);
+        Assertions.assertSame(nom0, cache.get(store, v1, nom));
+
+        // Mise à jour d'un champ hors projection : la vue précédente est conservée
+        PersistentMap<String, Object> v2 = v1.assoc("champ5", -5);
+        store.recordTransition(v1, v2, null, "autre champ");
+        Assertions.assertSame(identite1, cache.get(store, v2, identite));
+        Assertions.assertNotEquals(identite0, identite1);
+
+        // Suppression d'un champ projeté
+        PersistentMap<String, Object> v3 = v2.dissoc("age");
+        store.recordTransition(v2, v3, null, "suppression");
+        Assertions.assertEquals(Map.of("nom", "Alice"), cache.get(store, v3, identite));
+
+        ViewCache.Stats stats = cache.getStats(Views.PROJECTION);
+        Assertions.assertEquals(1, stats.getMisses());
+        Assertions.assertEquals(3, stats.getIncrementalUpdates());
+        Assertions.assertEquals(1, cache.getStats(Views.FIELD).getIncrementalUpdates());
+    }
+
+    /**
+     * Vérifie que deux registres partageant un cache ne confondent pas leurs versions,
+     * bien que leurs lignées aient le même identifiant et le même numéro de version.
+     */
+    @Test
+    public void testStoresSharingCache() {
+        HistoryStore premier = new HistoryStore(HistoryPolicy.unlimited(16));
+        HistoryStore second = new HistoryStore(HistoryPolicy.unlimited(16));
+        ViewCache cache = new ViewCache(Map.of(), 16);
+        View valeur = Views.field("valeur");
+
+        PersistentMap<String, Object> etat1 = PersistentMap.<String, Object>empty().assoc("valeur", 1);
+        PersistentMap<String, Object> etat2 = PersistentMap.<String, Object>empty().assoc("valeur", 2);
+        premier.track(etat1);
+        second.track(etat2);
+        Assertions.assertEquals(premier.lookup(etat1).getLineage().getId(), second.lookup(etat2).getLineage().getId());
+        Assertions.assertNotEquals(premier.getStoreId(), second.getStoreId());
+
+        Assertions.assertEquals(1, cache.get(premier, etat1, valeur));
+        Assertions.assertEquals(2, cache.get(second, etat2, valeur));
+        Assertions.assertEquals(1, cache.get(premier, etat1, valeur));
+        Assertions.assertEquals(2, cache.getStats(Views.FIELD).getMisses());
+    }
+
+    /**
+     * Vérifie les opérations de vue dans un script Jnane.
+     */
+    @Test
+    public void testViewOperationsInScript() {
+        String source = "@name test:vues\n"
+                + "{\n"
+                + "    etat = {nom: \"Alice\", age: 30, adresse: {ville: \"Lyon\"}};\n"
+                + "    age = ns:lentille_champ(Etat, \"age\");\n"
+                + "    plus_age = etat @> age := 31;\n"
+                + "    identite = ns:projeter_vue(plus_age, [\"nom\", \"age\"]);\n"
+                + "    adresse = ns:vue(plus_age, \"adresse\");\n"
+                + "    cles = ns:convertir_vue(identite, \"cles\");\n"
+                + "}\n";
+        Script script = new Script(source, "test", "vues");
+        Scope scope = new ScriptExecutor().executeScript(script);
+        Assertions.assertNotNull(scope);
+
+        Assertions.assertEquals(Map.of("nom", "Alice", "age", 31), scope.getVariableValue("identite"));
+        Assertions.assertEquals(Map.of("ville", "Lyon"), scope.getVariableValue("adresse"));
+        Assertions.assertEquals(2, ((List<?>) scope.getVariableValue("cles")).size());
+    }
+
+    /**
+     * Vérifie ns:vue_transformee dans un script Jnane : critères, tri, limite et projection.
+     */
+    @Test
+    public void testTransformedViewInScript() {
+        String source = "@name test:vue_transformee\n"
+                + "{\n"
+                + "    etat = {equipe: [{nom: \"Chloé\", ville: \"Lyon\", age: 41},"
+                + " {nom: \"Alice\", ville: \"Lyon\", age: 30},"
+                + " {nom: \"Bruno\", ville: \"Paris\", age: 25},"
+                + " {nom: \"Denis\", ville: \"Lyon\", age: 35}], responsable: {nom: \"Alice\", age: 30}};\n"
+                + "    lyonnais = ns:vue_transformee(etat, \"equipe\", {criteres: {ville: \"Lyon\"}, tri: \"age\","
+                + " limite: 2, projection: [\"nom\"]});\n"
+                + "    responsable = ns:vue_transformee(etat, \"responsable\", {projection: [\"nom\"]});\n"
+                + "}\n";
+        Scope scope = new ScriptExecutor().executeScript(new Script(source, "test", "vue_transformee"));
+
+        Assertions.assertEquals(List.of(Map.of("nom", "Alice"), Map.of("nom", "Denis")),
+                scope.getVariableValue("lyonnais"));
+        Assertions.assertEquals(Map.of("nom", "Alice"), scope.getVariableValue("responsable"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> Views.transformed("equipe", Map.of("ordre", "age")));
+    }
+}
@@ -0,0 +1,60 @@
+package com.jnane.runtime.builtin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fonction intégrée {@code math:add} : somme de deux entiers. Les arguments décimaux,
+ * longs ou chaînes sont convertis en entiers.
+ */
+public final class AddFunction implements BuiltinFunction.IntBinary {
+    private static final Logger logger = LoggerFactory.getLogger(AddFunction.class);
+
+    private static final Signature SIGNATURE = Signature.returning("int")
+            .param("first", "int")
+            .param("second", "int")
+            .build();
+
+    @Override
+    public String getName() {
+        return "math:add";
+    }
+
+    @Override
+    public Signature getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isPure() {
+        return true;
+    }
+
+    @Override
+    public int applyAsInt(int first, int second) {
+        return first + second;
+    }
+
+    @Override
+    public Object invoke(Object[] args) {
+        return applyAsInt(toInt(args[0]), toInt(args[1]));
+    }
+
+    private static int toInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Integer.parseInt((String) value);
+            } catch (NumberFormatException e) {
+                String errorMsg = "Erreur de conversion des arguments en entiers: " + e.getMessage();
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg, e);
+            }
+        }
+        String errorMsg = "Impossible de convertir en entier: " + value;
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+}
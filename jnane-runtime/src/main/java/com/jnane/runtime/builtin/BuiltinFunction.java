@@ -0,0 +1,192 @@
+package com.jnane.runtime.builtin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fonction intégrée implémentée en Java. Les implémentations sont découvertes par
+ * {@link java.util.ServiceLoader} (fichier
+ * {@code META-INF/services/com.jnane.runtime.builtin.BuiltinFunction}) et enregistrées
+ * dans le {@link BuiltinRegistry}.
+ *
+ * <p>Chaque fonction déclare sa signature : les arguments lui sont transmis dans l'ordre
+ * des paramètres, sans table intermédiaire. Une fonction pure (sans effet de bord, dont
+ * le résultat ne dépend que des arguments) peut être évaluée une seule fois par site
+ * d'appel lorsque ses arguments sont des littéraux.</p>
+ */
+public interface BuiltinFunction {
+
+    /**
+     * Retourne le nom complet de la fonction, avec son namespace ({@code math:add}).
+     *
+     * @return Nom de la fonction
+     */
+    String getName();
+
+    /**
+     * Retourne la signature déclarée.
+     *
+     * @return Signature
+     */
+    Signature getSignature();
+
+    /**
+     * Indique si la fonction est pure.
+     *
+     * @return true si le résultat ne dépend que des arguments
+     */
+    default boolean isPure() {
+        return false;
+    }
+
+    /**
+     * Appelle la fonction.
+     *
+     * @param args Arguments dans l'ordre de la signature ; un paramètre optionnel absent vaut null
+     * @return Résultat de la fonction
+     */
+    Object invoke(Object[] args);
+
+    /**
+     * Fonction à deux arguments entiers, appelée sans emballage ni tableau d'arguments
+     * lorsque les deux valeurs sont des entiers.
+     */
+    interface IntBinary extends BuiltinFunction {
+
+        /**
+         * Appelle la fonction sur deux entiers.
+         *
+         * @param first Premier argument
+         * @param second Deuxième argument
+         * @return Résultat
+         */
+        int applyAsInt(int first, int second);
+    }
+
+    /**
+     * Signature d'une fonction intégrée : paramètres ordonnés, leur type déclaré et le
+     * type du résultat.
+     */
+    final class Signature {
+        private final List<String> names;
+        private final List<String> types;
+        private final int required;
+        private final String returnType;
+
+        private Signature(List<String> names, List<String> types, int required, String returnType) {
+            this.names = Collections.unmodifiableList(names);
+            this.types = Collections.unmodifiableList(types);
+            this.required = required;
+            this.returnType = returnType;
+        }
+
+        /**
+         * Ouvre un constructeur de signature.
+         *
+         * @param returnType Type du résultat
+         * @return Constructeur vide
+         */
+        public static Builder returning(String returnType) {
+            return new Builder(returnType);
+        }
+
+        /** @return Noms des paramètres, dans l'ordre */
+        public List<String> getParameterNames() {
+            return names;
+        }
+
+        /** @return Types déclarés des paramètres, dans l'ordre */
+        public List<String> getParameterTypes() {
+            return types;
+        }
+
+        /** @return Nombre de paramètres */
+        public int getArity() {
+            return names.size();
+        }
+
+        /** @return Nombre de paramètres obligatoires (les premiers de la liste) */
+        public int getRequiredCount() {
+            return required;
+        }
+
+        /** @return Type du résultat */
+        public String getReturnType() {
+            return returnType;
+        }
+
+        /**
+         * Retourne la position d'un paramètre.
+         *
+         * @param name Nom du paramètre
+         * @return Position, -1 si le paramètre n'existe pas
+         */
+        public int indexOf(String name) {
+            return names.indexOf(name);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < names.size(); i++) {
+                sb.append(i > 0 ? ", " : "").append(names.get(i)).append(i >= required ? "?" : "")
+                        .append(" : ").append(types.get(i));
+            }
+            return sb.append(") : ").append(returnType).toString();
+        }
+
+        /**
+         * Constructeur de signature : les paramètres obligatoires précèdent les optionnels.
+         */
+        public static final class Builder {
+            private final List<String> names = new ArrayList<>();
+            private final List<String> types = new ArrayList<>();
+            private final String returnType;
+            private int required;
+
+            private Builder(String returnType) {
+                this.returnType = returnType;
+            }
+
+            /**
+             * Ajoute un paramètre obligatoire.
+             *
+             * @param name Nom
+             * @param type Type déclaré
+             * @return Ce constructeur
+             */
+            public Builder param(String name, String type) {
+                if (required < names.size()) {
+                    throw new IllegalStateException("Paramètre obligatoire '" + name + "' après un paramètre optionnel");
+                }
+                names.add(name);
+                types.add(type);
+                required++;
+                return this;
+            }
+
+            /**
+             * Ajoute un paramètre optionnel.
+             *
+             * @param name Nom
+             * @param type Type déclaré
+             * @return Ce constructeur
+             */
+            public Builder optional(String name, String type) {
+                names.add(name);
+                types.add(type);
+                return this;
+            }
+
+            /**
+             * Construit la signature.
+             *
+             * @return Signature
+             */
+            public Signature build() {
+                return new Signature(new ArrayList<>(names), new ArrayList<>(types), required, returnType);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.jnane.runtime.builtin;
+
+import java.io.PrintStream;
+
+/**
+ * Sortie des fonctions intégrées qui écrivent (comme {@code print}). Par défaut la sortie
+ * standard ; un hôte qui sert plusieurs requêtes (le démon) la redirige pour le fil courant
+ * afin de renvoyer à chaque client ce que son exécution a écrit.
+ */
+public final class BuiltinOutput {
+    private static final ThreadLocal<PrintStream> CURRENT = new ThreadLocal<>();
+
+    private BuiltinOutput() {
+    }
+
+    /**
+     * Retourne la sortie du fil courant.
+     *
+     * @return Sortie redirigée, ou la sortie standard
+     */
+    public static PrintStream current() {
+        PrintStream out = CURRENT.get();
+        return out != null ? out : System.out;
+    }
+
+    /**
+     * Redirige la sortie du fil courant jusqu'à la fermeture de la redirection.
+     *
+     * @param out Sortie de destination
+     * @return Redirection à fermer pour rétablir la sortie précédente
+     */
+    public static Redirection redirect(PrintStream out) {
+        Redirection redirection = new Redirection(CURRENT.get());
+        CURRENT.set(out);
+        return redirection;
+    }
+
+    /**
+     * Redirection en cours ; sa fermeture rétablit la sortie précédente du fil.
+     */
+    public static final class Redirection implements AutoCloseable {
+        private final PrintStream previous;
+
+        private Redirection(PrintStream previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.jnane.runtime.builtin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des fonctions intégrées, indexé par nom complet. Le registre par défaut est
+ * rempli au premier accès avec les implémentations de {@link BuiltinFunction} visibles
+ * par {@link ServiceLoader} ; d'autres fonctions peuvent être ajoutées par
+ * {@link #register(BuiltinFunction)}.
+ *
+ * <p>Le registre n'est consulté qu'à la liaison d'un site d'appel : l'appel lui-même
+ * passe directement par la fonction liée.</p>
+ */
+public final class BuiltinRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(BuiltinRegistry.class);
+
+    private static volatile BuiltinRegistry defaultRegistry;
+
+    private final Map<String, BuiltinFunction> functions = new ConcurrentHashMap<>();
+
+    /**
+     * Retourne le registre partagé, chargé par {@link ServiceLoader} au premier appel.
+     *
+     * @return Registre par défaut
+     */
+    public static BuiltinRegistry getDefault() {
+        BuiltinRegistry registry = defaultRegistry;
+        if (registry == null) {
+            synchronized (BuiltinRegistry.class) {
+                registry = defaultRegistry;
+                if (registry == null) {
+                    registry = load(BuiltinRegistry.class.getClassLoader());
+                    defaultRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Crée un registre avec les fonctions intégrées visibles par un chargeur de classes.
+     *
+     * @param classLoader Chargeur des implémentations
+     * @return Nouveau registre
+     */
+    public static BuiltinRegistry load(ClassLoader classLoader) {
+        BuiltinRegistry registry = new BuiltinRegistry();
+        for (BuiltinFunction function : ServiceLoader.load(BuiltinFunction.class, classLoader)) {
+            registry.register(function);
+        }
+        logger.info("Fonctions intégrées chargées: {}", registry.functions.keySet());
+        return registry;
+    }
+
+    /**
+     * Enregistre une fonction intégrée, en remplaçant une fonction de même nom.
+     *
+     * @param function Fonction
+     */
+    public void register(BuiltinFunction function) {
+        BuiltinFunction previous = functions.put(function.getName(), function);
+        if (previous != null && previous != function) {
+            logger.warn("Fonction intégrée {} remplacée: {} -> {}", function.getName(),
+                    previous.getClass().getName(), function.getClass().getName());
+        }
+        logger.debug("Fonction intégrée enregistrée: {}{}{}", function.getName(), function.getSignature(),
+                function.isPure() ? " (pure)" : "");
+    }
+
+    /**
+     * Recherche une fonction intégrée.
+     *
+     * @param name Nom complet
+     * @return Fonction, null si aucune fonction intégrée ne porte ce nom
+     */
+    public BuiltinFunction lookup(String name) {
+        return functions.get(name);
+    }
+
+    /**
+     * Retourne les fonctions enregistrées.
+     *
+     * @return Vue non modifiable des fonctions par nom
+     */
+    public Map<String, BuiltinFunction> getFunctions() {
+        return Collections.unmodifiableMap(functions);
+    }
+
+    /**
+     * Range des arguments nommés dans l'ordre de la signature.
+     *
+     * @param function Fonction appelée
+     * @param namedArgs Arguments nommés
+     * @return Arguments positionnels
+     * @throws IllegalArgumentException si un argument est inconnu ou si un argument obligatoire manque
+     */
+    public static Object[] bind(BuiltinFunction function, Map<String, Object> namedArgs) {
+        BuiltinFunction.Signature signature = function.getSignature();
+        Object[] args = new Object[signature.getArity()];
+        for (Map.Entry<String, Object> entry : namedArgs.entrySet()) {
+            int index = signature.indexOf(entry.getKey());
+            if (index < 0) {
+                String errorMsg = "Argument inconnu '" + entry.getKey() + "' pour la fonction '" + function.getName() + "'";
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            args[index] = entry.getValue();
+        }
+        for (int i = 0; i < signature.getRequiredCount(); i++) {
+            if (!namedArgs.containsKey(signature.getParameterNames().get(i))) {
+                String errorMsg = "Argument obligatoire '" + signature.getParameterNames().get(i)
+                        + "' manquant pour la fonction '" + function.getName() + "'";
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+        }
+        return args;
+    }
+
+    /**
+     * Vérifie qu'un nombre d'arguments positionnels convient à la signature.
+     *
+     * @param function Fonction appelée
+     * @param count Nombre d'arguments
+     * @throws IllegalArgumentException si le nombre d'arguments ne convient pas
+     */
+    public static void checkArity(BuiltinFunction function, int count) {
+        BuiltinFunction.Signature signature = function.getSignature();
+        if (count < signature.getRequiredCount() || count > signature.getArity()) {
+            String errorMsg = "Nombre d'arguments invalide pour la fonction '" + function.getName() + "': "
+                    + count + " pour la signature " + signature;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+    }
+}
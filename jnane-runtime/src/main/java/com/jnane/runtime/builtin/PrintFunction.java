@@ -0,0 +1,33 @@
+package com.jnane.runtime.builtin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fonction intégrée {@code print} : affiche un message sur la sortie des fonctions intégrées
+ * ({@link BuiltinOutput}, la sortie standard par défaut).
+ */
+public final class PrintFunction implements BuiltinFunction {
+    private static final Logger logger = LoggerFactory.getLogger(PrintFunction.class);
+
+    private static final Signature SIGNATURE = Signature.returning("null")
+            .param("message", "any")
+            .build();
+
+    @Override
+    public String getName() {
+        return "print";
+    }
+
+    @Override
+    public Signature getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public Object invoke(Object[] args) {
+        BuiltinOutput.current().println(args[0]);
+        logger.info("Fonction print exécutée avec le message: {}", args[0]);
+        return null;
+    }
+}
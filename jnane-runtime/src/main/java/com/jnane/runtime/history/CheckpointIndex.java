@@ -0,0 +1,101 @@
+package com.jnane.runtime.history;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index des points de reprise (instantanés complets) d'une lignée, par version et par
+ * horodatage. Les recherches sont en O(log n) sur des listes à enjambements concurrentes,
+ * lisibles sans verrou pendant que la lignée continue de s'allonger.
+ */
+public final class CheckpointIndex {
+    private final ConcurrentSkipListMap<Long, Checkpoint> byVersion = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Checkpoint> byTimestamp = new ConcurrentSkipListMap<>();
+
+    /**
+     * Enregistre un point de reprise. Les horodatages d'une lignée étant monotones,
+     * un horodatage déjà présent désigne le point de reprise le plus récent.
+     *
+     * @param checkpoint Point de reprise à indexer
+     */
+    void add(Checkpoint checkpoint) {
+        byVersion.put(checkpoint.getVersion(), checkpoint);
+        byTimestamp.put(checkpoint.getTimestamp(), checkpoint);
+    }
+
+    /**
+     * Retourne le dernier point de reprise dont la version est inférieure ou égale à la version donnée.
+     *
+     * @param version Version recherchée
+     * @return Point de reprise, ou null si aucun
+     */
+    public Checkpoint floorByVersion(long version) {
+        Map.Entry<Long, Checkpoint> entry = byVersion.floorEntry(version);
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Retourne le dernier point de reprise horodaté au plus tard à l'instant donné.
+     *
+     * @param timestamp Instant recherché (millisecondes)
+     * @return Point de reprise, ou null si aucun
+     */
+    public Checkpoint floorByTimestamp(long timestamp) {
+        Map.Entry<Long, Checkpoint> entry = byTimestamp.floorEntry(timestamp);
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Retire les points de reprise antérieurs à une version (compaction).
+     *
+     * @param version Première version conservée
+     */
+    void removeBefore(long version) {
+        Map<Long, Checkpoint> dropped = byVersion.headMap(version);
+        for (Checkpoint checkpoint : dropped.values()) {
+            byTimestamp.remove(checkpoint.getTimestamp(), checkpoint);
+        }
+        dropped.clear();
+    }
+
+    /**
+     * Retourne le nombre de points de reprise indexés.
+     *
+     * @return Nombre de points de reprise
+     */
+    public int size() {
+        return byVersion.size();
+    }
+
+    /**
+     * Instantané complet d'une version.
+     */
+    public static final class Checkpoint {
+        private final long version;
+        private final long timestamp;
+        private final Object state;
+
+        Checkpoint(long version, long timestamp, Object state) {
+            this.version = version;
+            this.timestamp = timestamp;
+            this.state = state;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public Object getState() {
+            return state;
+        }
+
+        @Override
+        public String toString() {
+            return "Checkpoint{v" + version + ", t=" + timestamp + "}";
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.jnane.runtime.history;
+
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Entrée du journal d'une lignée : le delta qui produit la version, et
+ * périodiquement un instantané complet de l'état.
+ *
+ * <p>L'instantané est une copie détachée de l'état : l'état lui-même n'est référencé que
+ * faiblement, pour que le registre ne retienne pas les états abandonnés par le programme.</p>
+ */
+public final class HistoryEntry {
+    private final long version;
+    private final long timestamp;
+    private final String description;
+    private final StateDelta delta;
+    private Object snapshot;
+    private WeakReference<Object> state;
+
+    HistoryEntry(long version, long timestamp, String description, StateDelta delta, Object snapshot) {
+        this.version = version;
+        this.timestamp = timestamp;
+        this.description = description;
+        this.delta = delta;
+        this.snapshot = snapshot;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public StateDelta getDelta() {
+        return delta;
+    }
+
+    /**
+     * Retourne l'instantané de cette version, ou null si seul le delta est conservé.
+     *
+     * @return Instantané ou null
+     */
+    public Object getSnapshot() {
+        return snapshot;
+    }
+
+    boolean hasSnapshot() {
+        return snapshot != null;
+    }
+
+    void setSnapshot(Object snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Retourne l'état produit par cette version s'il est encore référencé par le programme.
+     *
+     * @return État, ou null s'il a été collecté ou relu depuis le journal
+     */
+    Object getLiveState() {
+        return state != null ? state.get() : null;
+    }
+
+    void setLiveState(Object state) {
+        this.state = state != null ? new WeakReference<>(state) : null;
+    }
+
+    /**
+     * Convertit l'entrée en enregistrement Jnane pour ns:journal_transformations.
+     *
+     * @return Enregistrement {revision, timestamp, description, chemins}
+     */
+    public PersistentMap<String, Object> toRecord() {
+        PersistentVector.Transient<Object> paths = PersistentVector.empty().asTransient();
+        for (StateDelta.Change change : delta.getChanges()) {
+            paths.conj(change.getPathString());
+        }
+        return PersistentMap.<String, Object>empty().asTransient()
+                .put("revision", version <= Integer.MAX_VALUE ? (Object) (int) version : (Object) version)
+                .put("timestamp", timestamp)
+                .put("description", description)
+                .put("chemins", paths.persistent())
+                .persistent();
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryEntry{v" + version + ", " + description + ", " + delta + "}";
+    }
+}
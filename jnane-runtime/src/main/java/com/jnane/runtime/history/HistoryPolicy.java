@@ -0,0 +1,85 @@
+package com.jnane.runtime.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Politique de conservation de l'historique d'une lignée d'états.
+ * La mémoire d'une lignée est bornée par {@code retention + 2 * snapshotInterval} entrées.
+ */
+public final class HistoryPolicy {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryPolicy.class);
+
+    /** Propriété système : nombre de versions entre deux instantanés complets */
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "jnane.history.snapshotInterval";
+    /** Propriété système : nombre minimal de versions conservées par lignée (0 : illimité) */
+    public static final String RETENTION_PROPERTY = "jnane.history.retention";
+
+    /** Rétention illimitée : aucune compaction */
+    public static final int UNLIMITED_RETENTION = Integer.MAX_VALUE;
+
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 32;
+    private static final int DEFAULT_RETENTION = 4096;
+
+    private final int snapshotInterval;
+    private final int retention;
+
+    /**
+     * Crée une politique de conservation.
+     *
+     * @param snapshotInterval Nombre de versions entre deux instantanés
+     * @param retention Nombre minimal de versions conservées
+     */
+    public HistoryPolicy(int snapshotInterval, int retention) {
+        if (snapshotInterval < 1 || retention < 1) {
+            String errorMsg = "Politique d'historique invalide: intervalle=" + snapshotInterval
+                    + ", rétention=" + retention;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        this.retention = retention;
+        // Un instantané au moins par fenêtre de rétention, pour pouvoir compacter sans reconstruire
+        this.snapshotInterval = Math.min(snapshotInterval, retention);
+    }
+
+    /**
+     * Retourne la politique par défaut, éventuellement ajustée par les propriétés système.
+     *
+     * @return Politique par défaut
+     */
+    public static HistoryPolicy defaults() {
+        int retention = Integer.getInteger(RETENTION_PROPERTY, DEFAULT_RETENTION);
+        return new HistoryPolicy(
+                Integer.getInteger(SNAPSHOT_INTERVAL_PROPERTY, DEFAULT_SNAPSHOT_INTERVAL),
+                retention == 0 ? UNLIMITED_RETENTION : retention);
+    }
+
+    /**
+     * Crée une politique sans compaction, pour les entités dont tout l'historique doit
+     * rester accessible.
+     *
+     * @param snapshotInterval Nombre de versions entre deux instantanés
+     * @return Politique à rétention illimitée
+     */
+    public static HistoryPolicy unlimited(int snapshotInterval) {
+        return new HistoryPolicy(snapshotInterval, UNLIMITED_RETENTION);
+    }
+
+    public boolean isUnlimited() {
+        return retention == UNLIMITED_RETENTION;
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public int getRetention() {
+        return retention;
+    }
+
+    @Override
+    public String toString() {
+        return "HistoryPolicy{intervalle=" + snapshotInterval + ", rétention="
+                + (isUnlimited() ? "illimitée" : String.valueOf(retention)) + "}";
+    }
+}
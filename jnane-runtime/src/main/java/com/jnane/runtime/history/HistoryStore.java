@@ -0,0 +1,285 @@
+package com.jnane.runtime.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Registre des lignées d'états. Chaque état issu d'une transformation enregistrée
+ * est associé (par identité, sans le retenir) à sa lignée et à son numéro de version.
+ * Une transformation appliquée à une version antérieure crée une nouvelle lignée
+ * (bifurcation) plutôt que de réécrire l'historique existant.
+ *
+ * <p>Si un {@link JournalBackend} durable est fourni, chaque entrée y est écrite et les
+ * lignées sont restaurées depuis le journal à la construction du registre.</p>
+ */
+public class HistoryStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryStore.class);
+
+    // Numérotation des registres du processus : un identifiant de lignée n'est unique que
+    // dans son registre, deux registres commençant tous deux à la lignée 1
+    private static final AtomicLong STORE_IDS = new AtomicLong();
+
+    private static final HistoryStore DEFAULT = createDefault();
+
+    private final HistoryPolicy policy;
+    private final LongSupplier clock;
+    private final JournalBackend journal;
+    private final Map<Long, StateHistory> restored = new ConcurrentHashMap<>();
+    private final WeakIdentityMap<Object, VersionRef> versions = new WeakIdentityMap<>();
+    private final AtomicLong lineageIds = new AtomicLong();
+    private final long storeId = STORE_IDS.incrementAndGet();
+
+    /**
+     * Crée un registre avec la politique de conservation donnée.
+     *
+     * @param policy Politique appliquée à chaque lignée
+     */
+    public HistoryStore(HistoryPolicy policy) {
+        this(policy, System::currentTimeMillis);
+    }
+
+    /**
+     * Crée un registre avec une horloge explicite (tests, rejeu).
+     *
+     * @param policy Politique appliquée à chaque lignée
+     * @param clock Horloge en millisecondes
+     */
+    public HistoryStore(HistoryPolicy policy, LongSupplier clock) {
+        this(policy, clock, JournalBackend.none());
+    }
+
+    /**
+     * Crée un registre adossé à un journal durable, et restaure les lignées qu'il contient.
+     *
+     * @param policy Politique appliquée à chaque lignée
+     * @param clock Horloge en millisecondes
+     * @param journal Support de persistance du journal
+     */
+    public HistoryStore(HistoryPolicy policy, LongSupplier clock, JournalBackend journal) {
+        this.policy = policy;
+        this.clock = clock;
+        this.journal = journal;
+        restore(journal.recover());
+        logger.debug("HistoryStore initialisé: {}", policy);
+    }
+
+    private static HistoryStore createDefault() {
+        JournalBackend journal = JournalBackend.fromSystemProperties();
+        HistoryStore store = new HistoryStore(HistoryPolicy.defaults(), System::currentTimeMillis, journal);
+        if (journal != JournalBackend.none()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close, "jnane-history-journal"));
+        }
+        return store;
+    }
+
+    /**
+     * Reconstruit les lignées à partir des enregistrements du journal. Les enregistrements
+     * recopiés par compaction peuvent apparaître hors d'ordre ou en double : ils sont triés
+     * et dédoublonnés par version.
+     *
+     * @param records Enregistrements relus
+     */
+    private void restore(List<JournalRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        Map<Long, TreeMap<Long, JournalRecord>> byLineage = new TreeMap<>();
+        for (JournalRecord record : records) {
+            byLineage.computeIfAbsent(record.getLineageId(), k -> new TreeMap<>())
+                    .put(record.getEntry().getVersion(), record);
+        }
+        long maxId = 0;
+        for (Map.Entry<Long, TreeMap<Long, JournalRecord>> lineageRecords : byLineage.entrySet()) {
+            long id = lineageRecords.getKey();
+            maxId = Math.max(maxId, id);
+            List<HistoryEntry> entries = new ArrayList<>();
+            JournalRecord first = null;
+            for (JournalRecord record : lineageRecords.getValue().values()) {
+                HistoryEntry entry = record.getEntry();
+                if (first == null && !entry.hasSnapshot()) {
+                    // Versions antérieures au premier instantané conservé : inutilisables
+                    continue;
+                }
+                if (first != null && entry.getVersion() != entries.get(entries.size() - 1).getVersion() + 1) {
+                    logger.warn("Lignée {}: version {} manquante dans le journal, versions suivantes ignorées",
+                            id, entries.get(entries.size() - 1).getVersion() + 1);
+                    break;
+                }
+                if (first == null) {
+                    first = record;
+                }
+                entries.add(entry);
+            }
+            if (first == null) {
+                logger.warn("Lignée {}: aucun instantané dans le journal, lignée ignorée", id);
+                continue;
+            }
+            StateHistory lineage = StateHistory.restore(this, id, restored.get(first.getParentLineageId()),
+                    first.getParentLineageId(), first.getParentVersion(), entries);
+            restored.put(id, lineage);
+            versions.put(lineage.getCurrentState(), new VersionRef(lineage, lineage.getCurrentVersion()));
+        }
+        lineageIds.set(maxId);
+        logger.info("{} lignée(s) d'historique restaurée(s) depuis le journal", restored.size());
+    }
+
+    /**
+     * Retourne le registre partagé par les interpréteurs.
+     *
+     * @return Registre par défaut
+     */
+    public static HistoryStore getDefault() {
+        return DEFAULT;
+    }
+
+    public HistoryPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Retourne l'identifiant du registre, unique dans le processus. Avec l'identifiant
+     * de lignée et le numéro de version, il désigne une version sans ambiguïté entre
+     * plusieurs registres.
+     *
+     * @return Identifiant du registre
+     */
+    public long getStoreId() {
+        return storeId;
+    }
+
+    JournalBackend getJournal() {
+        return journal;
+    }
+
+    long currentTimeMillis() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Retourne une lignée restaurée depuis le journal durable.
+     *
+     * @param lineageId Identifiant de la lignée
+     * @return Lignée restaurée, ou null
+     */
+    public StateHistory getRestoredLineage(long lineageId) {
+        return restored.get(lineageId);
+    }
+
+    /**
+     * Retourne les lignées restaurées depuis le journal durable.
+     *
+     * @return Lignées restaurées
+     */
+    public Collection<StateHistory> getRestoredLineages() {
+        return Collections.unmodifiableCollection(restored.values());
+    }
+
+    /**
+     * Retourne la version associée à un état, ou null si l'état n'a pas d'historique.
+     *
+     * @param state État recherché
+     * @return Référence de version ou null
+     */
+    public VersionRef lookup(Object state) {
+        return state == null ? null : versions.get(state);
+    }
+
+    /**
+     * Retourne la version associée à un état, en ouvrant une nouvelle lignée si nécessaire.
+     *
+     * @param state État suivi
+     * @return Référence de version
+     */
+    public VersionRef track(Object state) {
+        VersionRef ref = lookup(state);
+        if (ref == null) {
+            StateHistory lineage = new StateHistory(this, lineageIds.incrementAndGet(), state, 0, null);
+            ref = new VersionRef(lineage, 0);
+            versions.put(state, ref);
+            logger.debug("Nouvelle lignée d'historique {}", lineage.getId());
+        }
+        return ref;
+    }
+
+    /**
+     * Enregistre la transformation d'un état en un autre.
+     *
+     * @param source État de départ
+     * @param result État produit
+     * @param delta Delta connu (mise à jour par lentille), ou null pour le calculer
+     * @param description Description de la transformation
+     * @return Référence de version du résultat
+     */
+    public VersionRef recordTransition(Object source, Object result, StateDelta delta, String description) {
+        VersionRef ref = track(source);
+        StateHistory lineage = ref.getLineage();
+        synchronized (lineage) {
+            if (ref.getVersion() != lineage.getCurrentVersion()) {
+                lineage = new StateHistory(this, lineageIds.incrementAndGet(), source, ref.getVersion(), lineage);
+                logger.debug("Bifurcation de la lignée {} en version {} vers la lignée {}",
+                        ref.getLineage().getId(), ref.getVersion(), lineage.getId());
+            }
+            long version = lineage.append(source, result, delta, description);
+            VersionRef resultRef = new VersionRef(lineage, version);
+            versions.put(result, resultRef);
+            return resultRef;
+        }
+    }
+
+    /**
+     * Retourne le nombre d'états actuellement suivis.
+     *
+     * @return Nombre d'états vivants associés à une lignée
+     */
+    public int trackedStates() {
+        return versions.size();
+    }
+
+    /**
+     * Force l'écriture du journal durable.
+     */
+    public void flush() {
+        journal.flush();
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    /**
+     * Position d'un état dans une lignée.
+     */
+    public static final class VersionRef {
+        private final StateHistory lineage;
+        private final long version;
+
+        VersionRef(StateHistory lineage, long version) {
+            this.lineage = lineage;
+            this.version = version;
+        }
+
+        public StateHistory getLineage() {
+            return lineage;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public String toString() {
+            return "VersionRef{lignée=" + lineage.getId() + ", version=" + version + "}";
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.jnane.runtime.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Support de persistance du journal des transformations. Le registre d'historique y
+ * écrit chaque entrée ajoutée à une lignée et relit le journal au démarrage ; le code
+ * Jnane n'en dépend pas.
+ */
+public interface JournalBackend extends AutoCloseable {
+
+    /** Propriété système : répertoire du journal durable (absent : historique en mémoire seulement) */
+    String DIRECTORY_PROPERTY = "jnane.history.dir";
+    /** Propriété système : taille d'un segment en octets */
+    String SEGMENT_SIZE_PROPERTY = "jnane.history.segmentSize";
+    /** Propriété système : politique de synchronisation disque (always, batch, none) */
+    String FSYNC_PROPERTY = "jnane.history.fsync";
+
+    /**
+     * Ajoute un enregistrement à la fin du journal.
+     *
+     * @param record Enregistrement à écrire
+     */
+    void append(JournalRecord record);
+
+    /**
+     * Signale que les versions d'une lignée antérieures à {@code firstVersion} ne sont plus
+     * nécessaires (compaction par la politique de rétention).
+     *
+     * @param lineageId Identifiant de la lignée
+     * @param firstVersion Première version conservée
+     */
+    void truncate(long lineageId, long firstVersion);
+
+    /**
+     * Relit les enregistrements valides du journal, dans l'ordre d'écriture.
+     *
+     * @return Enregistrements récupérés
+     */
+    List<JournalRecord> recover();
+
+    /**
+     * Force l'écriture sur disque des enregistrements en attente.
+     */
+    void flush();
+
+    @Override
+    void close();
+
+    /**
+     * Retourne un support sans persistance.
+     *
+     * @return Support vide
+     */
+    static JournalBackend none() {
+        return NoJournal.INSTANCE;
+    }
+
+    /**
+     * Construit le support désigné par les propriétés système, ou un support sans
+     * persistance si {@link #DIRECTORY_PROPERTY} n'est pas définie.
+     *
+     * @return Support de journal
+     */
+    static JournalBackend fromSystemProperties() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null || directory.isEmpty()) {
+            return none();
+        }
+        try {
+            return new MappedJournalBackend(Paths.get(directory),
+                    Integer.getInteger(SEGMENT_SIZE_PROPERTY, MappedJournalBackend.DEFAULT_SEGMENT_SIZE),
+                    MappedJournalBackend.FsyncMode.parse(System.getProperty(FSYNC_PROPERTY, "batch")));
+        } catch (IOException e) {
+            Logger logger = LoggerFactory.getLogger(JournalBackend.class);
+            logger.error("Impossible d'ouvrir le journal durable dans {}, historique en mémoire seulement", directory, e);
+            return none();
+        }
+    }
+
+    /**
+     * Support sans persistance (par défaut).
+     */
+    final class NoJournal implements JournalBackend {
+        static final NoJournal INSTANCE = new NoJournal();
+
+        private NoJournal() {
+        }
+
+        @Override
+        public void append(JournalRecord record) {
+        }
+
+        @Override
+        public void truncate(long lineageId, long firstVersion) {
+        }
+
+        @Override
+        public List<JournalRecord> recover() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.jnane.runtime.history;
+
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodage binaire compact des enregistrements du journal : entiers en varint (zigzag
+ * pour les valeurs signées), chaînes UTF-8 préfixées par leur longueur, et valeurs
+ * Jnane étiquetées sur un octet. Une valeur d'un autre type (lambda, lentille) fait
+ * échouer l'écriture : elle ne pourrait pas être relue avec son type d'origine.
+ */
+final class JournalCodec {
+    private static final Logger logger = LoggerFactory.getLogger(JournalCodec.class);
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_FALSE = 1;
+    private static final byte TAG_TRUE = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_DOUBLE = 5;
+    private static final byte TAG_STRING = 6;
+    private static final byte TAG_MAP = 7;
+    private static final byte TAG_LIST = 8;
+    // Valeur textuelle des anciens journaux, dont le type d'origine est perdu
+    private static final byte TAG_OPAQUE = 9;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Encode un enregistrement.
+     *
+     * @param record Enregistrement
+     * @return Charge utile encodée
+     */
+    static byte[] encode(JournalRecord record) {
+        Output out = new Output();
+        HistoryEntry entry = record.getEntry();
+        out.varLong(record.getLineageId());
+        out.varLong(entry.getVersion());
+        out.varLong(record.getParentLineageId() + 1);
+        out.varLong(record.getParentVersion() + 1);
+        out.varLong(entry.getTimestamp());
+        out.string(entry.getDescription());
+        List<StateDelta.Change> changes = entry.getDelta().getChanges();
+        out.varLong(changes.size());
+        for (StateDelta.Change change : changes) {
+            out.write(change.isRemoval() ? 1 : 0);
+            List<Object> path = change.getPath();
+            out.varLong(path.size());
+            for (Object segment : path) {
+                writeValue(out, segment);
+            }
+            if (!change.isRemoval()) {
+                writeValue(out, change.getValue());
+            }
+        }
+        if (entry.hasSnapshot()) {
+            out.write(1);
+            writeValue(out, entry.getSnapshot());
+        } else {
+            out.write(0);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Décode un enregistrement.
+     *
+     * @param in Charge utile positionnée au début de l'enregistrement
+     * @return Enregistrement décodé
+     */
+    static JournalRecord decode(ByteBuffer in) {
+        long lineageId = readVarLong(in);
+        long version = readVarLong(in);
+        long parentLineageId = readVarLong(in) - 1;
+        long parentVersion = readVarLong(in) - 1;
+        long timestamp = readVarLong(in);
+        String description = readString(in);
+        int count = (int) readVarLong(in);
+        List<StateDelta.Change> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean removal = in.get() == 1;
+            Object[] path = new Object[(int) readVarLong(in)];
+            for (int j = 0; j < path.length; j++) {
+                path[j] = readValue(in);
+            }
+            Object value = removal ? null : readValue(in);
+            changes.add(new StateDelta.Change(path, value, removal));
+        }
+        Object snapshot = in.get() == 1 ? readValue(in) : null;
+        HistoryEntry entry = new HistoryEntry(version, timestamp, description, StateDelta.of(changes), snapshot);
+        return new JournalRecord(lineageId, parentLineageId, parentVersion, entry);
+    }
+
+    /**
+     * Lit uniquement la lignée et la version d'un enregistrement (compaction).
+     *
+     * @param in Charge utile positionnée au début de l'enregistrement
+     * @return {lignée, version}
+     */
+    static long[] decodeHeader(ByteBuffer in) {
+        return new long[] {readVarLong(in), readVarLong(in)};
+    }
+
+    private static void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.write(TAG_NULL);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer) {
+            out.write(TAG_INT);
+            out.varLong(zigzag((Integer) value));
+        } else if (value instanceof Long) {
+            out.write(TAG_LONG);
+            out.varLong(zigzag((Long) value));
+        } else if (value instanceof Double || value instanceof Float) {
+            out.write(TAG_DOUBLE);
+            out.fixedLong(Double.doubleToRawLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof String) {
+            out.write(TAG_STRING);
+            out.string((String) value);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.write(TAG_MAP);
+            out.varLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.write(TAG_LIST);
+            out.varLong(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            String errorMsg = "Valeur non journalisable de type " + value.getClass().getName()
+                    + " : seuls les nombres, booléens, chaînes, tables et listes sont conservés par le journal";
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_INT:
+                return (int) unzigzag(readVarLong(in));
+            case TAG_LONG:
+                return unzigzag(readVarLong(in));
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(in.getLong());
+            case TAG_STRING:
+                return readString(in);
+            case TAG_OPAQUE: {
+                String errorMsg = "Valeur textuelle d'un ancien journal, type d'origine inconnu: " + readString(in);
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+            case TAG_MAP: {
+                int size = (int) readVarLong(in);
+                PersistentMap.Transient<Object, Object> map = PersistentMap.empty().asTransient();
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map.persistent();
+            }
+            case TAG_LIST: {
+                int size = (int) readVarLong(in);
+                PersistentVector.Transient<Object> list = PersistentVector.empty().asTransient();
+                for (int i = 0; i < size; i++) {
+                    list.conj(readValue(in));
+                }
+                return list.persistent();
+            }
+            default:
+                String errorMsg = "Étiquette de valeur inconnue dans le journal: " + tag;
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 63) {
+                String errorMsg = "Entier variable invalide dans le journal";
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tampon d'écriture extensible.
+     */
+    private static final class Output {
+        private byte[] bytes = new byte[128];
+        private int length;
+
+        void write(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+        }
+
+        void varLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void fixedLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        void string(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            varLong(encoded.length);
+            ensure(encoded.length);
+            System.arraycopy(encoded, 0, bytes, length, encoded.length);
+            length += encoded.length;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, length + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
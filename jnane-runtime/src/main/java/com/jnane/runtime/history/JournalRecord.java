@@ -0,0 +1,49 @@
+package com.jnane.runtime.history;
+
+/**
+ * Enregistrement du journal durable : une entrée d'historique et la lignée à laquelle
+ * elle appartient. Les informations de bifurcation sont répétées dans chaque
+ * enregistrement pour qu'une lignée reste reconstructible après compaction.
+ */
+public final class JournalRecord {
+    private final long lineageId;
+    private final long parentLineageId;
+    private final long parentVersion;
+    private final HistoryEntry entry;
+
+    /**
+     * Crée un enregistrement.
+     *
+     * @param lineageId Identifiant de la lignée
+     * @param parentLineageId Lignée d'origine, ou -1
+     * @param parentVersion Version de bifurcation, ou -1
+     * @param entry Entrée d'historique
+     */
+    JournalRecord(long lineageId, long parentLineageId, long parentVersion, HistoryEntry entry) {
+        this.lineageId = lineageId;
+        this.parentLineageId = parentLineageId;
+        this.parentVersion = parentVersion;
+        this.entry = entry;
+    }
+
+    public long getLineageId() {
+        return lineageId;
+    }
+
+    public long getParentLineageId() {
+        return parentLineageId;
+    }
+
+    public long getParentVersion() {
+        return parentVersion;
+    }
+
+    public HistoryEntry getEntry() {
+        return entry;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{lignée=" + lineageId + ", " + entry + "}";
+    }
+}
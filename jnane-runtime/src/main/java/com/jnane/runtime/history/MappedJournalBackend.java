@@ -0,0 +1,416 @@
+package com.jnane.runtime.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Journal durable en segments ajout-seul, écrits au travers de {@link FileChannel}s
+ * projetés en mémoire.
+ *
+ * <p>Chaque enregistrement est préfixé par sa longueur et le CRC32 de sa charge utile ;
+ * la longueur est écrite en dernier. Au démarrage, les segments sont relus jusqu'au premier
+ * enregistrement incomplet ou corrompu (écriture interrompue par un arrêt brutal), et la fin
+ * du dernier segment est remise à zéro. Quand un segment est scellé, les segments scellés
+ * dont la majorité des enregistrements a été écartée par la rétention sont compactés :
+ * leurs enregistrements encore utiles sont recopiés en fin de journal, puis le fichier
+ * est supprimé.</p>
+ */
+public final class MappedJournalBackend implements JournalBackend {
+    private static final Logger logger = LoggerFactory.getLogger(MappedJournalBackend.class);
+
+    /** Taille par défaut d'un segment : 16 Mo */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int DEFAULT_BATCH_RECORDS = 256;
+    private static final long DEFAULT_BATCH_MILLIS = 50;
+    private static final int HEADER_SIZE = 8;
+    private static final double COMPACTION_THRESHOLD = 0.5;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * Politique de synchronisation des segments sur disque.
+     */
+    public enum FsyncMode {
+        /** Synchronisation après chaque enregistrement */
+        ALWAYS,
+        /** Synchronisation par lots (nombre d'enregistrements ou délai écoulé) */
+        BATCH,
+        /** Synchronisation laissée au système, et à la fermeture */
+        NONE;
+
+        static FsyncMode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                String errorMsg = "Politique de synchronisation inconnue: " + value + " (always, batch, none)";
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg, e);
+            }
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncMode fsyncMode;
+    private final int batchRecords;
+    private final long batchMillis;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, Long> firstLiveVersions = new HashMap<>();
+    private List<JournalRecord> recovered = new ArrayList<>();
+    private Segment active;
+    private int pendingRecords;
+    private long lastSync = System.currentTimeMillis();
+    private boolean compacting;
+    private boolean closed;
+
+    /**
+     * Ouvre (ou crée) un journal avec une synchronisation par lots par défaut.
+     *
+     * @param directory Répertoire des segments
+     * @param segmentSize Taille d'un segment en octets
+     * @param fsyncMode Politique de synchronisation
+     * @throws IOException En cas d'erreur d'accès aux segments
+     */
+    public MappedJournalBackend(Path directory, int segmentSize, FsyncMode fsyncMode) throws IOException {
+        this(directory, segmentSize, fsyncMode, DEFAULT_BATCH_RECORDS, DEFAULT_BATCH_MILLIS);
+    }
+
+    /**
+     * Ouvre (ou crée) un journal.
+     *
+     * @param directory Répertoire des segments
+     * @param segmentSize Taille d'un segment en octets
+     * @param fsyncMode Politique de synchronisation
+     * @param batchRecords Nombre d'enregistrements par lot (mode BATCH)
+     * @param batchMillis Délai maximal entre deux synchronisations (mode BATCH)
+     * @throws IOException En cas d'erreur d'accès aux segments
+     */
+    public MappedJournalBackend(Path directory, int segmentSize, FsyncMode fsyncMode,
+                                int batchRecords, long batchMillis) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            String errorMsg = "Taille de segment invalide: " + segmentSize;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncMode = fsyncMode;
+        this.batchRecords = batchRecords;
+        this.batchMillis = batchMillis;
+        Files.createDirectories(directory);
+        open();
+        logger.info("Journal durable ouvert dans {} ({} segment(s), {} enregistrement(s) récupéré(s), fsync={})",
+                directory, segments.size(), recovered.size(), fsyncMode);
+    }
+
+    private void open() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+        for (int i = 0; i < paths.size(); i++) {
+            Segment segment = Segment.open(paths.get(i));
+            scan(segment, i == paths.size() - 1);
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(segmentPath(1), 1, segmentSize));
+        }
+        active = segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Relit un segment jusqu'au premier enregistrement invalide.
+     *
+     * @param segment Segment à relire
+     * @param last true pour le segment actif, dont la fin invalide est effacée
+     */
+    private void scan(Segment segment, boolean last) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + HEADER_SIZE + length > buffer.capacity()
+                    || crc(buffer, position + HEADER_SIZE, length) != buffer.getInt(position + 4)) {
+                logger.warn("Enregistrement incomplet ou corrompu dans {} à la position {}, fin du segment ignorée",
+                        segment.path.getFileName(), position);
+                break;
+            }
+            ByteBuffer payload = slice(buffer, position + HEADER_SIZE, length);
+            try {
+                recovered.add(JournalCodec.decode(payload));
+            } catch (RuntimeException e) {
+                logger.warn("Enregistrement illisible dans {} à la position {}", segment.path.getFileName(), position, e);
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        segment.position = position;
+        if (last) {
+            // Tout octet non nul après la fin valide provient d'une écriture interrompue
+            int end = buffer.capacity() - 1;
+            while (end >= position && buffer.get(end) == 0) {
+                end--;
+            }
+            for (int i = position; i <= end; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            if (end >= position) {
+                buffer.force();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void append(JournalRecord record) {
+        checkOpen();
+        byte[] payload = JournalCodec.encode(record);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        writeRecord(payload, (int) crc.getValue());
+        pendingRecords++;
+        syncIfNeeded();
+    }
+
+    private void writeRecord(byte[] payload, int checksum) {
+        int needed = HEADER_SIZE + payload.length;
+        if (active.position + needed > active.buffer.capacity()) {
+            roll(needed);
+        }
+        int position = active.position;
+        ByteBuffer view = active.buffer.duplicate();
+        view.position(position + HEADER_SIZE);
+        view.put(payload);
+        active.buffer.putInt(position + 4, checksum);
+        // La longueur est écrite en dernier : un enregistrement sans longueur est ignoré à la relecture
+        active.buffer.putInt(position, payload.length);
+        active.position = position + needed;
+    }
+
+    private void roll(int needed) {
+        try {
+            active.buffer.force();
+            long id = active.id + 1;
+            active = Segment.create(segmentPath(id), id, Math.max(segmentSize, needed));
+            segments.add(active);
+            pendingRecords = 0;
+            logger.debug("Nouveau segment de journal: {}", active.path.getFileName());
+        } catch (IOException e) {
+            String errorMsg = "Impossible de créer un segment de journal dans " + directory;
+            logger.error(errorMsg, e);
+            throw new UncheckedIOException(errorMsg, e);
+        }
+        if (!compacting) {
+            compact();
+        }
+    }
+
+    private void syncIfNeeded() {
+        switch (fsyncMode) {
+            case ALWAYS:
+                sync();
+                break;
+            case BATCH:
+                if (pendingRecords >= batchRecords || System.currentTimeMillis() - lastSync >= batchMillis) {
+                    sync();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void sync() {
+        active.buffer.force();
+        pendingRecords = 0;
+        lastSync = System.currentTimeMillis();
+    }
+
+    @Override
+    public synchronized void truncate(long lineageId, long firstVersion) {
+        firstLiveVersions.merge(lineageId, firstVersion, Math::max);
+    }
+
+    /**
+     * Compacte les segments scellés : suppression des segments sans enregistrement utile,
+     * recopie en fin de journal des enregistrements utiles des segments majoritairement
+     * obsolètes.
+     */
+    public synchronized void compact() {
+        checkOpen();
+        compacting = true;
+        try {
+            List<Segment> sealed = new ArrayList<>(segments.subList(0, segments.size() - 1));
+            for (Segment segment : sealed) {
+                compactSegment(segment);
+            }
+        } finally {
+            compacting = false;
+        }
+    }
+
+    private void compactSegment(Segment segment) {
+        List<int[]> live = new ArrayList<>();
+        long liveBytes = 0;
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.position) {
+            int length = segment.buffer.getInt(position);
+            long[] header = JournalCodec.decodeHeader(slice(segment.buffer, position + HEADER_SIZE, length));
+            if (header[1] >= firstLiveVersions.getOrDefault(header[0], 0L)) {
+                live.add(new int[] {position, length});
+                liveBytes += HEADER_SIZE + length;
+            }
+            position += HEADER_SIZE + length;
+        }
+        if (segment.position > 0 && liveBytes >= segment.position * COMPACTION_THRESHOLD) {
+            return;
+        }
+        for (int[] record : live) {
+            byte[] payload = new byte[record[1]];
+            ByteBuffer view = segment.buffer.duplicate();
+            view.position(record[0] + HEADER_SIZE);
+            view.get(payload);
+            writeRecord(payload, segment.buffer.getInt(record[0] + 4));
+        }
+        // Les recopies doivent être durables avant la suppression de l'original
+        active.buffer.force();
+        segments.remove(segment);
+        segment.delete();
+        logger.debug("Segment {} compacté: {} enregistrement(s) recopié(s)", segment.path.getFileName(), live.size());
+    }
+
+    @Override
+    public synchronized List<JournalRecord> recover() {
+        List<JournalRecord> records = recovered;
+        recovered = new ArrayList<>();
+        return records;
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (!closed) {
+            sync();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        sync();
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        closed = true;
+        logger.info("Journal durable fermé: {}", directory);
+    }
+
+    /**
+     * Retourne le nombre de segments du journal.
+     *
+     * @return Nombre de segments
+     */
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            String errorMsg = "Journal durable fermé: " + directory;
+            logger.error(errorMsg);
+            throw new IllegalStateException(errorMsg);
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.limit(offset + length);
+        return view.slice();
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(slice(buffer, offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Segment du journal : fichier projeté en mémoire et position d'écriture.
+     */
+    private static final class Segment {
+        final Path path;
+        final long id;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position;
+
+        private Segment(Path path, long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path) throws IOException {
+            String name = path.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        static Segment create(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                logger.error("Erreur lors de la fermeture du segment {}", path, e);
+            }
+        }
+
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.error("Impossible de supprimer le segment {}", path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.jnane.runtime.history;
+
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.value.PrimitiveVector;
+import com.jnane.runtime.value.ShapedRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Différence structurelle entre deux versions d'un état : liste de chemins modifiés
+ * avec leur nouvelle valeur. Les valeurs sont des structures persistantes, un delta
+ * ne retient donc que les nœuds réellement nouveaux.
+ */
+public final class StateDelta {
+    private static final Logger logger = LoggerFactory.getLogger(StateDelta.class);
+
+    private static final StateDelta EMPTY = new StateDelta(Collections.emptyList());
+
+    private final List<Change> changes;
+
+    private StateDelta(List<Change> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Retourne le delta vide.
+     *
+     * @return Delta sans modification
+     */
+    public static StateDelta empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Crée un delta d'un seul chemin, typiquement issu d'une mise à jour par lentille.
+     *
+     * @param path Chemin modifié (noms de champs et indices)
+     * @param value Nouvelle valeur au chemin
+     * @return Delta correspondant
+     */
+    public static StateDelta ofPath(List<?> path, Object value) {
+        return new StateDelta(Collections.singletonList(new Change(path.toArray(), value, false)));
+    }
+
+    static StateDelta of(List<Change> changes) {
+        return changes.isEmpty() ? EMPTY : new StateDelta(Collections.unmodifiableList(changes));
+    }
+
+    /**
+     * Calcule le delta entre deux versions. Les tables persistantes sont comparées
+     * récursivement en ignorant les sous-arbres partagés ; toute autre valeur est
+     * remplacée en bloc.
+     *
+     * @param oldState Version précédente
+     * @param newState Nouvelle version
+     * @return Delta qui transforme oldState en newState
+     */
+    public static StateDelta diff(Object oldState, Object newState) {
+        if (oldState == newState) {
+            return EMPTY;
+        }
+        List<Change> changes = new ArrayList<>();
+        diffInto(oldState, newState, new ArrayList<>(), changes);
+        return changes.isEmpty() ? EMPTY : new StateDelta(Collections.unmodifiableList(changes));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void diffInto(Object oldValue, Object newValue, List<Object> prefix, List<Change> changes) {
+        PersistentMap.DiffListener<Object, Object> listener = new PersistentMap.DiffListener<Object, Object>() {
+            @Override
+            public void added(Object key, Object value) {
+                changes.add(new Change(append(prefix, key), value, false));
+            }
+
+            @Override
+            public void removed(Object key, Object value) {
+                changes.add(new Change(append(prefix, key), null, true));
+            }
+
+            @Override
+            public void changed(Object key, Object before, Object after) {
+                prefix.add(key);
+                diffInto(before, after, prefix, changes);
+                prefix.remove(prefix.size() - 1);
+            }
+        };
+        if (oldValue instanceof PersistentMap && newValue instanceof PersistentMap) {
+            ((PersistentMap<Object, Object>) oldValue).diff((PersistentMap<Object, Object>) newValue, listener);
+        } else if (oldValue instanceof ShapedRecord && newValue instanceof ShapedRecord) {
+            ((ShapedRecord) oldValue).diff((ShapedRecord) newValue,
+                    (PersistentMap.DiffListener<String, Object>) (PersistentMap.DiffListener<?, ?>) listener);
+        } else {
+            // Un remplacement de la racine ne doit pas retenir le nouvel état lui-même
+            changes.add(new Change(prefix.toArray(), prefix.isEmpty() ? detach(newValue) : newValue, false));
+        }
+    }
+
+    /**
+     * Copie un état pour un instantané ou un remplacement en bloc, sans le retenir : les
+     * valeurs persistantes partagent leur structure avec la copie, seule la racine est
+     * nouvelle. Un état d'un autre type, immuable et sans identité utile, est conservé tel quel.
+     */
+    static Object detach(Object state) {
+        if (state instanceof PersistentMap) {
+            PersistentMap<?, ?> map = (PersistentMap<?, ?>) state;
+            return map.isEmpty() ? map : map.asTransient().persistent();
+        }
+        if (state instanceof PersistentVector) {
+            PersistentVector<?> vector = (PersistentVector<?>) state;
+            return vector.isEmpty() ? vector : vector.asTransient().persistent();
+        }
+        if (state instanceof ShapedRecord) {
+            ShapedRecord.Builder builder = ShapedRecord.builder();
+            for (Map.Entry<String, Object> field : ((ShapedRecord) state).entrySet()) {
+                builder.put(field.getKey(), field.getValue());
+            }
+            return builder.build();
+        }
+        if (state instanceof PrimitiveVector) {
+            return ((PrimitiveVector) state).filter(element -> true);
+        }
+        if (state instanceof Map) {
+            return new LinkedHashMap<>((Map<?, ?>) state);
+        }
+        if (state instanceof List) {
+            return new ArrayList<>((List<?>) state);
+        }
+        return state;
+    }
+
+    private static Object[] append(List<Object> prefix, Object key) {
+        Object[] path = prefix.toArray(new Object[prefix.size() + 1]);
+        path[prefix.size()] = key;
+        return path;
+    }
+
+    /**
+     * Retourne les modifications de ce delta.
+     *
+     * @return Modifications, dans l'ordre d'application
+     */
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Indique si le delta ne modifie rien.
+     *
+     * @return true si le delta est vide
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Indique si le delta remplace l'état entier plutôt que certains de ses champs.
+     *
+     * @return true si une modification porte sur le chemin vide
+     */
+    public boolean replacesRoot() {
+        for (Change change : changes) {
+            if (change.path.length == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retourne les clés de premier niveau touchées par le delta.
+     *
+     * @return Clés modifiées, ajoutées ou supprimées
+     */
+    public Set<Object> getTouchedKeys() {
+        Set<Object> keys = new HashSet<>();
+        for (Change change : changes) {
+            if (change.path.length > 0) {
+                keys.add(change.path[0]);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Applique le delta à un état et retourne le nouvel état (copie de chemin).
+     *
+     * @param state État de départ
+     * @return État modifié
+     */
+    public Object applyTo(Object state) {
+        Object result = state;
+        for (Change change : changes) {
+            result = applyChange(result, change.path, 0, change);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object applyChange(Object target, Object[] path, int depth, Change change) {
+        if (depth == path.length) {
+            return change.value;
+        }
+        Object segment = path[depth];
+        boolean last = depth == path.length - 1;
+        if (target instanceof List && segment instanceof Integer) {
+            PersistentVector<Object> vector = target instanceof PersistentVector
+                    ? (PersistentVector<Object>) target : PersistentVector.from((List<Object>) target);
+            int index = (Integer) segment;
+            return vector.assoc(index, applyChange(vector.get(index), path, depth + 1, change));
+        }
+        if (target instanceof ShapedRecord && segment instanceof String) {
+            ShapedRecord record = (ShapedRecord) target;
+            if (last && change.removal) {
+                return record.dissoc(segment);
+            }
+            return record.assoc((String) segment, applyChange(record.get(segment), path, depth + 1, change));
+        }
+        if (target instanceof Map || target == null) {
+            PersistentMap<Object, Object> map = target instanceof PersistentMap
+                    ? (PersistentMap<Object, Object>) target
+                    : target == null ? PersistentMap.empty() : PersistentMap.from((Map<Object, Object>) target);
+            if (last && change.removal) {
+                return map.dissoc(segment);
+            }
+            return map.assoc(segment, applyChange(map.get(segment), path, depth + 1, change));
+        }
+        String errorMsg = "Delta inapplicable au chemin " + change.getPathString() + " sur: " + target;
+        logger.error(errorMsg);
+        throw new IllegalStateException(errorMsg);
+    }
+
+    @Override
+    public String toString() {
+        return "StateDelta" + changes;
+    }
+
+    /**
+     * Modification d'un chemin : nouvelle valeur ou suppression de la clé.
+     */
+    public static final class Change {
+        private final Object[] path;
+        private final Object value;
+        private final boolean removal;
+
+        Change(Object[] path, Object value, boolean removal) {
+            this.path = path;
+            this.value = value;
+            this.removal = removal;
+        }
+
+        public List<Object> getPath() {
+            return Collections.unmodifiableList(Arrays.asList(path));
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public boolean isRemoval() {
+            return removal;
+        }
+
+        /**
+         * Retourne le chemin sous forme pointée (ex: "contact.adresse.ville").
+         *
+         * @return Chemin pointé, vide pour l'état entier
+         */
+        public String getPathString() {
+            StringBuilder builder = new StringBuilder();
+            for (Object segment : path) {
+                if (builder.length() > 0) {
+                    builder.append('.');
+                }
+                builder.append(segment);
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public String toString() {
+            return (removal ? "-" : "") + getPathString() + (removal ? "" : "=" + value);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.jnane.runtime.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Historique d'une lignée d'états : journal circulaire d'entrées (delta + instantané
+ * périodique). L'ajout est en O(1) amorti ; la reconstruction d'une version localise
+ * l'instantané précédent dans le {@link CheckpointIndex} en O(log n) puis applique au
+ * plus {@code snapshotInterval} deltas. Les recherches par horodatage passent par le
+ * {@link TemporalIndex} des intervalles de validité.
+ *
+ * <p>La lignée ne retient pas les états qu'elle enregistre : chacun n'est référencé que
+ * faiblement, et les instantanés sont des copies détachées qui partagent leur structure
+ * avec l'état. Le registre, dont les clés sont ces états, peut ainsi oublier une lignée dont
+ * le programme n'utilise plus aucun état. Une version dont l'état a été collecté est
+ * reconstruite depuis l'instantané qui la précède.</p>
+ */
+public final class StateHistory {
+    private static final Logger logger = LoggerFactory.getLogger(StateHistory.class);
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final long id;
+    private final HistoryStore store;
+    private final HistoryPolicy policy;
+    private final StateHistory parent;
+    private final long parentId;
+    private final long parentVersion;
+
+    // Tampon circulaire des entrées conservées, de la plus ancienne à la plus récente
+    private HistoryEntry[] buffer = new HistoryEntry[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    private final CheckpointIndex checkpoints = new CheckpointIndex();
+    private final TemporalIndex temporal = new TemporalIndex();
+
+    // État courant d'une lignée relue depuis le journal, qu'aucun programme ne détient encore
+    private Object restoredState;
+    private long lastTimestamp;
+
+    /**
+     * Crée une lignée à partir d'un état initial.
+     *
+     * @param store Registre propriétaire (politique, horloge, journal durable)
+     * @param id Identifiant de la lignée
+     * @param initialState État initial (version {@code firstVersion})
+     * @param firstVersion Numéro de la première version
+     * @param parent Lignée d'origine en cas de bifurcation, ou null
+     */
+    StateHistory(HistoryStore store, long id, Object initialState, long firstVersion, StateHistory parent) {
+        this(store, id, parent, parent != null ? parent.getId() : -1, parent != null ? firstVersion : -1);
+        this.lastTimestamp = store.currentTimeMillis();
+        HistoryEntry entry = new HistoryEntry(firstVersion, lastTimestamp, parent != null ? "Bifurcation" : "Création",
+                StateDelta.empty(), StateDelta.detach(initialState));
+        entry.setLiveState(initialState);
+        add(entry, true);
+    }
+
+    private StateHistory(HistoryStore store, long id, StateHistory parent, long parentId, long parentVersion) {
+        this.store = store;
+        this.id = id;
+        this.policy = store.getPolicy();
+        this.parent = parent;
+        this.parentId = parentId;
+        this.parentVersion = parentVersion;
+    }
+
+    /**
+     * Reconstruit une lignée à partir des entrées relues dans le journal durable.
+     *
+     * @param store Registre propriétaire
+     * @param id Identifiant de la lignée
+     * @param parent Lignée d'origine si elle a été restaurée, ou null
+     * @param parentId Identifiant de la lignée d'origine, ou -1
+     * @param parentVersion Version de bifurcation, ou -1
+     * @param entries Entrées consécutives, la première portant un instantané
+     * @return Lignée restaurée
+     */
+    static StateHistory restore(HistoryStore store, long id, StateHistory parent, long parentId, long parentVersion,
+                                List<HistoryEntry> entries) {
+        StateHistory lineage = new StateHistory(store, id, parent, parentId, parentVersion);
+        Object current = null;
+        for (HistoryEntry entry : entries) {
+            current = entry.hasSnapshot() || lineage.size == 0
+                    ? entry.getSnapshot() : entry.getDelta().applyTo(current);
+            lineage.lastTimestamp = entry.getTimestamp();
+            lineage.add(entry, false);
+        }
+        lineage.restoredState = current;
+        lineage.entryAt(lineage.size - 1).setLiveState(current);
+        return lineage;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Retourne la lignée d'origine si celle-ci est issue d'une bifurcation.
+     *
+     * @return Lignée parente ou null
+     */
+    public StateHistory getParent() {
+        return parent;
+    }
+
+    /**
+     * Retourne l'identifiant de la lignée d'origine, même si celle-ci n'est plus en mémoire.
+     *
+     * @return Identifiant de la lignée parente, ou -1 pour une lignée racine
+     */
+    public long getParentId() {
+        return parentId;
+    }
+
+    /**
+     * Retourne la version de la lignée parente à partir de laquelle cette lignée a bifurqué.
+     *
+     * @return Version d'origine, ou -1 pour une lignée racine
+     */
+    public long getParentVersion() {
+        return parentVersion;
+    }
+
+    public synchronized long getFirstVersion() {
+        return entryAt(0).getVersion();
+    }
+
+    public synchronized long getCurrentVersion() {
+        return entryAt(size - 1).getVersion();
+    }
+
+    public synchronized Object getCurrentState() {
+        return stateAt(getCurrentVersion());
+    }
+
+    /**
+     * Retourne l'index des points de reprise de la lignée.
+     *
+     * @return Index des instantanés
+     */
+    public CheckpointIndex getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Retourne le nombre d'entrées conservées.
+     *
+     * @return Taille du journal
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Ajoute une version à la lignée.
+     *
+     * @param newState Nouvel état
+     * @param delta Delta depuis l'état courant, ou null pour le calculer
+     * @param description Description de la transformation
+     * @return Numéro de la nouvelle version
+     */
+    public synchronized long append(Object newState, StateDelta delta, String description) {
+        return append(delta != null ? null : getCurrentState(), newState, delta, description);
+    }
+
+    /**
+     * Ajoute une version à la lignée, à partir de son état courant déjà connu de l'appelant.
+     *
+     * @param currentState État courant, utilisé si le delta doit être calculé
+     * @param newState Nouvel état
+     * @param delta Delta depuis l'état courant, ou null pour le calculer
+     * @param description Description de la transformation
+     * @return Numéro de la nouvelle version
+     */
+    synchronized long append(Object currentState, Object newState, StateDelta delta, String description) {
+        StateDelta effective = delta != null ? delta : StateDelta.diff(currentState, newState);
+        long version = getCurrentVersion() + 1;
+        // Horodatage monotone par lignée, pour l'indexation temporelle
+        long timestamp = Math.max(store.currentTimeMillis(), lastTimestamp);
+        Object snapshot = version % policy.getSnapshotInterval() == 0 ? StateDelta.detach(newState) : null;
+        HistoryEntry entry = new HistoryEntry(version, timestamp, description, effective, snapshot);
+        entry.setLiveState(newState);
+        add(entry, true);
+        lastTimestamp = timestamp;
+        return version;
+    }
+
+    private void add(HistoryEntry entry, boolean journal) {
+        // Journalisée d'abord : une entrée que le journal refuse n'est pas ajoutée
+        if (journal) {
+            store.getJournal().append(new JournalRecord(id, parentId, parentVersion, entry));
+        }
+        push(entry);
+        temporal.append(entry.getTimestamp());
+        if (entry.hasSnapshot()) {
+            checkpoints.add(new CheckpointIndex.Checkpoint(entry.getVersion(), entry.getTimestamp(), entry.getSnapshot()));
+            compact();
+        }
+    }
+
+    /**
+     * Reconstruit l'état d'une version conservée.
+     *
+     * @param version Version demandée
+     * @return État à cette version
+     */
+    public synchronized Object stateAt(long version) {
+        int index = indexOf(version);
+        Object live = entryAt(index).getLiveState();
+        if (live != null) {
+            return live;
+        }
+        CheckpointIndex.Checkpoint checkpoint = checkpoints.floorByVersion(version);
+        int base = (int) (checkpoint.getVersion() - entryAt(0).getVersion());
+        Object state = checkpoint.getState();
+        for (int i = base + 1; i <= index; i++) {
+            state = next(entryAt(i), state);
+        }
+        return state;
+    }
+
+    /**
+     * Retourne la dernière version produite au plus tard à un instant donné.
+     *
+     * @param timestamp Instant (millisecondes depuis l'époque)
+     * @return Numéro de version
+     */
+    public synchronized long versionAt(long timestamp) {
+        int index = temporal.floorIndex(timestamp);
+        if (index < 0) {
+            String errorMsg = "Instant " + timestamp + " antérieur à l'historique conservé de la lignée " + id;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        return entryAt(index).getVersion();
+    }
+
+    /**
+     * Reconstruit l'état de la lignée tel qu'il était à un instant donné.
+     *
+     * @param timestamp Instant (millisecondes depuis l'époque)
+     * @return État à cet instant
+     */
+    public synchronized Object stateAtTime(long timestamp) {
+        return stateAt(versionAt(timestamp));
+    }
+
+    /**
+     * Retourne les versions valides sur une période, avec leur intervalle de validité et
+     * leur état. La première version est localisée en O(log n) ; les suivantes sont
+     * reconstruites en un seul passage.
+     *
+     * @param from Début de la période (inclus)
+     * @param to Fin de la période (incluse)
+     * @return Versions valides sur la période, de la plus ancienne à la plus récente
+     */
+    public synchronized List<TemporalIndex.Interval> validBetween(long from, long to) {
+        int[] range = temporal.rangeIndices(from, to);
+        if (range.length == 0) {
+            return Collections.emptyList();
+        }
+        List<TemporalIndex.Interval> intervals = new ArrayList<>(range[1] - range[0] + 1);
+        Object state = stateAt(entryAt(range[0]).getVersion());
+        for (int i = range[0]; i <= range[1]; i++) {
+            HistoryEntry entry = entryAt(i);
+            if (i > range[0]) {
+                state = next(entry, state);
+            }
+            long end = i + 1 < size ? temporal.startAt(i + 1) : Long.MAX_VALUE;
+            intervals.add(new TemporalIndex.Interval(entry.getVersion(), temporal.startAt(i), end, state));
+        }
+        return intervals;
+    }
+
+    /**
+     * Retourne l'index temporel de la lignée.
+     *
+     * @return Index des débuts de validité
+     */
+    public TemporalIndex getTemporalIndex() {
+        return temporal;
+    }
+
+    /**
+     * Reconstruit en un seul passage tous les états conservés jusqu'à une version.
+     *
+     * @param upToVersion Dernière version incluse
+     * @return États, du plus ancien au plus récent
+     */
+    public synchronized List<Object> statesUpTo(long upToVersion) {
+        int last = indexOf(upToVersion);
+        List<Object> states = new ArrayList<>(last + 1);
+        Object state = entryAt(0).getLiveState();
+        if (state == null) {
+            state = entryAt(0).getSnapshot();
+        }
+        states.add(state);
+        for (int i = 1; i <= last; i++) {
+            state = next(entryAt(i), state);
+            states.add(state);
+        }
+        return states;
+    }
+
+    /**
+     * Retourne l'entrée d'une version si elle est encore conservée.
+     *
+     * @param version Version demandée
+     * @return Entrée, ou null si la version est hors de l'historique conservé
+     */
+    public synchronized HistoryEntry getEntry(long version) {
+        long offset = version - entryAt(0).getVersion();
+        return offset < 0 || offset >= size ? null : entryAt((int) offset);
+    }
+
+    /**
+     * Retourne les entrées conservées jusqu'à une version.
+     *
+     * @param upToVersion Dernière version incluse
+     * @return Entrées, de la plus ancienne à la plus récente
+     */
+    public synchronized List<HistoryEntry> entriesUpTo(long upToVersion) {
+        int last = indexOf(upToVersion);
+        List<HistoryEntry> entries = new ArrayList<>(last + 1);
+        for (int i = 0; i <= last; i++) {
+            entries.add(entryAt(i));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * État d'une entrée : l'état d'origine s'il est encore vivant, sinon son instantané ou le
+     * delta appliqué à l'état de la version précédente.
+     */
+    private static Object next(HistoryEntry entry, Object previous) {
+        Object live = entry.getLiveState();
+        if (live != null) {
+            return live;
+        }
+        return entry.hasSnapshot() ? entry.getSnapshot() : entry.getDelta().applyTo(previous);
+    }
+
+    private int indexOf(long version) {
+        long first = entryAt(0).getVersion();
+        long offset = version - first;
+        if (offset < 0 || offset >= size) {
+            String errorMsg = "Version " + version + " hors de l'historique conservé de la lignée " + id
+                    + " [" + first + ", " + (first + size - 1) + "]";
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        return (int) offset;
+    }
+
+    private HistoryEntry entryAt(int index) {
+        return buffer[(head + index) & (buffer.length - 1)];
+    }
+
+    private void push(HistoryEntry entry) {
+        if (size == buffer.length) {
+            if (buffer.length == MAXIMUM_CAPACITY) {
+                String errorMsg = "Capacité maximale de l'historique atteinte pour la lignée " + id;
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+            HistoryEntry[] grown = new HistoryEntry[buffer.length << 1];
+            for (int i = 0; i < size; i++) {
+                grown[i] = entryAt(i);
+            }
+            buffer = grown;
+            head = 0;
+        }
+        buffer[(head + size) & (buffer.length - 1)] = entry;
+        size++;
+    }
+
+    /**
+     * Supprime les entrées les plus anciennes par blocs entiers, d'un instantané au suivant,
+     * tant qu'il reste au moins {@code retention} versions. La tête du journal porte donc
+     * toujours un instantané. Appelée uniquement lors de l'ajout d'un instantané, ce qui
+     * amortit le parcours des blocs.
+     */
+    private void compact() {
+        int retention = policy.getRetention();
+        int dropped = 0;
+        while (size > retention) {
+            int next = 1;
+            while (next < size && !entryAt(next).hasSnapshot()) {
+                next++;
+            }
+            if (size - next < retention) {
+                break;
+            }
+            for (int i = 0; i < next; i++) {
+                buffer[(head + i) & (buffer.length - 1)] = null;
+            }
+            head = (head + next) & (buffer.length - 1);
+            size -= next;
+            dropped += next;
+        }
+        if (dropped > 0) {
+            checkpoints.removeBefore(entryAt(0).getVersion());
+            temporal.dropFirst(dropped);
+            store.getJournal().truncate(id, entryAt(0).getVersion());
+            logger.debug("Lignée {}: {} entrées compactées, {} conservées", id, dropped, size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StateHistory{id=" + id + ", versions=" + size + "}";
+    }
+}
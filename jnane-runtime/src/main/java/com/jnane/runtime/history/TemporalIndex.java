@@ -0,0 +1,152 @@
+package com.jnane.runtime.history;
+
+import java.util.Arrays;
+
+/**
+ * Index temporel d'une lignée : tableau trié des instants de début de validité de
+ * chaque version conservée. La version {@code v} est valide sur
+ * {@code [début(v), début(v + 1)[}, la version courante jusqu'à nouvel ordre. Les
+ * horodatages d'une lignée étant monotones, les intervalles sont disjoints et
+ * contigus : une recherche dichotomique localise la version valide à un instant en
+ * O(log n) et les k versions valides sur une période en O(log n + k).
+ *
+ * <p>Les débuts sont stockés dans un tableau de {@code long} contigu, plus compact et
+ * plus rapide à parcourir que les entrées elles-mêmes. L'ajout est en O(1) amorti ;
+ * la compaction retire les plus anciens en tête.</p>
+ */
+public final class TemporalIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    /**
+     * Ajoute le début de validité de la version suivante.
+     *
+     * @param timestamp Instant de début (supérieur ou égal au précédent)
+     */
+    void append(long timestamp) {
+        if (head + size == starts.length) {
+            if (head > 0 && size <= starts.length / 2) {
+                System.arraycopy(starts, head, starts, 0, size);
+            } else {
+                starts = Arrays.copyOfRange(starts, head, head + Math.max(INITIAL_CAPACITY, size << 1));
+            }
+            head = 0;
+        }
+        starts[head + size] = timestamp;
+        size++;
+    }
+
+    /**
+     * Retire les plus anciennes versions (compaction).
+     *
+     * @param count Nombre de versions retirées
+     */
+    void dropFirst(int count) {
+        int dropped = Math.min(count, size);
+        head += dropped;
+        size -= dropped;
+    }
+
+    /**
+     * Retourne le nombre de versions indexées.
+     *
+     * @return Nombre de versions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retourne le début de validité de la i-ème version conservée.
+     *
+     * @param index Position, 0 pour la plus ancienne
+     * @return Instant de début
+     */
+    public long startAt(int index) {
+        return starts[head + index];
+    }
+
+    /**
+     * Retourne la position de la version valide à un instant : la dernière dont le
+     * début est inférieur ou égal à l'instant.
+     *
+     * @param timestamp Instant recherché
+     * @return Position, ou -1 si l'instant précède la plus ancienne version conservée
+     */
+    public int floorIndex(long timestamp) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (starts[head + middle] <= timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Retourne les positions des versions dont l'intervalle de validité rencontre une période.
+     *
+     * @param from Début de la période (inclus)
+     * @param to Fin de la période (incluse)
+     * @return {première, dernière} position, vide si aucune version n'est valide sur la période
+     */
+    public int[] rangeIndices(long from, long to) {
+        int last = floorIndex(to);
+        int first = Math.max(0, floorIndex(from));
+        return last < first || from > to ? new int[0] : new int[] {first, last};
+    }
+
+    /**
+     * Intervalle de validité d'une version.
+     */
+    public static final class Interval {
+        private final long version;
+        private final long start;
+        private final long end;
+        private final Object state;
+
+        Interval(long version, long start, long end, Object state) {
+            this.version = version;
+            this.start = start;
+            this.end = end;
+            this.state = state;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * Retourne la fin de validité (exclue).
+         *
+         * @return Instant de fin, ou {@link Long#MAX_VALUE} pour la version courante
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        public Object getState() {
+            return state;
+        }
+
+        public boolean isCurrent() {
+            return end == Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            return "Interval{version=" + version + ", [" + start + ", " + (isCurrent() ? "∞" : end) + "[}";
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.jnane.runtime.history;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table concurrente à clés faibles comparées par identité. Les états abandonnés
+ * par le programme ne sont pas retenus par le registre des lignées.
+ */
+final class WeakIdentityMap<K, V> {
+    private final ConcurrentHashMap<Object, V> map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+    V get(K key) {
+        expunge();
+        return map.get(new LookupKey(key));
+    }
+
+    void put(K key, V value) {
+        expunge();
+        map.put(new WeakKey<>(key, queue), value);
+    }
+
+    int size() {
+        expunge();
+        return map.size();
+    }
+
+    private void expunge() {
+        Object stale;
+        while ((stale = queue.poll()) != null) {
+            map.remove(stale);
+        }
+    }
+
+    /**
+     * Clé faible enregistrée dans la table.
+     */
+    private static final class WeakKey<K> extends WeakReference<K> {
+        private final int hash;
+
+        WeakKey(K referent, ReferenceQueue<K> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            Object referent = get();
+            if (referent == null) {
+                return false;
+            }
+            if (other instanceof WeakKey) {
+                return referent == ((WeakKey<?>) other).get();
+            }
+            return other instanceof LookupKey && referent == ((LookupKey) other).referent;
+        }
+    }
+
+    /**
+     * Clé forte temporaire utilisée pour les recherches.
+     */
+    private static final class LookupKey {
+        private final Object referent;
+
+        LookupKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof LookupKey) {
+                return referent == ((LookupKey) other).referent;
+            }
+            return other instanceof WeakKey && referent == ((WeakKey<?>) other).get();
+        }
+    }
+}
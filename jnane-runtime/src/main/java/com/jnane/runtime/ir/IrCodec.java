@@ -0,0 +1,266 @@
+package com.jnane.runtime.ir;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Format binaire portable des fonctions précompilées ({@code .jnir}) : un en-tête
+ * {@code JNIR} suivi de la version du format, de la signature de la fonction, des champs
+ * vérifiés à l'exécution et du corps en IR, chaque nœud étiqueté sur un octet.
+ */
+public final class IrCodec {
+    private static final Logger logger = LoggerFactory.getLogger(IrCodec.class);
+
+    /** Extension des fichiers de fonctions précompilées. */
+    public static final String EXTENSION = ".jnir";
+
+    private static final int MAGIC = 0x4A4E4952; // "JNIR"
+    private static final int VERSION = 2;
+
+    private static final byte NONE = 0;
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_FALSE = 1;
+    private static final byte VALUE_TRUE = 2;
+    private static final byte VALUE_INT = 3;
+    private static final byte VALUE_DOUBLE = 4;
+    private static final byte VALUE_STRING = 5;
+
+    private IrCodec() {
+    }
+
+    /**
+     * Écrit une fonction précompilée.
+     *
+     * @param function Fonction
+     * @param output Flux de sortie, laissé ouvert
+     * @throws IOException En cas d'erreur d'écriture
+     */
+    public static void write(IrFunction function, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(function.getName());
+        out.writeShort(function.getParameters().size());
+        for (String parameter : function.getParameters()) {
+            out.writeUTF(parameter);
+        }
+        out.writeShort(function.getCheckedFields().size());
+        for (Map.Entry<String, String> field : function.getCheckedFields().entrySet()) {
+            out.writeUTF(field.getKey());
+            out.writeUTF(field.getValue());
+        }
+        writeNode(out, function.getBody());
+        out.flush();
+    }
+
+    /**
+     * Lit une fonction précompilée.
+     *
+     * @param input Flux d'entrée, laissé ouvert
+     * @return Fonction
+     * @throws IOException En cas d'erreur de lecture ou si le format n'est pas reconnu
+     */
+    public static IrFunction read(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC) {
+            String errorMsg = "Fichier IR Jnane invalide: en-tête JNIR absent";
+            logger.error(errorMsg);
+            throw new IOException(errorMsg);
+        }
+        int version = in.readShort();
+        // La version 2 ajoute des nœuds sans changer les précédents
+        if (version < 1 || version > VERSION) {
+            String errorMsg = "Version du format IR non supportée: " + version + " (attendue: " + VERSION + ")";
+            logger.error(errorMsg);
+            throw new IOException(errorMsg);
+        }
+        String name = in.readUTF();
+        List<String> parameters = new ArrayList<>();
+        for (int i = in.readShort(); i > 0; i--) {
+            parameters.add(in.readUTF());
+        }
+        Map<String, String> checkedFields = new LinkedHashMap<>();
+        for (int i = in.readShort(); i > 0; i--) {
+            checkedFields.put(in.readUTF(), in.readUTF());
+        }
+        return new IrFunction(name, parameters, checkedFields, readNode(in));
+    }
+
+    private static void writeNode(DataOutputStream out, IrNode node) throws IOException {
+        if (node == null) {
+            out.writeByte(NONE);
+            return;
+        }
+        out.writeByte(node.tag());
+        if (node instanceof IrNode.Literal) {
+            writeValue(out, ((IrNode.Literal) node).value);
+        } else if (node instanceof IrNode.Variable) {
+            out.writeUTF(((IrNode.Variable) node).name);
+        } else if (node instanceof IrNode.Assign) {
+            IrNode.Assign assign = (IrNode.Assign) node;
+            out.writeUTF(assign.name);
+            writeNode(out, assign.value);
+        } else if (node instanceof IrNode.Sequence) {
+            writeNodes(out, ((IrNode.Sequence) node).nodes);
+        } else if (node instanceof IrNode.Condition) {
+            IrNode.Condition condition = (IrNode.Condition) node;
+            writeNode(out, condition.test);
+            writeNode(out, condition.then);
+            writeNode(out, condition.otherwise);
+        } else if (node instanceof IrNode.Additive) {
+            IrNode.Additive additive = (IrNode.Additive) node;
+            out.writeBoolean(additive.plus);
+            writeNodes(out, additive.operands);
+        } else if (node instanceof IrNode.Compare) {
+            IrNode.Compare compare = (IrNode.Compare) node;
+            out.writeUTF(compare.operator);
+            writeNode(out, compare.left);
+            writeNode(out, compare.right);
+        } else if (node instanceof IrNode.Call) {
+            IrNode.Call call = (IrNode.Call) node;
+            out.writeUTF(call.name);
+            writeNodes(out, call.arguments);
+        } else if (node instanceof IrNode.Field) {
+            IrNode.Field field = (IrNode.Field) node;
+            writeNode(out, field.target);
+            out.writeUTF(field.name);
+        } else if (node instanceof IrNode.Index) {
+            IrNode.Index index = (IrNode.Index) node;
+            writeNode(out, index.target);
+            writeNode(out, index.key);
+        } else if (node instanceof IrNode.ObjectLiteral) {
+            IrNode.ObjectLiteral object = (IrNode.ObjectLiteral) node;
+            out.writeShort(object.values.length);
+            for (int i = 0; i < object.values.length; i++) {
+                out.writeBoolean(object.names[i] != null);
+                if (object.names[i] != null) {
+                    out.writeUTF(object.names[i]);
+                }
+                writeNode(out, object.values[i]);
+            }
+        } else if (node instanceof IrNode.Pipe) {
+            IrNode.Pipe pipe = (IrNode.Pipe) node;
+            writeNode(out, pipe.value);
+            writeNode(out, pipe.function);
+            out.writeUTF(pipe.description);
+        } else if (node instanceof IrNode.History) {
+            writeNode(out, ((IrNode.History) node).state);
+        } else {
+            writeNodes(out, ((IrNode.ArrayLiteral) node).elements);
+        }
+    }
+
+    private static void writeNodes(DataOutputStream out, IrNode[] nodes) throws IOException {
+        out.writeInt(nodes.length);
+        for (IrNode node : nodes) {
+            writeNode(out, node);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof Integer) {
+            out.writeByte(VALUE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Double) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else {
+            out.writeByte(VALUE_STRING);
+            out.writeUTF(value.toString());
+        }
+    }
+
+    private static IrNode readNode(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NONE:
+                return null;
+            case IrNode.LITERAL:
+                return new IrNode.Literal(readValue(in));
+            case IrNode.VARIABLE:
+                return new IrNode.Variable(in.readUTF());
+            case IrNode.ASSIGN:
+                return new IrNode.Assign(in.readUTF(), readNode(in));
+            case IrNode.SEQUENCE:
+                return new IrNode.Sequence(readNodes(in));
+            case IrNode.CONDITION:
+                return new IrNode.Condition(readNode(in), readNode(in), readNode(in));
+            case IrNode.ADDITIVE:
+                return new IrNode.Additive(in.readBoolean(), readNodes(in));
+            case IrNode.COMPARE:
+                return new IrNode.Compare(in.readUTF(), readNode(in), readNode(in));
+            case IrNode.CALL:
+                return new IrNode.Call(in.readUTF(), readNodes(in));
+            case IrNode.FIELD:
+                return new IrNode.Field(readNode(in), in.readUTF());
+            case IrNode.INDEX:
+                return new IrNode.Index(readNode(in), readNode(in));
+            case IrNode.OBJECT: {
+                List<String> names = new ArrayList<>();
+                List<IrNode> values = new ArrayList<>();
+                for (int i = in.readShort(); i > 0; i--) {
+                    names.add(in.readBoolean() ? in.readUTF() : null);
+                    values.add(readNode(in));
+                }
+                return new IrNode.ObjectLiteral(names, values);
+            }
+            case IrNode.ARRAY:
+                return new IrNode.ArrayLiteral(readNodes(in));
+            case IrNode.PIPE:
+                return new IrNode.Pipe(readNode(in), readNode(in), in.readUTF());
+            case IrNode.HISTORY:
+                return new IrNode.History(readNode(in));
+            default: {
+                String errorMsg = "Nœud IR inconnu: " + tag;
+                logger.error(errorMsg);
+                throw new IOException(errorMsg);
+            }
+        }
+    }
+
+    private static List<IrNode> readNodes(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<IrNode> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(readNode(in));
+        }
+        return nodes;
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_FALSE:
+                return false;
+            case VALUE_TRUE:
+                return true;
+            case VALUE_INT:
+                return in.readInt();
+            case VALUE_DOUBLE:
+                return in.readDouble();
+            case VALUE_STRING:
+                return in.readUTF();
+            default: {
+                String errorMsg = "Valeur IR inconnue: " + tag;
+                logger.error(errorMsg);
+                throw new IOException(errorMsg);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.jnane.runtime.ir;
+
+import com.jnane.runtime.value.TypeChecks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fonction Jnane précompilée : paramètres dans l'ordre de déclaration, corps en IR et
+ * champs annotés dont le type n'a pas été prouvé à la compilation, vérifiés à chaque appel.
+ */
+public final class IrFunction {
+    private static final Logger logger = LoggerFactory.getLogger(IrFunction.class);
+
+    private final String name;
+    private final List<String> parameters;
+    private final Map<String, String> checkedFields;
+    private final IrNode body;
+    private final String[] checkedNames;
+    private final TypeChecks.TypeCheck[] checks;
+
+    /**
+     * Crée une fonction précompilée.
+     *
+     * @param name Nom complet de la fonction ({@code namespace:fonction})
+     * @param parameters Paramètres dans l'ordre de déclaration
+     * @param checkedFields Types déclarés des champs vérifiés à l'exécution
+     * @param body Corps de la fonction
+     */
+    public IrFunction(String name, List<String> parameters, Map<String, String> checkedFields, IrNode body) {
+        this.name = name;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+        this.checkedFields = Collections.unmodifiableMap(new LinkedHashMap<>(checkedFields));
+        this.body = body;
+        this.checkedNames = checkedFields.keySet().toArray(new String[0]);
+        this.checks = new TypeChecks.TypeCheck[checkedNames.length];
+        for (int i = 0; i < checkedNames.length; i++) {
+            checks[i] = TypeChecks.compile(checkedFields.get(checkedNames[i]));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public Map<String, String> getCheckedFields() {
+        return checkedFields;
+    }
+
+    public IrNode getBody() {
+        return body;
+    }
+
+    /**
+     * Valide les champs annotés non prouvés à la compilation.
+     *
+     * @param variables Variables définies par la fonction
+     * @throws IllegalStateException si un champ n'est pas défini ou a un type incorrect
+     */
+    void validate(Map<String, Object> variables) {
+        for (int i = 0; i < checks.length; i++) {
+            Object value = variables.get(checkedNames[i]);
+            if (value == null && !variables.containsKey(checkedNames[i])) {
+                String errorMsg = "Champ annoté non défini: " + checkedNames[i] + " dans " + name;
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+            if (!checks[i].accepts(value)) {
+                String errorMsg = String.format(
+                        "Type incompatible pour le champ %s: attendu %s, trouvé %s",
+                        checkedNames[i],
+                        checkedFields.get(checkedNames[i]),
+                        (value != null ? value.getClass().getSimpleName() : "null"));
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + parameters;
+    }
+}
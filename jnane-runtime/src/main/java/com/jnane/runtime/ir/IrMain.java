@@ -0,0 +1,45 @@
+package com.jnane.runtime.ir;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Point d'entrée du runtime : exécute une fonction précompilée sans le compilateur.
+ */
+public class IrMain {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java -jar jnane-runtime.jar <répertoire IR> <namespace:fonction> [nom=valeur...]");
+            System.exit(1);
+        }
+
+        try {
+            IrRuntime runtime = new IrRuntime();
+            runtime.load(Paths.get(args[0]));
+            Map<String, Object> namedArgs = new HashMap<>();
+            for (int i = 2; i < args.length; i++) {
+                int equals = args[i].indexOf('=');
+                if (equals <= 0) {
+                    System.err.println("Argument invalide, nom=valeur attendu: " + args[i]);
+                    System.exit(1);
+                }
+                namedArgs.put(args[i].substring(0, equals), parseArgument(args[i].substring(equals + 1)));
+            }
+            System.out.println(runtime.call(args[1], namedArgs));
+        } catch (Exception e) {
+            System.err.println("Erreur: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static Object parseArgument(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return text;
+        }
+    }
+}
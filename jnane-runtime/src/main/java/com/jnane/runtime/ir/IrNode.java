@@ -0,0 +1,561 @@
+package com.jnane.runtime.ir;
+
+import com.jnane.runtime.builtin.BuiltinFunction;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.value.InlineCache;
+import com.jnane.runtime.value.JnaneFunction;
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.value.PrimitiveVector;
+import com.jnane.runtime.value.ShapedRecord;
+import com.jnane.runtime.view.Views;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nœud de la représentation intermédiaire (IR) d'une fonction Jnane précompilée.
+ *
+ * <p>Chaque nœud reproduit la sémantique du visiteur d'interprétation pour la construction
+ * correspondante : une addition dont les opérandes ne sont ni deux entiers ni une chaîne
+ * réévalue ses opérandes et vaut le dernier, une comparaison n'évalue que ses deux
+ * premiers opérandes, etc. L'IR ne dépend ni de l'analyseur ANTLR ni du compilateur.</p>
+ *
+ * <p>Les nœuds sont immuables une fois liés ; seuls les sites d'appel et d'accès aux
+ * champs conservent un cache, publié de façon sûre entre fils.</p>
+ */
+public abstract class IrNode {
+    private static final Logger logger = LoggerFactory.getLogger(IrNode.class);
+
+    /** Étiquettes de sérialisation des nœuds. */
+    static final byte LITERAL = 1;
+    static final byte VARIABLE = 2;
+    static final byte ASSIGN = 3;
+    static final byte SEQUENCE = 4;
+    static final byte CONDITION = 5;
+    static final byte ADDITIVE = 6;
+    static final byte COMPARE = 7;
+    static final byte CALL = 8;
+    static final byte FIELD = 9;
+    static final byte INDEX = 10;
+    static final byte OBJECT = 11;
+    static final byte ARRAY = 12;
+    static final byte PIPE = 13;
+    static final byte HISTORY = 14;
+
+    IrNode() {
+    }
+
+    /**
+     * Évalue le nœud.
+     *
+     * @param frame Cadre d'exécution de la fonction
+     * @return Valeur du nœud
+     */
+    public abstract Object evaluate(IrRuntime.Frame frame);
+
+    abstract byte tag();
+
+    static boolean isTruthy(Object value) {
+        return value != null && (!(value instanceof Boolean) || (Boolean) value);
+    }
+
+    /**
+     * Littéral : entier, décimal, chaîne, booléen ou null.
+     */
+    public static final class Literal extends IrNode {
+        final Object value;
+
+        public Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            return value;
+        }
+
+        @Override
+        byte tag() {
+            return LITERAL;
+        }
+    }
+
+    /**
+     * Lecture d'une variable ; une variable non définie vaut null.
+     */
+    public static final class Variable extends IrNode {
+        final String name;
+
+        public Variable(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            return frame.get(name);
+        }
+
+        @Override
+        byte tag() {
+            return VARIABLE;
+        }
+    }
+
+    /**
+     * Assignation d'une variable ; vaut la valeur assignée.
+     */
+    public static final class Assign extends IrNode {
+        final String name;
+        final IrNode value;
+
+        public Assign(String name, IrNode value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            Object result = value.evaluate(frame);
+            frame.set(name, result);
+            return result;
+        }
+
+        @Override
+        byte tag() {
+            return ASSIGN;
+        }
+    }
+
+    /**
+     * Suite de nœuds évalués dans l'ordre ; vaut le dernier, null si elle est vide.
+     * Représente les blocs et les opérateurs que l'interpréteur évalue sans les appliquer
+     * (multiplicatifs, logiques, unaires).
+     */
+    public static final class Sequence extends IrNode {
+        final IrNode[] nodes;
+
+        public Sequence(List<IrNode> nodes) {
+            this.nodes = nodes.toArray(new IrNode[0]);
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            Object last = null;
+            for (IrNode node : nodes) {
+                last = node.evaluate(frame);
+            }
+            return last;
+        }
+
+        @Override
+        byte tag() {
+            return SEQUENCE;
+        }
+    }
+
+    /**
+     * Instruction {@code if} ou expression ternaire ; sans branche {@code else}, vaut null
+     * quand la condition est fausse.
+     */
+    public static final class Condition extends IrNode {
+        final IrNode test;
+        final IrNode then;
+        final IrNode otherwise;
+
+        public Condition(IrNode test, IrNode then, IrNode otherwise) {
+            this.test = test;
+            this.then = then;
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            if (isTruthy(test.evaluate(frame))) {
+                return then.evaluate(frame);
+            }
+            return otherwise != null ? otherwise.evaluate(frame) : null;
+        }
+
+        @Override
+        byte tag() {
+            return CONDITION;
+        }
+    }
+
+    /**
+     * Expression additive : le premier opérateur est appliqué aux deux premiers opérandes
+     * s'ils sont entiers (ou si l'un est une chaîne pour {@code +}) ; sinon tous les
+     * opérandes sont évalués et l'expression vaut le dernier.
+     */
+    public static final class Additive extends IrNode {
+        final boolean plus;
+        final IrNode[] operands;
+
+        public Additive(boolean plus, List<IrNode> operands) {
+            this.plus = plus;
+            this.operands = operands.toArray(new IrNode[0]);
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            Object left = operands[0].evaluate(frame);
+            Object right = operands[1].evaluate(frame);
+            if (left instanceof Integer && right instanceof Integer) {
+                return plus ? (Integer) left + (Integer) right : (Integer) left - (Integer) right;
+            }
+            if (plus && (left instanceof String || right instanceof String)) {
+                return String.valueOf(left) + String.valueOf(right);
+            }
+            Object last = null;
+            for (IrNode operand : operands) {
+                last = operand.evaluate(frame);
+            }
+            return last;
+        }
+
+        @Override
+        byte tag() {
+            return ADDITIVE;
+        }
+    }
+
+    /**
+     * Comparaison d'égalité ({@code ==}, {@code !=}) ou d'ordre ({@code <}, {@code >},
+     * {@code <=}, {@code >=}) de deux opérandes.
+     */
+    public static final class Compare extends IrNode {
+        final String operator;
+        final IrNode left;
+        final IrNode right;
+
+        public Compare(String operator, IrNode left, IrNode right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            Object l = left.evaluate(frame);
+            Object r = right.evaluate(frame);
+            switch (operator) {
+                case "==":
+                    return l == null ? r == null : r != null && l.equals(r);
+                case "!=":
+                    return l == null ? r != null : r == null || !l.equals(r);
+                case "<":
+                    return Views.compareOperands(l, r) < 0;
+                case ">":
+                    return Views.compareOperands(l, r) > 0;
+                case "<=":
+                    return Views.compareOperands(l, r) <= 0;
+                default:
+                    return Views.compareOperands(l, r) >= 0;
+            }
+        }
+
+        @Override
+        byte tag() {
+            return COMPARE;
+        }
+    }
+
+    /**
+     * Appel de fonction. Le site est lié à sa première exécution : une fonction précompilée
+     * masque la fonction intégrée de même nom ; les arguments sont positionnels dans les
+     * deux cas. Une fonction intégrée pure appelée sur des littéraux n'est évaluée qu'une fois.
+     */
+    public static final class Call extends IrNode {
+        final String name;
+        final IrNode[] arguments;
+        private volatile Object target;
+        private volatile boolean folded;
+        private volatile Object constant;
+
+        public Call(String name, List<IrNode> arguments) {
+            this.name = name;
+            this.arguments = arguments.toArray(new IrNode[0]);
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            if (folded) {
+                return constant;
+            }
+            Object linked = target;
+            if (linked == null) {
+                linked = link(frame.getRuntime());
+            }
+            if (linked instanceof IrFunction) {
+                // Comme l'interpréteur, aucun argument n'est lié : le compilateur refuse les
+                // arguments positionnels d'une fonction Jnane
+                if (arguments.length > 0) {
+                    String errorMsg = "Arguments positionnels non supportés pour la fonction Jnane '" + name + "'";
+                    logger.error(errorMsg);
+                    throw new IllegalArgumentException(errorMsg);
+                }
+                return frame.getRuntime().invoke((IrFunction) linked, Collections.emptyMap(), frame);
+            }
+            BuiltinFunction builtin = (BuiltinFunction) linked;
+            if (builtin instanceof BuiltinFunction.IntBinary && arguments.length == 2) {
+                Object first = arguments[0].evaluate(frame);
+                Object second = arguments[1].evaluate(frame);
+                if (first instanceof Integer && second instanceof Integer) {
+                    return ((BuiltinFunction.IntBinary) builtin).applyAsInt((Integer) first, (Integer) second);
+                }
+                return builtin.invoke(new Object[]{first, second});
+            }
+            Object[] values = new Object[builtin.getSignature().getArity()];
+            for (int i = 0; i < arguments.length; i++) {
+                values[i] = arguments[i].evaluate(frame);
+            }
+            return builtin.invoke(values);
+        }
+
+        private Object link(IrRuntime runtime) {
+            IrFunction function = runtime.getFunction(name);
+            if (function != null) {
+                target = function;
+                return function;
+            }
+            BuiltinFunction builtin = runtime.getBuiltins().lookup(name);
+            if (builtin == null) {
+                String errorMsg = "Fonction inconnue: " + name;
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            BuiltinRegistry.checkArity(builtin, arguments.length);
+            boolean literals = true;
+            for (IrNode argument : arguments) {
+                literals &= argument instanceof Literal;
+            }
+            if (builtin.isPure() && literals) {
+                Object[] values = new Object[builtin.getSignature().getArity()];
+                for (int i = 0; i < arguments.length; i++) {
+                    values[i] = ((Literal) arguments[i]).value;
+                }
+                constant = builtin.invoke(values);
+                folded = true;
+            }
+            target = builtin;
+            logger.debug("Site d'appel lié à la fonction intégrée {}{}", name, builtin.getSignature());
+            return builtin;
+        }
+
+        @Override
+        byte tag() {
+            return CALL;
+        }
+    }
+
+    /**
+     * Accès à un champ ({@code valeur.champ}) par cache en ligne.
+     */
+    public static final class Field extends IrNode {
+        final IrNode target;
+        final String name;
+        private final InlineCache cache;
+
+        public Field(IrNode target, String name) {
+            this.target = target;
+            this.name = name;
+            this.cache = new InlineCache(name);
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            Object value = target.evaluate(frame);
+            if (!(value instanceof Map)) {
+                String errorMsg = "Accès au champ '" + name + "' impossible sur: " + value;
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            return cache.get(value);
+        }
+
+        @Override
+        byte tag() {
+            return FIELD;
+        }
+    }
+
+    /**
+     * Accès indexé ({@code valeur[cle]}) à une liste ou une table.
+     */
+    public static final class Index extends IrNode {
+        final IrNode target;
+        final IrNode key;
+
+        public Index(IrNode target, IrNode key) {
+            this.target = target;
+            this.key = key;
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            Object value = target.evaluate(frame);
+            Object k = key.evaluate(frame);
+            if (value instanceof List && k instanceof Integer) {
+                return ((List<?>) value).get((Integer) k);
+            }
+            if (value instanceof Map) {
+                return ((Map<?, ?>) value).get(k);
+            }
+            String errorMsg = "Accès indexé [" + k + "] impossible sur: " + value;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        @Override
+        byte tag() {
+            return INDEX;
+        }
+    }
+
+    /**
+     * Littéral d'objet ; un champ sans nom est une décomposition ({@code ...autre}).
+     */
+    public static final class ObjectLiteral extends IrNode {
+        final String[] names;
+        final IrNode[] values;
+
+        public ObjectLiteral(List<String> names, List<IrNode> values) {
+            this.names = names.toArray(new String[0]);
+            this.values = values.toArray(new IrNode[0]);
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            // Même construction que l'interpréteur : enregistrement à forme partagée, puis
+            // table persistante au-delà de ShapedRecord.MAX_FIELDS champs
+            ShapedRecord.Builder record = ShapedRecord.builder();
+            PersistentMap.Transient<String, Object> large = null;
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i].evaluate(frame);
+                if (names[i] == null) {
+                    if (!(value instanceof Map)) {
+                        String errorMsg = "Décomposition impossible, objet attendu: " + value;
+                        logger.error(errorMsg);
+                        throw new IllegalArgumentException(errorMsg);
+                    }
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                        large = putField(record, large, String.valueOf(entry.getKey()), entry.getValue());
+                    }
+                } else {
+                    large = putField(record, large, names[i], value);
+                }
+            }
+            return frame.getRuntime().intern(large != null ? large.persistent() : record.build());
+        }
+
+        private static PersistentMap.Transient<String, Object> putField(ShapedRecord.Builder record,
+                                                                        PersistentMap.Transient<String, Object> large,
+                                                                        String key, Object value) {
+            if (large == null && record.size() >= ShapedRecord.MAX_FIELDS) {
+                large = PersistentMap.<String, Object>from(record.build()).asTransient();
+            }
+            if (large != null) {
+                large.put(key, value);
+            } else {
+                record.put(key, value);
+            }
+            return large;
+        }
+
+        @Override
+        byte tag() {
+            return OBJECT;
+        }
+    }
+
+    /**
+     * Littéral de tableau, stocké sous forme primitive quand ses éléments le permettent.
+     */
+    public static final class ArrayLiteral extends IrNode {
+        final IrNode[] elements;
+
+        public ArrayLiteral(List<IrNode> elements) {
+            this.elements = elements.toArray(new IrNode[0]);
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            PrimitiveVector.Builder builder = PrimitiveVector.builder();
+            for (IrNode element : elements) {
+                builder.add(element.evaluate(frame));
+            }
+            return frame.getRuntime().intern(builder.build());
+        }
+
+        @Override
+        byte tag() {
+            return ARRAY;
+        }
+    }
+
+    /**
+     * Application d'une fonction à une valeur ({@code valeur |> fonction}). Comme dans
+     * l'interpréteur, la transformation d'un enregistrement en un autre est enregistrée dans
+     * l'historique du runtime.
+     */
+    public static final class Pipe extends IrNode {
+        final IrNode value;
+        final IrNode function;
+        final String description;
+
+        public Pipe(IrNode value, IrNode function, String description) {
+            this.value = value;
+            this.function = function;
+            this.description = description;
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            Object source = value.evaluate(frame);
+            Object transformation = function.evaluate(frame);
+            if (!(transformation instanceof JnaneFunction)) {
+                String errorMsg = "Fonction attendue: " + description + " (valeur: " + transformation + ")";
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+            Object result = ((JnaneFunction) transformation).apply(source);
+            if (source instanceof Map && result instanceof Map && result != source) {
+                frame.getRuntime().getHistoryStore().recordTransition(source, result, null, description);
+            }
+            return result;
+        }
+
+        @Override
+        byte tag() {
+            return PIPE;
+        }
+    }
+
+    /**
+     * Historique d'un état ({@code ns:historique}) : ses versions successives dans
+     * l'historique du runtime, jusqu'à la sienne.
+     */
+    public static final class History extends IrNode {
+        final IrNode state;
+
+        public History(IrNode state) {
+            this.state = state;
+        }
+
+        @Override
+        public Object evaluate(IrRuntime.Frame frame) {
+            HistoryStore.VersionRef ref = frame.getRuntime().getHistoryStore().track(state.evaluate(frame));
+            return PersistentVector.from(ref.getLineage().statesUpTo(ref.getVersion()));
+        }
+
+        @Override
+        byte tag() {
+            return HISTORY;
+        }
+    }
+}
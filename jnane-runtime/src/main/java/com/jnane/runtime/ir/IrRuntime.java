@@ -0,0 +1,264 @@
+package com.jnane.runtime.ir;
+
+import com.jnane.runtime.builtin.BuiltinFunction;
+import com.jnane.runtime.builtin.BuiltinRegistry;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.metrics.FunctionMetrics;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import com.jnane.runtime.value.Interner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runtime des fonctions Jnane précompilées : charge les fichiers {@code .jnir} produits
+ * par {@code Main --compile} et les exécute sans analyseur ni compilateur.
+ *
+ * <p>Une fonction renvoie la valeur de sa variable {@code result}, ou
+ * {@link #DEFAULT_RESULT} si elle ne l'a pas assignée, comme dans l'interpréteur. Les
+ * champs annotés dont le type n'a pas été prouvé à la compilation sont vérifiés après
+ * chaque appel. Les transformations d'état ({@code |>}) sont enregistrées dans un
+ * {@link HistoryStore}, celui par défaut sauf indication contraire. Le runtime peut être partagé entre fils : chaque appel
+ * s'exécute dans son propre {@link Frame}. Les appels sont mesurés dans le
+ * {@link MetricsRegistry} par défaut, sauf si les mesures sont désactivées.</p>
+ */
+public final class IrRuntime {
+    private static final Logger logger = LoggerFactory.getLogger(IrRuntime.class);
+
+    /** Valeur d'une fonction qui n'assigne pas {@code result}. */
+    public static final Object DEFAULT_RESULT = 8;
+
+    private final Map<String, IrFunction> functions = new ConcurrentHashMap<>();
+    private final BuiltinRegistry builtins;
+    private final Interner interner;
+    private volatile HistoryStore historyStore = HistoryStore.getDefault();
+    private volatile MetricsRegistry metrics = MetricsRegistry.isEnabledByDefault() ? MetricsRegistry.getDefault() : null;
+
+    public IrRuntime() {
+        this(BuiltinRegistry.getDefault());
+    }
+
+    /**
+     * Crée un runtime avec un registre de fonctions intégrées.
+     *
+     * @param builtins Fonctions intégrées
+     */
+    public IrRuntime(BuiltinRegistry builtins) {
+        this.builtins = builtins;
+        this.interner = Interner.isEnabledByDefault() ? Interner.getDefault() : null;
+    }
+
+    /**
+     * Charge toutes les fonctions précompilées d'un répertoire et de ses sous-répertoires.
+     *
+     * @param directory Répertoire produit par {@code Main --compile}
+     * @return Nombre de fonctions chargées
+     * @throws IOException En cas d'erreur de lecture
+     */
+    public int load(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(IrCodec.EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file)) {
+                register(IrCodec.read(in));
+            }
+        }
+        logger.info("Fonctions précompilées chargées depuis {}: {}", directory, functions.keySet());
+        return files.size();
+    }
+
+    /**
+     * Enregistre une fonction précompilée.
+     *
+     * @param function Fonction
+     */
+    public void register(IrFunction function) {
+        functions.put(function.getName(), function);
+    }
+
+    /**
+     * Retourne une fonction précompilée.
+     *
+     * @param name Nom complet de la fonction
+     * @return Fonction, null si elle n'est pas chargée
+     */
+    public IrFunction getFunction(String name) {
+        return functions.get(name);
+    }
+
+    public Map<String, IrFunction> getFunctions() {
+        return functions;
+    }
+
+    public BuiltinRegistry getBuiltins() {
+        return builtins;
+    }
+
+    public HistoryStore getHistoryStore() {
+        return historyStore;
+    }
+
+    /**
+     * Définit l'historique des états transformés par les fonctions du runtime.
+     *
+     * @param historyStore Historique
+     */
+    public void setHistoryStore(HistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Définit le registre des mesures d'exécution.
+     *
+     * @param metrics Registre, ou null pour ne pas mesurer les appels
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Appelle une fonction précompilée ou, à défaut, une fonction intégrée.
+     *
+     * @param name Nom complet de la fonction
+     * @param namedArgs Arguments nommés
+     * @return Résultat de la fonction
+     * @throws IllegalArgumentException si la fonction est inconnue ou si un argument est inconnu
+     */
+    public Object call(String name, Map<String, Object> namedArgs) {
+        IrFunction function = functions.get(name);
+        if (function != null) {
+            return invoke(function, namedArgs, null);
+        }
+        BuiltinFunction builtin = builtins.lookup(name);
+        if (builtin != null) {
+            MetricsRegistry registry = metrics;
+            if (registry == null) {
+                return builtin.invoke(BuiltinRegistry.bind(builtin, namedArgs));
+            }
+            FunctionMetrics functionMetrics = registry.function(name);
+            long start = System.nanoTime();
+            try {
+                return builtin.invoke(BuiltinRegistry.bind(builtin, namedArgs));
+            } catch (RuntimeException e) {
+                functionMetrics.recordError();
+                throw e;
+            } finally {
+                functionMetrics.recordCall(System.nanoTime() - start);
+            }
+        }
+        String errorMsg = "Fonction inconnue: " + name;
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
+    /**
+     * Exécute une fonction précompilée dans un nouveau cadre.
+     *
+     * @param function Fonction
+     * @param namedArgs Arguments nommés ; un paramètre absent n'est pas défini
+     * @param caller Cadre appelant, null pour un appel depuis Java
+     * @return Résultat de la fonction
+     */
+    Object invoke(IrFunction function, Map<String, Object> namedArgs, Frame caller) {
+        MetricsRegistry registry = metrics;
+        if (registry == null) {
+            return execute(function, namedArgs, caller, null);
+        }
+        FunctionMetrics functionMetrics = registry.function(function.getName());
+        long start = System.nanoTime();
+        try {
+            return execute(function, namedArgs, caller, functionMetrics);
+        } catch (RuntimeException e) {
+            functionMetrics.recordError();
+            throw e;
+        } finally {
+            functionMetrics.recordCall(System.nanoTime() - start);
+        }
+    }
+
+    private Object execute(IrFunction function, Map<String, Object> namedArgs, Frame caller,
+                           FunctionMetrics functionMetrics) {
+        for (Frame frame = caller; frame != null; frame = frame.caller) {
+            if (frame.function == function) {
+                String errorMsg = "Cycle d'appels de fonction détecté: " + caller.stack() + " -> " + function.getName();
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+        }
+        for (String argName : namedArgs.keySet()) {
+            if (!function.getParameters().contains(argName)) {
+                String errorMsg = "Argument inconnu '" + argName + "' pour la fonction '" + function.getName() + "'";
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+        }
+        Frame frame = new Frame(this, function, caller, namedArgs);
+        function.getBody().evaluate(frame);
+        Object value = frame.variables.containsKey("result") ? frame.variables.get("result") : DEFAULT_RESULT;
+        try {
+            function.validate(frame.variables);
+        } catch (IllegalStateException e) {
+            if (functionMetrics != null) {
+                functionMetrics.recordValidationFailure();
+            }
+            throw e;
+        }
+        return value;
+    }
+
+    Object intern(Object value) {
+        return interner != null ? interner.intern(value) : value;
+    }
+
+    /**
+     * Cadre d'exécution d'un appel : variables locales de la fonction et cadre appelant.
+     */
+    public static final class Frame {
+        private final IrRuntime runtime;
+        private final IrFunction function;
+        private final Frame caller;
+        private final Map<String, Object> variables;
+
+        Frame(IrRuntime runtime, IrFunction function, Frame caller, Map<String, Object> arguments) {
+            this.runtime = runtime;
+            this.function = function;
+            this.caller = caller;
+            this.variables = new HashMap<>(arguments);
+        }
+
+        public IrRuntime getRuntime() {
+            return runtime;
+        }
+
+        public Object get(String name) {
+            return variables.get(name);
+        }
+
+        public void set(String name, Object value) {
+            variables.put(name, value);
+        }
+
+        private String stack() {
+            return caller != null ? caller.stack() + " -> " + function.getName() : function.getName();
+        }
+    }
+}
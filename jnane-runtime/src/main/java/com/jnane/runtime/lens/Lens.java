@@ -0,0 +1,38 @@
+package com.jnane.runtime.lens;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Lentille Jnane : permet de lire et de modifier une partie d'un état immuable
+ * sans modifier l'état d'origine.
+ */
+public interface Lens {
+
+    /**
+     * Lit la valeur ciblée par la lentille.
+     *
+     * @param target État source
+     * @return Valeur ciblée
+     */
+    Object view(Object target);
+
+    /**
+     * Retourne un nouvel état où la valeur ciblée est remplacée.
+     *
+     * @param target État source
+     * @param value Nouvelle valeur
+     * @return Nouvel état
+     */
+    Object set(Object target, Object value);
+
+    /**
+     * Retourne un nouvel état où la valeur ciblée est transformée par une fonction.
+     *
+     * @param target État source
+     * @param transformation Transformation à appliquer
+     * @return Nouvel état
+     */
+    default Object modify(Object target, UnaryOperator<Object> transformation) {
+        return set(target, transformation.apply(view(target)));
+    }
+}
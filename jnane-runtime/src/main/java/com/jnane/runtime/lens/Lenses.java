@@ -0,0 +1,213 @@
+package com.jnane.runtime.lens;
+
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.value.PrimitiveVector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fabrique des lentilles composées (ns:composer_lentilles, ns:lentille_conditionnelle,
+ * ns:lentille_predicat, ns:creer_lentille).
+ */
+public final class Lenses {
+
+    private Lenses() {
+    }
+
+    /**
+     * Compose une séquence de lentilles. Les lentilles de chemin consécutives sont fusionnées
+     * en un seul chemin compilé ; les autres sont chaînées.
+     *
+     * @param lenses Lentilles à composer, de la plus externe à la plus interne
+     * @return Lentille composée
+     */
+    public static Lens compose(List<? extends Lens> lenses) {
+        if (lenses.isEmpty()) {
+            throw new IllegalArgumentException("Composition de lentilles vide");
+        }
+        List<Lens> merged = new ArrayList<>();
+        for (Lens lens : lenses) {
+            int last = merged.size() - 1;
+            if (last >= 0 && merged.get(last) instanceof PathLens && lens instanceof PathLens) {
+                merged.set(last, ((PathLens) merged.get(last)).andThen((PathLens) lens));
+            } else {
+                merged.add(lens);
+            }
+        }
+        return merged.size() == 1 ? merged.get(0) : new ChainedLens(merged);
+    }
+
+    /**
+     * Crée une lentille qui choisit entre deux lentilles selon un prédicat sur l'état.
+     *
+     * @param condition Prédicat évalué sur l'état source
+     * @param whenTrue Lentille utilisée si le prédicat est vrai
+     * @param whenFalse Lentille utilisée sinon
+     * @return Lentille conditionnelle
+     */
+    public static Lens conditional(Predicate<Object> condition, Lens whenTrue, Lens whenFalse) {
+        return new Lens() {
+            private Lens select(Object target) {
+                return condition.test(target) ? whenTrue : whenFalse;
+            }
+
+            @Override
+            public Object view(Object target) {
+                return select(target).view(target);
+            }
+
+            @Override
+            public Object set(Object target, Object value) {
+                return select(target).set(target, value);
+            }
+
+            @Override
+            public Object modify(Object target, UnaryOperator<Object> transformation) {
+                return select(target).modify(target, transformation);
+            }
+        };
+    }
+
+    /**
+     * Crée une lentille sur les éléments d'une liste qui vérifient un prédicat. La lecture
+     * retourne ces éléments dans l'ordre ; l'écriture remplace chacun d'eux par la valeur,
+     * et la transformation s'applique à chacun. Seules les positions modifiées sont
+     * copiées : une liste sans élément retenu est retournée telle quelle.
+     *
+     * @param predicate Prédicat sur les éléments
+     * @return Lentille de prédicat
+     */
+    public static Lens predicate(Predicate<Object> predicate) {
+        return new Lens() {
+            @Override
+            public Object view(Object target) {
+                PersistentVector.Transient<Object> matches = PersistentVector.<Object>empty().asTransient();
+                for (Object element : asList(target)) {
+                    if (predicate.test(element)) {
+                        matches.conj(element);
+                    }
+                }
+                return matches.persistent();
+            }
+
+            @Override
+            public Object set(Object target, Object value) {
+                return modify(target, ignored -> value);
+            }
+
+            @Override
+            public Object modify(Object target, UnaryOperator<Object> transformation) {
+                List<?> elements = asList(target);
+                List<Object> result = null;
+                for (int i = 0; i < elements.size(); i++) {
+                    Object element = elements.get(i);
+                    if (!predicate.test(element)) {
+                        continue;
+                    }
+                    if (result == null) {
+                        result = persistent(elements);
+                    }
+                    result = assoc(result, i, transformation.apply(element));
+                }
+                return result != null ? result : target;
+            }
+
+            @Override
+            public String toString() {
+                return "PredicateLens";
+            }
+        };
+    }
+
+    private static List<?> asList(Object target) {
+        if (!(target instanceof List)) {
+            throw new IllegalArgumentException("Lentille de prédicat: liste attendue, trouvé " + target);
+        }
+        return (List<?>) target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> persistent(List<?> elements) {
+        if (elements instanceof PersistentVector || elements instanceof PrimitiveVector) {
+            return (List<Object>) elements;
+        }
+        return PersistentVector.from((List<Object>) elements);
+    }
+
+    private static List<Object> assoc(List<Object> elements, int index, Object value) {
+        if (elements instanceof PrimitiveVector) {
+            return ((PrimitiveVector) elements).assoc(index, value);
+        }
+        return ((PersistentVector<Object>) elements).assoc(index, value);
+    }
+
+    /**
+     * Crée une lentille à partir d'une fonction de lecture et d'une fonction d'écriture.
+     *
+     * @param getter Lecture de la valeur ciblée
+     * @param setter Écriture : (état, nouvelle valeur) vers nouvel état
+     * @return Lentille personnalisée
+     */
+    public static Lens of(Function<Object, Object> getter, BiFunction<Object, Object, Object> setter) {
+        return new Lens() {
+            @Override
+            public Object view(Object target) {
+                return getter.apply(target);
+            }
+
+            @Override
+            public Object set(Object target, Object value) {
+                return setter.apply(target, value);
+            }
+        };
+    }
+
+    /**
+     * Chaînage de lentilles quelconques.
+     */
+    private static final class ChainedLens implements Lens {
+        private final List<Lens> lenses;
+
+        ChainedLens(List<Lens> lenses) {
+            this.lenses = Collections.unmodifiableList(lenses);
+        }
+
+        @Override
+        public Object view(Object target) {
+            Object current = target;
+            for (Lens lens : lenses) {
+                current = lens.view(current);
+            }
+            return current;
+        }
+
+        @Override
+        public Object set(Object target, Object value) {
+            return modifyAt(target, 0, ignored -> value);
+        }
+
+        @Override
+        public Object modify(Object target, UnaryOperator<Object> transformation) {
+            return modifyAt(target, 0, transformation);
+        }
+
+        private Object modifyAt(Object target, int index, UnaryOperator<Object> transformation) {
+            Lens lens = lenses.get(index);
+            if (index == lenses.size() - 1) {
+                return lens.modify(target, transformation);
+            }
+            return lens.modify(target, inner -> modifyAt(inner, index + 1, transformation));
+        }
+
+        @Override
+        public String toString() {
+            return "ChainedLens" + lenses;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.jnane.runtime.lens;
+
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Composition parallèle de lentilles de chemin disjointes (ns:composer_lentilles_paralleles).
+ * Les chemins sont fusionnés en un arbre de préfixes : une mise à jour parcourt l'état
+ * une seule fois et chaque nœud partagé par plusieurs chemins n'est copié qu'une fois.
+ * <p>
+ * La valeur lue est un enregistrement associant chaque nom de lentille à sa valeur ;
+ * la valeur écrite est un enregistrement de même forme (les noms absents sont inchangés).
+ */
+public final class ParallelLens implements Lens {
+
+    private final Map<String, PathLens> lenses;
+    private final UpdateNode root = new UpdateNode(null);
+
+    /**
+     * Construit la composition parallèle.
+     *
+     * @param lenses Lentilles nommées, qui doivent cibler des chemins disjoints
+     * @throws IllegalArgumentException si un chemin est préfixe d'un autre
+     */
+    public ParallelLens(Map<String, PathLens> lenses) {
+        this.lenses = new LinkedHashMap<>(lenses);
+        for (Map.Entry<String, PathLens> entry : this.lenses.entrySet()) {
+            insert(entry.getKey(), entry.getValue());
+        }
+        root.computeOptional();
+    }
+
+    private void insert(String name, PathLens lens) {
+        UpdateNode node = root;
+        for (int i = 0; i < lens.depth(); i++) {
+            if (node.leafName != null) {
+                throw overlap(node.leafName, name);
+            }
+            PathLens.Step step = lens.step(i);
+            UpdateNode child = node.children.get(step.key());
+            if (child == null) {
+                child = new UpdateNode(step);
+                node.children.put(step.key(), child);
+            }
+            node = child;
+        }
+        if (node.leafName != null || !node.children.isEmpty()) {
+            throw overlap(node.leafName != null ? node.leafName : node.firstLeaf(), name);
+        }
+        node.leafName = name;
+        node.optional = lens.isOptional();
+    }
+
+    private static IllegalArgumentException overlap(String first, String second) {
+        return new IllegalArgumentException(
+                "Lentilles parallèles non disjointes: '" + first + "' et '" + second + "'");
+    }
+
+    /**
+     * Retourne les lentilles composées.
+     *
+     * @return Lentilles nommées
+     */
+    public Map<String, PathLens> getLenses() {
+        return lenses;
+    }
+
+    @Override
+    public Object view(Object target) {
+        PersistentMap.Transient<String, Object> result = PersistentMap.<String, Object>empty().asTransient();
+        for (Map.Entry<String, PathLens> entry : lenses.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().view(target));
+        }
+        return result.persistent();
+    }
+
+    @Override
+    public Object set(Object target, Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException(
+                    "Lentille parallèle: un enregistrement de valeurs est attendu, trouvé " + value);
+        }
+        Map<?, ?> values = (Map<?, ?>) value;
+        return apply(root, target, (name, current) -> values.containsKey(name) ? values.get(name) : current);
+    }
+
+    @Override
+    public Object modify(Object target, UnaryOperator<Object> transformation) {
+        return apply(root, target, (name, current) -> transformation.apply(current));
+    }
+
+    /**
+     * Applique les mises à jour de tous les chemins en un seul parcours.
+     */
+    @SuppressWarnings("unchecked")
+    private Object apply(UpdateNode node, Object target, BiFunction<String, Object, Object> updater) {
+        List<UpdateNode> changedNodes = null;
+        List<Object> changedValues = null;
+        for (UpdateNode child : node.children.values()) {
+            Object current = child.step.get(target, child.isOptionalPath());
+            Object updated = child.leafName != null
+                    ? updater.apply(child.leafName, current)
+                    : apply(child, current, updater);
+            if (updated != current) {
+                if (changedNodes == null) {
+                    changedNodes = new ArrayList<>();
+                    changedValues = new ArrayList<>();
+                }
+                changedNodes.add(child);
+                changedValues.add(updated);
+            }
+        }
+        if (changedNodes == null) {
+            return target;
+        }
+        if (changedNodes.size() == 1) {
+            UpdateNode child = changedNodes.get(0);
+            return child.step.set(target, changedValues.get(0), child.isOptionalPath());
+        }
+        // Plusieurs champs modifiés au même niveau : une seule copie via une structure transitoire
+        if (target instanceof PersistentMap) {
+            PersistentMap.Transient<String, Object> builder =
+                    ((PersistentMap<String, Object>) target).asTransient();
+            for (int i = 0; i < changedNodes.size(); i++) {
+                builder.put((String) changedNodes.get(i).step.key(), changedValues.get(i));
+            }
+            return builder.persistent();
+        }
+        if (target instanceof PersistentVector) {
+            PersistentVector.Transient<Object> builder = ((PersistentVector<Object>) target).asTransient();
+            for (int i = 0; i < changedNodes.size(); i++) {
+                builder.assoc((Integer) changedNodes.get(i).step.key(), changedValues.get(i));
+            }
+            return builder.persistent();
+        }
+        Object result = target;
+        for (int i = 0; i < changedNodes.size(); i++) {
+            UpdateNode child = changedNodes.get(i);
+            result = child.step.set(result, changedValues.get(i), child.isOptionalPath());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelLens" + lenses;
+    }
+
+    /**
+     * Nœud de l'arbre des préfixes de chemins.
+     */
+    private static final class UpdateNode {
+        final PathLens.Step step;
+        final Map<Object, UpdateNode> children = new LinkedHashMap<>();
+        String leafName;
+        boolean optional;
+
+        UpdateNode(PathLens.Step step) {
+            this.step = step;
+        }
+
+        boolean isOptionalPath() {
+            return optional;
+        }
+
+        /**
+         * Un nœud interne est optionnel si tous les chemins qui le traversent le sont.
+         */
+        boolean computeOptional() {
+            if (leafName == null) {
+                boolean all = true;
+                for (UpdateNode child : children.values()) {
+                    all &= child.computeOptional();
+                }
+                optional = all;
+            }
+            return optional;
+        }
+
+        String firstLeaf() {
+            UpdateNode node = this;
+            while (node.leafName == null) {
+                node = node.children.values().iterator().next();
+            }
+            return node.leafName;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.jnane.runtime.lens;
+
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.value.PrimitiveVector;
+import com.jnane.runtime.value.ShapedRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lentille compilée en un chemin fixe d'accès (champs et index).
+ * Les hash des noms de champs sont calculés une seule fois à la construction ;
+ * une mise à jour ne copie que les nœuds situés sur le chemin, soit O(profondeur).
+ */
+public final class PathLens implements Lens {
+
+    private final String sourceType;
+    private final Step[] steps;
+    private final boolean optional;
+
+    private PathLens(String sourceType, Step[] steps, boolean optional) {
+        this.sourceType = sourceType;
+        this.steps = steps;
+        this.optional = optional;
+    }
+
+    /**
+     * Crée une lentille sur un champ.
+     *
+     * @param sourceType Type de l'état ciblé (peut être null)
+     * @param fieldName Nom du champ
+     * @return Lentille de champ
+     */
+    public static PathLens field(String sourceType, String fieldName) {
+        return new PathLens(sourceType, new Step[] {new FieldStep(fieldName)}, false);
+    }
+
+    /**
+     * Crée une lentille sur un champ qui tolère les valeurs absentes : la lecture
+     * retourne null et l'écriture crée les enregistrements intermédiaires.
+     *
+     * @param sourceType Type de l'état ciblé (peut être null)
+     * @param fieldName Nom du champ
+     * @return Lentille optionnelle
+     */
+    public static PathLens optionalField(String sourceType, String fieldName) {
+        return new PathLens(sourceType, new Step[] {new FieldStep(fieldName)}, true);
+    }
+
+    /**
+     * Crée une lentille sur un élément de liste.
+     *
+     * @param sourceType Type de l'état ciblé (peut être null)
+     * @param index Index de l'élément
+     * @return Lentille d'index
+     */
+    public static PathLens index(String sourceType, int index) {
+        return new PathLens(sourceType, new Step[] {new IndexStep(index)}, false);
+    }
+
+    /**
+     * Crée une lentille à partir d'un chemin pointé (ex: "adresse.lignes.0.rue").
+     * Les segments numériques désignent des index de liste.
+     *
+     * @param sourceType Type de l'état ciblé (peut être null)
+     * @param path Chemin pointé
+     * @return Lentille de chemin
+     */
+    public static PathLens path(String sourceType, String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("Chemin de lentille vide");
+        }
+        String[] segments = path.split("\\.");
+        Step[] steps = new Step[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                throw new IllegalArgumentException("Segment vide dans le chemin de lentille: " + path);
+            }
+            steps[i] = isIndex(segment) ? new IndexStep(Integer.parseInt(segment)) : new FieldStep(segment);
+        }
+        return new PathLens(sourceType, steps, false);
+    }
+
+    private static boolean isIndex(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compose cette lentille avec une autre : le chemin résultant est la concaténation
+     * des deux chemins, compilée une fois pour toutes.
+     *
+     * @param next Lentille appliquée après celle-ci
+     * @return Lentille composée
+     */
+    public PathLens andThen(PathLens next) {
+        Step[] combined = Arrays.copyOf(steps, steps.length + next.steps.length);
+        System.arraycopy(next.steps, 0, combined, steps.length, next.steps.length);
+        return new PathLens(sourceType, combined, optional || next.optional);
+    }
+
+    /**
+     * Retourne le type de l'état ciblé tel que déclaré dans la définition de la lentille.
+     *
+     * @return Type source ou null
+     */
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    /**
+     * Retourne les segments du chemin (noms de champs ou index).
+     *
+     * @return Liste des segments
+     */
+    public List<Object> getPath() {
+        List<Object> path = new ArrayList<>(steps.length);
+        for (Step step : steps) {
+            path.add(step.key());
+        }
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * Retourne la profondeur du chemin.
+     *
+     * @return Nombre de segments
+     */
+    public int depth() {
+        return steps.length;
+    }
+
+    Step step(int index) {
+        return steps[index];
+    }
+
+    boolean isOptional() {
+        return optional;
+    }
+
+    @Override
+    public Object view(Object target) {
+        Object current = target;
+        for (Step step : steps) {
+            if (current == null && optional) {
+                return null;
+            }
+            current = step.get(current, optional);
+        }
+        return current;
+    }
+
+    @Override
+    public Object set(Object target, Object value) {
+        return setAt(target, 0, value);
+    }
+
+    @Override
+    public Object modify(Object target, UnaryOperator<Object> transformation) {
+        return modifyAt(target, 0, transformation);
+    }
+
+    private Object setAt(Object target, int depth, Object value) {
+        Step step = steps[depth];
+        if (depth == steps.length - 1) {
+            return step.set(target, value, optional);
+        }
+        Object child = step.get(target, optional);
+        Object newChild = setAt(child, depth + 1, value);
+        return newChild == child ? target : step.set(target, newChild, optional);
+    }
+
+    private Object modifyAt(Object target, int depth, UnaryOperator<Object> transformation) {
+        Step step = steps[depth];
+        Object child = step.get(target, optional);
+        Object newChild = depth == steps.length - 1
+                ? transformation.apply(child)
+                : modifyAt(child, depth + 1, transformation);
+        return newChild == child ? target : step.set(target, newChild, optional);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Lens(");
+        if (sourceType != null) {
+            sb.append(sourceType).append(": ");
+        }
+        for (int i = 0; i < steps.length; i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            sb.append(steps[i].key());
+        }
+        return sb.append(optional ? ")?" : ")").toString();
+    }
+
+    // ==================== SEGMENTS DU CHEMIN ====================
+
+    /**
+     * Segment d'un chemin de lentille.
+     */
+    abstract static class Step {
+
+        abstract Object key();
+
+        abstract Object get(Object target, boolean optional);
+
+        abstract Object set(Object target, Object value, boolean optional);
+    }
+
+    /**
+     * Accès à un champ d'enregistrement, avec hash précalculé.
+     */
+    static final class FieldStep extends Step {
+        private final String name;
+        private final int hash;
+
+        FieldStep(String name) {
+            this.name = name;
+            this.hash = PersistentMap.hash(name);
+        }
+
+        @Override
+        Object key() {
+            return name;
+        }
+
+        @Override
+        Object get(Object target, boolean optional) {
+            if (target instanceof PersistentMap) {
+                PersistentMap<?, ?> map = (PersistentMap<?, ?>) target;
+                Object value = map.get(name, hash);
+                if (value == null && !optional && !map.containsKey(name)) {
+                    throw missingField();
+                }
+                return value;
+            }
+            if (target instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) target;
+                if (!optional && !map.containsKey(name)) {
+                    throw missingField();
+                }
+                return map.get(name);
+            }
+            if (target == null && optional) {
+                return null;
+            }
+            throw new IllegalArgumentException("Lentille: champ '" + name + "' inaccessible sur " + describe(target));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object set(Object target, Object value, boolean optional) {
+            if (target instanceof PersistentMap) {
+                return ((PersistentMap<String, Object>) target).assoc(name, hash, value);
+            }
+            if (target instanceof ShapedRecord) {
+                return ((ShapedRecord) target).assoc(name, value);
+            }
+            if (target instanceof Map) {
+                return PersistentMap.<String, Object>from((Map<String, Object>) target).assoc(name, hash, value);
+            }
+            if (target == null && optional) {
+                return PersistentMap.<String, Object>empty().assoc(name, hash, value);
+            }
+            throw new IllegalArgumentException("Lentille: champ '" + name + "' non modifiable sur " + describe(target));
+        }
+
+        private IllegalArgumentException missingField() {
+            return new IllegalArgumentException("Lentille: champ '" + name + "' absent");
+        }
+    }
+
+    /**
+     * Accès à un élément de liste.
+     */
+    static final class IndexStep extends Step {
+        private final int index;
+
+        IndexStep(int index) {
+            this.index = index;
+        }
+
+        @Override
+        Object key() {
+            return index;
+        }
+
+        @Override
+        Object get(Object target, boolean optional) {
+            if (target instanceof List) {
+                List<?> list = (List<?>) target;
+                if (index < list.size()) {
+                    return list.get(index);
+                }
+                if (optional) {
+                    return null;
+                }
+                throw new IllegalArgumentException("Lentille: index " + index + " hors limites (taille " + list.size() + ")");
+            }
+            if (target == null && optional) {
+                return null;
+            }
+            throw new IllegalArgumentException("Lentille: index " + index + " inaccessible sur " + describe(target));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object set(Object target, Object value, boolean optional) {
+            if (target instanceof PersistentVector) {
+                return ((PersistentVector<Object>) target).assoc(index, value);
+            }
+            if (target instanceof PrimitiveVector) {
+                return ((PrimitiveVector) target).assoc(index, value);
+            }
+            if (target instanceof List) {
+                return PersistentVector.<Object>from((List<Object>) target).assoc(index, value);
+            }
+            throw new IllegalArgumentException("Lentille: index " + index + " non modifiable sur " + describe(target));
+        }
+    }
+
+    private static String describe(Object target) {
+        return target == null ? "null" : target.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,47 @@
+package com.jnane.runtime.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Succès et échecs d'un cache du moteur (validateurs, annotations, vues, mémos du moteur
+ * réactif).
+ */
+public final class CacheMetrics implements CacheMetricsMXBean {
+    private final String name;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CacheMetrics(String name) {
+        this.name = name;
+    }
+
+    public void hit() {
+        hits.increment();
+    }
+
+    public void miss() {
+        misses.increment();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -0,0 +1,15 @@
+package com.jnane.runtime.metrics;
+
+/**
+ * Vue JMX des succès et échecs d'un cache.
+ */
+public interface CacheMetricsMXBean {
+
+    String getName();
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRatio();
+}
@@ -0,0 +1,86 @@
+package com.jnane.runtime.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures d'exécution d'une fonction Jnane ou intégrée : appels et leur latence, appels
+ * terminés en erreur et, parmi eux, échecs de validation des champs annotés. La latence
+ * d'un appel comprend celle des fonctions qu'il appelle.
+ */
+public final class FunctionMetrics implements FunctionMetricsMXBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+
+    FunctionMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Enregistre un appel terminé, normalement ou sur erreur.
+     *
+     * @param nanos Durée de l'appel
+     */
+    public void recordCall(long nanos) {
+        latency.record(nanos);
+    }
+
+    /**
+     * Enregistre un appel terminé par une exception.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Enregistre un champ annoté absent ou mal typé à la fin d'un appel.
+     */
+    public void recordValidationFailure() {
+        validationFailures.increment();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getInvocations() {
+        return latency.snapshot().getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getValidationFailures() {
+        return validationFailures.sum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return latency.snapshot().getMean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latency.snapshot().getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latency.snapshot().getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latency.snapshot().getMax();
+    }
+}
@@ -0,0 +1,23 @@
+package com.jnane.runtime.metrics;
+
+/**
+ * Vue JMX des mesures d'une fonction ; les latences sont en nanosecondes.
+ */
+public interface FunctionMetricsMXBean {
+
+    String getName();
+
+    long getInvocations();
+
+    long getErrors();
+
+    long getValidationFailures();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getMaxNanos();
+}
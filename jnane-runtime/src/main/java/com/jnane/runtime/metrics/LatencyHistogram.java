@@ -0,0 +1,132 @@
+package com.jnane.runtime.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences à intervalles log-linéaires, à la manière de HdrHistogram :
+ * chaque puissance de deux est découpée en 16 intervalles égaux, si bien qu'une valeur
+ * est restituée avec une erreur relative inférieure à 6,25 % sur toute la plage des
+ * {@code long}, avec une empreinte fixe de 960 compteurs.
+ *
+ * <p>L'enregistrement est sans verrou (un incrément atomique et deux accumulateurs) et
+ * peut être appelé depuis n'importe quel fil. Un {@link Snapshot} n'est pas atomique :
+ * les enregistrements concurrents de la copie peuvent y figurer en partie.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Enregistre une valeur ; une valeur négative compte comme 0.
+     *
+     * @param value Valeur, en nanosecondes pour une latence
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts.incrementAndGet(indexOf(clamped));
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    /**
+     * Copie l'état courant de l'histogramme.
+     *
+     * @return Copie indépendante des enregistrements ultérieurs
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_COUNT + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        long lower = (1L << exponent) | ((long) (index % SUB_COUNT) * width);
+        return lower + width - 1;
+    }
+
+    /**
+     * État d'un histogramme à un instant donné.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Retourne un quantile, borné par le maximum enregistré.
+         *
+         * @param quantile Quantile entre 0 et 1, par exemple 0.99
+         * @return Borne supérieure de l'intervalle qui contient le quantile, 0 si vide
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{n=" + count + ", moyenne=" + Math.round(getMean()) + ", p50=" + getValueAtQuantile(0.5)
+                    + ", p99=" + getValueAtQuantile(0.99) + ", max=" + max + "}";
+        }
+    }
+}
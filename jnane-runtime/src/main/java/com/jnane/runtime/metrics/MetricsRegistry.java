@@ -0,0 +1,203 @@
+package com.jnane.runtime.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des mesures d'exécution du moteur : par fonction (appels, latences, erreurs,
+ * échecs de validation), par cache (succès et échecs) et par phase (chargement, analyse).
+ *
+ * <p>L'enregistrement est sans verrou et assez léger pour rester actif en production ;
+ * il peut être désactivé par la propriété système {@code jnane.metrics=false}. Les mesures
+ * se lisent par {@link #snapshot()} ou, une fois le registre publié par
+ * {@link #registerMBeans}, comme MBeans du domaine {@code com.jnane}
+ * ({@code com.jnane:type=Function,name="math:add"}, {@code type=Cache}, {@code type=Timer}).
+ * Le registre par défaut est publié sur le serveur de la plateforme si
+ * {@code jnane.metrics.jmx} vaut true, et toujours par le démon.</p>
+ */
+public final class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    /** Propriété système : false pour désactiver l'enregistrement des mesures */
+    public static final String ENABLED_PROPERTY = "jnane.metrics";
+    /** Propriété système : true pour publier le registre par défaut en JMX dès sa création */
+    public static final String JMX_PROPERTY = "jnane.metrics.jmx";
+    /** Domaine JMX des mesures */
+    public static final String JMX_DOMAIN = "com.jnane";
+
+    private static final MetricsRegistry DEFAULT = createDefault();
+
+    private final Map<String, FunctionMetrics> functions = new ConcurrentHashMap<>();
+    private final Map<String, CacheMetrics> caches = new ConcurrentHashMap<>();
+    private final Map<String, TimerMetrics> timers = new ConcurrentHashMap<>();
+    private volatile MBeanServer server;
+
+    private static MetricsRegistry createDefault() {
+        MetricsRegistry registry = new MetricsRegistry();
+        if (isEnabledByDefault() && Boolean.getBoolean(JMX_PROPERTY)) {
+            registry.registerMBeans(ManagementFactory.getPlatformMBeanServer());
+        }
+        return registry;
+    }
+
+    /**
+     * Retourne le registre partagé par les interpréteurs et le runtime.
+     *
+     * @return Registre par défaut
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Indique si l'enregistrement des mesures est activé par la propriété système.
+     *
+     * @return false si {@code jnane.metrics} vaut false
+     */
+    public static boolean isEnabledByDefault() {
+        return !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Retourne les mesures d'une fonction, créées au premier appel.
+     *
+     * @param name Nom complet de la fonction
+     * @return Mesures de la fonction
+     */
+    public FunctionMetrics function(String name) {
+        FunctionMetrics metrics = functions.get(name);
+        if (metrics == null) {
+            FunctionMetrics created = new FunctionMetrics(name);
+            metrics = functions.putIfAbsent(name, created);
+            if (metrics == null) {
+                metrics = created;
+                publish("Function", name, created);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Retourne les mesures d'un cache, créées au premier appel.
+     *
+     * @param name Nom du cache
+     * @return Mesures du cache
+     */
+    public CacheMetrics cache(String name) {
+        CacheMetrics metrics = caches.get(name);
+        if (metrics == null) {
+            CacheMetrics created = new CacheMetrics(name);
+            metrics = caches.putIfAbsent(name, created);
+            if (metrics == null) {
+                metrics = created;
+                publish("Cache", name, created);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Retourne les durées d'une phase, créées au premier appel.
+     *
+     * @param name Nom de la phase
+     * @return Durées de la phase
+     */
+    public TimerMetrics timer(String name) {
+        TimerMetrics metrics = timers.get(name);
+        if (metrics == null) {
+            TimerMetrics created = new TimerMetrics(name);
+            metrics = timers.putIfAbsent(name, created);
+            if (metrics == null) {
+                metrics = created;
+                publish("Timer", name, created);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Copie l'état courant des mesures.
+     *
+     * @return Copie immuable
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, MetricsSnapshot.Function> functionSnapshots = new TreeMap<>();
+        for (FunctionMetrics metrics : functions.values()) {
+            functionSnapshots.put(metrics.getName(), new MetricsSnapshot.Function(
+                    metrics.getErrors(), metrics.getValidationFailures(), metrics.getLatency().snapshot()));
+        }
+        Map<String, MetricsSnapshot.Cache> cacheSnapshots = new TreeMap<>();
+        for (CacheMetrics metrics : caches.values()) {
+            cacheSnapshots.put(metrics.getName(), new MetricsSnapshot.Cache(metrics.getHits(), metrics.getMisses()));
+        }
+        Map<String, LatencyHistogram.Snapshot> timerSnapshots = new TreeMap<>();
+        for (TimerMetrics metrics : timers.values()) {
+            timerSnapshots.put(metrics.getName(), metrics.getDurations().snapshot());
+        }
+        return new MetricsSnapshot(functionSnapshots, cacheSnapshots, timerSnapshots);
+    }
+
+    /**
+     * Publie les mesures existantes et futures du registre sur un serveur JMX. Sans effet
+     * si le registre est déjà publié.
+     *
+     * @param server Serveur de MBeans, par exemple celui de la plateforme
+     */
+    public synchronized void registerMBeans(MBeanServer server) {
+        if (this.server != null) {
+            return;
+        }
+        this.server = server;
+        for (FunctionMetrics metrics : functions.values()) {
+            publish("Function", metrics.getName(), metrics);
+        }
+        for (CacheMetrics metrics : caches.values()) {
+            publish("Cache", metrics.getName(), metrics);
+        }
+        for (TimerMetrics metrics : timers.values()) {
+            publish("Timer", metrics.getName(), metrics);
+        }
+        logger.info("Mesures publiées en JMX dans le domaine {}", JMX_DOMAIN);
+    }
+
+    /**
+     * Nom JMX d'une mesure.
+     *
+     * @param type Function, Cache ou Timer
+     * @param name Nom de la mesure
+     * @return Nom de l'objet
+     * @throws IllegalArgumentException si le nom est invalide
+     */
+    public static ObjectName objectName(String type, String name) {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+        } catch (JMException e) {
+            String errorMsg = "Nom JMX invalide pour la mesure " + type + " " + name;
+            logger.error(errorMsg, e);
+            throw new IllegalArgumentException(errorMsg, e);
+        }
+    }
+
+    private void publish(String type, String name, Object mbean) {
+        MBeanServer target = server;
+        if (target == null) {
+            return;
+        }
+        ObjectName objectName = objectName(type, name);
+        try {
+            if (!target.isRegistered(objectName)) {
+                target.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("Publication JMX impossible pour {}: {}", objectName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.jnane.runtime.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Copie immuable des mesures d'un {@link MetricsRegistry}, indépendante de tout
+ * interpréteur et de ses portées : fonctions, caches et phases par nom, triés.
+ */
+public final class MetricsSnapshot {
+    private final Map<String, Function> functions;
+    private final Map<String, Cache> caches;
+    private final Map<String, LatencyHistogram.Snapshot> timers;
+
+    MetricsSnapshot(Map<String, Function> functions, Map<String, Cache> caches,
+                    Map<String, LatencyHistogram.Snapshot> timers) {
+        this.functions = Collections.unmodifiableMap(functions);
+        this.caches = Collections.unmodifiableMap(caches);
+        this.timers = Collections.unmodifiableMap(timers);
+    }
+
+    public Map<String, Function> getFunctions() {
+        return functions;
+    }
+
+    public Map<String, Cache> getCaches() {
+        return caches;
+    }
+
+    /**
+     * Durées des phases du moteur ({@code load}, {@code parse}).
+     */
+    public Map<String, LatencyHistogram.Snapshot> getTimers() {
+        return timers;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{fonctions=" + functions + ", caches=" + caches + ", phases=" + timers + "}";
+    }
+
+    /**
+     * Mesures d'une fonction.
+     */
+    public static final class Function {
+        private final long errors;
+        private final long validationFailures;
+        private final LatencyHistogram.Snapshot latency;
+
+        Function(long errors, long validationFailures, LatencyHistogram.Snapshot latency) {
+            this.errors = errors;
+            this.validationFailures = validationFailures;
+            this.latency = latency;
+        }
+
+        public long getInvocations() {
+            return latency.getCount();
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        /**
+         * Latences des appels, en nanosecondes.
+         */
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return "Function{appels=" + getInvocations() + ", erreurs=" + errors + ", validations=" + validationFailures
+                    + ", latence=" + latency + "}";
+        }
+    }
+
+    /**
+     * Succès et échecs d'un cache.
+     */
+    public static final class Cache {
+        private final long hits;
+        private final long misses;
+
+        Cache(long hits, long misses) {
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        @Override
+        public String toString() {
+            return "Cache{succès=" + hits + ", échecs=" + misses + "}";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.jnane.runtime.metrics;
+
+/**
+ * Durées d'une phase du moteur : chargement d'un répertoire, analyse syntaxique d'un
+ * script.
+ */
+public final class TimerMetrics implements TimerMetricsMXBean {
+    private final String name;
+    private final LatencyHistogram durations = new LatencyHistogram();
+
+    TimerMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Enregistre la durée d'une phase commencée à un instant donné.
+     *
+     * @param startNanos Valeur de {@link System#nanoTime()} au début de la phase
+     */
+    public void recordSince(long startNanos) {
+        durations.record(System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram getDurations() {
+        return durations;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return durations.snapshot().getCount();
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return durations.snapshot().getSum();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return durations.snapshot().getMean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return durations.snapshot().getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return durations.snapshot().getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return durations.snapshot().getMax();
+    }
+}
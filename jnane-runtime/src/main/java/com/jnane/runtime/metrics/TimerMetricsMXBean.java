@@ -0,0 +1,21 @@
+package com.jnane.runtime.metrics;
+
+/**
+ * Vue JMX des durées d'une phase du moteur ; les durées sont en nanosecondes.
+ */
+public interface TimerMetricsMXBean {
+
+    String getName();
+
+    long getCount();
+
+    long getTotalNanos();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getMaxNanos();
+}
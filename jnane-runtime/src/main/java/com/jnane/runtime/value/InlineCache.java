@@ -0,0 +1,92 @@
+package com.jnane.runtime.value;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Cache en ligne d'un site d'accès à un champ ({@code valeur.champ}) : retient, pour les
+ * dernières formes rencontrées, la position du champ dans l'enregistrement. Un site qui
+ * voit toujours la même forme lit la valeur par un test d'identité et un accès indexé.
+ *
+ * <p>Le cache est polymorphe jusqu'à {@value #MAX_SHAPES} formes ; au-delà, le site est
+ * dit mégamorphe et chaque accès recherche la position dans la forme.</p>
+ */
+public final class InlineCache {
+
+    public static final int MAX_SHAPES = 4;
+
+    private final String field;
+    private volatile Entry[] entries = new Entry[0];
+    private volatile boolean megamorphic;
+
+    /**
+     * Crée le cache d'un site d'accès.
+     *
+     * @param field Nom du champ lu par le site
+     */
+    public InlineCache(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Lit le champ d'une valeur.
+     *
+     * @param target Enregistrement ou table
+     * @return Valeur du champ, null s'il est absent
+     */
+    public Object get(Object target) {
+        if (!(target instanceof ShapedRecord)) {
+            return ((Map<?, ?>) target).get(field);
+        }
+        ShapedRecord record = (ShapedRecord) target;
+        Shape shape = record.getShape();
+        Entry[] cached = entries;
+        for (Entry entry : cached) {
+            if (entry.shape == shape) {
+                return entry.offset >= 0 ? record.valueAt(entry.offset) : null;
+            }
+        }
+        int offset = shape.offsetOf(field);
+        if (!megamorphic) {
+            if (cached.length < MAX_SHAPES) {
+                Entry[] extended = Arrays.copyOf(cached, cached.length + 1);
+                extended[cached.length] = new Entry(shape, offset);
+                entries = extended;
+            } else {
+                megamorphic = true;
+            }
+        }
+        return offset >= 0 ? record.valueAt(offset) : null;
+    }
+
+    /**
+     * Retourne le nombre de formes en cache.
+     *
+     * @return Nombre de formes
+     */
+    public int shapeCount() {
+        return entries.length;
+    }
+
+    /**
+     * Indique si le site a rencontré plus de formes que le cache n'en retient.
+     *
+     * @return true si le site est mégamorphe
+     */
+    public boolean isMegamorphic() {
+        return megamorphic;
+    }
+
+    /**
+     * Position du champ pour une forme, -1 s'il en est absent.
+     */
+    private static final class Entry {
+        private final Shape shape;
+        private final int offset;
+
+        Entry(Shape shape, int offset) {
+            this.shape = shape;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.jnane.runtime.value;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Table d'internement (hash-consing) des valeurs persistantes : des états égaux
+ * partagent une seule instance, si bien que leur comparaison se réduit le plus souvent
+ * à un test d'identité et que les caches indexés par identité (vues, mémos) les
+ * reconnaissent. La recherche s'appuie sur le hash structurel mis en cache par
+ * {@link PersistentMap}, {@link PersistentVector}, {@link ShapedRecord} et
+ * {@link PrimitiveVector}.
+ *
+ * <p>L'égalité structurelle ne suffit pas à choisir l'instance canonique : une table et
+ * un enregistrement de mêmes champs sont égaux, tout comme une liste persistante et un
+ * tableau primitif de mêmes éléments. La clé d'internement porte donc aussi la
+ * représentation concrète (classe, type des éléments d'un tableau primitif, forme d'un
+ * enregistrement), à chaque niveau d'imbrication, si bien qu'une valeur internée garde
+ * toujours sa représentation.</p>
+ *
+ * <p>La table est concurrente et ses entrées sont faibles : une instance canonique que
+ * le programme n'utilise plus est libérée. L'internement est optionnel, activé pour
+ * les littéraux Jnane par la propriété système {@code jnane.value.intern}. Deux états
+ * égaux partageant une instance, le registre d'historique ne peut plus les distinguer
+ * par identité.</p>
+ */
+public final class Interner {
+    private static final Logger logger = LoggerFactory.getLogger(Interner.class);
+
+    public static final String ENABLED_PROPERTY = "jnane.value.intern";
+
+    // Estimation de l'empreinte d'une valeur : en-tête, puis coût par entrée ou élément
+    private static final long HEADER_BYTES = 32;
+    private static final long MAP_ENTRY_BYTES = 24;
+    private static final long VECTOR_ELEMENT_BYTES = 8;
+
+    private static final Interner DEFAULT = new Interner();
+
+    private final ConcurrentHashMap<Object, WeakKey> table = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final Stats stats = new Stats();
+
+    /**
+     * Retourne la table partagée par les interpréteurs.
+     *
+     * @return Table par défaut
+     */
+    public static Interner getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Indique si l'internement des littéraux est activé par la propriété système.
+     *
+     * @return true si {@code jnane.value.intern} vaut true
+     */
+    public static boolean isEnabledByDefault() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Retourne l'instance canonique d'une valeur. Les valeurs qui ne sont ni des tables,
+     * ni des enregistrements, ni des listes persistantes sont retournées telles quelles.
+     *
+     * @param value Valeur
+     * @return Instance canonique égale à la valeur
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T intern(T value) {
+        if (!isPersistent(value)) {
+            return value;
+        }
+        expunge();
+        WeakKey existing = table.get(new LookupKey(value));
+        Object canonical = existing != null ? existing.get() : null;
+        if (canonical == null) {
+            WeakKey key = new WeakKey(value, queue);
+            existing = table.putIfAbsent(key, key);
+            canonical = existing != null ? existing.get() : null;
+            if (canonical == null) {
+                table.put(key, key);
+                stats.interned.increment();
+                return value;
+            }
+        }
+        stats.hits.increment();
+        if (canonical != value) {
+            stats.bytesSaved.add(footprint(value));
+        }
+        return (T) canonical;
+    }
+
+    /**
+     * Estime l'empreinte mémoire d'une valeur persistante, hors éléments partagés.
+     */
+    private static long footprint(Object value) {
+        if (value instanceof PersistentMap) {
+            return HEADER_BYTES + MAP_ENTRY_BYTES * ((PersistentMap<?, ?>) value).size();
+        }
+        if (value instanceof ShapedRecord) {
+            return HEADER_BYTES + VECTOR_ELEMENT_BYTES * ((ShapedRecord) value).size();
+        }
+        if (value instanceof PrimitiveVector) {
+            return HEADER_BYTES + VECTOR_ELEMENT_BYTES * ((PrimitiveVector) value).size();
+        }
+        return HEADER_BYTES + VECTOR_ELEMENT_BYTES * ((PersistentVector<?>) value).size();
+    }
+
+    /**
+     * Retourne le nombre d'instances canoniques vivantes.
+     *
+     * @return Nombre d'entrées
+     */
+    public int size() {
+        expunge();
+        return table.size();
+    }
+
+    /**
+     * Vide la table.
+     */
+    public void clear() {
+        table.clear();
+        logger.debug("Table d'internement vidée");
+    }
+
+    /**
+     * Retourne les compteurs d'internement.
+     *
+     * @return Statistiques
+     */
+    public Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Compare deux valeurs structurellement, en exigeant la même représentation concrète
+     * à chaque niveau : une table contenant une liste persistante n'est pas confondue avec
+     * une table égale contenant un tableau primitif.
+     */
+    private static boolean sameValue(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        if (!isPersistent(a) && !isPersistent(b)) {
+            return a.equals(b);
+        }
+        if (a.getClass() != b.getClass() || a.hashCode() != b.hashCode()) {
+            return false;
+        }
+        if (a instanceof PrimitiveVector) {
+            return ((PrimitiveVector) a).getKind() == ((PrimitiveVector) b).getKind() && a.equals(b);
+        }
+        if (a instanceof ShapedRecord) {
+            ShapedRecord left = (ShapedRecord) a;
+            ShapedRecord right = (ShapedRecord) b;
+            if (left.getShape() != right.getShape()) {
+                return false;
+            }
+            for (int i = 0; i < left.size(); i++) {
+                if (!sameValue(left.valueAt(i), right.valueAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof PersistentMap) {
+            PersistentMap<?, ?> left = (PersistentMap<?, ?>) a;
+            PersistentMap<?, ?> right = (PersistentMap<?, ?>) b;
+            if (left.size() != right.size()) {
+                return false;
+            }
+            for (Map.Entry<?, ?> entry : left.entrySet()) {
+                if (!right.containsKey(entry.getKey()) || !sameValue(entry.getValue(), right.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        PersistentVector<?> left = (PersistentVector<?>) a;
+        PersistentVector<?> right = (PersistentVector<?>) b;
+        if (left.size() != right.size()) {
+            return false;
+        }
+        Iterator<?> theirs = right.iterator();
+        for (Object element : left) {
+            if (!sameValue(element, theirs.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPersistent(Object value) {
+        return value instanceof PersistentMap || value instanceof PersistentVector
+                || value instanceof ShapedRecord || value instanceof PrimitiveVector;
+    }
+
+    private void expunge() {
+        Object stale;
+        while ((stale = queue.poll()) != null) {
+            table.remove(stale);
+        }
+    }
+
+    /**
+     * Compteurs d'internement.
+     */
+    public static final class Stats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder interned = new LongAdder();
+        private final LongAdder bytesSaved = new LongAdder();
+
+        /** @return Valeurs remplacées par une instance canonique existante */
+        public long getHits() {
+            return hits.sum();
+        }
+
+        /** @return Valeurs devenues canoniques */
+        public long getInterned() {
+            return interned.sum();
+        }
+
+        /** @return Part des valeurs servies par une instance existante */
+        public double getHitRatio() {
+            long total = getHits() + getInterned();
+            return total == 0 ? 0 : (double) getHits() / total;
+        }
+
+        /** @return Estimation des octets économisés par les doublons abandonnés */
+        public long getEstimatedBytesSaved() {
+            return bytesSaved.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{partagées=" + getHits() + ", canoniques=" + getInterned()
+                    + ", taux=" + String.format("%.1f%%", getHitRatio() * 100)
+                    + ", économie≈" + getEstimatedBytesSaved() / 1024 + " Ko}";
+        }
+    }
+
+    /**
+     * Clé faible enregistrée dans la table, comparée structurellement.
+     */
+    private static final class WeakKey extends WeakReference<Object> {
+        private final int hash;
+
+        WeakKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = referent.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            Object referent = get();
+            if (referent == null) {
+                return false;
+            }
+            if (other instanceof WeakKey) {
+                return sameValue(referent, ((WeakKey) other).get());
+            }
+            return other instanceof LookupKey && sameValue(referent, ((LookupKey) other).referent);
+        }
+    }
+
+    /**
+     * Clé forte temporaire utilisée pour les recherches.
+     */
+    private static final class LookupKey {
+        private final Object referent;
+
+        LookupKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override
+        public int hashCode() {
+            return referent.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof LookupKey) {
+                return sameValue(referent, ((LookupKey) other).referent);
+            }
+            return other instanceof WeakKey && sameValue(referent, ((WeakKey) other).get());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.jnane.runtime.value;
+
+/**
+ * Valeur fonctionnelle manipulable par le langage Jnane (lambda, fonction de transformation...).
+ */
+public interface JnaneFunction {
+
+    /**
+     * Applique la fonction aux arguments donnés.
+     *
+     * @param arguments Arguments positionnels
+     * @return Résultat de l'application
+     */
+    Object apply(Object... arguments);
+}
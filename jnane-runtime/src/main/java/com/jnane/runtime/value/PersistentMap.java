@@ -0,0 +1,866 @@
+package com.jnane.runtime.value;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Table associative persistante (immuable) utilisée pour représenter les enregistrements Jnane.
+ * L'implémentation repose sur un HAMT (Hash Array Mapped Trie) de type CHAMP :
+ * chaque nœud contient une carte de bits pour les entrées en ligne et une autre
+ * pour les sous-nœuds, ce qui donne des mises à jour en O(log32 n) avec partage
+ * structurel entre les versions.
+ * <p>
+ * Les constructions en masse passent par {@link #asTransient()}, qui modifie
+ * les nœuds sur place tant qu'ils appartiennent au même jeton d'édition.
+ *
+ * @param <K> Type des clés (non null)
+ * @param <V> Type des valeurs
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int HASH_LENGTH = 32;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(0, BitmapNode.EMPTY);
+
+    private final int size;
+    private final Node root;
+
+    // Hash structurel, calculé au premier appel (0 : pas encore calculé)
+    private int hash;
+
+    private PersistentMap(int size, Node root) {
+        this.size = size;
+        this.root = root;
+    }
+
+    /**
+     * Retourne la table vide.
+     *
+     * @return Table vide
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Construit une table persistante à partir d'une table existante.
+     *
+     * @param source Table source
+     * @return Table persistante contenant les mêmes entrées
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> from(Map<? extends K, ? extends V> source) {
+        if (source instanceof PersistentMap) {
+            return (PersistentMap<K, V>) source;
+        }
+        Transient<K, V> builder = PersistentMap.<K, V>empty().asTransient();
+        for (Map.Entry<? extends K, ? extends V> entry : source.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        return builder.persistent();
+    }
+
+    /**
+     * Calcule le hash utilisé pour indexer une clé dans le trie.
+     * Il peut être précalculé par les appelants qui accèdent souvent à la même clé.
+     *
+     * @param key Clé
+     * @return Hash de la clé
+     */
+    public static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && root.find(key, hash(key), 0, Node.NOT_FOUND) != Node.NOT_FOUND;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key == null ? null : get(key, hash(key));
+    }
+
+    /**
+     * Recherche une valeur avec un hash de clé précalculé par {@link #hash(Object)}.
+     *
+     * @param key Clé
+     * @param keyHash Hash précalculé de la clé
+     * @return Valeur associée ou null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key, int keyHash) {
+        Object value = root.find(key, keyHash, 0, null);
+        return (V) value;
+    }
+
+    /**
+     * Retourne une nouvelle table où la clé est associée à la valeur.
+     * Seuls les nœuds situés sur le chemin de la clé sont copiés.
+     *
+     * @param key Clé (non null)
+     * @param value Valeur
+     * @return Nouvelle table (ou cette table si rien n'a changé)
+     */
+    public PersistentMap<K, V> assoc(K key, V value) {
+        return assoc(key, hash(Objects.requireNonNull(key, "clé null")), value);
+    }
+
+    /**
+     * Variante de {@link #assoc(Object, Object)} avec un hash de clé précalculé.
+     *
+     * @param key Clé (non null)
+     * @param keyHash Hash précalculé de la clé
+     * @param value Valeur
+     * @return Nouvelle table
+     */
+    public PersistentMap<K, V> assoc(K key, int keyHash, V value) {
+        Change change = new Change();
+        Node newRoot = root.put(null, key, keyHash, value, 0, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentMap<>(change.added ? size + 1 : size, newRoot);
+    }
+
+    /**
+     * Retourne une nouvelle table sans la clé donnée.
+     *
+     * @param key Clé à retirer
+     * @return Nouvelle table (ou cette table si la clé est absente)
+     */
+    public PersistentMap<K, V> dissoc(Object key) {
+        if (key == null) {
+            return this;
+        }
+        Change change = new Change();
+        Node newRoot = root.remove(null, key, hash(key), 0, change);
+        if (!change.removed) {
+            return this;
+        }
+        return size == 1 ? empty() : new PersistentMap<>(size - 1, newRoot);
+    }
+
+    /**
+     * Ouvre une version transitoire de la table pour des mises à jour en masse.
+     *
+     * @return Table transitoire initialisée avec le contenu de cette table
+     */
+    public Transient<K, V> asTransient() {
+        return new Transient<>(this);
+    }
+
+    /**
+     * Compare cette table à une version ultérieure en parcourant les deux tries en parallèle.
+     * Les sous-arbres partagés (même référence) sont ignorés : le coût est proportionnel
+     * au nombre de nœuds modifiés, pas à la taille de la table. Les valeurs sont comparées
+     * par identité.
+     *
+     * @param other Version à comparer
+     * @param listener Récepteur des différences
+     */
+    @SuppressWarnings("unchecked")
+    public void diff(PersistentMap<K, V> other, DiffListener<K, V> listener) {
+        diffNodes(root, other.root, (DiffListener<Object, Object>) listener);
+    }
+
+    /**
+     * Récepteur des différences calculées par {@link #diff(PersistentMap, DiffListener)}.
+     */
+    public interface DiffListener<K, V> {
+        void added(K key, V value);
+
+        void removed(K key, V value);
+
+        void changed(K key, V oldValue, V newValue);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Hash structurel au sens de {@link Map#hashCode()}, mis en cache : la table étant
+     * immuable, il n'est calculé qu'une fois.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && size > 0) {
+            h = super.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Égalité structurelle. Entre deux tables persistantes, l'identité des racines ou
+     * des hash en cache tranche sans parcours dans la plupart des cas.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof PersistentMap) {
+            PersistentMap<?, ?> other = (PersistentMap<?, ?>) o;
+            if (size != other.size || hashCode() != other.hashCode()) {
+                return false;
+            }
+            if (root == other.root) {
+                return true;
+            }
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException("PersistentMap est immuable, utiliser assoc()");
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException("PersistentMap est immuable, utiliser dissoc()");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("PersistentMap est immuable");
+    }
+
+    /**
+     * Table transitoire : même structure que la table persistante, mais les nœuds créés
+     * pendant la session d'édition sont modifiés sur place. Une fois {@link #persistent()}
+     * appelé, la table transitoire n'est plus utilisable.
+     */
+    public static final class Transient<K, V> {
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+
+        private Transient(PersistentMap<K, V> source) {
+            this.root = source.root;
+            this.size = source.size;
+        }
+
+        /**
+         * Associe une valeur à une clé.
+         *
+         * @param key Clé (non null)
+         * @param value Valeur
+         * @return Cette table transitoire
+         */
+        public Transient<K, V> put(K key, V value) {
+            ensureEditable();
+            Change change = new Change();
+            root = root.put(edit, Objects.requireNonNull(key, "clé null"), hash(key), value, 0, change);
+            if (change.added) {
+                size++;
+            }
+            return this;
+        }
+
+        /**
+         * Retire une clé.
+         *
+         * @param key Clé à retirer
+         * @return Cette table transitoire
+         */
+        public Transient<K, V> remove(Object key) {
+            ensureEditable();
+            if (key == null) {
+                return this;
+            }
+            Change change = new Change();
+            root = root.remove(edit, key, hash(key), 0, change);
+            if (change.removed) {
+                size--;
+            }
+            return this;
+        }
+
+        /**
+         * Recherche une valeur.
+         *
+         * @param key Clé
+         * @return Valeur associée ou null
+         */
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            ensureEditable();
+            return key == null ? null : (V) root.find(key, hash(key), 0, null);
+        }
+
+        /**
+         * Retourne le nombre d'entrées.
+         *
+         * @return Nombre d'entrées
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Fige la table transitoire en table persistante.
+         *
+         * @return Table persistante
+         */
+        public PersistentMap<K, V> persistent() {
+            ensureEditable();
+            edit = null;
+            return size == 0 ? empty() : new PersistentMap<>(size, root);
+        }
+
+        private void ensureEditable() {
+            if (edit == null) {
+                throw new IllegalStateException("Table transitoire utilisée après persistent()");
+            }
+        }
+    }
+
+    // ==================== NŒUDS DU TRIE ====================
+
+    /**
+     * Résultat d'une modification : indique si une entrée a été ajoutée ou retirée.
+     */
+    private static final class Change {
+        boolean added;
+        boolean removed;
+    }
+
+    private abstract static class Node {
+        static final Object NOT_FOUND = new Object();
+
+        abstract Object find(Object key, int keyHash, int shift, Object notFound);
+
+        abstract Node put(Object edit, Object key, int keyHash, Object value, int shift, Change change);
+
+        abstract Node remove(Object edit, Object key, int keyHash, int shift, Change change);
+
+        abstract int payloadArity();
+
+        abstract int nodeArity();
+
+        abstract Object keyAt(int index);
+
+        abstract Object valueAt(int index);
+
+        abstract Node nodeAt(int index);
+    }
+
+    private static int mask(int keyHash, int shift) {
+        return (keyHash >>> shift) & MASK;
+    }
+
+    private static int bitpos(int keyHash, int shift) {
+        return 1 << mask(keyHash, shift);
+    }
+
+    /**
+     * Nœud indexé par cartes de bits. Le tableau contient d'abord les paires clé/valeur
+     * en ligne, puis les sous-nœuds stockés en ordre inverse à la fin du tableau.
+     */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, 0, new Object[0]);
+
+        final Object edit;
+        int dataMap;
+        int nodeMap;
+        Object[] content;
+
+        BitmapNode(Object edit, int dataMap, int nodeMap, Object[] content) {
+            this.edit = edit;
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        int nodeIndex(int bit) {
+            return Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        Node subNode(int bit) {
+            return (Node) content[content.length - 1 - nodeIndex(bit)];
+        }
+
+        @Override
+        int payloadArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Object keyAt(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object valueAt(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        Node nodeAt(int index) {
+            return (Node) content[content.length - 1 - index];
+        }
+
+        @Override
+        Object find(Object key, int keyHash, int shift, Object notFound) {
+            BitmapNode node = this;
+            while (true) {
+                int bit = bitpos(keyHash, shift);
+                if ((node.dataMap & bit) != 0) {
+                    int index = node.dataIndex(bit);
+                    Object candidate = node.content[2 * index];
+                    return candidate == key || candidate.equals(key) ? node.content[2 * index + 1] : notFound;
+                }
+                if ((node.nodeMap & bit) == 0) {
+                    return notFound;
+                }
+                Node child = node.subNode(bit);
+                shift += BITS;
+                if (!(child instanceof BitmapNode)) {
+                    return child.find(key, keyHash, shift, notFound);
+                }
+                node = (BitmapNode) child;
+            }
+        }
+
+        private BitmapNode editable(Object edit) {
+            if (edit != null && this.edit == edit) {
+                return this;
+            }
+            return new BitmapNode(edit, dataMap, nodeMap, content.clone());
+        }
+
+        @Override
+        Node put(Object edit, Object key, int keyHash, Object value, int shift, Change change) {
+            int bit = bitpos(keyHash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                Object currentKey = content[2 * index];
+                if (currentKey == key || currentKey.equals(key)) {
+                    if (content[2 * index + 1] == value) {
+                        return this;
+                    }
+                    BitmapNode node = editable(edit);
+                    node.content[2 * index + 1] = value;
+                    return node;
+                }
+                // Conflit de préfixe : descendre les deux entrées dans un nouveau sous-nœud
+                Object currentValue = content[2 * index + 1];
+                Node merged = mergeEntries(edit, currentKey, hash(currentKey), currentValue,
+                        key, keyHash, value, shift + BITS);
+                change.added = true;
+                return migrateInlineToNode(edit, bit, merged);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node child = subNode(bit);
+                Node newChild = child.put(edit, key, keyHash, value, shift + BITS, change);
+                if (newChild == child) {
+                    return this;
+                }
+                BitmapNode node = editable(edit);
+                node.content[content.length - 1 - nodeIndex(bit)] = newChild;
+                return node;
+            }
+            change.added = true;
+            return insertInline(edit, bit, key, value);
+        }
+
+        @Override
+        Node remove(Object edit, Object key, int keyHash, int shift, Change change) {
+            int bit = bitpos(keyHash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = dataIndex(bit);
+                Object currentKey = content[2 * index];
+                if (currentKey != key && !currentKey.equals(key)) {
+                    return this;
+                }
+                change.removed = true;
+                return removeInline(edit, bit);
+            }
+            if ((nodeMap & bit) != 0) {
+                Node child = subNode(bit);
+                Node newChild = child.remove(edit, key, keyHash, shift + BITS, change);
+                if (!change.removed) {
+                    return this;
+                }
+                // Forme canonique : un sous-nœud réduit à une seule entrée est remonté en ligne
+                if (newChild.nodeArity() == 0 && newChild.payloadArity() == 1) {
+                    return migrateNodeToInline(edit, bit, newChild.keyAt(0), newChild.valueAt(0));
+                }
+                BitmapNode node = editable(edit);
+                node.content[content.length - 1 - nodeIndex(bit)] = newChild;
+                return node;
+            }
+            return this;
+        }
+
+        private Node insertInline(Object edit, int bit, Object key, Object value) {
+            int index = 2 * dataIndex(bit);
+            Object[] newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, index);
+            newContent[index] = key;
+            newContent[index + 1] = value;
+            System.arraycopy(content, index, newContent, index + 2, content.length - index);
+            return withContent(edit, dataMap | bit, nodeMap, newContent);
+        }
+
+        private Node removeInline(Object edit, int bit) {
+            int index = 2 * dataIndex(bit);
+            Object[] newContent = new Object[content.length - 2];
+            System.arraycopy(content, 0, newContent, 0, index);
+            System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+            return withContent(edit, dataMap ^ bit, nodeMap, newContent);
+        }
+
+        private Node migrateInlineToNode(Object edit, int bit, Node child) {
+            int oldIndex = 2 * dataIndex(bit);
+            int newIndex = content.length - 2 - nodeIndex(bit);
+            Object[] newContent = new Object[content.length - 1];
+            System.arraycopy(content, 0, newContent, 0, oldIndex);
+            System.arraycopy(content, oldIndex + 2, newContent, oldIndex, newIndex - oldIndex);
+            newContent[newIndex] = child;
+            System.arraycopy(content, newIndex + 2, newContent, newIndex + 1, content.length - newIndex - 2);
+            return withContent(edit, dataMap ^ bit, nodeMap | bit, newContent);
+        }
+
+        private Node migrateNodeToInline(Object edit, int bit, Object key, Object value) {
+            int oldIndex = content.length - 1 - nodeIndex(bit);
+            int newIndex = 2 * dataIndex(bit);
+            Object[] newContent = new Object[content.length + 1];
+            System.arraycopy(content, 0, newContent, 0, newIndex);
+            newContent[newIndex] = key;
+            newContent[newIndex + 1] = value;
+            System.arraycopy(content, newIndex, newContent, newIndex + 2, oldIndex - newIndex);
+            System.arraycopy(content, oldIndex + 1, newContent, oldIndex + 2, content.length - oldIndex - 1);
+            return withContent(edit, dataMap | bit, nodeMap ^ bit, newContent);
+        }
+
+        private Node withContent(Object edit, int newDataMap, int newNodeMap, Object[] newContent) {
+            if (edit != null && this.edit == edit) {
+                this.dataMap = newDataMap;
+                this.nodeMap = newNodeMap;
+                this.content = newContent;
+                return this;
+            }
+            return new BitmapNode(edit, newDataMap, newNodeMap, newContent);
+        }
+    }
+
+    /**
+     * Nœud de collision : clés distinctes dont les 32 bits de hash sont identiques.
+     */
+    private static final class CollisionNode extends Node {
+        final int keyHash;
+        final Object[] content;
+
+        CollisionNode(int keyHash, Object[] content) {
+            this.keyHash = keyHash;
+            this.content = content;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (content[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int keyHash, int shift, Object notFound) {
+            int index = indexOf(key);
+            return index < 0 ? notFound : content[index + 1];
+        }
+
+        @Override
+        Node put(Object edit, Object key, int keyHash, Object value, int shift, Change change) {
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (content[index + 1] == value) {
+                    return this;
+                }
+                Object[] newContent = content.clone();
+                newContent[index + 1] = value;
+                return new CollisionNode(this.keyHash, newContent);
+            }
+            Object[] newContent = Arrays.copyOf(content, content.length + 2);
+            newContent[content.length] = key;
+            newContent[content.length + 1] = value;
+            change.added = true;
+            return new CollisionNode(this.keyHash, newContent);
+        }
+
+        @Override
+        Node remove(Object edit, Object key, int keyHash, int shift, Change change) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            change.removed = true;
+            Object[] newContent = new Object[content.length - 2];
+            System.arraycopy(content, 0, newContent, 0, index);
+            System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+            return new CollisionNode(this.keyHash, newContent);
+        }
+
+        @Override
+        int payloadArity() {
+            return content.length / 2;
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        @Override
+        Object keyAt(int index) {
+            return content[2 * index];
+        }
+
+        @Override
+        Object valueAt(int index) {
+            return content[2 * index + 1];
+        }
+
+        @Override
+        Node nodeAt(int index) {
+            throw new IndexOutOfBoundsException("Un nœud de collision n'a pas de sous-nœud");
+        }
+    }
+
+    private static Node mergeEntries(Object edit, Object key0, int hash0, Object value0,
+                                     Object key1, int hash1, Object value1, int shift) {
+        if (shift >= HASH_LENGTH) {
+            return new CollisionNode(hash0, new Object[] {key0, value0, key1, value1});
+        }
+        int mask0 = mask(hash0, shift);
+        int mask1 = mask(hash1, shift);
+        if (mask0 != mask1) {
+            int dataMap = (1 << mask0) | (1 << mask1);
+            Object[] content = mask0 < mask1
+                    ? new Object[] {key0, value0, key1, value1}
+                    : new Object[] {key1, value1, key0, value0};
+            return new BitmapNode(edit, dataMap, 0, content);
+        }
+        Node child = mergeEntries(edit, key0, hash0, value0, key1, hash1, value1, shift + BITS);
+        return new BitmapNode(edit, 0, 1 << mask0, new Object[] {child});
+    }
+
+    // ==================== COMPARAISON STRUCTURELLE ====================
+
+    private static void diffNodes(Node a, Node b, DiffListener<Object, Object> listener) {
+        if (a == b) {
+            return;
+        }
+        if (!(a instanceof BitmapNode) || !(b instanceof BitmapNode)) {
+            diffGeneric(a, b, listener);
+            return;
+        }
+        BitmapNode x = (BitmapNode) a;
+        BitmapNode y = (BitmapNode) b;
+        int positions = x.dataMap | x.nodeMap | y.dataMap | y.nodeMap;
+        while (positions != 0) {
+            int bit = Integer.lowestOneBit(positions);
+            positions ^= bit;
+            boolean xData = (x.dataMap & bit) != 0;
+            boolean xNode = (x.nodeMap & bit) != 0;
+            boolean yData = (y.dataMap & bit) != 0;
+            boolean yNode = (y.nodeMap & bit) != 0;
+            if (xData && yData) {
+                int xi = 2 * x.dataIndex(bit);
+                int yi = 2 * y.dataIndex(bit);
+                Object xKey = x.content[xi];
+                Object yKey = y.content[yi];
+                if (xKey.equals(yKey)) {
+                    if (x.content[xi + 1] != y.content[yi + 1]) {
+                        listener.changed(xKey, x.content[xi + 1], y.content[yi + 1]);
+                    }
+                } else {
+                    listener.removed(xKey, x.content[xi + 1]);
+                    listener.added(yKey, y.content[yi + 1]);
+                }
+            } else if (xNode && yNode) {
+                diffNodes(x.subNode(bit), y.subNode(bit), listener);
+            } else if (xData && yNode) {
+                int xi = 2 * x.dataIndex(bit);
+                diffEntryAgainstNode(x.content[xi], x.content[xi + 1], y.subNode(bit), true, listener);
+            } else if (xNode && yData) {
+                int yi = 2 * y.dataIndex(bit);
+                diffEntryAgainstNode(y.content[yi], y.content[yi + 1], x.subNode(bit), false, listener);
+            } else if (xData) {
+                int xi = 2 * x.dataIndex(bit);
+                listener.removed(x.content[xi], x.content[xi + 1]);
+            } else if (yData) {
+                int yi = 2 * y.dataIndex(bit);
+                listener.added(y.content[yi], y.content[yi + 1]);
+            } else if (xNode) {
+                EntryIterator<Object, Object> it = new EntryIterator<>(x.subNode(bit));
+                while (it.hasNext()) {
+                    Map.Entry<Object, Object> entry = it.next();
+                    listener.removed(entry.getKey(), entry.getValue());
+                }
+            } else {
+                EntryIterator<Object, Object> it = new EntryIterator<>(y.subNode(bit));
+                while (it.hasNext()) {
+                    Map.Entry<Object, Object> entry = it.next();
+                    listener.added(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Compare une entrée en ligne d'un côté avec un sous-nœud de l'autre côté.
+     *
+     * @param entryIsOld true si l'entrée appartient à l'ancienne version
+     */
+    private static void diffEntryAgainstNode(Object key, Object value, Node node, boolean entryIsOld,
+                                             DiffListener<Object, Object> listener) {
+        boolean found = false;
+        EntryIterator<Object, Object> it = new EntryIterator<>(node);
+        while (it.hasNext()) {
+            Map.Entry<Object, Object> entry = it.next();
+            if (entry.getKey().equals(key)) {
+                found = true;
+                if (entry.getValue() != value) {
+                    if (entryIsOld) {
+                        listener.changed(key, value, entry.getValue());
+                    } else {
+                        listener.changed(key, entry.getValue(), value);
+                    }
+                }
+            } else if (entryIsOld) {
+                listener.added(entry.getKey(), entry.getValue());
+            } else {
+                listener.removed(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!found) {
+            if (entryIsOld) {
+                listener.removed(key, value);
+            } else {
+                listener.added(key, value);
+            }
+        }
+    }
+
+    /**
+     * Comparaison générique, utilisée pour les nœuds de collision (très petits).
+     */
+    private static void diffGeneric(Node a, Node b, DiffListener<Object, Object> listener) {
+        Map<Object, Object> old = new java.util.HashMap<>();
+        EntryIterator<Object, Object> it = new EntryIterator<>(a);
+        while (it.hasNext()) {
+            Map.Entry<Object, Object> entry = it.next();
+            old.put(entry.getKey(), entry.getValue());
+        }
+        it = new EntryIterator<>(b);
+        while (it.hasNext()) {
+            Map.Entry<Object, Object> entry = it.next();
+            if (!old.containsKey(entry.getKey())) {
+                listener.added(entry.getKey(), entry.getValue());
+            } else {
+                Object oldValue = old.remove(entry.getKey());
+                if (oldValue != entry.getValue()) {
+                    listener.changed(entry.getKey(), oldValue, entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<Object, Object> entry : old.entrySet()) {
+            listener.removed(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Itérateur en profondeur sur les entrées, sans allocation récursive.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Node[] nodes = new Node[HASH_LENGTH / BITS + 2];
+        private final int[] nodeCursors = new int[HASH_LENGTH / BITS + 2];
+        private int depth;
+        private Node current;
+        private int payloadCursor;
+
+        EntryIterator(Node root) {
+            current = root;
+            nodes[0] = root;
+            depth = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                if (payloadCursor < current.payloadArity()) {
+                    return true;
+                }
+                if (nodeCursors[depth] < nodes[depth].nodeArity()) {
+                    Node child = nodes[depth].nodeAt(nodeCursors[depth]++);
+                    depth++;
+                    nodes[depth] = child;
+                    nodeCursors[depth] = 0;
+                    current = child;
+                    payloadCursor = 0;
+                    continue;
+                }
+                if (depth == 0) {
+                    return false;
+                }
+                nodes[depth] = null;
+                depth--;
+                // Les entrées du parent ont déjà été parcourues avant ses sous-nœuds
+                current = nodes[depth];
+                payloadCursor = current.payloadArity();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = payloadCursor++;
+            return new SimpleImmutableEntry<>((K) current.keyAt(index), (V) current.valueAt(index));
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.jnane.runtime.value;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Liste persistante (immuable) utilisée pour représenter les listes Jnane.
+ * L'implémentation est un trie de largeur 32 avec un tampon de queue : l'accès indexé
+ * et la mise à jour coûtent O(log32 n), l'ajout en fin est amorti en O(1), et les
+ * versions successives partagent tous les nœuds qui ne sont pas sur le chemin modifié.
+ *
+ * @param <E> Type des éléments
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+    private static final PersistentVector<?> EMPTY =
+            new PersistentVector<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+    private final int count;
+    private final int shift;
+    private final Node root;
+    private final Object[] tail;
+
+    // Hash structurel, calculé au premier appel (0 : pas encore calculé)
+    private int hash;
+
+    private PersistentVector(int count, int shift, Node root, Object[] tail) {
+        this.count = count;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Retourne la liste vide.
+     *
+     * @return Liste vide
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    /**
+     * Construit une liste persistante à partir des éléments donnés.
+     *
+     * @param elements Éléments
+     * @return Liste persistante
+     */
+    @SafeVarargs
+    public static <E> PersistentVector<E> of(E... elements) {
+        Transient<E> builder = PersistentVector.<E>empty().asTransient();
+        for (E element : elements) {
+            builder.conj(element);
+        }
+        return builder.persistent();
+    }
+
+    /**
+     * Construit une liste persistante à partir d'une collection existante.
+     *
+     * @param source Éléments source
+     * @return Liste persistante
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> from(Iterable<? extends E> source) {
+        if (source instanceof PersistentVector) {
+            return (PersistentVector<E>) source;
+        }
+        Transient<E> builder = PersistentVector.<E>empty().asTransient();
+        for (E element : source) {
+            builder.conj(element);
+        }
+        return builder.persistent();
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    private int tailOffset() {
+        return count < WIDTH ? 0 : ((count - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] arrayFor(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors limites (taille " + count + ")");
+        }
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+        return node.array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) arrayFor(index)[index & MASK];
+    }
+
+    /**
+     * Retourne une nouvelle liste avec l'élément ajouté en fin.
+     *
+     * @param element Élément à ajouter
+     * @return Nouvelle liste
+     */
+    public PersistentVector<E> conj(E element) {
+        if (count - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentVector<>(count + 1, shift, root, newTail);
+        }
+        // La queue est pleine : elle devient une feuille du trie
+        Node tailNode = new Node(null, tail);
+        Node newRoot;
+        int newShift = shift;
+        if ((count >>> BITS) > (1 << shift)) {
+            newRoot = new Node(null, new Object[WIDTH]);
+            newRoot.array[0] = root;
+            newRoot.array[1] = newPath(null, shift, tailNode);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(null, shift, root, tailNode);
+        }
+        return new PersistentVector<>(count + 1, newShift, newRoot, new Object[] {element});
+    }
+
+    /**
+     * Retourne une nouvelle liste où l'élément à l'index donné est remplacé.
+     * Seuls les nœuds situés sur le chemin de l'index sont copiés.
+     *
+     * @param index Index (égal à la taille pour un ajout en fin)
+     * @param element Nouvel élément
+     * @return Nouvelle liste
+     */
+    public PersistentVector<E> assoc(int index, E element) {
+        if (index == count) {
+            return conj(element);
+        }
+        if (index < 0 || index > count) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors limites (taille " + count + ")");
+        }
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<>(count, shift, root, newTail);
+        }
+        return new PersistentVector<>(count, shift, doAssoc(null, shift, root, index, element), tail);
+    }
+
+    /**
+     * Retourne une nouvelle liste sans son dernier élément.
+     *
+     * @return Nouvelle liste
+     */
+    public PersistentVector<E> pop() {
+        if (count == 0) {
+            throw new IllegalStateException("Impossible de retirer un élément d'une liste vide");
+        }
+        if (count == 1) {
+            return empty();
+        }
+        if (count - tailOffset() > 1) {
+            return new PersistentVector<>(count - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+        Object[] newTail = arrayFor(count - 2);
+        Node newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null) {
+            newRoot = EMPTY_NODE;
+        }
+        if (shift > BITS && newRoot.array[1] == null) {
+            newRoot = (Node) newRoot.array[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector<>(count - 1, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Ouvre une version transitoire de la liste pour des ajouts en masse.
+     *
+     * @return Liste transitoire initialisée avec le contenu de cette liste
+     */
+    public Transient<E> asTransient() {
+        return new Transient<>(this);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new ChunkIterator<>(this, 0, count);
+    }
+
+    /**
+     * Hash structurel au sens de {@link java.util.List#hashCode()}, mis en cache : la liste
+     * étant immuable, il n'est calculé qu'une fois.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && count > 0) {
+            h = super.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Égalité structurelle. Entre deux listes persistantes, le partage des nœuds ou
+     * des hash en cache tranche sans parcours dans la plupart des cas.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof PersistentVector) {
+            PersistentVector<?> other = (PersistentVector<?>) o;
+            if (count != other.count || hashCode() != other.hashCode()) {
+                return false;
+            }
+            if (root == other.root && tail == other.tail) {
+                return true;
+            }
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        throw new UnsupportedOperationException("PersistentVector est immuable, utiliser conj()");
+    }
+
+    @Override
+    public E set(int index, E element) {
+        throw new UnsupportedOperationException("PersistentVector est immuable, utiliser assoc()");
+    }
+
+    // ==================== OPÉRATIONS SUR LE TRIE ====================
+
+    private Node pushTail(Object edit, int level, Node parent, Node tailNode) {
+        int subIndex = ((count - 1) >>> level) & MASK;
+        Node result = parent.editable(edit);
+        Node toInsert;
+        if (level == BITS) {
+            toInsert = tailNode;
+        } else {
+            Node child = (Node) parent.array[subIndex];
+            toInsert = child != null
+                    ? pushTail(edit, level - BITS, child, tailNode)
+                    : newPath(edit, level - BITS, tailNode);
+        }
+        result.array[subIndex] = toInsert;
+        return result;
+    }
+
+    private Node popTail(int level, Node node) {
+        int subIndex = ((count - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Node newChild = popTail(level - BITS, (Node) node.array[subIndex]);
+            if (newChild == null && subIndex == 0) {
+                return null;
+            }
+            Node result = new Node(null, node.array.clone());
+            result.array[subIndex] = newChild;
+            return result;
+        }
+        if (subIndex == 0) {
+            return null;
+        }
+        Node result = new Node(null, node.array.clone());
+        result.array[subIndex] = null;
+        return result;
+    }
+
+    private static Node newPath(Object edit, int level, Node node) {
+        if (level == 0) {
+            return node;
+        }
+        Node path = new Node(edit, new Object[WIDTH]);
+        path.array[0] = newPath(edit, level - BITS, node);
+        return path;
+    }
+
+    private static Node doAssoc(Object edit, int level, Node node, int index, Object element) {
+        Node result = node.editable(edit);
+        if (level == 0) {
+            result.array[index & MASK] = element;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            result.array[subIndex] = doAssoc(edit, level - BITS, (Node) node.array[subIndex], index, element);
+        }
+        return result;
+    }
+
+    /**
+     * Nœud du trie. Les nœuds internes contiennent des sous-nœuds, les feuilles des éléments.
+     */
+    private static final class Node {
+        final Object edit;
+        final Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        Node editable(Object edit) {
+            if (edit != null && this.edit == edit) {
+                return this;
+            }
+            return new Node(edit, array.clone());
+        }
+    }
+
+    /**
+     * Liste transitoire : les ajouts modifient sur place la queue et les nœuds créés
+     * pendant la session d'édition. Une fois {@link #persistent()} appelé,
+     * la liste transitoire n'est plus utilisable.
+     */
+    public static final class Transient<E> {
+        private Object edit = new Object();
+        private int count;
+        private int shift;
+        private Node root;
+        private Object[] tail;
+
+        private Transient(PersistentVector<E> source) {
+            this.count = source.count;
+            this.shift = source.shift;
+            this.root = source.root.editable(edit);
+            this.tail = Arrays.copyOf(source.tail, WIDTH);
+        }
+
+        private int tailOffset() {
+            return count < WIDTH ? 0 : ((count - 1) >>> BITS) << BITS;
+        }
+
+        /**
+         * Ajoute un élément en fin de liste.
+         *
+         * @param element Élément à ajouter
+         * @return Cette liste transitoire
+         */
+        public Transient<E> conj(E element) {
+            ensureEditable();
+            int index = count;
+            if (index - tailOffset() < WIDTH) {
+                tail[index & MASK] = element;
+                count++;
+                return this;
+            }
+            Node tailNode = new Node(edit, tail);
+            tail = new Object[WIDTH];
+            tail[0] = element;
+            if ((count >>> BITS) > (1 << shift)) {
+                Node newRoot = new Node(edit, new Object[WIDTH]);
+                newRoot.array[0] = root;
+                newRoot.array[1] = newPath(edit, shift, tailNode);
+                root = newRoot;
+                shift += BITS;
+            } else {
+                root = pushTail(shift, root, tailNode);
+            }
+            count++;
+            return this;
+        }
+
+        /**
+         * Remplace l'élément à l'index donné.
+         *
+         * @param index Index (égal à la taille pour un ajout en fin)
+         * @param element Nouvel élément
+         * @return Cette liste transitoire
+         */
+        public Transient<E> assoc(int index, E element) {
+            ensureEditable();
+            if (index == count) {
+                return conj(element);
+            }
+            if (index < 0 || index > count) {
+                throw new IndexOutOfBoundsException("Index " + index + " hors limites (taille " + count + ")");
+            }
+            if (index >= tailOffset()) {
+                tail[index & MASK] = element;
+            } else {
+                root = doAssoc(edit, shift, root, index, element);
+            }
+            return this;
+        }
+
+        /**
+         * Retourne le nombre d'éléments.
+         *
+         * @return Nombre d'éléments
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Fige la liste transitoire en liste persistante.
+         *
+         * @return Liste persistante
+         */
+        public PersistentVector<E> persistent() {
+            ensureEditable();
+            edit = null;
+            if (count == 0) {
+                return empty();
+            }
+            Object[] trimmedTail = Arrays.copyOf(tail, count - tailOffset());
+            return new PersistentVector<>(count, shift, root, trimmedTail);
+        }
+
+        private Node pushTail(int level, Node parent, Node tailNode) {
+            int subIndex = ((count - 1) >>> level) & MASK;
+            Node result = parent.editable(edit);
+            Node toInsert;
+            if (level == BITS) {
+                toInsert = tailNode;
+            } else {
+                Node child = (Node) result.array[subIndex];
+                toInsert = child != null
+                        ? pushTail(level - BITS, child, tailNode)
+                        : newPath(edit, level - BITS, tailNode);
+            }
+            result.array[subIndex] = toInsert;
+            return result;
+        }
+
+        private void ensureEditable() {
+            if (edit == null) {
+                throw new IllegalStateException("Liste transitoire utilisée après persistent()");
+            }
+        }
+    }
+
+    /**
+     * Itérateur qui parcourt les feuilles bloc par bloc pour éviter une descente
+     * dans le trie à chaque élément.
+     */
+    private static final class ChunkIterator<E> implements Iterator<E> {
+        private final PersistentVector<E> vector;
+        private final int end;
+        private int index;
+        private int base;
+        private Object[] chunk;
+
+        ChunkIterator(PersistentVector<E> vector, int start, int end) {
+            this.vector = vector;
+            this.index = start;
+            this.end = end;
+            this.base = start - (start & MASK);
+            this.chunk = start < end ? vector.arrayFor(start) : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (index >= end) {
+                throw new NoSuchElementException();
+            }
+            if (index - base == WIDTH) {
+                chunk = vector.arrayFor(index);
+                base += WIDTH;
+            }
+            return (E) chunk[index++ & MASK];
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.jnane.runtime.value;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Liste persistante (immuable) de valeurs primitives homogènes : entiers, entiers longs,
+ * décimaux ou booléens, rangés dans un tableau primitif contigu ({@code int[]},
+ * {@code long[]}, {@code double[]}, {@code boolean[]}) au lieu d'objets emballés. Les
+ * agrégats numériques ({@code ns:somme}, {@code ns:moyenne}...) parcourent directement
+ * le tableau.
+ *
+ * <p>Le stockage est choisi à la construction ({@link Builder}) d'après les éléments :
+ * il reste primitif tant qu'ils sont tous du même type et se généralise en
+ * {@link PersistentVector} au premier élément hétérogène. Les remplacements copient le
+ * tableau ; les ajouts en fin ({@link #conj}) sont amortis : le tableau est réservé avec
+ * de la marge et partagé entre les versions successives, la première version prolongée
+ * s'appropriant chaque case libre. Une liste construite élément par élément coûte ainsi
+ * un temps linéaire au total, et non quadratique.</p>
+ */
+public final class PrimitiveVector extends AbstractList<Object> implements RandomAccess {
+
+    /**
+     * Type des éléments.
+     */
+    public enum Kind {
+        INT, LONG, DOUBLE, BOOLEAN;
+
+        /**
+         * Retourne le type primitif d'une valeur.
+         *
+         * @param value Valeur
+         * @return Type, ou null si la valeur n'a pas de représentation primitive
+         */
+        public static Kind of(Object value) {
+            if (value instanceof Integer) {
+                return INT;
+            }
+            if (value instanceof Long) {
+                return LONG;
+            }
+            if (value instanceof Double) {
+                return DOUBLE;
+            }
+            if (value instanceof Boolean) {
+                return BOOLEAN;
+            }
+            return null;
+        }
+    }
+
+    // Capacité minimale réservée lors d'un ajout en fin qui doit recopier le tableau
+    private static final int MIN_CAPACITY = 8;
+
+    private final Kind kind;
+    private final Object array;
+    private final int size;
+
+    // Nombre de cases du tableau occupées, partagé par les versions qui partagent le tableau
+    private final AtomicInteger used;
+
+    // Hash structurel, calculé au premier appel (0 : pas encore calculé)
+    private int hash;
+
+    private PrimitiveVector(Kind kind, Object array, int size) {
+        this(kind, array, size, new AtomicInteger(size));
+    }
+
+    private PrimitiveVector(Kind kind, Object array, int size, AtomicInteger used) {
+        this.kind = kind;
+        this.array = array;
+        this.size = size;
+        this.used = used;
+    }
+
+    /**
+     * Crée une liste d'entiers à partir d'une copie du tableau.
+     *
+     * @param values Valeurs
+     * @return Liste d'entiers
+     */
+    public static PrimitiveVector ofInts(int... values) {
+        return new PrimitiveVector(Kind.INT, values.clone(), values.length);
+    }
+
+    /**
+     * Crée une liste d'entiers longs à partir d'une copie du tableau.
+     *
+     * @param values Valeurs
+     * @return Liste d'entiers longs
+     */
+    public static PrimitiveVector ofLongs(long... values) {
+        return new PrimitiveVector(Kind.LONG, values.clone(), values.length);
+    }
+
+    /**
+     * Crée une liste de décimaux à partir d'une copie du tableau.
+     *
+     * @param values Valeurs
+     * @return Liste de décimaux
+     */
+    public static PrimitiveVector ofDoubles(double... values) {
+        return new PrimitiveVector(Kind.DOUBLE, values.clone(), values.length);
+    }
+
+    /**
+     * Crée une liste de booléens à partir d'une copie du tableau.
+     *
+     * @param values Valeurs
+     * @return Liste de booléens
+     */
+    public static PrimitiveVector ofBooleans(boolean... values) {
+        return new PrimitiveVector(Kind.BOOLEAN, values.clone(), values.length);
+    }
+
+    /**
+     * Ouvre un constructeur de liste à stockage adaptatif.
+     *
+     * @return Constructeur vide
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Retourne le type des éléments.
+     *
+     * @return Type
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object get(int index) {
+        checkIndex(index);
+        return load(kind, array, index);
+    }
+
+    /**
+     * Lit un élément entier sans l'emballer.
+     *
+     * @param index Position
+     * @return Valeur
+     */
+    public int getInt(int index) {
+        checkIndex(index);
+        return ((int[]) array)[index];
+    }
+
+    /**
+     * Lit un élément numérique entier (entier ou entier long) sans l'emballer.
+     *
+     * @param index Position
+     * @return Valeur
+     */
+    public long getLong(int index) {
+        checkIndex(index);
+        return kind == Kind.INT ? ((int[]) array)[index] : ((long[]) array)[index];
+    }
+
+    /**
+     * Lit un élément numérique sans l'emballer.
+     *
+     * @param index Position
+     * @return Valeur convertie en décimal
+     */
+    public double getDouble(int index) {
+        checkIndex(index);
+        switch (kind) {
+            case INT:
+                return ((int[]) array)[index];
+            case LONG:
+                return ((long[]) array)[index];
+            default:
+                return ((double[]) array)[index];
+        }
+    }
+
+    /**
+     * Lit un élément booléen sans l'emballer.
+     *
+     * @param index Position
+     * @return Valeur
+     */
+    public boolean getBoolean(int index) {
+        checkIndex(index);
+        return ((boolean[]) array)[index];
+    }
+
+    /**
+     * Retourne le tableau des entiers (sans copie, à ne pas modifier). Il peut être plus
+     * long que la liste : seules les {@link #size()} premières cases en font partie.
+     *
+     * @return Tableau de stockage
+     */
+    public int[] intArray() {
+        return (int[]) array;
+    }
+
+    /**
+     * Retourne le tableau des entiers longs (sans copie, à ne pas modifier). Il peut être plus
+     * long que la liste : seules les {@link #size()} premières cases en font partie.
+     *
+     * @return Tableau de stockage
+     */
+    public long[] longArray() {
+        return (long[]) array;
+    }
+
+    /**
+     * Retourne le tableau des décimaux (sans copie, à ne pas modifier). Il peut être plus
+     * long que la liste : seules les {@link #size()} premières cases en font partie.
+     *
+     * @return Tableau de stockage
+     */
+    public double[] doubleArray() {
+        return (double[]) array;
+    }
+
+    /**
+     * Retourne une liste où l'élément à la position donnée est remplacé. Une valeur d'un
+     * autre type généralise la liste en {@link PersistentVector}.
+     *
+     * @param index Position
+     * @param value Nouvelle valeur
+     * @return Nouvelle liste
+     */
+    public List<Object> assoc(int index, Object value) {
+        checkIndex(index);
+        if (Kind.of(value) != kind) {
+            return PersistentVector.from(this).assoc(index, value);
+        }
+        Object copy = copyOf(kind, array, size);
+        store(kind, copy, index, value);
+        return new PrimitiveVector(kind, copy, size);
+    }
+
+    /**
+     * Retourne une liste prolongée d'un élément. Une valeur d'un autre type généralise la
+     * liste en {@link PersistentVector}.
+     *
+     * @param value Élément ajouté
+     * @return Nouvelle liste
+     */
+    public List<Object> conj(Object value) {
+        if (Kind.of(value) != kind) {
+            return PersistentVector.from(this).conj(value);
+        }
+        if (size < capacity(array) && used.compareAndSet(size, size + 1)) {
+            // Case libre au-delà de toutes les versions existantes : elle est prise sur place
+            store(kind, array, size, value);
+            return new PrimitiveVector(kind, array, size + 1, used);
+        }
+        Object grown = copyOf(kind, array, Math.max(MIN_CAPACITY, size + (size >> 1) + 1));
+        store(kind, grown, size, value);
+        return new PrimitiveVector(kind, grown, size + 1);
+    }
+
+    /**
+     * Filtre la liste en conservant son stockage primitif.
+     *
+     * @param predicate Prédicat sur les éléments
+     * @return Liste des éléments retenus
+     */
+    public PrimitiveVector filter(Predicate<Object> predicate) {
+        Object kept = copyOf(kind, array, size);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            Object element = load(kind, array, i);
+            if (predicate.test(element)) {
+                store(kind, kept, count++, element);
+            }
+        }
+        return new PrimitiveVector(kind, count < size ? copyOf(kind, kept, count) : kept, count);
+    }
+
+    // ==================== ACCÈS AUX TABLEAUX PRIMITIFS ====================
+
+    private static Object load(Kind kind, Object array, int index) {
+        switch (kind) {
+            case INT:
+                return ((int[]) array)[index];
+            case LONG:
+                return ((long[]) array)[index];
+            case DOUBLE:
+                return ((double[]) array)[index];
+            default:
+                return ((boolean[]) array)[index];
+        }
+    }
+
+    private static void store(Kind kind, Object array, int index, Object value) {
+        switch (kind) {
+            case INT:
+                ((int[]) array)[index] = (Integer) value;
+                break;
+            case LONG:
+                ((long[]) array)[index] = (Long) value;
+                break;
+            case DOUBLE:
+                ((double[]) array)[index] = (Double) value;
+                break;
+            default:
+                ((boolean[]) array)[index] = (Boolean) value;
+                break;
+        }
+    }
+
+    private static Object copyOf(Kind kind, Object array, int length) {
+        switch (kind) {
+            case INT:
+                return Arrays.copyOf((int[]) array, length);
+            case LONG:
+                return Arrays.copyOf((long[]) array, length);
+            case DOUBLE:
+                return Arrays.copyOf((double[]) array, length);
+            default:
+                return Arrays.copyOf((boolean[]) array, length);
+        }
+    }
+
+    private static Object newArray(Kind kind, int length) {
+        switch (kind) {
+            case INT:
+                return new int[length];
+            case LONG:
+                return new long[length];
+            case DOUBLE:
+                return new double[length];
+            default:
+                return new boolean[length];
+        }
+    }
+
+    private static int capacity(Object array) {
+        return Array.getLength(array);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors de la liste de taille " + size);
+        }
+    }
+
+    /**
+     * Hash structurel au sens de {@link List#hashCode()}, mis en cache.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && size > 0) {
+            h = super.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Égalité structurelle avec toute liste ; deux listes primitives de même type sont
+     * comparées tableau contre tableau.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof PrimitiveVector) {
+            PrimitiveVector other = (PrimitiveVector) o;
+            if (size != other.size || hashCode() != other.hashCode()) {
+                return false;
+            }
+            if (kind == other.kind) {
+                switch (kind) {
+                    case INT:
+                        return Arrays.equals((int[]) array, 0, size, (int[]) other.array, 0, size);
+                    case LONG:
+                        return Arrays.equals((long[]) array, 0, size, (long[]) other.array, 0, size);
+                    case DOUBLE:
+                        return Arrays.equals((double[]) array, 0, size, (double[]) other.array, 0, size);
+                    default:
+                        return Arrays.equals((boolean[]) array, 0, size, (boolean[]) other.array, 0, size);
+                }
+            }
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * Constructeur à stockage adaptatif : primitif tant que les éléments sont homogènes,
+     * généralisé en liste d'objets au premier élément d'un autre type.
+     */
+    public static final class Builder {
+        private Kind kind;
+        private Object array;
+        private int size;
+        private PersistentVector.Transient<Object> general;
+
+        private Builder() {
+        }
+
+        /**
+         * Ajoute un élément.
+         *
+         * @param value Élément
+         * @return Ce constructeur
+         */
+        public Builder add(Object value) {
+            if (general != null) {
+                general.conj(value);
+                return this;
+            }
+            Kind valueKind = Kind.of(value);
+            if (kind == null && valueKind != null) {
+                kind = valueKind;
+                array = newArray(kind, 8);
+            }
+            if (valueKind == null || valueKind != kind) {
+                generalize();
+                general.conj(value);
+                return this;
+            }
+            if (size == capacity(array)) {
+                array = copyOf(kind, array, size << 1);
+            }
+            store(kind, array, size++, value);
+            return this;
+        }
+
+        private void generalize() {
+            general = PersistentVector.empty().asTransient();
+            for (int i = 0; i < size; i++) {
+                general.conj(load(kind, array, i));
+            }
+        }
+
+        /**
+         * Construit la liste.
+         *
+         * @return Liste primitive si les éléments sont homogènes, {@link PersistentVector} sinon
+         */
+        public List<Object> build() {
+            if (general != null) {
+                return general.persistent();
+            }
+            if (size == 0) {
+                return PersistentVector.empty();
+            }
+            return new PrimitiveVector(kind, copyOf(kind, array, size), size);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.jnane.runtime.value;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Forme d'un enregistrement (classe cachée) : liste ordonnée de ses champs, partagée
+ * par tous les enregistrements qui ont les mêmes champs dans le même ordre. La valeur
+ * d'un champ est rangée à la même position dans chacun d'eux, si bien qu'un site d'accès
+ * qui a déjà rencontré la forme retrouve la position sans recherche.
+ *
+ * <p>Les formes forment un arbre de transitions issu de la forme vide : ajouter un champ
+ * suit (ou crée) la transition correspondante, de sorte que les enregistrements
+ * construits de la même façon aboutissent à la même instance de forme.</p>
+ *
+ * <p>Une forme ne retient ses successeurs que faiblement : une forme n'est vivante que
+ * tant qu'un enregistrement (ou une forme qui en dérive) l'utilise. L'arbre issu de la
+ * racine statique ne grossit donc pas indéfiniment avec des noms de champs de passage ;
+ * les transitions libérées sont purgées lors des ajouts de champs suivants.</p>
+ */
+public final class Shape {
+
+    // Au-delà de ce nombre de champs, les positions sont indexées au lieu d'être cherchées
+    private static final int INDEXED_THRESHOLD = 8;
+
+    private static final Shape ROOT = new Shape(null, new String[0]);
+
+    // Transitions dont la forme cible a été libérée, à retirer de leur forme d'origine
+    private static final ReferenceQueue<Shape> RELEASED = new ReferenceQueue<>();
+
+    private final Shape parent;
+    private final String[] fields;
+    private final Map<String, Integer> offsets;
+    private final ConcurrentHashMap<String, Transition> transitions = new ConcurrentHashMap<>();
+
+    private Shape(Shape parent, String[] fields) {
+        this.parent = parent;
+        this.fields = fields;
+        if (fields.length > INDEXED_THRESHOLD) {
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < fields.length; i++) {
+                index.put(fields[i], i);
+            }
+            this.offsets = index;
+        } else {
+            this.offsets = null;
+        }
+    }
+
+    /**
+     * Retourne la forme vide, racine de l'arbre des transitions.
+     *
+     * @return Forme sans champ
+     */
+    public static Shape root() {
+        return ROOT;
+    }
+
+    /**
+     * Retourne la forme obtenue en ajoutant un champ à la fin.
+     *
+     * @param field Nom du champ
+     * @return Forme suivante, ou cette forme si le champ existe déjà
+     */
+    public Shape withField(String field) {
+        if (offsetOf(field) >= 0) {
+            return this;
+        }
+        expunge();
+        Transition transition = transitions.get(field);
+        Shape next = transition != null ? transition.get() : null;
+        if (next == null) {
+            String[] extended = Arrays.copyOf(fields, fields.length + 1);
+            extended[fields.length] = field;
+            Shape created = new Shape(this, extended);
+            // Une transition libérée est remplacée ; la forme retenue est lue dans la même opération
+            Shape[] retained = new Shape[1];
+            transitions.compute(field, (f, existing) -> {
+                Shape live = existing != null ? existing.get() : null;
+                if (live != null) {
+                    retained[0] = live;
+                    return existing;
+                }
+                retained[0] = created;
+                return new Transition(this, f, created);
+            });
+            next = retained[0];
+        }
+        return next;
+    }
+
+    private static void expunge() {
+        Object released;
+        while ((released = RELEASED.poll()) != null) {
+            Transition transition = (Transition) released;
+            transition.origin.transitions.remove(transition.field, transition);
+        }
+    }
+
+    /**
+     * Retourne la forme privée d'un champ, reconstruite depuis la racine pour rester partagée.
+     *
+     * @param field Nom du champ
+     * @return Forme sans le champ, ou cette forme s'il est absent
+     */
+    public Shape withoutField(String field) {
+        int offset = offsetOf(field);
+        if (offset < 0) {
+            return this;
+        }
+        Shape result = ROOT;
+        for (int i = 0; i < fields.length; i++) {
+            if (i != offset) {
+                result = result.withField(fields[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retourne la position d'un champ.
+     *
+     * @param field Nom du champ
+     * @return Position, ou -1 si le champ n'appartient pas à la forme
+     */
+    public int offsetOf(Object field) {
+        if (offsets != null) {
+            Integer offset = offsets.get(field);
+            return offset != null ? offset : -1;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne le nombre de champs.
+     *
+     * @return Nombre de champs
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    /**
+     * Retourne le nom du champ rangé à une position.
+     *
+     * @param offset Position
+     * @return Nom du champ
+     */
+    public String fieldAt(int offset) {
+        return fields[offset];
+    }
+
+    /**
+     * Retourne la forme dont celle-ci dérive par ajout de son dernier champ.
+     *
+     * @return Forme parente, null pour la racine
+     */
+    public Shape getParent() {
+        return parent;
+    }
+
+    @Override
+    public String toString() {
+        return "Shape" + Arrays.toString(fields);
+    }
+
+    /**
+     * Transition faible vers une forme successeur, retirée de sa forme d'origine une fois libérée.
+     */
+    private static final class Transition extends WeakReference<Shape> {
+        private final Shape origin;
+        private final String field;
+
+        Transition(Shape origin, String field, Shape target) {
+            super(target, RELEASED);
+            this.origin = origin;
+            this.field = field;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.jnane.runtime.value;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Enregistrement persistant (immuable) de petite taille : une {@link Shape} partagée
+ * décrit les champs, et les valeurs sont rangées dans un tableau compact aux positions
+ * données par la forme. Comparé à une {@link PersistentMap}, il n'y a ni nœud ni hash
+ * de clé par champ ; un accès par un site qui a déjà vu la forme est un simple
+ * accès indexé.
+ *
+ * <p>Les mises à jour copient le tableau (quelques champs) ; l'ajout d'un champ suit la
+ * transition de forme correspondante. Au-delà de {@code jnane.record.maxFields} champs,
+ * littéraux Jnane comme ajouts de champs donnent des {@link PersistentMap} : le nombre
+ * de formes et le coût des copies restent bornés.</p>
+ */
+public final class ShapedRecord extends AbstractMap<String, Object> {
+
+    public static final String MAX_FIELDS_PROPERTY = "jnane.record.maxFields";
+    public static final int MAX_FIELDS = Integer.getInteger(MAX_FIELDS_PROPERTY, 16);
+
+    private static final ShapedRecord EMPTY = new ShapedRecord(Shape.root(), new Object[0]);
+
+    private final Shape shape;
+    private final Object[] values;
+
+    // Hash structurel, calculé au premier appel (0 : pas encore calculé)
+    private int hash;
+
+    private ShapedRecord(Shape shape, Object[] values) {
+        this.shape = shape;
+        this.values = values;
+    }
+
+    /**
+     * Retourne l'enregistrement vide.
+     *
+     * @return Enregistrement sans champ
+     */
+    public static ShapedRecord empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Ouvre un constructeur d'enregistrement.
+     *
+     * @return Constructeur vide
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Retourne la forme de l'enregistrement.
+     *
+     * @return Forme
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Retourne la valeur rangée à une position de la forme.
+     *
+     * @param offset Position, obtenue par {@link Shape#offsetOf(Object)}
+     * @return Valeur du champ
+     */
+    public Object valueAt(int offset) {
+        return values[offset];
+    }
+
+    @Override
+    public Object get(Object key) {
+        int offset = shape.offsetOf(key);
+        return offset >= 0 ? values[offset] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return shape.offsetOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Retourne un enregistrement où le champ a la valeur donnée.
+     *
+     * @param key Nom du champ
+     * @param value Nouvelle valeur
+     * @return Nouvel enregistrement, ou celui-ci si la valeur est déjà en place ; une table
+     *         persistante si l'ajout du champ dépasse {@link #MAX_FIELDS} champs
+     */
+    public Map<String, Object> assoc(String key, Object value) {
+        int offset = shape.offsetOf(key);
+        if (offset >= 0) {
+            if (values[offset] == value) {
+                return this;
+            }
+            Object[] updated = values.clone();
+            updated[offset] = value;
+            return new ShapedRecord(shape, updated);
+        }
+        if (values.length >= MAX_FIELDS) {
+            return PersistentMap.<String, Object>from(this).assoc(key, value);
+        }
+        Object[] extended = Arrays.copyOf(values, values.length + 1);
+        extended[values.length] = value;
+        return new ShapedRecord(shape.withField(key), extended);
+    }
+
+    /**
+     * Retourne un enregistrement privé d'un champ.
+     *
+     * @param key Nom du champ
+     * @return Nouvel enregistrement, ou celui-ci si le champ est absent
+     */
+    public ShapedRecord dissoc(Object key) {
+        int offset = shape.offsetOf(key);
+        if (offset < 0) {
+            return this;
+        }
+        Object[] reduced = new Object[values.length - 1];
+        System.arraycopy(values, 0, reduced, 0, offset);
+        System.arraycopy(values, offset + 1, reduced, offset, values.length - offset - 1);
+        return new ShapedRecord(shape.withoutField((String) key), reduced);
+    }
+
+    /**
+     * Compare cet enregistrement à une version ultérieure. Les valeurs sont comparées par
+     * identité ; deux enregistrements de même forme sont comparés position par position.
+     *
+     * @param other Version à comparer
+     * @param listener Récepteur des différences
+     */
+    public void diff(ShapedRecord other, PersistentMap.DiffListener<String, Object> listener) {
+        if (shape == other.shape) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != other.values[i]) {
+                    listener.changed(shape.fieldAt(i), values[i], other.values[i]);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            int offset = other.shape.offsetOf(shape.fieldAt(i));
+            if (offset < 0) {
+                listener.removed(shape.fieldAt(i), values[i]);
+            } else if (values[i] != other.values[offset]) {
+                listener.changed(shape.fieldAt(i), values[i], other.values[offset]);
+            }
+        }
+        for (int i = 0; i < other.values.length; i++) {
+            if (shape.offsetOf(other.shape.fieldAt(i)) < 0) {
+                listener.added(other.shape.fieldAt(i), other.values[i]);
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new Iterator<Map.Entry<String, Object>>() {
+                    private int cursor;
+
+                    @Override
+                    public boolean hasNext() {
+                        return cursor < values.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        if (cursor >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int offset = cursor++;
+                        return new AbstractMap.SimpleImmutableEntry<>(shape.fieldAt(offset), values[offset]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    /**
+     * Hash structurel au sens de {@link Map#hashCode()}, mis en cache.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && values.length > 0) {
+            h = super.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Égalité structurelle avec toute table. Deux enregistrements de même forme sont
+     * comparés position par position.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof ShapedRecord) {
+            ShapedRecord other = (ShapedRecord) o;
+            if (values.length != other.values.length || hashCode() != other.hashCode()) {
+                return false;
+            }
+            if (shape == other.shape) {
+                return Arrays.equals(values, other.values);
+            }
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        throw new UnsupportedOperationException("ShapedRecord est immuable, utiliser assoc()");
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException("ShapedRecord est immuable, utiliser dissoc()");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("ShapedRecord est immuable");
+    }
+
+    /**
+     * Constructeur d'enregistrement : les champs sont ajoutés dans l'ordre, en suivant
+     * les transitions de forme ; un champ repris remplace la valeur précédente.
+     */
+    public static final class Builder {
+        private Shape shape = Shape.root();
+        private Object[] values = new Object[4];
+
+        private Builder() {
+        }
+
+        /**
+         * Définit la valeur d'un champ.
+         *
+         * @param key Nom du champ
+         * @param value Valeur
+         * @return Ce constructeur
+         */
+        public Builder put(String key, Object value) {
+            int offset = shape.offsetOf(key);
+            if (offset < 0) {
+                offset = shape.size();
+                shape = shape.withField(key);
+                if (offset == values.length) {
+                    values = Arrays.copyOf(values, offset << 1);
+                }
+            }
+            values[offset] = value;
+            return this;
+        }
+
+        /**
+         * Retourne le nombre de champs définis.
+         *
+         * @return Nombre de champs
+         */
+        public int size() {
+            return shape.size();
+        }
+
+        /**
+         * Construit l'enregistrement.
+         *
+         * @return Enregistrement
+         */
+        public ShapedRecord build() {
+            return shape.size() == 0 ? EMPTY : new ShapedRecord(shape, Arrays.copyOf(values, shape.size()));
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.jnane.runtime.value;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compilation des types déclarés ({@code int}, {@code List<Etat>}, {@code Map<string, int>},
+ * {@code Option<int>}) en vérifications par identité de classe. Partagée par le validateur
+ * des champs annotés du compilateur et par le runtime de l'IR précompilé.
+ *
+ * <p>Un type inconnu (type utilisateur, enregistrement) accepte toute valeur non nulle.</p>
+ */
+public final class TypeChecks {
+    private static final Logger logger = LoggerFactory.getLogger(TypeChecks.class);
+
+    /**
+     * Vérification compilée d'un type déclaré.
+     */
+    public interface TypeCheck {
+        /**
+         * Indique si une valeur est du type.
+         *
+         * @param value Valeur
+         * @return true si la valeur est compatible
+         */
+        boolean accepts(Object value);
+    }
+
+    private static final TypeCheck ANY = value -> true;
+    private static final TypeCheck NON_NULL = value -> value != null;
+    private static final TypeCheck NULL = value -> value == null;
+    private static final TypeCheck INT = value -> value != null && value.getClass() == Integer.class;
+    private static final TypeCheck LONG = value -> value != null && (value.getClass() == Long.class || value.getClass() == Integer.class);
+    private static final TypeCheck DOUBLE = value -> value != null && (value.getClass() == Double.class || value.getClass() == Float.class);
+    private static final TypeCheck STRING = value -> value != null && value.getClass() == String.class;
+    private static final TypeCheck BOOLEAN = value -> value != null && value.getClass() == Boolean.class;
+
+    private TypeChecks() {
+    }
+
+    /**
+     * Normalise un nom de type de base : minuscules et synonymes ({@code Integer},
+     * {@code float}, {@code Liste}).
+     *
+     * @param name Nom de type
+     * @return Nom canonique
+     */
+    public static String normalize(String name) {
+        String lower = name.trim().toLowerCase();
+        switch (lower) {
+            case "integer":
+                return "int";
+            case "float":
+                return "double";
+            case "liste":
+                return "list";
+            default:
+                return lower;
+        }
+    }
+
+    /**
+     * Compile un type déclaré.
+     *
+     * @param declaredType Type déclaré
+     * @return Vérification du type ; un texte mal formé accepte toute valeur non nulle
+     */
+    public static TypeCheck compile(String declaredType) {
+        TypeParser parser = new TypeParser(declaredType);
+        TypeCheck check = parser.parse();
+        if (check == null) {
+            logger.warn("Type déclaré non reconnu, accepté sans vérification: {}", declaredType);
+            return NON_NULL;
+        }
+        return check;
+    }
+
+    private static TypeCheck named(String name, List<TypeCheck> args) {
+        switch (normalize(name)) {
+            case "int":
+                return INT;
+            case "long":
+                return LONG;
+            case "double":
+                return DOUBLE;
+            case "string":
+                return STRING;
+            case "boolean":
+                return BOOLEAN;
+            case "null":
+                return NULL;
+            case "any":
+                return ANY;
+            case "list":
+                return args.size() == 1 ? listOf(args.get(0)) : (value -> value instanceof List);
+            case "map":
+                return args.size() == 2 ? mapOf(args.get(0), args.get(1)) : (value -> value instanceof Map);
+            case "option": {
+                TypeCheck element = args.size() == 1 ? args.get(0) : ANY;
+                return value -> value == null || element.accepts(value);
+            }
+            default:
+                return NON_NULL;
+        }
+    }
+
+    private static TypeCheck listOf(TypeCheck element) {
+        if (element == ANY) {
+            return value -> value instanceof List;
+        }
+        // Une liste primitive est vérifiée par son type de stockage, sans parcours
+        PrimitiveVector.Kind kind = element == INT ? PrimitiveVector.Kind.INT
+                : element == DOUBLE ? PrimitiveVector.Kind.DOUBLE
+                : element == BOOLEAN ? PrimitiveVector.Kind.BOOLEAN
+                : null;
+        return value -> {
+            if (value instanceof PrimitiveVector) {
+                PrimitiveVector.Kind actual = ((PrimitiveVector) value).getKind();
+                if (actual == kind || (element == LONG && actual != PrimitiveVector.Kind.DOUBLE
+                        && actual != PrimitiveVector.Kind.BOOLEAN)) {
+                    return true;
+                }
+            }
+            if (!(value instanceof List)) {
+                return false;
+            }
+            for (Object item : (List<?>) value) {
+                if (!element.accepts(item)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static TypeCheck mapOf(TypeCheck key, TypeCheck val) {
+        return value -> {
+            if (!(value instanceof Map)) {
+                return false;
+            }
+            if (key == ANY && val == ANY) {
+                return true;
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!key.accepts(entry.getKey()) || !val.accepts(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Analyseur des types déclarés : {@code Nom} ou {@code Nom<Type, Type...>}.
+     */
+    private static final class TypeParser {
+        private final String text;
+        private int pos;
+
+        TypeParser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * @return Vérification du type, null si le texte est mal formé
+         */
+        TypeCheck parse() {
+            TypeCheck check = type();
+            skipSpaces();
+            return pos == text.length() ? check : null;
+        }
+
+        private TypeCheck type() {
+            skipSpaces();
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_'
+                    || text.charAt(pos) == '.' || text.charAt(pos) == ':')) {
+                pos++;
+            }
+            if (start == pos) {
+                return null;
+            }
+            String name = text.substring(start, pos);
+            List<TypeCheck> args = new ArrayList<>();
+            skipSpaces();
+            if (pos < text.length() && text.charAt(pos) == '<') {
+                pos++;
+                do {
+                    TypeCheck arg = type();
+                    if (arg == null) {
+                        return null;
+                    }
+                    args.add(arg);
+                    skipSpaces();
+                } while (pos < text.length() && text.charAt(pos++) == ',');
+                if (text.charAt(pos - 1) != '>') {
+                    return null;
+                }
+            }
+            return named(name, args);
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.jnane.runtime.view;
+
+import com.jnane.runtime.value.PrimitiveVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Agrégats numériques d'une collection (ns:somme, ns:moyenne, ns:minimum, ns:maximum).
+ * Sur une {@link PrimitiveVector}, le calcul parcourt directement le tableau primitif,
+ * sans emballage, en boucles simples que le compilateur JIT peut vectoriser ; les autres
+ * collections (listes d'objets, vues paresseuses) sont parcourues élément par élément.
+ *
+ * <p>Les entiers sont sommés en {@code long} ; le résultat est un entier s'il tient sur
+ * 32 bits, un entier long sinon. Dès qu'un élément est décimal, ou qu'une somme d'entiers
+ * dépasse 64 bits, le calcul est poursuivi en décimal.</p>
+ */
+public final class Aggregates {
+    private static final Logger logger = LoggerFactory.getLogger(Aggregates.class);
+
+    private Aggregates() {
+    }
+
+    /**
+     * Somme des éléments.
+     *
+     * @param collection Collection de nombres
+     * @return Somme, 0 pour une collection vide
+     */
+    public static Number sum(Iterable<?> collection) {
+        if (collection instanceof PrimitiveVector) {
+            PrimitiveVector vector = (PrimitiveVector) collection;
+            switch (vector.getKind()) {
+                case INT: {
+                    int[] values = vector.intArray();
+                    long total = 0;
+                    for (int i = 0; i < vector.size(); i++) {
+                        total += values[i];
+                    }
+                    return narrow(total);
+                }
+                case LONG: {
+                    long[] values = vector.longArray();
+                    long total = 0;
+                    for (int i = 0; i < vector.size(); i++) {
+                        try {
+                            total = Math.addExact(total, values[i]);
+                        } catch (ArithmeticException e) {
+                            return decimalSum(total, values, i, vector.size());
+                        }
+                    }
+                    return narrow(total);
+                }
+                case DOUBLE: {
+                    double[] values = vector.doubleArray();
+                    double total = 0;
+                    for (int i = 0; i < vector.size(); i++) {
+                        total += values[i];
+                    }
+                    return total;
+                }
+                default:
+                    break;
+            }
+        }
+        long integral = 0;
+        double decimal = 0;
+        boolean decimals = false;
+        for (Object element : collection) {
+            Number number = requireNumber(element, "ns:somme");
+            if (isIntegral(number)) {
+                try {
+                    integral = Math.addExact(integral, number.longValue());
+                } catch (ArithmeticException e) {
+                    // Dépassement : la somme déjà faite passe en décimal
+                    decimal += integral;
+                    integral = number.longValue();
+                    decimals = true;
+                }
+            } else {
+                decimal += number.doubleValue();
+                decimals = true;
+            }
+        }
+        return decimals ? (Number) (decimal + integral) : narrow(integral);
+    }
+
+    /**
+     * Moyenne des éléments.
+     *
+     * @param collection Collection de nombres
+     * @return Moyenne décimale, null pour une collection vide
+     */
+    public static Double average(Iterable<?> collection) {
+        long count;
+        if (collection instanceof PrimitiveVector) {
+            count = ((PrimitiveVector) collection).size();
+        } else {
+            count = 0;
+            for (Object ignored : collection) {
+                count++;
+            }
+        }
+        return count == 0 ? null : sum(collection).doubleValue() / count;
+    }
+
+    /**
+     * Plus petit élément.
+     *
+     * @param collection Collection de valeurs comparables
+     * @return Minimum, null pour une collection vide
+     */
+    public static Object min(Iterable<?> collection) {
+        return extremum(collection, -1);
+    }
+
+    /**
+     * Plus grand élément.
+     *
+     * @param collection Collection de valeurs comparables
+     * @return Maximum, null pour une collection vide
+     */
+    public static Object max(Iterable<?> collection) {
+        return extremum(collection, 1);
+    }
+
+    /**
+     * Extremum : sign = -1 pour le minimum, 1 pour le maximum.
+     */
+    private static Object extremum(Iterable<?> collection, int sign) {
+        if (collection instanceof PrimitiveVector && !((PrimitiveVector) collection).isEmpty()) {
+            PrimitiveVector vector = (PrimitiveVector) collection;
+            switch (vector.getKind()) {
+                case INT: {
+                    int[] values = vector.intArray();
+                    int best = values[0];
+                    for (int i = 1; i < vector.size(); i++) {
+                        best = sign < 0 ? Math.min(best, values[i]) : Math.max(best, values[i]);
+                    }
+                    return best;
+                }
+                case LONG: {
+                    long[] values = vector.longArray();
+                    long best = values[0];
+                    for (int i = 1; i < vector.size(); i++) {
+                        best = sign < 0 ? Math.min(best, values[i]) : Math.max(best, values[i]);
+                    }
+                    return best;
+                }
+                case DOUBLE: {
+                    double[] values = vector.doubleArray();
+                    double best = values[0];
+                    for (int i = 1; i < vector.size(); i++) {
+                        best = sign < 0 ? Math.min(best, values[i]) : Math.max(best, values[i]);
+                    }
+                    return best;
+                }
+                default:
+                    break;
+            }
+        }
+        Object best = null;
+        boolean first = true;
+        for (Object element : collection) {
+            if (first || Views.compareValues(element, best) * sign > 0) {
+                best = element;
+                first = false;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Poursuit en décimal une somme d'entiers longs qui dépasserait 64 bits.
+     */
+    private static double decimalSum(long total, long[] values, int from, int size) {
+        logger.debug("Dépassement de la somme entière à l'indice {}, calcul poursuivi en décimal", from);
+        double result = total;
+        for (int i = from; i < size; i++) {
+            result += values[i];
+        }
+        return result;
+    }
+
+    private static Number narrow(long value) {
+        return value == (int) value ? (Number) (int) value : (Number) value;
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+
+    private static Number requireNumber(Object element, String operation) {
+        if (element instanceof Number) {
+            return (Number) element;
+        }
+        String errorMsg = "Nombre attendu pour " + operation + ": " + element;
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+}
@@ -0,0 +1,235 @@
+package com.jnane.runtime.view;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Fusion en flux de k vues ordonnées (ns:fusionner_vues, ns:composer_vues). Un tas
+ * contient l'élément courant de chaque entrée ; chaque élément produit ne coûte qu'une
+ * opération de tas et les entrées ne sont lues qu'au fur et à mesure de la consommation.
+ *
+ * <p>Les éléments sont ordonnés par leur clé : le champ de clé choisi pour les
+ * enregistrements (par défaut "cle", forme produite par ns:convertir_vue(x, "entrees")),
+ * l'élément lui-même sinon. À clé égale, l'ordre des entrées est conservé ; avec
+ * déduplication, seul l'élément de la dernière entrée est gardé.</p>
+ *
+ * <p>Au-delà de {@code jnane.view.premergeThreshold} éléments, les entrées déjà
+ * matérialisées sont fusionnées deux à deux en parallèle avant la fusion finale.</p>
+ */
+public final class KWayMerge {
+    private static final Logger logger = LoggerFactory.getLogger(KWayMerge.class);
+
+    public static final String DEFAULT_KEY_FIELD = "cle";
+    public static final String PREMERGE_THRESHOLD_PROPERTY = "jnane.view.premergeThreshold";
+    private static final int PREMERGE_THRESHOLD = Integer.getInteger(PREMERGE_THRESHOLD_PROPERTY, 100_000);
+
+    private KWayMerge() {
+    }
+
+    /**
+     * Fusionne des vues ordonnées.
+     *
+     * @param inputs Vues ordonnées par clé croissante
+     * @param keyField Champ de clé des enregistrements
+     * @param deduplicate true pour ne garder qu'un élément par clé (celui de la dernière entrée)
+     * @return Vue paresseuse de la fusion
+     */
+    public static LazyView merge(List<? extends Collection<?>> inputs, String keyField, boolean deduplicate) {
+        return merge(inputs, keyField, deduplicate, PREMERGE_THRESHOLD);
+    }
+
+    /**
+     * Fusionne des vues ordonnées avec un seuil de pré-fusion explicite.
+     *
+     * @param inputs Vues ordonnées par clé croissante
+     * @param keyField Champ de clé des enregistrements
+     * @param deduplicate true pour ne garder qu'un élément par clé (celui de la dernière entrée)
+     * @param premergeThreshold Nombre total d'éléments au-delà duquel les paires sont pré-fusionnées
+     * @return Vue paresseuse de la fusion
+     */
+    public static LazyView merge(List<? extends Collection<?>> inputs, String keyField, boolean deduplicate,
+                                 int premergeThreshold) {
+        Function<Object, Object> key = element -> element instanceof Map && ((Map<?, ?>) element).containsKey(keyField)
+                ? ((Map<?, ?>) element).get(keyField)
+                : element;
+        List<Collection<?>> sources = new ArrayList<>(inputs);
+        if (sources.size() >= 4 && canPremerge(sources) && totalSize(sources) >= premergeThreshold) {
+            sources = premerge(sources, key, deduplicate);
+        }
+        return LazyView.of(new MergedCollection(sources, key, deduplicate));
+    }
+
+    private static boolean canPremerge(List<Collection<?>> sources) {
+        for (Collection<?> source : sources) {
+            if (source instanceof LazyView) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long totalSize(List<Collection<?>> sources) {
+        long total = 0;
+        for (Collection<?> source : sources) {
+            total += source.size();
+        }
+        return total;
+    }
+
+    /**
+     * Fusionne les entrées deux à deux en parallèle. Les paires sont contiguës, ce qui
+     * préserve la priorité de la dernière entrée lors de la déduplication.
+     */
+    private static List<Collection<?>> premerge(List<Collection<?>> sources, Function<Object, Object> key,
+                                                boolean deduplicate) {
+        logger.debug("Pré-fusion parallèle de {} entrées", sources.size());
+        return IntStream.range(0, (sources.size() + 1) / 2).parallel()
+                .mapToObj(pair -> {
+                    int first = pair * 2;
+                    if (first + 1 == sources.size()) {
+                        return sources.get(first);
+                    }
+                    List<Object> merged = new ArrayList<>(sources.get(first).size() + sources.get(first + 1).size());
+                    new MergeIterator(sources.subList(first, first + 2), key, deduplicate).forEachRemaining(merged::add);
+                    return (Collection<?>) merged;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Collection dont l'itération produit la fusion ; rien n'est lu avant le premier élément demandé.
+     */
+    private static final class MergedCollection extends AbstractCollection<Object> {
+        private final List<Collection<?>> sources;
+        private final Function<Object, Object> key;
+        private final boolean deduplicate;
+
+        MergedCollection(List<Collection<?>> sources, Function<Object, Object> key, boolean deduplicate) {
+            this.sources = sources;
+            this.key = key;
+            this.deduplicate = deduplicate;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new MergeIterator(sources, key, deduplicate);
+        }
+
+        @Override
+        public Spliterator<Object> spliterator() {
+            // Taille inconnue : la déduplication n'est connue qu'en parcourant la fusion
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+        }
+
+        @Override
+        public int size() {
+            if (!deduplicate) {
+                return (int) totalSize(sources);
+            }
+            int count = 0;
+            for (Iterator<Object> it = iterator(); it.hasNext(); it.next()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Curseur sur une entrée : élément courant et sa clé.
+     */
+    private static final class Cursor {
+        private final int input;
+        private final Iterator<?> iterator;
+        private Object element;
+        private Object key;
+
+        Cursor(int input, Iterator<?> iterator) {
+            this.input = input;
+            this.iterator = iterator;
+        }
+
+        boolean advance(Function<Object, Object> keyOf) {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            Object previous = key;
+            element = iterator.next();
+            key = keyOf.apply(element);
+            if (previous != null && Views.compareValues(previous, key) > 0) {
+                String errorMsg = "Entrée " + input + " non ordonnée pour la fusion: " + key + " après " + previous;
+                logger.error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Itérateur de fusion par tas, ordonné par (clé, numéro d'entrée).
+     */
+    private static final class MergeIterator implements Iterator<Object> {
+        private final PriorityQueue<Cursor> heap;
+        private final Function<Object, Object> key;
+        private final boolean deduplicate;
+
+        MergeIterator(List<? extends Collection<?>> sources, Function<Object, Object> key, boolean deduplicate) {
+            this.key = key;
+            this.deduplicate = deduplicate;
+            this.heap = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+                int order = Views.compareValues(a.key, b.key);
+                return order != 0 ? order : Integer.compare(a.input, b.input);
+            });
+            for (int i = 0; i < sources.size(); i++) {
+                Cursor cursor = new Cursor(i, sources.get(i).iterator());
+                if (cursor.advance(key)) {
+                    heap.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public Object next() {
+            Cursor smallest = heap.poll();
+            if (smallest == null) {
+                throw new NoSuchElementException();
+            }
+            Object result = smallest.element;
+            Object resultKey = smallest.key;
+            requeue(smallest);
+            if (deduplicate) {
+                // Les éléments de même clé sortent par numéro d'entrée croissant : le dernier l'emporte
+                while (!heap.isEmpty() && Views.compareValues(heap.peek().key, resultKey) == 0) {
+                    Cursor same = heap.poll();
+                    result = same.element;
+                    requeue(same);
+                }
+            }
+            return result;
+        }
+
+        private void requeue(Cursor cursor) {
+            if (cursor.advance(key)) {
+                heap.add(cursor);
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.jnane.runtime.view;
+
+import com.jnane.runtime.value.PersistentVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Vue paresseuse d'une collection (ns:filtrer_vue, ns:projeter_vue). Les étapes
+ * successives sont fusionnées en un seul flux : aucune collection intermédiaire n'est
+ * construite, et les éléments ne sont évalués qu'à l'usage (itération, accès indexé,
+ * taille). L'accès au premier élément s'arrête dès qu'il est trouvé.
+ *
+ * <p>Chaque élément n'est calculé qu'une fois : les éléments produits sont retenus dans
+ * l'ordre, et les accès suivants (indexés, itération, taille, égalité) les relisent au
+ * lieu de relancer le flux. Une boucle indexée sur la vue reste donc linéaire, et les
+ * étapes ne sont jamais réévaluées.</p>
+ *
+ * <p>Une étape en échec est retenue elle aussi : les éléments produits avant elle restent
+ * lisibles, et tout accès qui doit aller au-delà relance la même exception, sans réévaluer
+ * les étapes ni répéter leurs effets de bord.</p>
+ *
+ * <p>Au-delà de {@code jnane.view.parallelThreshold} éléments, l'évaluation complète
+ * est découpée entre les cœurs si toutes les étapes sont sûres en parallèle (les lambdas
+ * Jnane partagent leur interpréteur et restent séquentielles).</p>
+ */
+public final class LazyView extends AbstractList<Object> {
+    private static final Logger logger = LoggerFactory.getLogger(LazyView.class);
+
+    public static final String PARALLEL_THRESHOLD_PROPERTY = "jnane.view.parallelThreshold";
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, 10_000);
+
+    private final Collection<?> source;
+    private final List<Stage> stages;
+    private final boolean parallelSafe;
+
+    // Éléments déjà produits, dans l'ordre, et suite du flux séquentiel qui les produit
+    private final List<Object> computed = new ArrayList<>();
+    private Iterator<Object> pending;
+    private boolean complete;
+    // Échec d'une étape, relancé par les accès au-delà des éléments produits
+    private RuntimeException failure;
+
+    private LazyView(Collection<?> source, List<Stage> stages, boolean parallelSafe) {
+        this.source = source;
+        this.stages = stages;
+        this.parallelSafe = parallelSafe;
+    }
+
+    /**
+     * Ouvre une vue paresseuse sur une collection. Une vue paresseuse est retournée telle quelle.
+     *
+     * @param source Collection source
+     * @return Vue sans étape
+     */
+    public static LazyView of(Collection<?> source) {
+        if (source instanceof LazyView) {
+            return (LazyView) source;
+        }
+        return new LazyView(source, Collections.emptyList(), true);
+    }
+
+    /**
+     * Ajoute une étape de filtrage.
+     *
+     * @param predicate Prédicat sur les éléments
+     * @param threadSafe true si le prédicat peut être évalué en parallèle
+     * @return Nouvelle vue
+     */
+    public LazyView filter(Predicate<Object> predicate, boolean threadSafe) {
+        return then(new Stage(predicate, null), threadSafe);
+    }
+
+    /**
+     * Ajoute une étape de transformation des éléments.
+     *
+     * @param mapper Transformation
+     * @param threadSafe true si la transformation peut être évaluée en parallèle
+     * @return Nouvelle vue
+     */
+    public LazyView map(Function<Object, Object> mapper, boolean threadSafe) {
+        return then(new Stage(null, mapper), threadSafe);
+    }
+
+    private LazyView then(Stage stage, boolean threadSafe) {
+        List<Stage> next = new ArrayList<>(stages.size() + 1);
+        next.addAll(stages);
+        next.add(stage);
+        return new LazyView(source, Collections.unmodifiableList(next), parallelSafe && threadSafe);
+    }
+
+    /**
+     * Retourne un flux sur les éléments de la vue. Le flux séquentiel produit les éléments
+     * à la demande ; le flux parallèle évalue d'abord toute la vue.
+     *
+     * @return Flux séquentiel ou parallèle selon la taille de la source et les étapes
+     */
+    public Stream<Object> stream() {
+        if (parallelSafe && source.spliterator().getExactSizeIfKnown() >= PARALLEL_THRESHOLD) {
+            return evaluateAll().parallelStream();
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Évalue la vue dans un vecteur persistant.
+     *
+     * @return Éléments de la vue
+     */
+    public PersistentVector<Object> materialize() {
+        PersistentVector.Transient<Object> result = PersistentVector.empty().asTransient();
+        for (Object element : evaluateAll()) {
+            result.conj(element);
+        }
+        return result.persistent();
+    }
+
+    /**
+     * Retourne le nombre d'étapes fusionnées.
+     *
+     * @return Nombre d'étapes
+     */
+    public int stageCount() {
+        return stages.size();
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new Iterator<Object>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return advanceTo(next);
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return element(next++);
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Object> spliterator() {
+        return stream().spliterator();
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index >= 0 && advanceTo(index)) {
+            return element(index);
+        }
+        String errorMsg = "Index " + index + " hors de la vue " + this.describe();
+        logger.error(errorMsg);
+        throw new IndexOutOfBoundsException(errorMsg);
+    }
+
+    @Override
+    public int size() {
+        return evaluateAll().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !advanceTo(0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof List)) {
+            return false;
+        }
+        Iterator<Object> mine = iterator();
+        Iterator<?> theirs = ((List<?>) o).iterator();
+        while (mine.hasNext() && theirs.hasNext()) {
+            if (!Objects.equals(mine.next(), theirs.next())) {
+                return false;
+            }
+        }
+        return !mine.hasNext() && !theirs.hasNext();
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    /**
+     * Produit les éléments jusqu'à l'indice donné, sans aller au-delà.
+     *
+     * @return true si la vue a un élément à cet indice
+     */
+    private synchronized boolean advanceTo(int index) {
+        while (computed.size() <= index && !complete) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (pending == null) {
+                pending = pipeline(false).iterator();
+            }
+            try {
+                if (pending.hasNext()) {
+                    computed.add(pending.next());
+                } else {
+                    complete = true;
+                    pending = null;
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+                throw e;
+            }
+        }
+        return index < computed.size();
+    }
+
+    private void fail(RuntimeException e) {
+        failure = e;
+        pending = null;
+        logger.debug("Étape en échec dans {}, retenue: {}", describe(), e.getMessage());
+    }
+
+    private synchronized Object element(int index) {
+        return computed.get(index);
+    }
+
+    /**
+     * Produit tous les éléments restants. Une vue encore intacte est évaluée d'un seul
+     * flux, parallèle si la source et les étapes le permettent.
+     */
+    private synchronized List<Object> evaluateAll() {
+        if (!complete && pending == null && failure == null && computed.isEmpty()) {
+            try {
+                pipeline(parallelSafe).forEachOrdered(computed::add);
+                complete = true;
+            } catch (RuntimeException e) {
+                // Éléments d'un flux parallèle interrompu : rien n'est garanti, rien n'est retenu
+                computed.clear();
+                fail(e);
+                throw e;
+            }
+        }
+        advanceTo(Integer.MAX_VALUE);
+        return Collections.unmodifiableList(computed);
+    }
+
+    /**
+     * Construit le flux fusionné de la source à travers les étapes.
+     */
+    @SuppressWarnings("unchecked")
+    private Stream<Object> pipeline(boolean allowParallel) {
+        // Une source de taille inconnue (fusion en flux) reste séquentielle
+        Spliterator<Object> spliterator = (Spliterator<Object>) source.spliterator();
+        boolean parallel = allowParallel && spliterator.getExactSizeIfKnown() >= PARALLEL_THRESHOLD;
+        Stream<Object> stream = StreamSupport.stream(spliterator, parallel);
+        for (Stage stage : stages) {
+            stream = stage.predicate != null ? stream.filter(stage.predicate) : stream.map(stage.mapper);
+        }
+        return stream;
+    }
+
+    private String describe() {
+        return "LazyView{source=" + source.size() + " éléments, étapes=" + stages.size() + "}";
+    }
+
+    /**
+     * Étape du flux : filtre ou transformation.
+     */
+    private static final class Stage {
+        private final Predicate<Object> predicate;
+        private final Function<Object, Object> mapper;
+
+        Stage(Predicate<Object> predicate, Function<Object, Object> mapper) {
+            this.predicate = predicate;
+            this.mapper = mapper;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.jnane.runtime.view;
+
+import com.jnane.runtime.history.StateDelta;
+
+/**
+ * Vue Jnane : valeur dérivée d'un état immuable (ns:vue, ns:projeter_vue, ns:convertir_vue,
+ * ns:vue_transformee).
+ * Une vue peut être mise à jour à partir de la vue de la version précédente et du delta
+ * structurel qui sépare les deux versions.
+ */
+public interface View {
+
+    /**
+     * Retourne la famille de la vue, qui détermine sa politique d'éviction dans le cache.
+     *
+     * @return Famille de la vue (ex: "projection")
+     */
+    String getKind();
+
+    /**
+     * Retourne la forme canonique des paramètres de la vue.
+     *
+     * @return Clé de la vue dans sa famille
+     */
+    String getKey();
+
+    /**
+     * Calcule entièrement la vue d'un état.
+     *
+     * @param state État source
+     * @return Valeur de la vue
+     */
+    Object compute(Object state);
+
+    /**
+     * Met à jour la vue de la version précédente d'un état.
+     *
+     * @param previousView Vue de la version précédente
+     * @param state Nouvelle version de l'état
+     * @param delta Delta entre les deux versions
+     * @return Vue de la nouvelle version
+     */
+    default Object maintain(Object previousView, Object state, StateDelta delta) {
+        return compute(state);
+    }
+}
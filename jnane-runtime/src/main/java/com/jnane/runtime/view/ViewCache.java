@@ -0,0 +1,348 @@
+package com.jnane.runtime.view;
+
+import com.jnane.runtime.history.HistoryEntry;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.history.StateHistory;
+import com.jnane.runtime.metrics.CacheMetrics;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache des vues matérialisées. Une vue est indexée par la version de l'état
+ * (registre, lignée et numéro de version) quand l'état a un historique, par l'identité de
+ * l'état sinon, et par sa famille et ses paramètres.
+ *
+ * <p>Quand la vue d'une version est absente mais que celle de la version précédente
+ * est en cache, la vue est maintenue à partir du delta structurel enregistré dans
+ * l'historique au lieu d'être recalculée.</p>
+ *
+ * <p>Chaque famille de vues a sa propre région LRU ; la capacité d'une famille se
+ * règle par la propriété système {@code jnane.view.cache.<famille>} (0 désactive
+ * le cache pour la famille).</p>
+ */
+public class ViewCache {
+    private static final Logger logger = LoggerFactory.getLogger(ViewCache.class);
+
+    public static final String CAPACITY_PROPERTY_PREFIX = "jnane.view.cache.";
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final ViewCache DEFAULT = new ViewCache(defaultCapacities(), DEFAULT_CAPACITY);
+
+    // Succès et échecs de toutes les instances, toutes familles confondues, dans le registre des mesures
+    private static final CacheMetrics METRICS =
+            MetricsRegistry.isEnabledByDefault() ? MetricsRegistry.getDefault().cache("views") : null;
+
+    /** Valeur stockée à la place d'une vue null */
+    private static final Object NULL_VIEW = new Object();
+
+    private final Map<String, Integer> capacities;
+    private final int defaultCapacity;
+    private final Map<String, Region> regions = new ConcurrentHashMap<>();
+
+    /**
+     * Crée un cache de vues.
+     *
+     * @param capacities Capacité par famille de vues
+     * @param defaultCapacity Capacité des familles non listées
+     */
+    public ViewCache(Map<String, Integer> capacities, int defaultCapacity) {
+        this.capacities = Collections.unmodifiableMap(new HashMap<>(capacities));
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    /**
+     * Crée un cache indépendant du cache partagé, avec les capacités par défaut.
+     *
+     * @return Nouveau cache de vues
+     */
+    public static ViewCache withDefaultCapacities() {
+        return new ViewCache(defaultCapacities(), DEFAULT_CAPACITY);
+    }
+
+    private static Map<String, Integer> defaultCapacities() {
+        Map<String, Integer> capacities = new HashMap<>();
+        capacities.put(Views.FIELD, Integer.getInteger(CAPACITY_PROPERTY_PREFIX + Views.FIELD, 4096));
+        capacities.put(Views.PROJECTION, Integer.getInteger(CAPACITY_PROPERTY_PREFIX + Views.PROJECTION, DEFAULT_CAPACITY));
+        capacities.put(Views.CONVERSION, Integer.getInteger(CAPACITY_PROPERTY_PREFIX + Views.CONVERSION, 256));
+        capacities.put(Views.TRANSFORMATION, Integer.getInteger(CAPACITY_PROPERTY_PREFIX + Views.TRANSFORMATION, 256));
+        return capacities;
+    }
+
+    /**
+     * Retourne le cache partagé par les interpréteurs.
+     *
+     * @return Cache par défaut
+     */
+    public static ViewCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Retourne la vue d'un état, depuis le cache si possible.
+     *
+     * @param store Registre d'historique qui fournit les versions et les deltas, ou null
+     * @param state État source
+     * @param view Vue demandée
+     * @return Valeur de la vue
+     */
+    public Object get(HistoryStore store, Object state, View view) {
+        Region region = region(view.getKind());
+        if (region.capacity <= 0) {
+            region.stats.misses.increment();
+            if (METRICS != null) {
+                METRICS.miss();
+            }
+            return view.compute(state);
+        }
+        HistoryStore.VersionRef ref = store != null ? store.lookup(state) : null;
+        Object key = ref != null
+                ? new VersionKey(store.getStoreId(), ref.getLineage().getId(), ref.getVersion(), view.getKey())
+                : new IdentityKey(state, view.getKey());
+        Object cached = region.get(key);
+        if (cached != null) {
+            region.stats.hits.increment();
+            if (METRICS != null) {
+                METRICS.hit();
+            }
+            return unmask(cached);
+        }
+        if (METRICS != null) {
+            METRICS.miss();
+        }
+
+        Object result = ref != null ? maintain(region, store, ref, state, view) : null;
+        if (result != null) {
+            region.stats.incremental.increment();
+        } else {
+            region.stats.misses.increment();
+            result = mask(view.compute(state));
+        }
+        region.put(key, result);
+        return unmask(result);
+    }
+
+    /**
+     * Dérive la vue d'une version de celle de la version précédente, si elle est en cache.
+     *
+     * @return Vue masquée, ou null si la maintenance incrémentale est impossible
+     */
+    private Object maintain(Region region, HistoryStore store, HistoryStore.VersionRef ref, Object state, View view) {
+        StateHistory lineage = ref.getLineage();
+        long version = ref.getVersion();
+        if (version <= lineage.getFirstVersion()) {
+            return null;
+        }
+        Object previous = region.get(new VersionKey(store.getStoreId(), lineage.getId(), version - 1, view.getKey()));
+        if (previous == null) {
+            return null;
+        }
+        HistoryEntry entry = lineage.getEntry(version);
+        if (entry == null) {
+            return null;
+        }
+        return mask(view.maintain(unmask(previous), state, entry.getDelta()));
+    }
+
+    /**
+     * Retourne les métriques d'une famille de vues.
+     *
+     * @param kind Famille de vues
+     * @return Métriques de la famille
+     */
+    public Stats getStats(String kind) {
+        return region(kind).stats;
+    }
+
+    /**
+     * Retourne les métriques de toutes les familles utilisées.
+     *
+     * @return Métriques par famille
+     */
+    public Map<String, Stats> getAllStats() {
+        Map<String, Stats> stats = new HashMap<>();
+        regions.forEach((kind, region) -> stats.put(kind, region.stats));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Retourne le nombre de vues en cache pour une famille.
+     *
+     * @param kind Famille de vues
+     * @return Nombre d'entrées
+     */
+    public int size(String kind) {
+        return region(kind).size();
+    }
+
+    /**
+     * Vide le cache sans remettre les métriques à zéro.
+     */
+    public void clear() {
+        regions.values().forEach(Region::clear);
+    }
+
+    private Region region(String kind) {
+        return regions.computeIfAbsent(kind, k -> {
+            int capacity = capacities.getOrDefault(k, defaultCapacity);
+            logger.debug("Région de cache de vues '{}' (capacité {})", k, capacity);
+            return new Region(capacity);
+        });
+    }
+
+    private static Object mask(Object view) {
+        return view == null ? NULL_VIEW : view;
+    }
+
+    private static Object unmask(Object view) {
+        return view == NULL_VIEW ? null : view;
+    }
+
+    /**
+     * Métriques d'une famille de vues.
+     */
+    public static final class Stats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder incremental = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        /** @return Vues servies depuis le cache */
+        public long getHits() {
+            return hits.sum();
+        }
+
+        /** @return Vues entièrement recalculées */
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        /** @return Vues maintenues à partir d'un delta */
+        public long getIncrementalUpdates() {
+            return incremental.sum();
+        }
+
+        /** @return Vues évincées par la politique LRU */
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{succès=" + getHits() + ", échecs=" + getMisses()
+                    + ", incrémentales=" + getIncrementalUpdates() + ", évictions=" + getEvictions() + "}";
+        }
+    }
+
+    /**
+     * Région LRU d'une famille de vues.
+     */
+    private static final class Region {
+        private final int capacity;
+        private final Stats stats = new Stats();
+        private final LinkedHashMap<Object, Object> entries;
+
+        Region(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                    if (size() > Region.this.capacity) {
+                        stats.evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Object get(Object key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Object key, Object value) {
+            entries.put(key, value);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Clé d'une vue d'un état versionné. Les identifiants de lignée étant propres à chaque
+     * registre, la clé porte aussi celui du registre.
+     */
+    private static final class VersionKey {
+        private final long storeId;
+        private final long lineageId;
+        private final long version;
+        private final String viewKey;
+
+        VersionKey(long storeId, long lineageId, long version, String viewKey) {
+            this.storeId = storeId;
+            this.lineageId = lineageId;
+            this.version = version;
+            this.viewKey = viewKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof VersionKey)) {
+                return false;
+            }
+            VersionKey other = (VersionKey) o;
+            return storeId == other.storeId && lineageId == other.lineageId && version == other.version
+                    && viewKey.equals(other.viewKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(storeId, lineageId, version, viewKey);
+        }
+    }
+
+    /**
+     * Clé d'une vue d'un état sans historique. L'état est référencé faiblement : une
+     * entrée dont l'état a été collecté n'est plus atteignable et sort du cache par éviction.
+     */
+    private static final class IdentityKey {
+        private final WeakReference<Object> state;
+        private final int hash;
+        private final String viewKey;
+
+        IdentityKey(Object state, String viewKey) {
+            this.state = new WeakReference<>(state);
+            this.hash = System.identityHashCode(state) * 31 + viewKey.hashCode();
+            this.viewKey = viewKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof IdentityKey)) {
+                return false;
+            }
+            IdentityKey other = (IdentityKey) o;
+            Object referent = state.get();
+            return referent != null && referent == other.state.get() && viewKey.equals(other.viewKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.jnane.runtime.view;
+
+import com.jnane.runtime.history.StateDelta;
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Fabrique des vues prédéfinies : champ nommé (ns:vue), projection sur une liste de
+ * champs (ns:projeter_vue), conversion de représentation (ns:convertir_vue) et champ
+ * transformé (ns:vue_transformee).
+ */
+public final class Views {
+    private static final Logger logger = LoggerFactory.getLogger(Views.class);
+
+    public static final String FIELD = "vue";
+    public static final String PROJECTION = "projection";
+    public static final String CONVERSION = "conversion";
+    public static final String TRANSFORMATION = "transformation";
+
+    private static final List<String> TRANSFORMATION_OPTIONS = List.of("criteres", "tri", "limite", "projection");
+
+    private Views() {
+    }
+
+    /**
+     * Crée la vue d'un champ : les vues d'une fonction Jnane sont exposées comme
+     * champs de l'état qu'elle produit.
+     *
+     * @param name Nom de la vue
+     * @return Vue du champ
+     */
+    public static View field(String name) {
+        return new FieldView(name);
+    }
+
+    /**
+     * Crée la projection d'un état sur une liste de champs.
+     *
+     * @param fields Champs conservés
+     * @return Vue de projection
+     */
+    public static View projection(List<String> fields) {
+        return new ProjectionView(fields);
+    }
+
+    /**
+     * Crée la conversion d'un état vers une autre représentation : "liste" (valeurs),
+     * "cles", "entrees" ({cle, valeur}), ordonnées par clé, ou "texte".
+     *
+     * @param format Représentation cible
+     * @return Vue de conversion
+     */
+    public static View conversion(String format) {
+        switch (format) {
+            case "liste":
+            case "cles":
+            case "entrees":
+            case "texte":
+                return new ConversionView(format);
+            default:
+                String errorMsg = "Format de conversion de vue inconnu: " + format;
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+        }
+    }
+
+    /**
+     * Crée la vue transformée d'un champ. Les options s'appliquent dans l'ordre suivant :
+     * "criteres" ({champ: valeur}) garde les éléments dont les champs sont égaux,
+     * "tri" ordonne par un champ, "limite" garde les premiers éléments et "projection"
+     * réduit chaque élément (ou l'enregistrement lui-même) à une liste de champs. Seule
+     * "projection" s'applique à un champ qui n'est pas une liste.
+     *
+     * @param name Nom du champ
+     * @param options Options de transformation
+     * @return Vue transformée
+     */
+    public static View transformed(String name, Map<?, ?> options) {
+        for (Object option : options.keySet()) {
+            if (!TRANSFORMATION_OPTIONS.contains(option)) {
+                String errorMsg = "Option de vue transformée inconnue: " + option
+                        + " (attendu: " + TRANSFORMATION_OPTIONS + ")";
+                logger.error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+        }
+        Map<?, ?> criteria = option(options, "criteres", Map.class);
+        String sortField = option(options, "tri", String.class);
+        Number limit = option(options, "limite", Number.class);
+        List<?> fields = option(options, "projection", List.class);
+        List<String> projection = null;
+        if (fields != null) {
+            projection = new ArrayList<>();
+            for (Object field : fields) {
+                projection.add(String.valueOf(field));
+            }
+        }
+        return new TransformedView(name, criteria, sortField, limit != null ? limit.intValue() : -1, projection);
+    }
+
+    private static <T> T option(Map<?, ?> options, String name, Class<T> type) {
+        Object value = options.get(name);
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        String errorMsg = "Option de vue transformée '" + name + "': " + type.getSimpleName()
+                + " attendu, trouvé " + value;
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
+    /**
+     * Ordre naturel des valeurs Jnane : null en premier, nombres par valeur, puis
+     * chaînes, booléens et autres valeurs comparables de même classe.
+     *
+     * @param left Première valeur
+     * @param right Seconde valeur
+     * @return Résultat de comparaison
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compareValues(Object left, Object right) {
+        if (left == right) {
+            return 0;
+        }
+        if (left == null || right == null) {
+            return left == null ? -1 : 1;
+        }
+        if (left instanceof Number && right instanceof Number) {
+            if (isIntegral(left) && isIntegral(right)) {
+                return Long.compare(((Number) left).longValue(), ((Number) right).longValue());
+            }
+            return Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+        }
+        if (left instanceof Comparable && left.getClass() == right.getClass()) {
+            return ((Comparable) left).compareTo(right);
+        }
+        String errorMsg = "Valeurs non comparables: " + left + " et " + right;
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
+    /**
+     * Compare les opérandes d'un opérateur relationnel ({@code <}, {@code >}, {@code <=},
+     * {@code >=}). Contrairement à l'ordre de tri de {@link #compareValues}, null n'a pas
+     * de rang : {@code null < 5} est une erreur et non une comparaison vraie.
+     *
+     * @param left Opérande gauche
+     * @param right Opérande droit
+     * @return Résultat de comparaison
+     * @throws IllegalArgumentException si un opérande est null ou si les valeurs ne sont pas comparables
+     */
+    public static int compareOperands(Object left, Object right) {
+        if (left == null || right == null) {
+            String errorMsg = "Comparaison d'ordre avec null: " + left + " et " + right;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+        return compareValues(left, right);
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static Map<?, ?> requireMap(Object state, View view) {
+        if (state instanceof Map) {
+            return (Map<?, ?>) state;
+        }
+        String errorMsg = "Vue " + view + " impossible sur: " + state;
+        logger.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+    }
+
+    /**
+     * Vue d'un champ. Inchangée tant que le delta ne touche pas le champ.
+     */
+    private static final class FieldView implements View {
+        private final String name;
+
+        FieldView(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getKind() {
+            return FIELD;
+        }
+
+        @Override
+        public String getKey() {
+            return name;
+        }
+
+        @Override
+        public Object compute(Object state) {
+            if (state instanceof Map && ((Map<?, ?>) state).containsKey(name)) {
+                return ((Map<?, ?>) state).get(name);
+            }
+            String errorMsg = "Vue '" + name + "' absente de l'état: " + state;
+            logger.error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        @Override
+        public Object maintain(Object previousView, Object state, StateDelta delta) {
+            if (delta.replacesRoot() || delta.getTouchedKeys().contains(name)) {
+                return compute(state);
+            }
+            return previousView;
+        }
+
+        @Override
+        public String toString() {
+            return "vue(" + name + ")";
+        }
+    }
+
+    /**
+     * Projection sur une liste de champs. Seuls les champs projetés touchés par le delta
+     * sont recopiés dans la projection précédente.
+     */
+    private static final class ProjectionView implements View {
+        private final List<String> fields;
+        private final String key;
+
+        ProjectionView(List<String> fields) {
+            this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+            this.key = String.join(",", fields);
+        }
+
+        @Override
+        public String getKind() {
+            return PROJECTION;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object compute(Object state) {
+            Map<?, ?> map = requireMap(state, this);
+            PersistentMap.Transient<Object, Object> projection = PersistentMap.empty().asTransient();
+            for (String field : fields) {
+                if (map.containsKey(field)) {
+                    projection.put(field, map.get(field));
+                }
+            }
+            return projection.persistent();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object maintain(Object previousView, Object state, StateDelta delta) {
+            if (delta.replacesRoot() || !(previousView instanceof PersistentMap)) {
+                return compute(state);
+            }
+            Map<?, ?> map = requireMap(state, this);
+            PersistentMap<Object, Object> projection = (PersistentMap<Object, Object>) previousView;
+            for (Object touched : delta.getTouchedKeys()) {
+                if (!fields.contains(touched)) {
+                    continue;
+                }
+                projection = map.containsKey(touched)
+                        ? projection.assoc(touched, map.get(touched))
+                        : projection.dissoc(touched);
+            }
+            return projection;
+        }
+
+        @Override
+        public String toString() {
+            return "projection" + fields;
+        }
+    }
+
+    /**
+     * Conversion de représentation, dans l'ordre croissant des clés. L'ordre dépend de
+     * l'ensemble des clés : la conversion est recalculée à chaque version.
+     */
+    private static final class ConversionView implements View {
+        private final String format;
+
+        ConversionView(String format) {
+            this.format = format;
+        }
+
+        @Override
+        public String getKind() {
+            return CONVERSION;
+        }
+
+        @Override
+        public String getKey() {
+            return format;
+        }
+
+        @Override
+        public Object compute(Object state) {
+            if (format.equals("texte")) {
+                return String.valueOf(state);
+            }
+            Map<?, ?> map = requireMap(state, this);
+            List<Map.Entry<?, ?>> entries = new ArrayList<>(map.entrySet());
+            if (comparableKeys(map)) {
+                // Entrées triées par clé : la conversion peut alimenter ns:fusionner_vues
+                entries.sort((a, b) -> compareValues(a.getKey(), b.getKey()));
+            }
+            PersistentVector.Transient<Object> result = PersistentVector.empty().asTransient();
+            for (Map.Entry<?, ?> entry : entries) {
+                switch (format) {
+                    case "liste":
+                        result.conj(entry.getValue());
+                        break;
+                    case "cles":
+                        result.conj(entry.getKey());
+                        break;
+                    default:
+                        result.conj(PersistentMap.empty()
+                                .assoc("cle", entry.getKey())
+                                .assoc("valeur", entry.getValue()));
+                        break;
+                }
+            }
+            return result.persistent();
+        }
+
+        private static boolean comparableKeys(Map<?, ?> map) {
+            boolean strings = true;
+            boolean numbers = true;
+            for (Object key : map.keySet()) {
+                strings &= key instanceof String;
+                numbers &= key instanceof Number;
+            }
+            return strings || numbers;
+        }
+
+        @Override
+        public String toString() {
+            return "conversion(" + format + ")";
+        }
+    }
+
+    /**
+     * Champ transformé par des critères, un tri, une limite et une projection. Comme la
+     * vue de champ, elle est inchangée tant que le delta ne touche pas le champ.
+     */
+    private static final class TransformedView implements View {
+        private final FieldView field;
+        private final Map<?, ?> criteria;
+        private final String sortField;
+        private final int limit;
+        private final ProjectionView projection;
+        private final String key;
+
+        TransformedView(String name, Map<?, ?> criteria, String sortField, int limit, List<String> projection) {
+            this.field = new FieldView(name);
+            this.criteria = criteria;
+            this.sortField = sortField;
+            this.limit = limit;
+            this.projection = projection != null ? new ProjectionView(projection) : null;
+            this.key = name + "|" + criteria + "|" + sortField + "|" + limit + "|" + projection;
+        }
+
+        @Override
+        public String getKind() {
+            return TRANSFORMATION;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object compute(Object state) {
+            Object value = field.compute(state);
+            if (!(value instanceof List)) {
+                if (criteria != null || sortField != null || limit >= 0) {
+                    String errorMsg = "Vue " + this + ": liste attendue pour les critères, le tri ou la limite, trouvé "
+                            + value;
+                    logger.error(errorMsg);
+                    throw new IllegalArgumentException(errorMsg);
+                }
+                return projection != null ? projection.compute(value) : value;
+            }
+            List<Object> elements = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                if (criteria == null || matches(element)) {
+                    elements.add(element);
+                }
+            }
+            if (sortField != null) {
+                elements.sort((a, b) -> compareValues(requireMap(a, this).get(sortField),
+                        requireMap(b, this).get(sortField)));
+            }
+            int size = limit >= 0 ? Math.min(limit, elements.size()) : elements.size();
+            PersistentVector.Transient<Object> result = PersistentVector.empty().asTransient();
+            for (int i = 0; i < size; i++) {
+                result.conj(projection != null ? projection.compute(elements.get(i)) : elements.get(i));
+            }
+            return result.persistent();
+        }
+
+        private boolean matches(Object element) {
+            Map<?, ?> record = requireMap(element, this);
+            for (Map.Entry<?, ?> criterion : criteria.entrySet()) {
+                if (!Objects.equals(record.get(criterion.getKey()), criterion.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Object maintain(Object previousView, Object state, StateDelta delta) {
+            if (delta.replacesRoot() || delta.getTouchedKeys().contains(field.name)) {
+                return compute(state);
+            }
+            return previousView;
+        }
+
+        @Override
+        public String toString() {
+            return "transformation(" + key + ")";
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.jnane.test;
+
+import com.jnane.runtime.history.HistoryEntry;
+import com.jnane.runtime.history.HistoryPolicy;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.history.StateDelta;
+import com.jnane.runtime.history.StateHistory;
+import com.jnane.runtime.value.PersistentMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Mesures de l'historique sur une lignée de 10^6 transformations.
+ * Exclues de {@code mvn test} ; lancer avec {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+public class HistoryBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryBenchmarkTest.class);
+
+    private static final int STEPS = 1_000_000;
+    private static final int FIELDS = 32;
+    private static final int LOOKUPS = 10_000;
+    private static final int REPLAYS = 20;
+
+    private StateHistory lignee;
+    private long premierInstant;
+    private long dernierInstant;
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "HistoryBenchmarkTest");
+        logger.info("Démarrage du test HistoryBenchmarkTest");
+
+        long[] horloge = {1_000_000};
+        premierInstant = horloge[0];
+        HistoryStore store = new HistoryStore(HistoryPolicy.unlimited(64), () -> horloge[0]);
+        PersistentMap<String, Object> etat = PersistentMap.empty();
+        for (int f = 0; f < FIELDS; f++) {
+            etat = etat.assoc("champ" + f, 0);
+        }
+        lignee = store.track(etat).getLineage();
+
+        Random random = new Random(42);
+        long debut = System.nanoTime();
+        for (int i = 1; i <= STEPS; i++) {
+            // Horodatages denses : dix versions par milliseconde
+            if (i % 10 == 0) {
+                horloge[0]++;
+            }
+            String champ = "champ" + random.nextInt(FIELDS);
+            etat = etat.assoc(champ, i);
+            lignee.append(etat, StateDelta.ofPath(Collections.singletonList(champ), i), "incrément");
+        }
+        dernierInstant = horloge[0];
+        long duree = System.nanoTime() - debut;
+        logger.info("Construction: {} versions en {} ms ({} ns/ajout)", STEPS, duree / 1_000_000, duree / STEPS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Compare la recherche indexée au rejeu linéaire du journal depuis l'origine.
+     */
+    @Test
+    public void benchmarkVersionLookup() {
+        Random random = new Random(7);
+        long debut = System.nanoTime();
+        long controle = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            controle += ((Map<?, ?>) lignee.stateAt(random.nextInt(STEPS))).size();
+        }
+        long indexe = (System.nanoTime() - debut) / LOOKUPS;
+
+        debut = System.nanoTime();
+        for (int i = 0; i < REPLAYS; i++) {
+            controle += ((Map<?, ?>) replay(STEPS / 2 + random.nextInt(STEPS / 2))).size();
+        }
+        long lineaire = (System.nanoTime() - debut) / REPLAYS;
+
+        logger.info("ns:etat_historique: {} ns/recherche indexée, {} ns/rejeu linéaire (contrôle {})",
+                indexe, lineaire, controle);
+        Assertions.assertTrue(indexe * 100 < lineaire, "La recherche indexée doit rester logarithmique");
+    }
+
+    /**
+     * Mesure la reconstruction par horodatage (ns:reconstruire_etat).
+     */
+    @Test
+    public void benchmarkTimestampLookup() {
+        Random random = new Random(11);
+        long etendue = dernierInstant - premierInstant;
+        long debut = System.nanoTime();
+        long controle = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            long instant = premierInstant + (long) (random.nextDouble() * etendue);
+            controle += ((Map<?, ?>) lignee.stateAtTime(instant)).size();
+        }
+        long duree = (System.nanoTime() - debut) / LOOKUPS;
+        logger.info("ns:reconstruire_etat: {} ns/recherche (contrôle {})", duree, controle);
+        Assertions.assertEquals(STEPS, lignee.versionAt(dernierInstant));
+    }
+
+    /**
+     * Reconstruction naïve : application de tous les deltas depuis la première version.
+     */
+    private Object replay(long version) {
+        Object state = lignee.stateAt(0);
+        for (HistoryEntry entry : lignee.entriesUpTo(version)) {
+            state = entry.getDelta().applyTo(state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,99 @@
+package com.jnane.test;
+
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import com.jnane.runtime.view.LazyView;
+import com.jnane.runtime.view.Views;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mesures d'un pipeline de vues à cinq étapes sur 10^6 éléments.
+ * Exclues de {@code mvn test} ; lancer avec {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+public class LazyViewBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(LazyViewBenchmarkTest.class);
+
+    private static final int ELEMENTS = 1_000_000;
+    private static final int SAMPLES = 8;
+
+    private PersistentVector<Object> source;
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "LazyViewBenchmarkTest");
+        logger.info("Démarrage du test LazyViewBenchmarkTest");
+        PersistentVector.Transient<Object> builder = PersistentVector.empty().asTransient();
+        for (int i = 0; i < ELEMENTS; i++) {
+            builder.conj(i);
+        }
+        source = builder.persistent();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    private LazyView pipeline() {
+        return LazyView.of(source)
+                .filter(x -> (Integer) x % 2 == 0, true)
+                .map(x -> PersistentMap.empty().assoc("valeur", x).assoc("carre", (long) (Integer) x * (Integer) x), true)
+                .filter(m -> (Long) ((Map<?, ?>) m).get("carre") % 3 != 0, true)
+                .map(Views.projection(List.of("valeur"))::compute, true)
+                .map(m -> ((Map<?, ?>) m).get("valeur"), true);
+    }
+
+    /**
+     * Vérifie que le parcours d'un pipeline ne retient aucune collection intermédiaire.
+     */
+    @Test
+    public void benchmarkConstantMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        long base = usedAfterGc(runtime);
+        long pic = 0;
+        long somme = 0;
+        int compte = 0;
+        long debut = System.nanoTime();
+        Iterator<Object> it = pipeline().iterator();
+        while (it.hasNext()) {
+            somme += (Integer) it.next();
+            if (++compte % (ELEMENTS / 3 / SAMPLES) == 0) {
+                pic = Math.max(pic, usedAfterGc(runtime) - base);
+            }
+        }
+        long duree = System.nanoTime() - debut;
+        logger.info("Pipeline paresseux: {} éléments en {} ms, pic retenu {} Ko (contrôle {})",
+                compte, duree / 1_000_000, pic / 1024, somme);
+        Assertions.assertTrue(pic < 8L * 1024 * 1024, "Mémoire retenue: " + pic);
+
+        debut = System.nanoTime();
+        long parallele = pipeline().stream().mapToLong(x -> (Integer) x).sum();
+        logger.info("Pipeline parallèle: {} ms", (System.nanoTime() - debut) / 1_000_000);
+        Assertions.assertEquals(somme, parallele);
+
+        debut = System.nanoTime();
+        Object intermediaire = source;
+        intermediaire = LazyView.of((List<?>) intermediaire).filter(x -> (Integer) x % 2 == 0, true).materialize();
+        long retenu = usedAfterGc(runtime) - base;
+        logger.info("Étape matérialisée: {} ms, {} Ko retenus par une seule collection intermédiaire",
+                (System.nanoTime() - debut) / 1_000_000, retenu / 1024);
+        Assertions.assertEquals(ELEMENTS / 2, ((List<?>) intermediaire).size());
+    }
+
+    private static long usedAfterGc(Runtime runtime) {
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
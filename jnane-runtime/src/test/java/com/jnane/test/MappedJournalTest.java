@@ -0,0 +1,197 @@
+package com.jnane.test;
+
+import com.jnane.runtime.history.HistoryPolicy;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.history.MappedJournalBackend;
+import com.jnane.runtime.history.StateHistory;
+import com.jnane.runtime.value.PersistentMap;
+import com.jnane.runtime.value.PersistentVector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests du journal durable projeté en mémoire (relecture, reprise après arrêt brutal, compaction).
+ */
+public class MappedJournalTest {
+    private static final Logger logger = LoggerFactory.getLogger(MappedJournalTest.class);
+
+    @TempDir
+    Path repertoire;
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "MappedJournalTest");
+        logger.info("Démarrage du test MappedJournalTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    private HistoryStore ouvrir(HistoryPolicy politique, int tailleSegment) throws IOException {
+        return new HistoryStore(politique, System::currentTimeMillis,
+                new MappedJournalBackend(repertoire, tailleSegment, MappedJournalBackend.FsyncMode.ALWAYS));
+    }
+
+    private List<Object> remplir(HistoryStore store, int etapes) {
+        PersistentMap<String, Object> etat = PersistentMap.<String, Object>empty()
+                .assoc("nom", "Alice")
+                .assoc("solde", 10.5)
+                .assoc("tags", PersistentVector.of("a", "b"))
+                .assoc("adresse", PersistentMap.<String, Object>empty().assoc("ville", "Lyon"));
+        List<Object> versions = new ArrayList<>();
+        versions.add(etat);
+        for (int i = 1; i <= etapes; i++) {
+            PersistentMap<String, Object> suivant = etat.assoc("compteur", i);
+            if (i % 7 == 0) {
+                suivant = suivant.assoc("adresse", PersistentMap.<String, Object>empty().assoc("ville", "Ville " + i));
+            }
+            if (i % 11 == 0) {
+                suivant = suivant.dissoc("solde");
+            }
+            store.recordTransition(etat, suivant, null, "étape " + i);
+            versions.add(suivant);
+            etat = suivant;
+        }
+        return versions;
+    }
+
+    /**
+     * Vérifie qu'une lignée est restaurée à l'identique après réouverture.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        List<Object> versions;
+        try (HistoryStore store = ouvrir(HistoryPolicy.unlimited(16), 4096)) {
+            versions = remplir(store, 200);
+        }
+
+        try (HistoryStore store = ouvrir(HistoryPolicy.unlimited(16), 4096)) {
+            Assertions.assertEquals(1, store.getRestoredLineages().size());
+            StateHistory lignee = store.getRestoredLineages().iterator().next();
+            Assertions.assertEquals(200, lignee.getCurrentVersion());
+            Assertions.assertEquals(versions.get(200), lignee.getCurrentState());
+            Assertions.assertEquals(versions.get(57), lignee.stateAt(57));
+            Assertions.assertEquals(versions.get(0), lignee.stateAt(0));
+
+            // La lignée restaurée se prolonge et les nouveaux identifiants ne la recouvrent pas
+            Object suite = ((PersistentMap<?, ?>) lignee.getCurrentState()).dissoc("nom");
+            HistoryStore.VersionRef ref = store.recordTransition(lignee.getCurrentState(), suite, null, "suite");
+            Assertions.assertSame(lignee, ref.getLineage());
+            Assertions.assertEquals(201, ref.getVersion());
+            Assertions.assertNotEquals(lignee.getId(), store.track(PersistentMap.empty().assoc("x", 1)).getLineage().getId());
+        }
+    }
+
+    /**
+     * Vérifie la reprise quand le dernier enregistrement a été interrompu en cours d'écriture.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTornTailRecovery() throws IOException {
+        List<Object> versions;
+        try (HistoryStore store = ouvrir(HistoryPolicy.unlimited(16), 1 << 20)) {
+            versions = remplir(store, 50);
+        }
+
+        // Simule un enregistrement partiellement écrit après la fin valide
+        Path segment = segments().get(0);
+        try (FileChannel canal = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer contenu = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+            int position = 0;
+            while (contenu.getInt(position) != 0) {
+                position += 8 + contenu.getInt(position);
+            }
+            contenu.putInt(position, 64);
+            contenu.putInt(position + 4, 0xCAFE);
+            contenu.put(position + 8, (byte) 42);
+        }
+
+        try (HistoryStore store = ouvrir(HistoryPolicy.unlimited(16), 1 << 20)) {
+            StateHistory lignee = store.getRestoredLineages().iterator().next();
+            Assertions.assertEquals(50, lignee.getCurrentVersion());
+            Assertions.assertEquals(versions.get(50), lignee.getCurrentState());
+            Object suite = ((PersistentMap<Object, Object>) lignee.getCurrentState()).assoc("fin", true);
+            store.recordTransition(lignee.getCurrentState(), suite, null, "après reprise");
+        }
+        try (HistoryStore store = ouvrir(HistoryPolicy.unlimited(16), 1 << 20)) {
+            StateHistory lignee = store.getRestoredLineages().iterator().next();
+            Assertions.assertEquals(51, lignee.getCurrentVersion());
+            Assertions.assertEquals(Boolean.TRUE, ((PersistentMap<?, ?>) lignee.getCurrentState()).get("fin"));
+        }
+    }
+
+    /**
+     * Vérifie que la compaction borne le nombre de segments quand la rétention écarte les anciennes versions.
+     */
+    @Test
+    public void testCompaction() throws IOException {
+        List<Object> versions;
+        HistoryPolicy politique = new HistoryPolicy(4, 8);
+        try (HistoryStore store = ouvrir(politique, 2048)) {
+            versions = remplir(store, 3000);
+        }
+        List<Path> restants = segments();
+        logger.info("Segments après compaction: {}", restants);
+        Assertions.assertTrue(restants.size() < 10, "segments: " + restants);
+        Assertions.assertFalse(restants.get(0).getFileName().toString().endsWith("000000000000.seg"),
+                "le premier segment aurait dû être compacté");
+
+        try (HistoryStore store = ouvrir(politique, 2048)) {
+            StateHistory lignee = store.getRestoredLineages().iterator().next();
+            Assertions.assertEquals(3000, lignee.getCurrentVersion());
+            Assertions.assertEquals(versions.get(3000), lignee.getCurrentState());
+            Assertions.assertEquals(versions.get(2995), lignee.stateAt(2995));
+        }
+    }
+
+    /**
+     * Vérifie qu'une valeur que le journal ne sait pas relire fait échouer la transition
+     * au lieu d'être restaurée sous un autre type.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUnsupportedValueRejected() throws IOException {
+        List<Object> versions;
+        try (HistoryStore store = ouvrir(HistoryPolicy.unlimited(16), 4096)) {
+            versions = remplir(store, 3);
+            Object dernier = versions.get(3);
+            Object invalide = ((PersistentMap<?, ?>) dernier).dissoc("nom");
+            invalide = ((PersistentMap<Object, Object>) invalide).assoc("horloge", new StringBuilder("12:00"));
+            Object rejete = invalide;
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> store.recordTransition(dernier, rejete, null, "valeur opaque"));
+            Assertions.assertEquals(3, store.lookup(dernier).getLineage().getCurrentVersion());
+        }
+
+        try (HistoryStore store = ouvrir(HistoryPolicy.unlimited(16), 4096)) {
+            StateHistory lignee = store.getRestoredLineages().iterator().next();
+            Assertions.assertEquals(3, lignee.getCurrentVersion());
+            Assertions.assertEquals(versions.get(3), lignee.getCurrentState());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> fichiers = Files.list(repertoire)) {
+            return fichiers.filter(p -> p.getFileName().toString().endsWith(".seg")).sorted().collect(Collectors.toList());
+        }
+    }
+}
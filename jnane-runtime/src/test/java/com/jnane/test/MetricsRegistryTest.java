@@ -0,0 +1,122 @@
+package com.jnane.test;
+
+import com.jnane.runtime.metrics.FunctionMetrics;
+import com.jnane.runtime.metrics.LatencyHistogram;
+import com.jnane.runtime.metrics.MetricsRegistry;
+import com.jnane.runtime.metrics.MetricsSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests du registre des mesures : précision de l'histogramme, enregistrement concurrent,
+ * copie des mesures et publication JMX.
+ */
+public class MetricsRegistryTest {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistryTest.class);
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "MetricsRegistryTest");
+        logger.info("Démarrage du test MetricsRegistryTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Vérifie que les quantiles sont restitués à 6,25 % près, bornés par le maximum.
+     */
+    @Test
+    public void testHistogramQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(100_000, snapshot.getCount());
+        Assertions.assertEquals(100_000_000L, snapshot.getMax());
+        Assertions.assertEquals(50_000_500.0, snapshot.getMean(), 1e-6);
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            double expected = quantile * 100_000_000L;
+            long actual = snapshot.getValueAtQuantile(quantile);
+            Assertions.assertTrue(actual >= expected && actual <= expected * 1.0625,
+                    "quantile " + quantile + ": " + actual);
+        }
+        Assertions.assertEquals(100_000_000L, snapshot.getValueAtQuantile(1.0));
+        Assertions.assertEquals(0, new LatencyHistogram().snapshot().getValueAtQuantile(0.5));
+    }
+
+    /**
+     * Vérifie qu'aucun enregistrement n'est perdu entre fils concurrents et que la copie
+     * est indépendante des enregistrements ultérieurs.
+     */
+    @Test
+    public void testConcurrentRecordingAndSnapshot() throws InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                FunctionMetrics metrics = registry.function("app:calcul");
+                for (int i = 0; i < 50_000; i++) {
+                    metrics.recordCall(i);
+                    if (i % 10 == 0) {
+                        metrics.recordError();
+                    }
+                }
+                registry.cache("vues").hit();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        registry.cache("vues").miss();
+        registry.timer("parse").recordSince(System.nanoTime());
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        MetricsSnapshot.Function calcul = snapshot.getFunctions().get("app:calcul");
+        Assertions.assertEquals(200_000, calcul.getInvocations());
+        Assertions.assertEquals(20_000, calcul.getErrors());
+        Assertions.assertEquals(4, snapshot.getCaches().get("vues").getHits());
+        Assertions.assertEquals(1, snapshot.getCaches().get("vues").getMisses());
+        Assertions.assertEquals(1, snapshot.getTimers().get("parse").getCount());
+
+        registry.function("app:calcul").recordValidationFailure();
+        Assertions.assertEquals(0, calcul.getValidationFailures());
+        Assertions.assertEquals(1, registry.snapshot().getFunctions().get("app:calcul").getValidationFailures());
+    }
+
+    /**
+     * Vérifie que les mesures existantes et créées après la publication sont visibles en JMX.
+     */
+    @Test
+    public void testMBeans() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.function("math:add").recordCall(1500);
+        // Serveur non référencé par MBeanServerFactory, distinct de celui de la plateforme
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        registry.registerMBeans(server);
+        registry.cache("validators").hit();
+
+        ObjectName add = MetricsRegistry.objectName("Function", "math:add");
+        Assertions.assertEquals(1L, server.getAttribute(add, "Invocations"));
+        Assertions.assertEquals(1500L, server.getAttribute(add, "MaxNanos"));
+        registry.function("math:add").recordCall(10);
+        Assertions.assertEquals(2L, server.getAttribute(add, "Invocations"));
+        Assertions.assertEquals(1.0, server.getAttribute(MetricsRegistry.objectName("Cache", "validators"), "HitRatio"));
+    }
+}
@@ -0,0 +1,125 @@
+package com.jnane.test;
+
+import com.jnane.runtime.history.HistoryEntry;
+import com.jnane.runtime.history.HistoryPolicy;
+import com.jnane.runtime.history.HistoryStore;
+import com.jnane.runtime.history.StateDelta;
+import com.jnane.runtime.history.StateHistory;
+import com.jnane.runtime.history.TemporalIndex;
+import com.jnane.runtime.value.PersistentMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Mesures des requêtes temporelles (ns:vue_temporelle, ns:vue_historique) sur une lignée
+ * de 10^6 versions, avec des horodatages denses puis clairsemés.
+ * Exclues de {@code mvn test} ; lancer avec {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+public class TemporalIndexBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(TemporalIndexBenchmarkTest.class);
+
+    private static final int STEPS = 1_000_000;
+    private static final int QUERIES = 10_000;
+    private static final int SCANS = 20;
+
+    @BeforeEach
+    public void setUp() {
+        MDC.put("testname", "TemporalIndexBenchmarkTest");
+        logger.info("Démarrage du test TemporalIndexBenchmarkTest");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MDC.remove("testname");
+    }
+
+    /**
+     * Horodatages denses : dix versions par milliseconde.
+     */
+    @Test
+    public void benchmarkDenseTimestamps() {
+        long[] compteur = {0};
+        measure("denses", previous -> ++compteur[0] % 10 == 0 ? previous + 1 : previous);
+    }
+
+    /**
+     * Horodatages clairsemés : écarts aléatoires de 0 à 10 s, avec rafales.
+     */
+    @Test
+    public void benchmarkSparseTimestamps() {
+        Random random = new Random(13);
+        measure("clairsemés", previous -> previous + (random.nextInt(4) == 0 ? 0 : random.nextInt(10_000)));
+    }
+
+    private void measure(String distribution, LongUnaryOperator nextTimestamp) {
+        long[] horloge = {1_000_000};
+        HistoryStore store = new HistoryStore(HistoryPolicy.unlimited(64), () -> horloge[0]);
+        PersistentMap<String, Object> etat = PersistentMap.<String, Object>empty().assoc("compteur", 0);
+        StateHistory lignee = store.track(etat).getLineage();
+        long premier = horloge[0];
+        for (int i = 1; i <= STEPS; i++) {
+            horloge[0] = nextTimestamp.applyAsLong(horloge[0]);
+            etat = etat.assoc("compteur", i);
+            lignee.append(etat, StateDelta.ofPath(Collections.singletonList("compteur"), i), "incrément");
+        }
+        long etendue = horloge[0] - premier;
+        // Période couvrant en moyenne une centaine de versions
+        long largeur = Math.max(1, etendue / (STEPS / 100));
+
+        Random random = new Random(17);
+        long controle = 0;
+        long debut = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            controle += lignee.versionAt(premier + (long) (random.nextDouble() * etendue));
+        }
+        long ponctuelle = (System.nanoTime() - debut) / QUERIES;
+
+        long versions = 0;
+        debut = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            long de = premier + (long) (random.nextDouble() * etendue);
+            List<TemporalIndex.Interval> periode = lignee.validBetween(de, de + largeur);
+            versions += periode.size();
+        }
+        long indexee = (System.nanoTime() - debut) / QUERIES;
+
+        List<HistoryEntry> entrees = lignee.entriesUpTo(lignee.getCurrentVersion());
+        debut = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            long de = premier + (long) (random.nextDouble() * etendue);
+            controle += linearScan(entrees, de, de + largeur);
+        }
+        long lineaire = (System.nanoTime() - debut) / SCANS;
+
+        logger.info("Horodatages {}: {} ns/recherche ponctuelle, {} ns/période indexée ({} versions en moyenne), "
+                        + "{} ns/parcours linéaire (contrôle {})",
+                distribution, ponctuelle, indexee, versions / QUERIES, lineaire, controle);
+        Assertions.assertTrue(indexee * 20 < lineaire, "La requête par période doit rester en O(log n + k)");
+    }
+
+    /**
+     * Sélection naïve : parcours de tout le journal.
+     */
+    private static int linearScan(List<HistoryEntry> entrees, long de, long a) {
+        int count = 0;
+        for (int i = 0; i < entrees.size(); i++) {
+            long fin = i + 1 < entrees.size() ? entrees.get(i + 1).getTimestamp() : Long.MAX_VALUE;
+            if (entrees.get(i).getTimestamp() <= a && fin > de) {
+                count++;
+            }
+        }
+        return count;
+    }
+}